@@ -68,6 +68,7 @@
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.data.meta.TestDataColumnMetaData;
 
@@ -210,6 +211,57 @@ public void testBoundsInt() {
         assertThat("Unexpected upper bound", colDomain.getUpperBound(), is((DataCell)new IntCell(Integer.MAX_VALUE)));
     }
 
+    /**
+     * Check whether upper and lower bounds are computed correctly for long columns, including merging.
+     */
+    @Test
+    public void testBoundsLong() {
+        DataColumnSpecCreator colSpecCrea = new DataColumnSpecCreator("Long col", LongCell.TYPE);
+        DataTableSpec tableSpec = new DataTableSpec(colSpecCrea.createSpec());
+
+        RowKey rowKey = new RowKey("Row0");
+        DataTableDomainCreator domainCreator = new DataTableDomainCreator(tableSpec, false);
+        domainCreator.updateDomain(new DefaultRow(rowKey, DataType.getMissingCell()));
+        domainCreator.updateDomain(new DefaultRow(rowKey, new LongCell(5)));
+        domainCreator.updateDomain(new DefaultRow(rowKey, new LongCell(Long.MAX_VALUE)));
+        domainCreator.updateDomain(new DefaultRow(rowKey, new LongCell(-3)));
+        DataColumnDomain colDomain = domainCreator.createSpec().getColumnSpec(0).getDomain();
+        assertThat("Unexpected lower bound", colDomain.getLowerBound(), is((DataCell)new LongCell(-3)));
+        assertThat("Unexpected upper bound", colDomain.getUpperBound(), is((DataCell)new LongCell(Long.MAX_VALUE)));
+
+        DataTableDomainCreator otherDomainCreator = new DataTableDomainCreator(tableSpec, false);
+        otherDomainCreator.updateDomain(new DefaultRow(rowKey, new LongCell(Long.MIN_VALUE)));
+        otherDomainCreator.updateDomain(new DefaultRow(rowKey, new LongCell(0)));
+        domainCreator.merge(otherDomainCreator);
+        colDomain = domainCreator.createSpec().getColumnSpec(0).getDomain();
+        assertThat("Unexpected lower bound", colDomain.getLowerBound(), is((DataCell)new LongCell(Long.MIN_VALUE)));
+        assertThat("Unexpected upper bound", colDomain.getUpperBound(), is((DataCell)new LongCell(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Checks that the order of many possible values is retained (i.e. also when the internal hash table grows).
+     */
+    @Test
+    public void testManyPossibleValues() {
+        DataColumnSpecCreator colSpecCrea = new DataColumnSpecCreator("String col", StringCell.TYPE);
+        DataTableSpec tableSpec = new DataTableSpec(colSpecCrea.createSpec());
+
+        RowKey rowKey = new RowKey("Row0");
+        DataTableDomainCreator domainCreator = new DataTableDomainCreator(tableSpec, false);
+        domainCreator.setMaxPossibleValues(5000);
+
+        Set<DataCell> expectedValues = new LinkedHashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            String value = "v" + ((i * 7919) % 5000);
+            expectedValues.add(new StringCell(value));
+            domainCreator.updateDomain(new DefaultRow(rowKey, value));
+            domainCreator.updateDomain(new DefaultRow(rowKey, "v0"));
+        }
+        DataColumnDomain colDomain = domainCreator.createSpec().getColumnSpec(0).getDomain();
+        assertThat("Unexpected possible values", new ArrayList<>(colDomain.getValues()),
+            is(new ArrayList<>(expectedValues)));
+    }
+
     /**
      * Checks whether possible values are computed correctly.
      */
@@ -0,0 +1,89 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link RowKey#isDefaultKey(long)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RowKeyTest {
+
+    private static final long[] INDICES =
+        {0, 1, 9, 10, 99, 100, 123, 1000000007L, -1, -10, -123, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    /**
+     * Tests that {@link RowKey#isDefaultKey(long)} agrees with comparing to {@link RowKey#createRowKey(long)}.
+     */
+    @Test
+    public void testIsDefaultKey() {
+        for (long keyIndex : INDICES) {
+            final RowKey key = new RowKey("Row" + keyIndex);
+            for (long rowIndex : INDICES) {
+                assertEquals(key + " vs. " + rowIndex, key.equals(RowKey.createRowKey(rowIndex)),
+                    key.isDefaultKey(rowIndex));
+            }
+        }
+        assertTrue(RowKey.createRowKey(42L).isDefaultKey(42));
+    }
+
+    /**
+     * Tests keys that resemble but don't equal a generated key.
+     */
+    @Test
+    public void testIsNotDefaultKey() {
+        for (String id : new String[]{"", "Row", "Row-", "Row01", "row1", "Row1x", "Row-0", "Rox1"}) {
+            for (long rowIndex : INDICES) {
+                assertFalse(id + " vs. " + rowIndex, new RowKey(id).isDefaultKey(rowIndex));
+            }
+        }
+    }
+}
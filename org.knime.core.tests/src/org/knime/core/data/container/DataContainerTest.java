@@ -78,6 +78,7 @@
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.data.container.filter.TableFilter;
 import org.knime.core.data.util.ObjectToDataCellConverter;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
 import org.knime.core.data.util.memory.MemoryAlertSystemTest;
@@ -277,6 +278,55 @@ public void run() {
         assertTrue(buffer.isHeldInMemory());
     }
 
+    /**
+     * Tests a container with implicit row keys held in memory, written to disk and read with a row filter.
+     */
+    public static final void testImplicitRowKeys() {
+        for (int maxCellsInMemory : new int[]{Integer.MAX_VALUE, 0}) {
+            final DataContainer container = new DataContainer(SPEC_STR_INT_DBL, DataContainerSettings.getDefault()
+                .withMaxCellsInMemory(maxCellsInMemory)
+                .withBufferSettings(BufferSettings.getDefault().withImplicitRowKeys(true)));
+            for (RowIterator it = generateRows(1000); it.hasNext();) {
+                container.addRowToTable(it.next());
+            }
+            container.close();
+            final ContainerTable table = container.getBufferedTable();
+            assertTrue(table.getBuffer().hasImplicitRowKeys());
+            RowIterator tableIterator = table.iterator();
+            for (RowIterator it = generateRows(1000); it.hasNext();) {
+                assertEquals(it.next(), tableIterator.next());
+            }
+            assertFalse(tableIterator.hasNext());
+            try (CloseableRowIterator filtered =
+                table.iteratorWithFilter(TableFilter.filterRangeOfRows(500, 509), new ExecutionMonitor())) {
+                for (int i = 500; i < 510; i++) {
+                    assertEquals(RowKey.createRowKey((long)i), filtered.next().getKey());
+                }
+                assertFalse(filtered.hasNext());
+            }
+            table.clear();
+        }
+    }
+
+    /**
+     * Rows added to a container with implicit row keys must carry the key of their index.
+     */
+    public static final void testImplicitRowKeysInvalidKey() {
+        final DataContainer container = new DataContainer(SPEC_STR_INT_DBL, DataContainerSettings.getDefault()
+            .withBufferSettings(BufferSettings.getDefault().withImplicitRowKeys(true)));
+        container.addRowToTable(
+            new DefaultRow(RowKey.createRowKey(0L), new StringCell("a"), new IntCell(0), new DoubleCell(0)));
+        try {
+            container.addRowToTable(
+                new DefaultRow(new RowKey("Row0"), new StringCell("b"), new IntCell(1), new DoubleCell(1)));
+            fail("Expected IllegalArgumentException for non-ordinal row key");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        container.close();
+        assertEquals(1, container.size());
+    }
+
     private static RowIterator generateRows(final int count) {
         return new RowIterator() {
 
@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.number.OrderingComparison;
+import org.junit.Test;
+import org.knime.core.data.DataType;
+import org.knime.core.data.container.MemoryBudget.Reservation;
+import org.knime.core.data.container.MemoryBudget.SpillPolicy;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Tests the accounting and spilling of {@link MemoryBudget}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class MemoryBudgetTest {
+
+    /** Tests that reservations are summed up and released. */
+    @Test
+    public void testAccounting() {
+        final MemoryBudget budget = new MemoryBudget(MemoryBudget.UNLIMITED, SpillPolicy.LARGEST_FIRST);
+        final Reservation r1 = budget.register(() -> true);
+        final Reservation r2 = budget.register(() -> true);
+        r1.reserve(10);
+        r2.reserve(30);
+        r1.reserve(10);
+        assertThat("Wrong reserved bytes", budget.getReservedBytes(), is(50L));
+        assertThat("Wrong order of reservations", budget.getReservations(), is(Arrays.asList(r2, r1)));
+        assertThat("Reservation without node context attributed to node", budget.getReservedBytesPerNode().isEmpty(),
+            is(true));
+
+        r2.release();
+        assertThat("Wrong reserved bytes after release", budget.getReservedBytes(), is(20L));
+        assertThat("Released reservation still listed", budget.getReservations(), is(Arrays.asList(r1)));
+        r2.reserve(100);
+        assertThat("Reservation after release not ignored", budget.getReservedBytes(), is(20L));
+    }
+
+    /** Tests that the largest closed table is written to disk once the budget is exceeded. */
+    @Test
+    public void testSpillLargestFirst() {
+        final MemoryBudget budget = new MemoryBudget(100, SpillPolicy.LARGEST_FIRST);
+        final AtomicInteger spills1 = new AtomicInteger();
+        final AtomicInteger spills2 = new AtomicInteger();
+        final Reservation r1 = budget.register(() -> spills1.incrementAndGet() > 0);
+        final Reservation r2 = budget.register(() -> spills2.incrementAndGet() > 0);
+        final Reservation r3 = budget.register(() -> true);
+        r1.reserve(60);
+        r1.onClose();
+        r2.reserve(30);
+        r2.onClose();
+        r3.reserve(20);
+        assertThat("Largest table not written", spills1.get(), is(1));
+        assertThat("Smaller table written", spills2.get(), is(0));
+        assertThat("Table being filled asked to write", r3.isSpillRequested(), is(false));
+
+        // the table being written is not asked again, now the table being filled is the largest one
+        r3.reserve(20);
+        assertThat("Table asked to write twice", spills1.get(), is(1));
+        assertThat("Smaller table written", spills2.get(), is(0));
+        assertThat("Largest table being filled not asked to write", r3.isSpillRequested(), is(true));
+    }
+
+    /** Tests that the least recently used table is written to disk once the budget is exceeded. */
+    @Test
+    public void testSpillLeastRecentlyUsed() {
+        final MemoryBudget budget = new MemoryBudget(100, SpillPolicy.LEAST_RECENTLY_USED);
+        final AtomicInteger spills1 = new AtomicInteger();
+        final AtomicInteger spills2 = new AtomicInteger();
+        final Reservation r1 = budget.register(() -> spills1.incrementAndGet() > 0);
+        final Reservation r2 = budget.register(() -> spills2.incrementAndGet() > 0);
+        r1.reserve(60);
+        r1.onClose();
+        r2.reserve(30);
+        r2.onClose();
+        r1.touch();
+        budget.register(() -> true).reserve(20);
+        assertThat("Recently used table written", spills1.get(), is(0));
+        assertThat("Least recently used table not written", spills2.get(), is(1));
+    }
+
+    /** Tests that a table being filled is asked to write its rows to disk. */
+    @Test
+    public void testSpillWhileAdding() {
+        final MemoryBudget budget = new MemoryBudget(100, SpillPolicy.LARGEST_FIRST);
+        final Reservation r = budget.register(() -> {
+            throw new AssertionError("Table being filled must write its rows itself");
+        });
+        r.reserve(80);
+        assertThat("Table asked to write within budget", r.isSpillRequested(), is(false));
+        r.reserve(80);
+        assertThat("Table not asked to write", r.isSpillRequested(), is(true));
+        r.release();
+        assertThat("Memory not released", budget.getReservedBytes(), is(0L));
+    }
+
+    /** Tests that reservations of holders that no longer exist are dropped. */
+    @Test
+    public void testHolderGone() {
+        final MemoryBudget budget = new MemoryBudget(100, SpillPolicy.LARGEST_FIRST);
+        final Reservation r1 = budget.register(() -> false);
+        r1.reserve(80);
+        r1.onClose();
+        budget.register(() -> true).reserve(40);
+        assertThat("Reservation of vanished holder not dropped", r1.getReservedBytes(), is(0L));
+        assertThat("Wrong reserved bytes", budget.getReservedBytes(), is(40L));
+    }
+
+    /** Tests that the sizes of added rows are reserved in batches and once the table is closed. */
+    @Test
+    public void testBatchedReservation() {
+        final MemoryBudget budget = new MemoryBudget(1L << 30, SpillPolicy.LARGEST_FIRST);
+        final Reservation r = budget.register(() -> true);
+        final DefaultRow row = new DefaultRow("Row0", new StringCell("a"));
+        final long size = MemoryBudget.estimateSize(row);
+        for (int i = 0; i < 127; i++) {
+            r.add(row);
+        }
+        assertThat("Rows reserved before batch is complete", budget.getReservedBytes(), is(0L));
+        r.add(row);
+        assertThat("Wrong reserved bytes after batch", budget.getReservedBytes(), is(128 * size));
+        for (int i = 0; i < 5; i++) {
+            r.add(row);
+        }
+        r.reservePending();
+        assertThat("Wrong reserved bytes after close", budget.getReservedBytes(), is(133 * size));
+        assertThat("Reservation listed more than once", budget.getReservations(), is(Arrays.asList(r)));
+    }
+
+    /** Tests that the sizes of rows not estimated for an unlimited budget are extrapolated. */
+    @Test
+    public void testSampledReservation() {
+        final MemoryBudget budget = new MemoryBudget(MemoryBudget.UNLIMITED, SpillPolicy.LARGEST_FIRST);
+        final Reservation r = budget.register(() -> true);
+        final DefaultRow row = new DefaultRow("Row0", new StringCell("a"));
+        for (int i = 0; i < 200; i++) {
+            r.add(row);
+        }
+        r.reservePending();
+        assertThat("Wrong extrapolated bytes", budget.getReservedBytes(), is(200 * MemoryBudget.estimateSize(row)));
+    }
+
+    /** Tests that the size estimate grows with the contents of a row. */
+    @Test
+    public void testEstimateSize() {
+        final long small = MemoryBudget.estimateSize(new DefaultRow("Row0", new StringCell("a")));
+        final long large = MemoryBudget.estimateSize(new DefaultRow("Row0", new StringCell(new String(new char[100]))));
+        final long missing = MemoryBudget.estimateSize(new DefaultRow("Row0", DataType.getMissingCell()));
+        assertThat("Longer string not estimated larger", large, OrderingComparison.greaterThan(small));
+        assertThat("Missing cell not estimated smaller", missing, OrderingComparison.lessThan(small));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
+import org.knime.core.data.PrimitiveDataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.sort.RowComparator;
+import org.knime.core.node.KNIMEConstants;
+
+/**
+ * Tests for {@link PackedRowList}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PackedRowListTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("long", LongCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("boolean", BooleanCell.TYPE).createSpec());
+
+    private static DataRow createRow(final int i) {
+        return new DefaultRow(RowKey.createRowKey((long)i),
+            i % 5 == 0 ? DataType.getMissingCell() : new IntCell(i * 31 % 97),
+            new LongCell(Long.MAX_VALUE - i),
+            i % 7 == 0 ? new MissingCell("error " + i) : new DoubleCell(Math.sin(i)),
+            BooleanCell.get(i % 3 == 0));
+    }
+
+    /** Packing is off unless enabled via the settings (or the system property). */
+    @Test
+    public void testPackedRowsSettings() {
+        final BufferSettings def = BufferSettings.getDefault();
+        assertThat("Packed rows enabled by default", def.usePackedRows(),
+            is(Boolean.getBoolean(KNIMEConstants.PROPERTY_PACKED_ROWS)));
+        assertThat("Modified settings created wrong packed rows flag",
+            def.withPackedRows(!def.usePackedRows()).usePackedRows(), is(!def.usePackedRows()));
+        assertThat("Default settings have been modified", BufferSettings.getDefault().usePackedRows(),
+            is(def.usePackedRows()));
+    }
+
+    /** Only tables of int, long, double and boolean columns are packed. */
+    @Test
+    public void testCreateRowList() {
+        final BufferSettings settings = BufferSettings.getDefault().withPackedRows(true);
+        assertThat(PackedRowList.createRowList(SPEC, settings, false), instanceOf(PackedRowList.class));
+        assertThat(PackedRowList.createRowList(SPEC, settings.withPackedRows(false), false),
+            not(instanceOf(PackedRowList.class)));
+        final DataTableSpec stringSpec = new DataTableSpec(SPEC,
+            new DataTableSpec(new DataColumnSpecCreator("string", StringCell.TYPE).createSpec()));
+        assertThat(PackedRowList.createRowList(stringSpec, settings, false), not(instanceOf(PackedRowList.class)));
+    }
+
+    /** Rows read from the list have the same content as the rows added, also across chunk boundaries. */
+    @Test
+    public void testAddAndGet() {
+        final List<DataRow> list =
+            PackedRowList.createRowList(SPEC, BufferSettings.getDefault().withPackedRows(true), false);
+        final int size = 3 * PackedRowList.CHUNK_SIZE + 17;
+        for (int i = 0; i < size; i++) {
+            list.add(createRow(i));
+        }
+        assertThat(list.size(), is(size));
+        for (int i = 0; i < size; i++) {
+            final DataRow expected = createRow(i);
+            final PrimitiveDataRow row = (PrimitiveDataRow)list.get(i);
+            assertThat(row.getKey(), is(expected.getKey()));
+            for (int c = 0; c < SPEC.getNumColumns(); c++) {
+                assertThat(row.getCell(c), is(expected.getCell(c)));
+            }
+            assertThat(row.isMissing(0), is(i % 5 == 0));
+            if (i % 5 != 0) {
+                assertThat(row.getInt(0), is(((IntCell)expected.getCell(0)).getIntValue()));
+                assertThat(row.getDouble(0), is(((IntCell)expected.getCell(0)).getDoubleValue()));
+            }
+            assertThat(row.getLong(1), is(Long.MAX_VALUE - i));
+            // missing cells with error message are kept as they are
+            assertThat(row.isPrimitive(2), is(i % 7 != 0));
+            if (i % 7 == 0) {
+                assertThat(row.getCell(2), is(sameInstance(expected.getCell(2))));
+            } else {
+                assertThat(row.getDouble(2), is(Math.sin(i)));
+            }
+            assertThat(row.getInt(3), is(i % 3 == 0 ? 1 : 0));
+        }
+    }
+
+    /** Comparing packed rows gives the same result as comparing the cells. */
+    @Test
+    public void testRowComparator() {
+        final List<DataRow> packed =
+            PackedRowList.createRowList(SPEC, BufferSettings.getDefault().withPackedRows(true), false);
+        final List<DataRow> plain = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            packed.add(createRow(i));
+            plain.add(createRow(i));
+        }
+        for (boolean missingsToEnd : new boolean[]{false, true}) {
+            final RowComparator comparator = new RowComparator(new int[]{0, 2, 3, 1},
+                new boolean[]{true, false, true, false}, missingsToEnd, SPEC);
+            for (int i = 0; i < packed.size(); i++) {
+                for (int j = 0; j < packed.size(); j += 7) {
+                    assertThat(Integer.signum(comparator.compare(packed.get(i), packed.get(j))),
+                        is(Integer.signum(comparator.compare(plain.get(i), plain.get(j)))));
+                }
+            }
+        }
+    }
+
+    /** Tables written by a data container are kept in memory in packed form and can be iterated. */
+    @Test
+    public void testDataContainer() {
+        final DataContainer container = new DataContainer(SPEC, DataContainerSettings.getDefault()
+            .withMaxCellsInMemory(Integer.MAX_VALUE)
+            .withBufferSettings(BufferSettings.getDefault().withPackedRows(true)));
+        for (int i = 0; i < 100; i++) {
+            container.addRowToTable(createRow(i));
+        }
+        container.close();
+        int i = 0;
+        for (DataRow row : container.getTable()) {
+            final DataRow expected = createRow(i++);
+            assertThat(row.getKey(), is(expected.getKey()));
+            for (int c = 0; c < SPEC.getNumColumns(); c++) {
+                final DataCell cell = row.getCell(c);
+                assertThat(cell, is(expected.getCell(c)));
+            }
+        }
+        assertThat(i, is(100));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+
+/**
+ * Tests for {@link PrefetchingRowIterator}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class PrefetchingRowIteratorTest {
+
+    /** Source producing a fixed number of rows, optionally failing at a given row. */
+    private static final class TestIterator extends CloseableRowIterator {
+
+        private final int m_rowCount;
+
+        private final int m_failAt;
+
+        private final CountDownLatch m_closed = new CountDownLatch(1);
+
+        private final AtomicInteger m_readCount = new AtomicInteger();
+
+        TestIterator(final int rowCount, final int failAt) {
+            m_rowCount = rowCount;
+            m_failAt = failAt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_readCount.get() < m_rowCount;
+        }
+
+        @Override
+        public DataRow next() {
+            final int index = m_readCount.getAndIncrement();
+            if (index == m_failAt) {
+                throw new IllegalStateException("Simulated read error at row " + index);
+            }
+            return new DefaultRow(RowKey.createRowKey((long)index), new IntCell(index));
+        }
+
+        @Override
+        public void close() {
+            m_closed.countDown();
+        }
+
+        boolean awaitClose() throws InterruptedException {
+            return m_closed.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Rows are returned completely and in order, the source is closed at the end.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testIterateAll() throws Exception {
+        final TestIterator source = new TestIterator(1003, -1);
+        int count = 0;
+        try (PrefetchingRowIterator it = new PrefetchingRowIterator(source, 2, 10)) {
+            while (it.hasNext()) {
+                final DataRow row = it.next();
+                assertThat("Row at index " + count, ((IntCell)row.getCell(0)).getIntValue(), is(count));
+                count++;
+            }
+            assertThat("hasNext after end", it.hasNext(), is(false));
+        }
+        assertThat("Number of rows", count, is(1003));
+        assertThat("Source closed", source.awaitClose(), is(true));
+    }
+
+    /**
+     * Closing the iterator early stops reading and closes the source.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCloseEarly() throws Exception {
+        final TestIterator source = new TestIterator(Integer.MAX_VALUE, -1);
+        final PrefetchingRowIterator it = new PrefetchingRowIterator(source, 2, 10);
+        for (int i = 0; i < 25; i++) {
+            it.next();
+        }
+        it.close();
+        assertThat("hasNext after close", it.hasNext(), is(false));
+        assertThat("Source closed", source.awaitClose(), is(true));
+        // depth * batch size rows ahead at most, plus the rows of the batch under construction
+        assertThat("Rows read ahead", source.m_readCount.get() < 100, is(true));
+    }
+
+    /**
+     * Exceptions of the source are thrown when the failing row is requested, rows before are returned.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testFailure() throws Exception {
+        final TestIterator source = new TestIterator(100, 42);
+        int count = 0;
+        try (PrefetchingRowIterator it = new PrefetchingRowIterator(source, 2, 5)) {
+            while (it.hasNext()) {
+                it.next();
+                count++;
+            }
+            fail("Expected exception from source");
+        } catch (IllegalStateException e) {
+            assertThat("Rows returned before failure", count, is(42));
+        }
+        assertThat("Source closed", source.awaitClose(), is(true));
+    }
+
+    /** Small tables and iterators that are prefetching already are not wrapped. */
+    @Test
+    public void testPrefetchNotWorthwhile() {
+        final TestIterator source = new TestIterator(10, -1);
+        assertThat("Small table", PrefetchingRowIterator.prefetch(source, 10), sameInstance(source));
+        try (PrefetchingRowIterator it = new PrefetchingRowIterator(new TestIterator(10, -1), 1, 1)) {
+            assertThat("Prefetching already", PrefetchingRowIterator.prefetch(it, -1), sameInstance(it));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+
+/**
+ * Tests for {@link TableFingerprint}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class TableFingerprintTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+
+    private static final int ROW_COUNT = 1000;
+
+    /** Enables fingerprints while tables are written. */
+    @Before
+    public void setUp() {
+        System.setProperty(KNIMEConstants.PROPERTY_TABLE_FINGERPRINTS, Boolean.TRUE.toString());
+    }
+
+    /** Restores the default. */
+    @After
+    public void tearDown() {
+        System.clearProperty(KNIMEConstants.PROPERTY_TABLE_FINGERPRINTS);
+    }
+
+    /**
+     * Checks that sequential and asynchronous writing (with rows split into batches) result in the same fingerprint,
+     * which also equals the one computed by reading the table.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testFingerprintOnWrite() throws Exception {
+        final List<DataRow> rows = createRows();
+        final ContainerTable sequential = write(rows, DataContainerSettings.getDefault()
+            .withForceSequentialRowHandling(true).withMaxCellsInMemory(0));
+        final ContainerTable async = write(rows, DataContainerSettings.getDefault()
+            .withForceSequentialRowHandling(false).withRowBatchSize(7).withMaxThreadsPerContainer(4));
+
+        final String fingerprint = sequential.getKnownContentFingerprint().get();
+        assertThat("Fingerprint of asynchronously written table", async.getKnownContentFingerprint().get(),
+            is(equalTo(fingerprint)));
+        assertThat("Fingerprint computed by reading the table", TableFingerprint.compute(sequential,
+            new ExecutionMonitor()), is(equalTo(fingerprint)));
+        assertThat("Fingerprint computed by reading the table", TableFingerprint.compute(async,
+            new ExecutionMonitor()), is(equalTo(fingerprint)));
+    }
+
+    /**
+     * Checks that the fingerprint is computed lazily if it wasn't computed while writing.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testFingerprintOnRequest() throws Exception {
+        final List<DataRow> rows = createRows();
+        final String fingerprint = write(rows, DataContainerSettings.getDefault()).getKnownContentFingerprint().get();
+        System.clearProperty(KNIMEConstants.PROPERTY_TABLE_FINGERPRINTS);
+        final ContainerTable table = write(rows, DataContainerSettings.getDefault());
+        assertThat("Fingerprint known before it's requested", table.getKnownContentFingerprint().isPresent(),
+            is(false));
+        assertThat("Fingerprint computed on request", table.getContentFingerprint(new ExecutionMonitor()),
+            is(equalTo(fingerprint)));
+        assertThat("Fingerprint memorized after request", table.getKnownContentFingerprint().isPresent(), is(true));
+    }
+
+    /**
+     * Checks that the fingerprint changes with the content, the row order and the spec.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testDifferentContent() throws Exception {
+        final List<DataRow> rows = createRows();
+        final String fingerprint = write(rows, DataContainerSettings.getDefault()).getKnownContentFingerprint().get();
+
+        final List<DataRow> changedCell = createRows();
+        changedCell.set(500, new DefaultRow(RowKey.createRowKey(500L), new IntCell(-1), new StringCell("Row 500")));
+        assertThat("Fingerprint of table with different cell", write(changedCell, DataContainerSettings.getDefault())
+            .getKnownContentFingerprint().get(), is(not(equalTo(fingerprint))));
+
+        final List<DataRow> swapped = createRows();
+        swapped.set(0, rows.get(1));
+        swapped.set(1, rows.get(0));
+        assertThat("Fingerprint of table with different row order", write(swapped, DataContainerSettings.getDefault())
+            .getKnownContentFingerprint().get(), is(not(equalTo(fingerprint))));
+
+        final DataTableSpec otherSpec = new DataTableSpec(
+            new DataColumnSpecCreator("other", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+        final DataContainer container = new DataContainer(otherSpec, DataContainerSettings.getDefault());
+        rows.forEach(container::addRowToTable);
+        container.close();
+        assertThat("Fingerprint of table with different spec", container.getBufferedTable()
+            .getKnownContentFingerprint().get(), is(not(equalTo(fingerprint))));
+    }
+
+    /** Checks that combined fingerprints depend on all arguments. */
+    @Test
+    public void testCombine() {
+        final String combined = TableFingerprint.combine("kind", SPEC, "a", "b");
+        assertThat("Same combination", TableFingerprint.combine("kind", SPEC, "a", "b"), is(equalTo(combined)));
+        assertThat("Different kind", TableFingerprint.combine("other", SPEC, "a", "b"), is(not(equalTo(combined))));
+        assertThat("Different parts", TableFingerprint.combine("kind", SPEC, "ab"), is(not(equalTo(combined))));
+        assertThat("Different part order", TableFingerprint.combine("kind", SPEC, "b", "a"),
+            is(not(equalTo(combined))));
+        assertThat("Null part", TableFingerprint.combine("kind", SPEC, "a", null), is(not(equalTo(combined))));
+    }
+
+    private static List<DataRow> createRows() {
+        return IntStream.range(0, ROW_COUNT).mapToObj(i -> (DataRow)new DefaultRow(RowKey.createRowKey((long)i),
+            new IntCell(i), new StringCell("Row " + i))).collect(Collectors.toList());
+    }
+
+    private static ContainerTable write(final List<DataRow> rows, final DataContainerSettings settings) {
+        final DataContainer container = new DataContainer(SPEC, settings);
+        for (DataRow row : rows) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        return container.getBufferedTable();
+    }
+}
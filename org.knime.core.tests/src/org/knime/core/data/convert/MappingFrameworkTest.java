@@ -80,6 +80,8 @@
 import org.knime.core.data.convert.map.CellValueProducer;
 import org.knime.core.data.convert.map.CellValueProducerFactory;
 import org.knime.core.data.convert.map.ConsumptionPath;
+import org.knime.core.data.convert.map.DataRowConsumer;
+import org.knime.core.data.convert.map.DataRowProducer;
 import org.knime.core.data.convert.map.Destination;
 import org.knime.core.data.convert.map.MappingFramework;
 import org.knime.core.data.convert.map.ProducerRegistry;
@@ -435,6 +437,81 @@ public void producerTest() throws Exception {
         assertEquals(LongCell.TYPE, spec.getColumnSpec(2).getType());
     }
 
+    /**
+     * Tests the batch variants {@link DataRowProducer#produceDataRows(RowKey[], Source.ProducerParameters[][])} and
+     * {@link DataRowConsumer#consumeDataRows(DataRow[], Destination.ConsumerParameters[][])}.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void batchTest() throws Exception {
+        MappingFramework.forSourceType(H2OSource.class) //
+            .unregisterAllProducers() //
+            .register(intProducer) //
+            .register(stringProducer);
+        MappingFramework.forDestinationType(H2ODestination.class) //
+            .unregisterAllConsumers() //
+            .register(intConsumer) //
+            .register(stringConsumer);
+
+        final ProductionPath[] productionPaths = new ProductionPath[]{
+            new ProductionPath(
+                MappingFramework.forSourceType(H2OSource.class).getFactory("STR->java.lang.String").get(),
+                JavaToDataCellConverterRegistry.getInstance().getConverterFactories(String.class, StringCell.TYPE)
+                    .stream().findFirst().get()),
+            new ProductionPath(
+                MappingFramework.forSourceType(H2OSource.class).getFactory("INT->java.lang.Integer").get(),
+                JavaToDataCellConverterRegistry.getInstance().getConverterFactories(Integer.class, IntCell.TYPE)
+                    .stream().findFirst().get())};
+        final ConsumptionPath[] consumptionPaths = new ConsumptionPath[]{
+            new ConsumptionPath(
+                DataCellToJavaConverterRegistry.getInstance().getConverterFactories(StringCell.TYPE, String.class)
+                    .stream().findFirst().get(),
+                MappingFramework.forDestinationType(H2ODestination.class).getFactory("java.lang.String->STR").get()),
+            new ConsumptionPath(
+                DataCellToJavaConverterRegistry.getInstance().getConverterFactories(IntCell.TYPE, Integer.class)
+                    .stream().findFirst().get(),
+                MappingFramework.forDestinationType(H2ODestination.class).getFactory("java.lang.Integer->INT").get())};
+
+        final int numRows = 3;
+        final H2OSource testSource = new H2OSource();
+        testSource.h2oFrame.add(new Object[]{"a", new Integer(1)});
+        testSource.h2oFrame.add(new Object[]{"b", null});
+        testSource.h2oFrame.add(new Object[]{null, new Integer(3)});
+        final H2ODestination testSink = new H2ODestination();
+        final RowKey[] keys = new RowKey[numRows];
+        final H2OParameters[][] parameters = new H2OParameters[numRows][2];
+        for (int i = 0; i < numRows; i++) {
+            testSink.h2oFrame.add(new Object[2]);
+            keys[i] = RowKey.createRowKey((long)i);
+            for (int j = 0; j < 2; j++) {
+                parameters[i][j] = new H2OParameters();
+                parameters[i][j].columnIndex = j;
+                parameters[i][j].rowIndex = i;
+            }
+        }
+
+        final DataRowProducer<H2OParameters> producer =
+            MappingFramework.createDataRowProducer(null, testSource, productionPaths);
+        final DataRow[] rows = producer.produceDataRows(keys, parameters);
+        assertEquals(numRows, rows.length);
+        for (int i = 0; i < numRows; i++) {
+            assertEquals(keys[i], rows[i].getKey());
+        }
+        assertEquals("a", ((StringValue)rows[0].getCell(0)).getStringValue());
+        assertEquals(1, ((IntValue)rows[0].getCell(1)).getIntValue());
+        assertTrue(rows[1].getCell(1).isMissing());
+        assertTrue(rows[2].getCell(0).isMissing());
+        assertEquals(3, ((IntValue)rows[2].getCell(1)).getIntValue());
+
+        final DataRowConsumer<H2OParameters> consumer =
+            MappingFramework.createDataRowConsumer(testSink, consumptionPaths);
+        consumer.consumeDataRows(rows, parameters);
+        for (int i = 0; i < numRows; i++) {
+            assertArrayEquals(testSource.h2oFrame.get(i), testSink.h2oFrame.get(i));
+        }
+    }
+
     @Test
     public void parentTest() throws Exception {
         class HitchHikersSource extends H2OSource {
@@ -0,0 +1,261 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.meta.DataColumnMetaData;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.data.xml.XMLBlobCell;
+import org.knime.core.data.xml.XMLCell;
+import org.knime.core.data.xml.XMLCellFactory;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeSettings;
+
+/**
+ * Tests the column sketches calculated by the {@link DataContainer}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ColumnSketchesTest {
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec());
+
+    private static final int ROWS = 10000;
+
+    private String m_oldProperty;
+
+    /** Enables the column sketches. */
+    @Before
+    public void enableSketches() {
+        m_oldProperty = System.setProperty(KNIMEConstants.PROPERTY_COLUMN_SKETCHES, "true");
+    }
+
+    /** Restores the previous property value. */
+    @After
+    public void restoreProperty() {
+        if (m_oldProperty == null) {
+            System.clearProperty(KNIMEConstants.PROPERTY_COLUMN_SKETCHES);
+        } else {
+            System.setProperty(KNIMEConstants.PROPERTY_COLUMN_SKETCHES, m_oldProperty);
+        }
+    }
+
+    private static DataTableSpec writeTable(final DataTableSpec spec, final boolean initDomain) {
+        final DataContainer container = new DataContainer(spec, initDomain);
+        for (int i = 0; i < ROWS; i++) {
+            final DataCell doubleCell = i % 10 == 0 ? DataType.getMissingCell() : new DoubleCell(i);
+            // value "v0" is in every second row, all other values in one row only
+            final DataCell stringCell = new StringCell(i % 2 == 0 ? "v0" : ("v" + i));
+            container.addRowToTable(new DefaultRow("Row" + i, doubleCell, stringCell));
+        }
+        container.close();
+        return container.getTable().getDataTableSpec();
+    }
+
+    private static <M extends DataColumnMetaData> M get(final DataColumnSpec colSpec, final Class<M> metaDataClass) {
+        final Optional<M> metaData = colSpec.getMetaDataOfType(metaDataClass);
+        assertThat(metaDataClass.getSimpleName() + " present", metaData.isPresent(), is(true));
+        return metaData.get();
+    }
+
+    /** Tests the sketches of a table written by a data container. */
+    @Test
+    public void testSketchesOfDataContainer() {
+        final DataTableSpec spec = writeTable(SPEC, false);
+        final DataColumnSpec doubleSpec = spec.getColumnSpec(0);
+        final DataColumnSpec stringSpec = spec.getColumnSpec(1);
+
+        final MissingCountMetaData missing = get(doubleSpec, MissingCountMetaData.class);
+        assertThat(missing.getCount(), is((long)ROWS));
+        assertThat(missing.getMissingCount(), is((long)ROWS / 10));
+        assertThat(get(stringSpec, MissingCountMetaData.class).getMissingCount(), is(0L));
+
+        final double nonMissing = ROWS * 0.9;
+        assertThat((double)get(doubleSpec, DistinctCountMetaData.class).getEstimate(),
+            closeTo(nonMissing, 4 * DistinctCountMetaData.RELATIVE_STANDARD_ERROR * nonMissing));
+
+        final QuantileSketchMetaData quantiles = get(doubleSpec, QuantileSketchMetaData.class);
+        assertThat(quantiles.getCount(), is((long)nonMissing));
+        assertThat(quantiles.getMin(), is(1.0));
+        assertThat(quantiles.getMax(), is(ROWS - 1.0));
+        assertThat(quantiles.getQuantile(0.5), closeTo(ROWS / 2.0, ROWS * 0.03));
+        assertThat(quantiles.getRank(ROWS / 4.0), closeTo(0.25, 0.03));
+
+        final FrequentValuesMetaData frequent = get(stringSpec, FrequentValuesMetaData.class);
+        final Map<String, Long> top = frequent.getFrequentValues(1);
+        assertThat(top.keySet().iterator().next(), is("v0"));
+        final long v0 = ROWS / 2;
+        assertThat(top.get("v0") <= v0 && top.get("v0") + frequent.getMaxError() >= v0, is(true));
+        assertThat("No quantiles for string columns",
+            stringSpec.getMetaDataOfType(QuantileSketchMetaData.class).isPresent(), is(false));
+    }
+
+    /** Tests that the sketches of the input spec are not counted again if the domain is initialized with it. */
+    @Test
+    public void testNotCountedTwice() {
+        final DataTableSpec first = writeTable(SPEC, false);
+        final DataTableSpec second = writeTable(first, true);
+        for (int i = 0; i < SPEC.getNumColumns(); i++) {
+            assertThat(get(second.getColumnSpec(i), MissingCountMetaData.class),
+                is(get(first.getColumnSpec(i), MissingCountMetaData.class)));
+        }
+        assertThat(get(second.getColumnSpec(0), QuantileSketchMetaData.class).getCount(), is((long)(ROWS * 0.9)));
+    }
+
+    /** Tests that no sketches are calculated if the property is not set. */
+    @Test
+    public void testDisabled() {
+        System.clearProperty(KNIMEConstants.PROPERTY_COLUMN_SKETCHES);
+        final DataColumnSpec colSpec = writeTable(SPEC, false).getColumnSpec(0);
+        assertThat(colSpec.getMetaDataOfType(MissingCountMetaData.class).isPresent(), is(false));
+        assertThat(colSpec.getMetaDataOfType(QuantileSketchMetaData.class).isPresent(), is(false));
+    }
+
+    /** Tests that merging creators yields the same sketches as updating a single creator. */
+    @Test
+    public void testMerge() {
+        final DistinctCountMetaDataCreator all = new DistinctCountMetaDataCreator();
+        final DistinctCountMetaDataCreator first = new DistinctCountMetaDataCreator();
+        final DistinctCountMetaDataCreator second = new DistinctCountMetaDataCreator();
+        final FrequentValuesMetaDataCreator frequentFirst = new FrequentValuesMetaDataCreator();
+        final FrequentValuesMetaDataCreator frequentSecond = new FrequentValuesMetaDataCreator();
+        for (int i = 0; i < ROWS; i++) {
+            final DataCell cell = new StringCell("v" + (i % 500));
+            all.update(cell);
+            (i < ROWS / 3 ? first : second).update(cell);
+            (i % 3 == 0 ? frequentFirst : frequentSecond).update(cell);
+        }
+        assertThat(first.copy().merge(second).create(), is(all.create()));
+        assertThat(first.merge(second.create()).create(), is(all.create()));
+
+        final FrequentValuesMetaData merged = frequentFirst.merge(frequentSecond).create();
+        assertThat(merged.getCount(), is((long)ROWS));
+        // each value occurs ROWS / 500 = 20 times
+        assertThat(merged.getEstimatedFrequency("v0") <= 20, is(true));
+        assertThat(merged.getEstimatedFrequency("v0") + merged.getMaxError() >= 20, is(true));
+    }
+
+    /** Tests that the hash of a cell uses all 64 bits of long values and the content of other cells. */
+    @Test
+    public void testHash() {
+        // the 32 bit hash codes of these cells are equal
+        assertThat(new LongCell(0).hashCode(), is(new LongCell((1L << 32) | 1).hashCode()));
+        assertThat(SketchUtil.hash(new LongCell(0)) == SketchUtil.hash(new LongCell((1L << 32) | 1)), is(false));
+        assertThat(SketchUtil.hash(new IntCell(42)), is(SketchUtil.hash(new LongCell(42))));
+        assertThat(SketchUtil.hash(new StringCell("v1")), is(SketchUtil.hash(new StringCell("v1"))));
+        final DataCell list = CollectionCellFactory.createListCell(Arrays.asList(new StringCell("a"), new IntCell(1)));
+        final DataCell equalList =
+            CollectionCellFactory.createListCell(Arrays.asList(new StringCell("a"), new IntCell(1)));
+        final DataCell otherList =
+            CollectionCellFactory.createListCell(Arrays.asList(new StringCell("a"), new IntCell(2)));
+        assertThat(SketchUtil.hash(list), is(SketchUtil.hash(equalList)));
+        assertThat(SketchUtil.hash(list) == SketchUtil.hash(otherList), is(false));
+    }
+
+    /** Tests that no distinct count is calculated for XML and blob columns. */
+    @Test
+    public void testDistinctCountExcludedTypes() throws Exception {
+        final DistinctCountMetaDataExtension extension = new DistinctCountMetaDataExtension();
+        assertThat(extension.appliesTo(StringCell.TYPE), is(true));
+        assertThat(extension.appliesTo(XMLCell.TYPE), is(false));
+        assertThat(extension.appliesTo(DataType.getType(XMLBlobCell.class)), is(false));
+        final DataTableSpec xmlSpec = new DataTableSpec(new DataColumnSpecCreator("xml", XMLCell.TYPE).createSpec());
+        final DataContainer container = new DataContainer(xmlSpec, false);
+        container.addRowToTable(new DefaultRow("Row0", XMLCellFactory.create("<root/>")));
+        container.close();
+        final DataColumnSpec colSpec = container.getTable().getDataTableSpec().getColumnSpec(0);
+        assertThat(colSpec.getMetaDataOfType(MissingCountMetaData.class).isPresent(), is(true));
+        assertThat(colSpec.getMetaDataOfType(DistinctCountMetaData.class).isPresent(), is(false));
+    }
+
+    /** Tests saving and loading of the sketches. */
+    @Test
+    public void testSerialization() throws Exception {
+        final DataTableSpec spec = writeTable(SPEC, false);
+        testSerialization(get(spec.getColumnSpec(0), MissingCountMetaData.class),
+            new MissingCountMetaData.MissingCountMetaDataSerializer());
+        testSerialization(get(spec.getColumnSpec(0), DistinctCountMetaData.class),
+            new DistinctCountMetaData.DistinctCountMetaDataSerializer());
+        testSerialization(get(spec.getColumnSpec(0), QuantileSketchMetaData.class),
+            new QuantileSketchMetaData.QuantileSketchMetaDataSerializer());
+        testSerialization(get(spec.getColumnSpec(1), FrequentValuesMetaData.class),
+            new FrequentValuesMetaData.FrequentValuesMetaDataSerializer());
+
+        final NodeSettings settings = new NodeSettings("spec");
+        spec.save(settings);
+        assertThat(DataTableSpec.load(settings), is(spec));
+    }
+
+    private static <M extends DataColumnMetaData> void testSerialization(final M metaData,
+        final DataColumnMetaDataSerializer<M> serializer) throws Exception {
+        final NodeSettings settings = new NodeSettings("metaData");
+        serializer.save(metaData, settings);
+        assertThat(serializer.load(settings), is(metaData));
+    }
+}
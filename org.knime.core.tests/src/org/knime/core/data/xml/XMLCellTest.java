@@ -51,9 +51,17 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.Reader;
+import java.util.List;
+
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
 import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.util.LockedSupplier;
+import org.knime.core.data.xml.io.LimitedXPathMatcher;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -122,4 +130,73 @@ public void testEqualsAndHashcodeEqual() throws Exception {
         assertThat("equals and hashcode are not compatible", eq && hc || !eq , is(true));
     }
 
+    /**
+     * Checks equals and hashcode of contents created from a string and from a DOM, which compare the serialized
+     * documents, and that the DOM passed on creation is kept.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testEqualsSerializedDocument() throws Exception {
+        Document d = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = d.createElement("root");
+        d.appendChild(root);
+        root.appendChild(d.createElement("item")).appendChild(d.createTextNode("a"));
+
+        XMLCellContent fromDocument = new XMLCellContent(d);
+        XMLCellContent fromString = new XMLCellContent(fromDocument.getStringValue(), true);
+        XMLCellContent other = new XMLCellContent("<root><item>b</item></root>", true);
+
+        assertThat("Same document not equal", fromString.equals(fromDocument), is(true));
+        assertThat("Different hash codes for same document", fromString.hashCode(), is(fromDocument.hashCode()));
+        assertThat("Unexpected hash code", fromString.hashCode(), is(fromString.getStringValue().hashCode()));
+        assertThat("Different documents equal", other.equals(fromDocument), is(false));
+        try (LockedSupplier<Document> supplier = fromDocument.getDocumentSupplier()) {
+            assertThat("Passed DOM not kept", supplier.get() == d, is(true));
+        }
+    }
+
+    /**
+     * Checks the streaming access to the serialized document.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testStreamingAccess() throws Exception {
+        final DataCell cell =
+            XMLCellFactory.create("<root><item id=\"1\">a</item><other/><item id=\"2\">b</item></root>");
+        final StreamableXMLContent content = (StreamableXMLContent)cell;
+
+        final StringBuilder sb = new StringBuilder();
+        try (Reader reader = content.openReader()) {
+            for (int c = reader.read(); c >= 0; c = reader.read()) {
+                sb.append((char)c);
+            }
+        }
+        assertThat("Unexpected serialized document", sb.toString(), is(((XMLCell)cell).getStringValue()));
+
+        final XMLStreamReader streamReader = content.createXMLStreamReader();
+        int items = 0;
+        while (streamReader.hasNext()) {
+            if (streamReader.next() == XMLStreamConstants.START_ELEMENT
+                && streamReader.getLocalName().equals("item")) {
+                items++;
+            }
+        }
+        streamReader.close();
+        assertThat("Unexpected number of elements", items, is(2));
+
+        // no prefixes are used, therefore no namespace context is required
+        final List<XMLValue<Document>> selected = content.select(new LimitedXPathMatcher("/root/item", null));
+        assertThat("Unexpected number of selected elements", selected.size(), is(2));
+        try (LockedSupplier<Document> supplier = selected.get(1).getDocumentSupplier()) {
+            assertThat("Unexpected selected element", supplier.get().getDocumentElement().getAttribute("id"),
+                is("2"));
+        }
+
+        // the DOM is built on request
+        try (LockedSupplier<Document> supplier = ((XMLCell)cell).getDocumentSupplier()) {
+            assertThat("Unexpected root element", supplier.get().getDocumentElement().getNodeName(), is("root"));
+        }
+    }
 }
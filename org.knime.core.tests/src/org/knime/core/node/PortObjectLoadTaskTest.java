@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.knime.core.internal.ReferencedFile;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObjectSpec;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests {@link PortObjectLoadTask}, which restores port objects on first access after workflow load.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PortObjectLoadTaskTest {
+
+    /** Object is restored once, on first access, and the same instance is returned afterwards. */
+    @Test
+    public void testLoadOnFirstAccess() throws Exception {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final PortObjectLoadTask task = new PortObjectLoadTask(new ReferencedFile(FileUtil.createTempDir("port")),
+            FlowVariablePortObjectSpec.INSTANCE, e -> {
+                loadCount.incrementAndGet();
+                return FlowVariablePortObject.INSTANCE;
+            });
+        assertThat("Spec available without loading", task.getSpec(), is(FlowVariablePortObjectSpec.INSTANCE));
+        assertThat("Loaded before first access", task.isLoaded(), is(false));
+        assertThat("Load count before first access", loadCount.get(), is(0));
+
+        final PortObject object = task.get();
+        assertThat("Restored object", object, sameInstance(FlowVariablePortObject.INSTANCE));
+        assertThat("Loaded after first access", task.isLoaded(), is(true));
+        assertThat("Same instance on second access", task.get(), sameInstance(object));
+        assertThat("Load count after repeated access", loadCount.get(), is(1));
+    }
+
+    /** A failing load is reported as runtime exception and retried on the next access. */
+    @Test
+    public void testLoadFailure() throws Exception {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final PortObjectLoadTask task = new PortObjectLoadTask(new ReferencedFile(FileUtil.createTempDir("port")),
+            FlowVariablePortObjectSpec.INSTANCE, e -> {
+                if (loadCount.incrementAndGet() == 1) {
+                    throw new IOException("Simulated read error");
+                }
+                return FlowVariablePortObject.INSTANCE;
+            });
+        try {
+            task.get();
+            fail("Expected exception on failing load");
+        } catch (RuntimeException e) {
+            assertThat("Cause of load failure", e.getCause() instanceof IOException, is(true));
+        }
+        assertThat("Loaded after failure", task.isLoaded(), is(false));
+        assertThat("Restored object on retry", task.get(), sameInstance(FlowVariablePortObject.INSTANCE));
+        assertThat("Load count after retry", loadCount.get(), is(2));
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.InternalNodeContainerState;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.WorkflowContext;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowTestCase;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Tests the remaining critical path computed by {@link CriticalPathEstimator} and that jobs queued in the
+ * {@link PriorityJobScheduler} with these estimates as priority start along the critical path.
+ *
+ * <p>
+ * The workflow consists of a source node <i>a</i> with the branches a &rarr; b &rarr; c and a &rarr; d, and a second
+ * source node <i>s</i> without successors.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CriticalPathEstimatorTest extends WorkflowTestCase {
+
+    /** Execution time of the slow node, in ms. */
+    private static final long SLOW_DURATION = 200;
+
+    private File m_workflowDirectory;
+
+    private NodeID m_a;
+
+    private NodeID m_b;
+
+    private NodeID m_c;
+
+    private NodeID m_d;
+
+    private NodeID m_s;
+
+    /**
+     * Creates the workflow.
+     *
+     * @throws Exception if the workflow cannot be created
+     */
+    @Before
+    public void setUp() throws Exception {
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        m_a = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        m_b = wfm.createAndAddNode(new SlowNodeFactory());
+        m_c = wfm.createAndAddNode(new AdapterNodeFactory());
+        m_d = wfm.createAndAddNode(new AdapterNodeFactory());
+        m_s = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        wfm.addConnection(m_a, 1, m_b, 1);
+        wfm.addConnection(m_b, 1, m_c, 1);
+        wfm.addConnection(m_a, 1, m_d, 1);
+        CriticalPathEstimator.invalidateAll();
+    }
+
+    /** Without execution history each node counts with the unknown duration, i.e. the path length is counted. */
+    @Test
+    public void testEstimateWithoutHistory() {
+        final long unknown = CriticalPathEstimator.UNKNOWN_DURATION;
+        assertThat("Path of a", estimate(m_a), is(3 * unknown));
+        assertThat("Path of b", estimate(m_b), is(2 * unknown));
+        assertThat("Path of c", estimate(m_c), is(unknown));
+        assertThat("Path of d", estimate(m_d), is(unknown));
+        assertThat("Path of s", estimate(m_s), is(unknown));
+    }
+
+    /**
+     * Memoized estimates are dropped when connections are added.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEstimateAfterStructureChange() throws Exception {
+        final long unknown = CriticalPathEstimator.UNKNOWN_DURATION;
+        assertThat("Path of a", estimate(m_a), is(3 * unknown));
+        final NodeID e = getManager().createAndAddNode(new AdapterNodeFactory());
+        final NodeID f = getManager().createAndAddNode(new AdapterNodeFactory());
+        getManager().addConnection(m_d, 1, e, 1);
+        getManager().addConnection(e, 1, f, 1);
+        // workflow events are delivered asynchronously
+        final long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (estimate(m_a) != 4 * unknown && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat("Path of a after adding d -> e -> f", estimate(m_a), is(4 * unknown));
+        assertThat("Path of d after adding d -> e -> f", estimate(m_d), is(3 * unknown));
+    }
+
+    /**
+     * Durations of the last execution are used once a new execution wave starts.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEstimateWithHistory() throws Exception {
+        executeAllAndWait();
+        checkState(m_c, InternalNodeContainerState.EXECUTED);
+        CriticalPathEstimator.invalidateAll();
+        final long b = estimate(m_b);
+        assertThat("Path of b", b, is(greaterThanOrEqualTo(SLOW_DURATION + estimate(m_c))));
+        assertThat("Path of a", estimate(m_a), is(greaterThanOrEqualTo(b + CriticalPathEstimator.UNKNOWN_DURATION)));
+        assertThat("Path of d", estimate(m_d), is(lessThan(SLOW_DURATION)));
+    }
+
+    /**
+     * Jobs queued with the estimates as priority are started longest remaining path first.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testSchedulingOrder() throws Exception {
+        final ThreadPool pool = new ThreadPool(1);
+        final PriorityJobScheduler scheduler = new PriorityJobScheduler(pool, false);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch blockerStarted = new CountDownLatch(1);
+        scheduler.enqueue(() -> {
+            blockerStarted.countDown();
+            await(blocker);
+        }, Long.MAX_VALUE, "wf");
+        assertThat(blockerStarted.await(10, TimeUnit.SECONDS), is(true));
+        final Map<String, NodeID> nodes = new LinkedHashMap<>();
+        nodes.put("s", m_s);
+        nodes.put("d", m_d);
+        nodes.put("c", m_c);
+        nodes.put("b", m_b);
+        nodes.put("a", m_a);
+        for (Map.Entry<String, NodeID> e : nodes.entrySet()) {
+            scheduler.enqueue(() -> order.add(e.getKey()), estimate(e.getValue()), "wf");
+        }
+        blocker.countDown();
+        pool.waitForTermination();
+        // equal estimates are started in queuing order
+        assertThat(order, is(Arrays.asList("a", "b", "s", "d", "c")));
+    }
+
+    private long estimate(final NodeID id) {
+        return CriticalPathEstimator.estimate(findNodeContainer(id));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Deletes the workflow directory. */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    /** Node passing its input through after sleeping for {@link #SLOW_DURATION}. */
+    public static final class SlowNodeFactory extends AdapterNodeFactory {
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(1, 1) {
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    Thread.sleep(SLOW_DURATION);
+                    return inObjects;
+                }
+            };
+        }
+    }
+}
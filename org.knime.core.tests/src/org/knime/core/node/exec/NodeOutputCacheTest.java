@@ -0,0 +1,221 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.inactive.InactiveBranchPortObject;
+import org.knime.core.node.workflow.FlowVariable;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.execresult.NodeExecutionResult;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Tests {@link NodeOutputCache}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeOutputCacheTest {
+
+    /** Holds the cache directory. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private NodeFactory<NodeModel> m_factory;
+
+    private ExecutionContext m_exec;
+
+    private NodeOutputCache m_cache;
+
+    /** Creates the cache and an execution context. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Before
+    public void setUp() throws Exception {
+        m_factory = (NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(new PortType[0]);
+        m_exec = new ExecutionContext(new DefaultNodeProgressMonitor(), new Node(m_factory),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, new HashMap<Integer, ContainerTable>());
+        m_cache = new NodeOutputCache(m_tempFolder.newFolder("cache"), Long.MAX_VALUE, Collections.emptySet());
+    }
+
+    /** Tests that the key changes with the settings, the flow variables and the input data, and only with them. */
+    @Test
+    public void testKey() throws Exception {
+        final List<FlowVariable> variables = Arrays.asList(new FlowVariable("a", 1), new FlowVariable("b", "x"));
+        final String key = createKey(createSettings(1), variables, createTable("r1", "r2"));
+
+        assertThat("Key for equal input", createKey(createSettings(1),
+            Arrays.asList(variables.get(1), variables.get(0)), createTable("r1", "r2")), is(key));
+        assertThat("Key for other settings", createKey(createSettings(2), variables, createTable("r1", "r2")),
+            is(not(key)));
+        assertThat("Key for other flow variables",
+            createKey(createSettings(1), Arrays.asList(variables.get(0), new FlowVariable("b", "y")),
+                createTable("r1", "r2")),
+            is(not(key)));
+        assertThat("Key for other table", createKey(createSettings(1), variables, createTable("r1", "r3")),
+            is(not(key)));
+        assertThat("Key for inactive input",
+            createKey(createSettings(1), variables, InactiveBranchPortObject.INSTANCE), is(not(key)));
+    }
+
+    /** Tests that stored outputs are read back, including flow variables and warning message. */
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final String key = createKey(createSettings(1), Collections.emptyList(), createTable("in"));
+        assertThat("Entry before store", m_cache.load(key, m_exec).isPresent(), is(false));
+
+        final NodeExecutionResult result = new NodeExecutionResult();
+        result.setPortObjects(new PortObject[]{FlowVariablePortObject.INSTANCE, createTable("out1", "out2"),
+            InactiveBranchPortObject.INSTANCE});
+        result.setFlowVariables(Arrays.asList(new FlowVariable("v", 42)));
+        result.setWarningMessage("Some warning");
+        m_cache.store(key, result, m_exec);
+
+        final Optional<NodeExecutionResult> loaded = m_cache.load(key, m_exec);
+        assertThat("Entry after store", loaded.isPresent(), is(true));
+        final NodeExecutionResult loadedResult = loaded.get();
+        assertThat("Number of ports", loadedResult.getNrOfPortObjects(), is(3));
+        assertThat("Flow variable port", loadedResult.getPortObject(0), instanceOf(FlowVariablePortObject.class));
+        assertThat("Table port", loadedResult.getPortObject(1), instanceOf(BufferedDataTable.class));
+        assertThat("Row keys", getRowKeys((BufferedDataTable)loadedResult.getPortObject(1)),
+            contains("out1", "out2"));
+        assertThat("Inactive port", loadedResult.getPortObject(2), instanceOf(InactiveBranchPortObject.class));
+        assertThat("Flow variable", loadedResult.getFlowVariables().get().get(0).getIntValue(), is(42));
+        assertThat("Warning message", loadedResult.getWarningMessage(), is("Some warning"));
+    }
+
+    /** Tests that the least recently used entries are evicted if the cache exceeds its size. */
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        final String oldKey = createKey(createSettings(1), Collections.emptyList(), createTable("in"));
+        final String newKey = createKey(createSettings(2), Collections.emptyList(), createTable("in"));
+        for (String key : Arrays.asList(oldKey, newKey)) {
+            final NodeExecutionResult result = new NodeExecutionResult();
+            result.setPortObjects(new PortObject[]{FlowVariablePortObject.INSTANCE, createTable("out")});
+            m_cache.store(key, result, m_exec);
+        }
+        final File cacheDir = m_tempFolder.getRoot().toPath().resolve("cache").toFile();
+        final File oldEntry = new File(cacheDir, oldKey);
+        final File newEntry = new File(cacheDir, newKey);
+        oldEntry.setLastModified(System.currentTimeMillis() - 60_000);
+        newEntry.setLastModified(System.currentTimeMillis());
+
+        new NodeOutputCache(cacheDir, FileUtils.sizeOfDirectory(newEntry), Collections.emptySet()).trimToSize();
+        assertThat("Least recently used entry exists", oldEntry.exists(), is(false));
+        assertThat("Most recently used entry exists", newEntry.exists(), is(true));
+    }
+
+    /** Tests that only nodes that opted in are considered cacheable. */
+    @Test
+    public void testIsCacheable() throws Exception {
+        final NodeModel model = m_factory.createNodeModel();
+        assertThat("Cacheable without opt-in", m_cache.isCacheable(m_factory, model), is(false));
+        final NodeOutputCache cache = new NodeOutputCache(m_tempFolder.newFolder(), Long.MAX_VALUE,
+            Collections.singleton(m_factory.getClass().getName()));
+        assertThat("Cacheable if factory is listed", cache.isCacheable(m_factory, model), is(true));
+    }
+
+    private String createKey(final NodeSettings settings, final List<FlowVariable> variables,
+        final PortObject input) throws Exception {
+        return m_cache.createKey(m_factory, settings, variables,
+            new PortObject[]{FlowVariablePortObject.INSTANCE, input}, m_exec);
+    }
+
+    private static NodeSettings createSettings(final int value) {
+        final NodeSettings settings = new NodeSettings("model");
+        settings.addInt("value", value);
+        return settings;
+    }
+
+    private BufferedDataTable createTable(final String... rowKeys) {
+        final BufferedDataContainer container =
+            m_exec.createDataContainer(new DataTableSpec(new String[]{"col"}, new DataType[]{StringCell.TYPE}));
+        for (String rowKey : rowKeys) {
+            container.addRowToTable(new DefaultRow(new RowKey(rowKey), new StringCell(rowKey + "-value")));
+        }
+        container.close();
+        return container.getTable();
+    }
+
+    private static List<String> getRowKeys(final BufferedDataTable table) {
+        return StreamSupport.stream(table.spliterator(), false).map(DataRow::getKey).map(RowKey::getString)
+            .collect(Collectors.toList());
+    }
+}
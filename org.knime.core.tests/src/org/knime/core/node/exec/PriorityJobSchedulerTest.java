@@ -0,0 +1,177 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Tests the order in which {@link PriorityJobScheduler} starts queued jobs.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PriorityJobSchedulerTest {
+
+    /**
+     * Jobs waiting for the single thread are started by descending priority, equal priorities in queuing order.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testPriorityOrder() throws Exception {
+        final ThreadPool pool = new ThreadPool(1);
+        final PriorityJobScheduler scheduler = new PriorityJobScheduler(pool, false);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch blockerStarted = new CountDownLatch(1);
+        scheduler.enqueue(() -> {
+            blockerStarted.countDown();
+            await(blocker);
+        }, 0, "a");
+        assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+        scheduler.enqueue(() -> order.add("low"), 1, "a");
+        scheduler.enqueue(() -> order.add("high"), 5, "a");
+        scheduler.enqueue(() -> order.add("mid1"), 3, "a");
+        scheduler.enqueue(() -> order.add("mid2"), 3, "a");
+        blocker.countDown();
+        pool.waitForTermination();
+        assertEquals(Arrays.asList("high", "mid1", "mid2", "low"), order);
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    /**
+     * Canceled jobs are skipped, all others still run.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCancel() throws Exception {
+        final ThreadPool pool = new ThreadPool(1);
+        final PriorityJobScheduler scheduler = new PriorityJobScheduler(pool, false);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch blockerStarted = new CountDownLatch(1);
+        scheduler.enqueue(() -> {
+            blockerStarted.countDown();
+            await(blocker);
+        }, 0, "a");
+        assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+        final Future<?> canceled = scheduler.enqueue(() -> order.add("canceled"), 10, "a");
+        scheduler.enqueue(() -> order.add("other"), 1, "a");
+        assertTrue(canceled.cancel(true));
+        blocker.countDown();
+        pool.waitForTermination();
+        assertEquals(Arrays.asList("other"), order);
+    }
+
+    /**
+     * In fair mode groups take turns, regardless of the priorities of their jobs.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testFairness() throws Exception {
+        final ThreadPool pool = new ThreadPool(1);
+        final PriorityJobScheduler scheduler = new PriorityJobScheduler(pool, true);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch blockerStarted = new CountDownLatch(1);
+        scheduler.enqueue(() -> {
+            blockerStarted.countDown();
+            await(blocker);
+        }, 0, "x");
+        assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+        scheduler.enqueue(() -> order.add("a10"), 10, "a");
+        scheduler.enqueue(() -> order.add("a9"), 9, "a");
+        scheduler.enqueue(() -> order.add("a8"), 8, "a");
+        scheduler.enqueue(() -> order.add("b1"), 1, "b");
+        blocker.countDown();
+        pool.waitForTermination();
+        assertEquals(Arrays.asList("a10", "b1", "a9", "a8"), order);
+    }
+
+    /**
+     * The idle callback is run once all queued jobs have finished, i.e. once per execution wave.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOnIdle() throws Exception {
+        final ThreadPool pool = new ThreadPool(1);
+        final AtomicInteger idleCount = new AtomicInteger();
+        final PriorityJobScheduler scheduler = new PriorityJobScheduler(pool, false, idleCount::incrementAndGet);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        scheduler.enqueue(() -> await(blocker), 0, "a");
+        scheduler.enqueue(() -> { }, 1, "a");
+        scheduler.enqueue(() -> { }, 2, "a");
+        assertEquals(0, idleCount.get());
+        blocker.countDown();
+        pool.waitForTermination();
+        assertEquals(1, idleCount.get());
+        scheduler.enqueue(() -> { }, 0, "a").get();
+        pool.waitForTermination();
+        assertEquals(2, idleCount.get());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
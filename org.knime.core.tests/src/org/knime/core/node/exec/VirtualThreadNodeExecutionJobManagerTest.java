@@ -0,0 +1,166 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.AbstractCellFactory;
+import org.knime.core.data.container.ColumnRearranger;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.InternalNodeContainerState;
+import org.knime.core.node.workflow.NativeNodeContainer;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.WorkflowContext;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowTestCase;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests that nodes run by {@link VirtualThreadNodeExecutionJobManager}, i.e. on threads that are not part of the
+ * global thread pool, can use the pool for their own parallel work.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class VirtualThreadNodeExecutionJobManagerTest extends WorkflowTestCase {
+
+    private File m_workflowDirectory;
+
+    private NodeID m_rearranger;
+
+    /** Creates a workflow of a source node and a node computing a column with a parallel cell factory. */
+    @Before
+    public void setUp() throws Exception {
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        final NodeID source = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        m_rearranger = wfm.createAndAddNode(new ParallelRearrangerNodeFactory());
+        wfm.addConnection(source, 1, m_rearranger, 1);
+        wfm.setJobManager(m_rearranger, new VirtualThreadNodeExecutionJobManager());
+    }
+
+    /** Executes the rearranger node, whose cell factory runs its workers in the global pool. */
+    @Test
+    public void testParallelCellFactory() throws Exception {
+        executeAllAndWait();
+        checkState(m_rearranger, InternalNodeContainerState.EXECUTED);
+        final BufferedDataTable table =
+            (BufferedDataTable)((NativeNodeContainer)findNodeContainer(m_rearranger)).getOutPort(1).getPortObject();
+        assertThat("Wrong number of rows", table.size(), is(3L));
+        for (DataRow row : table) {
+            final String threadName = ((StringCell)row.getCell(row.getNumCells() - 1)).getStringValue();
+            assertThat("Cell not computed in the global pool", threadName, startsWith("KNIME-Worker-"));
+        }
+        assertThat("Job manager not used", findNodeContainer(m_rearranger).findJobManager(),
+            instanceOf(VirtualThreadNodeExecutionJobManager.class));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    /** Node that appends the name of the thread computing the cell, using a parallel cell factory. */
+    public static final class ParallelRearrangerNodeFactory extends AdapterNodeFactory {
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(1, 1) {
+                @Override
+                protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+                    return new PortObjectSpec[]{createRearranger((DataTableSpec)inSpecs[0]).createSpec()};
+                }
+
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final BufferedDataTable table = (BufferedDataTable)inObjects[0];
+                    return new PortObject[]{
+                        exec.createColumnRearrangeTable(table, createRearranger(table.getDataTableSpec()), exec)};
+                }
+            };
+        }
+
+        private static ColumnRearranger createRearranger(final DataTableSpec spec) {
+            final ColumnRearranger rearranger = new ColumnRearranger(spec);
+            final AbstractCellFactory factory =
+                new AbstractCellFactory(new DataColumnSpecCreator("Thread", StringCell.TYPE).createSpec()) {
+                    @Override
+                    public DataCell[] getCells(final DataRow row) {
+                        return new DataCell[]{new StringCell(Thread.currentThread().getName())};
+                    }
+                };
+            factory.setParallelProcessing(true);
+            rearranger.append(factory);
+            return rearranger;
+        }
+    }
+}
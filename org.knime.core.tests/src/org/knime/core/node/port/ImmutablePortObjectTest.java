@@ -0,0 +1,230 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.image.png.PNGImageContent;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.port.image.ImagePortObject;
+import org.knime.core.node.port.image.ImagePortObjectSpec;
+import org.knime.core.node.port.pmml.PMMLPortObject;
+import org.knime.core.node.port.pmml.PMMLPortObjectSpecCreator;
+import org.knime.core.node.port.viewproperty.ColorHandlerPortObject;
+import org.knime.core.node.workflow.InternalNodeContainerState;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.WorkflowContext;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowTestCase;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests that {@link ImmutablePortObject}s are given to downstream nodes without a copy, while other port objects,
+ * including subclasses of immutable ones, are copied. {@link Node#copyPortObject(PortObject, ExecutionContext)} always
+ * copies.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ImmutablePortObjectTest extends WorkflowTestCase {
+
+    private static final PortType[] TYPES = new PortType[]{ImagePortObject.TYPE, ColorHandlerPortObject.TYPE,
+        PMMLPortObject.TYPE, ColorHandlerPortObject.TYPE};
+
+    private File m_workflowDirectory;
+
+    private NodeID m_source;
+
+    private NodeID m_passThrough;
+
+    private NodeID m_copy;
+
+    /** Creates a workflow of a source node connected to a node passing its inputs through and to a copying node. */
+    @Before
+    public void setUp() throws Exception {
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        m_source = wfm.createAndAddNode(new SourceNodeFactory());
+        m_passThrough = wfm.createAndAddNode(new PassThroughNodeFactory());
+        m_copy = wfm.createAndAddNode(new CopyNodeFactory());
+        for (int p = 1; p <= TYPES.length; p++) {
+            wfm.addConnection(m_source, p, m_passThrough, p);
+            wfm.addConnection(m_source, p, m_copy, p);
+        }
+    }
+
+    /** Immutable inputs arrive at the node model as they are, the PMML object and the subclass are copied. */
+    @Test
+    public void testExecutePassesImmutableInputs() throws Exception {
+        executeAllAndWait();
+        checkState(m_passThrough, InternalNodeContainerState.EXECUTED);
+        final PortObject image = getOutput(m_source, 1);
+        assertThat("Image port object not immutable", image, instanceOf(ImmutablePortObject.class));
+        assertThat("Image port object copied", getOutput(m_passThrough, 1), sameInstance(image));
+        final PortObject color = getOutput(m_source, 2);
+        assertThat("Color port object not immutable", color, instanceOf(ImmutablePortObject.class));
+        assertThat("Color port object copied", getOutput(m_passThrough, 2), sameInstance(color));
+        assertThat("PMML port object not copied", getOutput(m_passThrough, 3),
+            not(sameInstance(getOutput(m_source, 3))));
+        final PortObject subclass = getOutput(m_source, 4);
+        assertThat("Subclass not an immutable port object", subclass, instanceOf(ImmutablePortObject.class));
+        assertThat("Subclass of immutable port object not copied", getOutput(m_passThrough, 4),
+            not(sameInstance(subclass)));
+    }
+
+    /** {@link Node#copyPortObject(PortObject, ExecutionContext)} copies immutable objects, too. */
+    @Test
+    public void testCopyPortObjectCopiesImmutableObject() throws Exception {
+        executeAllAndWait();
+        checkState(m_copy, InternalNodeContainerState.EXECUTED);
+        for (int p = 1; p <= TYPES.length; p++) {
+            assertThat("Port object " + p + " not copied", getOutput(m_copy, p),
+                not(sameInstance(getOutput(m_source, p))));
+        }
+    }
+
+    private PortObject getOutput(final NodeID id, final int port) {
+        return findNodeContainer(id).getOutPort(port).getPortObject();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    private static DataTableSpec createTableSpec() {
+        return new DataTableSpec(new DataColumnSpecCreator("String-Column", StringCell.TYPE).createSpec());
+    }
+
+    /** Node creating an image, a color handler, a PMML port object and a subclass of the color handler. */
+    public static final class SourceNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(new PortType[0], TYPES) {
+                @Override
+                protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) {
+                    return new PortObjectSpec[]{new ImagePortObjectSpec(PNGImageContent.TYPE), createTableSpec(),
+                        new PMMLPortObjectSpecCreator(createTableSpec()).createSpec(), createTableSpec()};
+                }
+
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final ByteArrayOutputStream png = new ByteArrayOutputStream();
+                    ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", png);
+                    return new PortObject[]{
+                        new ImagePortObject(new PNGImageContent(png.toByteArray()),
+                            new ImagePortObjectSpec(PNGImageContent.TYPE)),
+                        new ColorHandlerPortObject(createTableSpec(), "Colors"),
+                        new PMMLPortObject(new PMMLPortObjectSpecCreator(createTableSpec()).createSpec()),
+                        new ColorHandlerSubclassPortObject(createTableSpec(), "Colors")};
+                }
+            };
+        }
+    }
+
+    /** Subclass of an immutable port object that doesn't declare {@link ImmutablePortObject} itself. */
+    public static final class ColorHandlerSubclassPortObject extends ColorHandlerPortObject {
+
+        /** Framework constructor. */
+        public ColorHandlerSubclassPortObject() {
+        }
+
+        ColorHandlerSubclassPortObject(final DataTableSpec spec, final String summary) {
+            super(spec, summary);
+        }
+    }
+
+    /** Node returning its inputs. */
+    public static final class PassThroughNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(TYPES, TYPES);
+        }
+    }
+
+    /** Node returning copies of its inputs created by {@link Node#copyPortObject(PortObject, ExecutionContext)}. */
+    public static final class CopyNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(TYPES, TYPES) {
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final PortObject[] result = new PortObject[inObjects.length];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = Node.copyPortObject(inObjects[i], exec);
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.pmml.preproc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.container.CellFactory;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Tests {@link PMMLCompiledTransformations}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PMMLCompiledTransformationsTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("x", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("s", StringCell.TYPE).createSpec());
+
+    private static List<Element> derivedFields(final String... derivedFields) throws Exception {
+        final String xml = "<TransformationDictionary xmlns=\"http://www.dmg.org/PMML-4_2\">"
+            + String.join("", derivedFields) + "</TransformationDictionary>";
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document doc =
+            factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        return PMMLExpressionCompiler.childElements(doc.getDocumentElement());
+    }
+
+    private static DataCell[] apply(final PMMLCompiledTransformations compiled, final DataCell x, final DataCell s)
+        throws InvalidSettingsException {
+        final CellFactory factory = compiled.createCellFactory(SPEC);
+        return factory.getCells(new DefaultRow("Row0", x, s));
+    }
+
+    /**
+     * Tests normalization, discretization and value mapping.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNormDiscretizeMapValues() throws Exception {
+        final PMMLCompiledTransformations compiled = PMMLCompiledTransformations.compile(derivedFields(
+            "<DerivedField name=\"x*\" displayName=\"x\" dataType=\"double\">"
+                + "<NormContinuous field=\"x\" outliers=\"asExtremeValues\">"
+                + "<LinearNorm orig=\"0\" norm=\"0\"/><LinearNorm orig=\"10\" norm=\"1\"/></NormContinuous>"
+                + "</DerivedField>",
+            "<DerivedField name=\"bin\" dataType=\"string\"><Discretize field=\"x\">"
+                + "<DiscretizeBin binValue=\"low\"><Interval closure=\"openClosed\" rightMargin=\"5\"/></DiscretizeBin>"
+                + "<DiscretizeBin binValue=\"high\"><Interval closure=\"openOpen\" leftMargin=\"5\"/></DiscretizeBin>"
+                + "</Discretize></DerivedField>",
+            "<DerivedField name=\"s*\" displayName=\"s\" dataType=\"string\">"
+                + "<MapValues outputColumn=\"out\" defaultValue=\"other\"><FieldColumnPair field=\"s\" column=\"in\"/>"
+                + "<InlineTable><row><in>a</in><out>A</out></row></InlineTable></MapValues></DerivedField>"));
+
+        DataCell[] cells = apply(compiled, new DoubleCell(2.5), new StringCell("a"));
+        assertThat(cells[0], is(new DoubleCell(0.25)));
+        assertThat(cells[1], is(new StringCell("low")));
+        assertThat(cells[2], is(new StringCell("A")));
+
+        cells = apply(compiled, new DoubleCell(20), new StringCell("b"));
+        assertThat(cells[0], is(new DoubleCell(1)));
+        assertThat(cells[1], is(new StringCell("high")));
+        assertThat(cells[2], is(new StringCell("other")));
+
+        cells = apply(compiled, DataType.getMissingCell(), new StringCell("a"));
+        assertTrue(cells[0].isMissing());
+        assertTrue(cells[1].isMissing());
+    }
+
+    /**
+     * Tests nested function applications referencing other derived fields that are defined later.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testApplyWithDependencies() throws Exception {
+        final PMMLCompiledTransformations compiled = PMMLCompiledTransformations.compile(derivedFields(
+            "<DerivedField name=\"sum\" dataType=\"integer\"><Apply function=\"+\">"
+                + "<FieldRef field=\"twice\"/><Constant>1</Constant></Apply></DerivedField>",
+            "<DerivedField name=\"twice\" dataType=\"double\"><Apply function=\"*\">"
+                + "<FieldRef field=\"x\"/><Constant>2</Constant></Apply></DerivedField>",
+            "<DerivedField name=\"label\" dataType=\"string\"><Apply function=\"if\">"
+                + "<Apply function=\"greaterThan\"><FieldRef field=\"x\"/><Constant>3</Constant></Apply>"
+                + "<Apply function=\"uppercase\"><FieldRef field=\"s\"/></Apply><Constant>small</Constant>"
+                + "</Apply></DerivedField>",
+            "<DerivedField name=\"ratio\" dataType=\"double\"><Apply function=\"/\" defaultValue=\"-1\">"
+                + "<FieldRef field=\"x\"/><Constant>0</Constant></Apply></DerivedField>"));
+        assertThat(compiled.getDerivedFieldNames(), is(Arrays.asList("sum", "twice", "label", "ratio")));
+
+        DataCell[] cells = apply(compiled, new DoubleCell(4), new StringCell("abc"));
+        assertThat(cells[0], is(new IntCell(9)));
+        assertThat(cells[1], is(new DoubleCell(8)));
+        assertThat(cells[2], is(new StringCell("ABC")));
+        assertThat(cells[3], is(new DoubleCell(-1)));
+
+        cells = apply(compiled, new DoubleCell(1), new StringCell("abc"));
+        assertThat(cells[2], is(new StringCell("small")));
+    }
+
+    /**
+     * Tests that derived fields replace the columns named by their display name.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testColumnRearranger() throws Exception {
+        final PMMLCompiledTransformations compiled = PMMLCompiledTransformations.compile(derivedFields(
+            "<DerivedField name=\"x*\" displayName=\"x\" dataType=\"double\">"
+                + "<Apply function=\"abs\"><FieldRef field=\"x\"/></Apply></DerivedField>",
+            "<DerivedField name=\"x**\" displayName=\"x\" dataType=\"integer\">"
+                + "<Apply function=\"round\"><FieldRef field=\"x*\"/></Apply></DerivedField>",
+            "<DerivedField name=\"s\" dataType=\"string\">"
+                + "<Apply function=\"lowercase\"><FieldRef field=\"s\"/></Apply></DerivedField>"));
+        final DataTableSpec spec = compiled.createColumnRearranger(SPEC).createSpec();
+        assertThat(spec.getNumColumns(), is(3));
+        assertThat(spec.getColumnSpec(0).getName(), is("x"));
+        assertThat(spec.getColumnSpec(0).getType(), is(IntCell.TYPE));
+        assertThat(spec.getColumnSpec(1).getName(), is("s"));
+        assertThat(spec.getColumnSpec(2).getName(), is("s (#1)"));
+    }
+
+    /**
+     * Tests that unsupported functions and cyclic references are rejected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testInvalidTransformations() throws Exception {
+        assertInvalid("<DerivedField name=\"a\" dataType=\"double\"><Apply function=\"unknown\">"
+            + "<FieldRef field=\"x\"/></Apply></DerivedField>");
+        assertInvalid("<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"b\"/></DerivedField>",
+            "<DerivedField name=\"b\" dataType=\"double\"><FieldRef field=\"a\"/></DerivedField>");
+        final PMMLCompiledTransformations compiled = PMMLCompiledTransformations.compile(
+            derivedFields("<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"y\"/></DerivedField>"));
+        try {
+            compiled.createCellFactory(SPEC);
+            fail("Missing input column not detected");
+        } catch (InvalidSettingsException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that derived fields defined more than once are rejected, also if the definitions are adjacent.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDuplicateDerivedFields() throws Exception {
+        assertInvalid("<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"x\"/></DerivedField>",
+            "<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"x\"/></DerivedField>");
+        assertInvalid("<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"x\"/></DerivedField>",
+            "<DerivedField name=\"b\" dataType=\"double\"><FieldRef field=\"x\"/></DerivedField>",
+            "<DerivedField name=\"a\" dataType=\"double\"><FieldRef field=\"x\"/></DerivedField>");
+    }
+
+    private static void assertInvalid(final String... derivedFields) throws Exception {
+        try {
+            PMMLCompiledTransformations.compile(derivedFields(derivedFields));
+            fail("Invalid transformation not detected");
+        } catch (InvalidSettingsException e) {
+            // expected
+        }
+    }
+}
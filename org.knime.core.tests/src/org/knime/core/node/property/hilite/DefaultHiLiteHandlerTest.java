@@ -46,12 +46,20 @@
  */
 package org.knime.core.node.property.hilite;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import javax.swing.SwingUtilities;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -340,4 +348,45 @@ public void test7() {
         assertFalse(m_hdl.isHiLit(m_c2));
         assertFalse(m_hdl.isHiLit(m_c3));
     }
+
+    /**
+     * Tests that events fired before the previous one has been delivered are coalesced.
+     * @throws Exception If the EDT could not be synchronized.
+     */
+    @Test
+    public void testCoalescedEvents() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        m_hdl.addHiLiteListener(new MyHiLiteListener() {
+            @Override
+            public void hiLite(final KeyEvent event) {
+                events.add("hilite " + event.keys());
+            }
+            @Override
+            public void unHiLite(final KeyEvent event) {
+                events.add("unhilite " + event.keys());
+            }
+        });
+        // block the EDT so that the events are queued
+        final CountDownLatch latch = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        m_hdl.fireHiLiteEvent(m_c1);
+        m_hdl.fireHiLiteEvent(m_c2, m_c1);
+        m_hdl.fireHiLiteEvent(m_c3);
+        m_hdl.fireUnHiLiteEvent(m_c1);
+        m_hdl.fireUnHiLiteEvent(m_c2);
+        assertTrue(m_hdl.isHiLit(m_c3));
+        assertFalse(m_hdl.isHiLit(m_c1));
+        latch.countDown();
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertEquals(Arrays.asList(
+            "hilite " + new LinkedHashSet<RowKey>(Arrays.asList(m_c1, m_c2, m_c3)),
+            "unhilite " + new LinkedHashSet<RowKey>(Arrays.asList(m_c1, m_c2))), events);
+    }
 }   // HiLiteHandlerTest
@@ -0,0 +1,267 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.wizard;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.interactive.ViewRequestHandler;
+import org.knime.core.node.interactive.ViewResponseMonitor;
+import org.knime.core.node.interactive.ViewResponseMonitorUpdateEvent.ViewResponseMonitorUpdateEventType;
+
+/**
+ * Tests {@link WizardViewRequestRunner} and {@link WizardViewRequestExecutor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WizardViewRequestRunnerTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Tests that no more than {@link WizardViewRequestExecutor#MAX_RUNNING_PER_KEY} requests of one handler run
+     * concurrently and that the waiting ones are processed later.
+     *
+     * @throws Exception if waiting is interrupted
+     */
+    @Test
+    public void testLimitPerKey() throws Exception {
+        final BlockingHandler handler = new BlockingHandler();
+        final int limit = WizardViewRequestExecutor.MAX_RUNNING_PER_KEY;
+        final List<ViewResponseMonitor<TestResponse>> monitors = new ArrayList<>();
+        for (int i = 0; i < limit + 2; i++) {
+            monitors.add(WizardViewRequestRunner.run(handler, new TestRequest(i, false), new ExecutionMonitor()));
+        }
+        waitFor(() -> handler.m_running.get() == limit);
+        Thread.sleep(100);
+        assertThat("Running requests", handler.m_running.get(), is(limit));
+        assertThat("Started requests", monitors.stream().filter(ViewResponseMonitor::isExecutionStarted).count(),
+            is((long)limit));
+
+        handler.m_release.countDown();
+        waitFor(() -> monitors.stream().allMatch(ViewResponseMonitor::isExecutionFinished));
+        assertThat("Maximum number of running requests", handler.m_maxRunning.get(), is(limit));
+        for (int i = 0; i < monitors.size(); i++) {
+            assertThat("Response of request " + i, monitors.get(i).getResponse().get().m_sequence, is(i));
+        }
+    }
+
+    /**
+     * Tests that a request cancels the running and the queued requests it supersedes and that the queued ones are
+     * not processed at all.
+     *
+     * @throws Exception if waiting is interrupted
+     */
+    @Test
+    public void testSupersede() throws Exception {
+        final BlockingHandler handler = new BlockingHandler();
+        final int limit = WizardViewRequestExecutor.MAX_RUNNING_PER_KEY;
+        final List<ViewResponseMonitor<TestResponse>> earlier = new ArrayList<>();
+        for (int i = 0; i <= limit; i++) {
+            earlier.add(WizardViewRequestRunner.run(handler, new TestRequest(i, false), new ExecutionMonitor()));
+        }
+        waitFor(() -> handler.m_running.get() == limit);
+        final List<CountDownLatch> statusUpdates = new ArrayList<>();
+        for (ViewResponseMonitor<TestResponse> monitor : earlier) {
+            statusUpdates.add(awaitStatusUpdate(monitor));
+        }
+
+        final ViewResponseMonitor<TestResponse> latest =
+            WizardViewRequestRunner.run(handler, new TestRequest(limit + 1, true), new ExecutionMonitor());
+        for (int i = 0; i < earlier.size(); i++) {
+            assertThat("Status update of superseded request " + i,
+                statusUpdates.get(i).await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+            assertCancelled(earlier.get(i));
+        }
+        waitFor(() -> handler.m_handled.contains(limit + 1));
+        handler.m_release.countDown();
+        waitFor(latest::isExecutionFinished);
+        assertThat(latest.getResponse().get().m_sequence, is(limit + 1));
+        assertThat("Queued superseded request must not be processed", handler.m_handled, not(hasItem(limit)));
+    }
+
+    /**
+     * Tests that cancelling a running request notifies the listeners and reports it as cancelled rather than failed.
+     *
+     * @throws Exception if waiting is interrupted
+     */
+    @Test
+    public void testCancel() throws Exception {
+        final BlockingHandler handler = new BlockingHandler();
+        final ViewResponseMonitor<TestResponse> monitor =
+            WizardViewRequestRunner.run(handler, new TestRequest(0, false), new ExecutionMonitor());
+        waitFor(() -> handler.m_running.get() == 1);
+        final CountDownLatch statusUpdate = awaitStatusUpdate(monitor);
+        monitor.cancel();
+        assertThat("Status update", statusUpdate.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+        // the handler notices the cancellation and must not turn it into a failure
+        waitFor(() -> handler.m_running.get() == 0);
+        assertCancelled(monitor);
+        assertThat(handler.m_handled, contains(0));
+    }
+
+    private static void assertCancelled(final ViewResponseMonitor<?> monitor) {
+        assertThat("Cancelled", monitor.isCancelled(), is(true));
+        assertThat("Finished", monitor.isExecutionFinished(), is(false));
+        assertThat("Failed", monitor.isExecutionFailed(), is(false));
+        assertThat("Response available", monitor.isResponseAvailable(), is(false));
+    }
+
+    private static CountDownLatch awaitStatusUpdate(final ViewResponseMonitor<?> monitor) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        monitor.addUpdateListener(e -> {
+            if (e.getType() == ViewResponseMonitorUpdateEventType.STATUS_UPDATE) {
+                latch.countDown();
+            }
+        });
+        return latch;
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MILLIS + "ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /** Blocks each request until released or cancelled and records the handled sequences. */
+    private static final class BlockingHandler implements ViewRequestHandler<TestRequest, TestResponse> {
+
+        private final CountDownLatch m_release = new CountDownLatch(1);
+
+        private final AtomicInteger m_running = new AtomicInteger();
+
+        private final AtomicInteger m_maxRunning = new AtomicInteger();
+
+        private final List<Integer> m_handled = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public TestResponse handleRequest(final TestRequest request, final ExecutionMonitor exec)
+            throws InterruptedException, CanceledExecutionException {
+            m_handled.add(request.getSequence());
+            m_maxRunning.accumulateAndGet(m_running.incrementAndGet(), Math::max);
+            try {
+                while (!m_release.await(10, TimeUnit.MILLISECONDS)) {
+                    exec.checkCanceled();
+                }
+                return new TestResponse(request.getSequence());
+            } finally {
+                m_running.decrementAndGet();
+            }
+        }
+    }
+
+    private static class TestContent {
+
+        public void loadFromStream(final InputStream viewContentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        public OutputStream saveToStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void saveToNodeSettings(final NodeSettingsWO settings) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void loadFromNodeSettings(final NodeSettingsRO settings) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class TestRequest extends TestContent implements WizardViewRequest {
+
+        private final int m_sequence;
+
+        private final boolean m_supersedes;
+
+        TestRequest(final int sequence, final boolean supersedes) {
+            m_sequence = sequence;
+            m_supersedes = supersedes;
+        }
+
+        @Override
+        public int getSequence() {
+            return m_sequence;
+        }
+
+        @Override
+        public boolean supersedes(final WizardViewRequest earlierRequest) {
+            return m_supersedes;
+        }
+    }
+
+    private static final class TestResponse extends TestContent implements WizardViewResponse {
+
+        private final int m_sequence;
+
+        TestResponse(final int sequence) {
+            m_sequence = sequence;
+        }
+    }
+}
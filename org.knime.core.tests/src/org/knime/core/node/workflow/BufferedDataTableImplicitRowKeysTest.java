@@ -0,0 +1,190 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.FileNodePersistor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Saves and loads a table with implicit row keys. Such tables don't store their row keys and must be saved under a
+ * table type and buffer version that older versions of KNIME refuse to load.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class BufferedDataTableImplicitRowKeysTest extends WorkflowTestCase {
+
+    private static final int ROW_COUNT = 100;
+
+    private static final DataTableSpec SPEC =
+        new DataTableSpec(new String[]{"String", "Int"}, new DataType[]{StringCell.TYPE, IntCell.TYPE});
+
+    private File m_workflowDirectory;
+
+    private NodeID m_source;
+
+    /** Creates a workflow with a single node creating the table. */
+    @Before
+    public void setUp() throws Exception {
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        m_source = wfm.createAndAddNode(new ImplicitRowKeysNodeFactory());
+    }
+
+    /** Saves the table, checks table type and buffer version, loads the workflow and compares the table. */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        executeAllAndWait();
+        checkState(m_source, InternalNodeContainerState.EXECUTED);
+        final List<String> rows = getRows();
+        assertThat("Wrong number of rows", rows.size(), is(ROW_COUNT));
+
+        getManager().save(m_workflowDirectory, new ExecutionMonitor(), true);
+        final File portDir = new File(new File(m_workflowDirectory,
+            findNodeContainer(m_source).getNodeContainerDirectory().getFile().getName()),
+            FileNodePersistor.PORT_FOLDER_PREFIX + 1);
+        assertThat("Wrong table type", readSettings(new File(portDir, "data.xml")).getString("table_type"),
+            is("container_table_implicit_keys"));
+        final NodeSettingsRO meta;
+        try (ZipFile zip = new ZipFile(new File(portDir, "data.zip"))) {
+            final ZipEntry metaEntry = zip.getEntry("meta.xml");
+            try (InputStream in = new BufferedInputStream(zip.getInputStream(metaEntry))) {
+                meta = NodeSettings.loadFromXML(in);
+            }
+        }
+        assertThat("Wrong buffer version", meta.getNodeSettings("table.meta.internal").getString("container.version"),
+            is("container_13"));
+
+        closeWorkflow();
+        setManager(loadWorkflow(m_workflowDirectory, new ExecutionMonitor()).getWorkflowManager());
+        m_source = new NodeID(getManager().getID(), m_source.getIndex());
+        checkState(m_source, InternalNodeContainerState.EXECUTED);
+        assertThat("Different table after load", getRows(), is(rows));
+    }
+
+    private static NodeSettingsRO readSettings(final File file) throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return NodeSettings.loadFromXML(in);
+        }
+    }
+
+    private List<String> getRows() {
+        final BufferedDataTable table = (BufferedDataTable)findNodeContainer(m_source).getOutPort(1).getPortObject();
+        final List<String> rows = new ArrayList<>();
+        for (DataRow row : table) {
+            rows.add(row.getKey() + "," + row.getCell(0) + "," + row.getCell(1));
+        }
+        return rows;
+    }
+
+    /** Deletes the workflow directory. */
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    /** Creates a node with one output table with implicit row keys. */
+    public static final class ImplicitRowKeysNodeFactory extends AdapterNodeFactory {
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(0, 1) {
+                @Override
+                protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+                    return new PortObjectSpec[]{SPEC};
+                }
+
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final BufferedDataContainer container = exec.createDataContainerWithImplicitRowKeys(SPEC, false);
+                    for (int i = 0; i < ROW_COUNT; i++) {
+                        container.addRowToTable(
+                            new DefaultRow(RowKey.createRowKey((long)i), new StringCell("Row " + i), new IntCell(i)));
+                    }
+                    container.close();
+                    return new PortObject[]{container.getTable()};
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.blob.BinaryObjectCellFactory;
+import org.knime.core.data.blob.BinaryObjectDataCell;
+import org.knime.core.data.blob.BinaryObjectDataValue;
+import org.knime.core.data.blob.BinaryObjectFileStoreDataCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.xml.XMLBlobCell;
+import org.knime.core.data.xml.XMLCellFactory;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.FileNodePersistor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Saves and loads tables containing blobs and file stores with {@link KNIMEConstants#PROPERTY_TABLE_SAVE_AS_FILES}
+ * enabled. One table is flushed to disk (its files are linked into the workflow), the other one is held in memory
+ * (it is written by a clone of its buffer).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class BufferedDataTableSaveAsFilesTest extends WorkflowTestCase {
+
+    private static final int ROW_COUNT = 20;
+
+    /** Port of the table flushed to disk. */
+    private static final int PORT_ON_DISK = 1;
+
+    /** Port of the table held in memory. */
+    private static final int PORT_IN_MEMORY = 2;
+
+    private static final DataTableSpec SPEC = new DataTableSpec(new String[]{"XML", "Binary"},
+        new DataType[]{XMLCellFactory.TYPE, BinaryObjectDataCell.TYPE});
+
+    private File m_workflowDirectory;
+
+    private NodeID m_source;
+
+    /** Creates a workflow with a single node creating both tables. */
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty(KNIMEConstants.PROPERTY_TABLE_SAVE_AS_FILES, "true");
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        m_source = wfm.createAndAddNode(new BlobAndFileStoreNodeFactory());
+    }
+
+    /** Saves both tables as files, checks the saved layout, loads the workflow and compares the tables. */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        executeAllAndWait();
+        checkState(m_source, InternalNodeContainerState.EXECUTED);
+        final List<String> onDisk = getRows(PORT_ON_DISK);
+        final List<String> inMemory = getRows(PORT_IN_MEMORY);
+        assertThat("Wrong number of rows", onDisk.size(), is(ROW_COUNT));
+        assertThat("Tables differ before save", inMemory, is(onDisk));
+
+        getManager().save(m_workflowDirectory, new ExecutionMonitor(), true);
+        final File nodeDir = new File(m_workflowDirectory,
+            findNodeContainer(m_source).getNodeContainerDirectory().getFile().getName());
+        checkSavedTable(nodeDir, PORT_ON_DISK);
+        checkSavedTable(nodeDir, PORT_IN_MEMORY);
+        assertThat("Blobs not saved", new File(getTableDir(nodeDir, PORT_ON_DISK), "blobs").isDirectory(), is(true));
+
+        closeWorkflow();
+        setManager(loadWorkflow(m_workflowDirectory, new ExecutionMonitor()).getWorkflowManager());
+        m_source = new NodeID(getManager().getID(), m_source.getIndex());
+        checkState(m_source, InternalNodeContainerState.EXECUTED);
+        assertThat("Different table flushed to disk after load", getRows(PORT_ON_DISK), is(onDisk));
+        assertThat("Different table held in memory after load", getRows(PORT_IN_MEMORY), is(onDisk));
+    }
+
+    private static File getTableDir(final File nodeDir, final int port) {
+        return new File(new File(nodeDir, FileNodePersistor.PORT_FOLDER_PREFIX + port), "data");
+    }
+
+    private static void checkSavedTable(final File nodeDir, final int port) throws Exception {
+        final File portDir = new File(nodeDir, FileNodePersistor.PORT_FOLDER_PREFIX + port);
+        final NodeSettingsRO settings;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(new File(portDir, "data.xml")))) {
+            settings = NodeSettings.loadFromXML(in);
+        }
+        assertThat("Wrong table type", settings.getString("table_type"), is("container_table_files"));
+        assertThat("Wrong table file", settings.getString("table_file_name"), is("data"));
+        assertThat("Zip file written", new File(portDir, "data.zip").exists(), is(false));
+        final File tableDir = getTableDir(nodeDir, port);
+        assertThat("No data file", new File(tableDir, "data.bin").isFile(), is(true));
+        assertThat("No meta file", new File(tableDir, "meta.xml").isFile(), is(true));
+    }
+
+    private List<String> getRows(final int port) throws Exception {
+        final BufferedDataTable table = (BufferedDataTable)findNodeContainer(m_source).getOutPort(port).getPortObject();
+        final List<String> rows = new ArrayList<>();
+        for (DataRow row : table) {
+            assertThat("Not a blob", row.getCell(0), instanceOf(XMLBlobCell.class));
+            assertThat("Not a file store", row.getCell(1), instanceOf(BinaryObjectFileStoreDataCell.class));
+            final byte[] bytes;
+            try (InputStream in = ((BinaryObjectDataValue)row.getCell(1)).openInputStream()) {
+                bytes = IOUtils.toByteArray(in);
+            }
+            rows.add(row.getKey() + "," + ((XMLBlobCell)row.getCell(0)).getStringValue().hashCode() + ","
+                + bytes.length + "," + Arrays.hashCode(bytes));
+        }
+        return rows;
+    }
+
+    /** Clears the property, which is read whenever a table is saved. */
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(KNIMEConstants.PROPERTY_TABLE_SAVE_AS_FILES);
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    /** Creates a node with two outputs, each containing blobs and file stores. */
+    public static final class BlobAndFileStoreNodeFactory extends AdapterNodeFactory {
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(0, 2) {
+                @Override
+                protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+                    return new PortObjectSpec[]{SPEC, SPEC};
+                }
+
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final BufferedDataContainer onDisk = exec.createDataContainer(SPEC, true, 0);
+                    final BufferedDataContainer inMemory = exec.createDataContainer(SPEC, true, Integer.MAX_VALUE);
+                    final BinaryObjectCellFactory binaryFactory = new BinaryObjectCellFactory(exec);
+                    for (int i = 0; i < ROW_COUNT; i++) {
+                        // separate cells, a blob added to the first table would otherwise be referenced by the second
+                        onDisk.addRowToTable(createRow(i, binaryFactory));
+                        inMemory.addRowToTable(createRow(i, binaryFactory));
+                    }
+                    onDisk.close();
+                    inMemory.close();
+                    return new PortObject[]{onDisk.getTable(), inMemory.getTable()};
+                }
+            };
+        }
+
+        private static DataRow createRow(final int index, final BinaryObjectCellFactory binaryFactory)
+            throws Exception {
+            // both larger than the thresholds for blobs (8kB) and file stores (4kB)
+            final StringBuilder xml = new StringBuilder("<root>");
+            for (int i = 0; i < 1000; i++) {
+                xml.append("<e>").append(index).append('-').append(i).append("</e>");
+            }
+            xml.append("</root>");
+            final byte[] bytes = new byte[8 * 1024 + index];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte)(i * 31 + index);
+            }
+            final DataCell xmlCell = XMLCellFactory.create(xml.toString());
+            return new DefaultRow(RowKey.createRowKey((long)index), xmlCell, binaryFactory.create(bytes));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CoalescingEventDispatcher}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CoalescingEventDispatcherTest {
+
+    /**
+     * Checks that pending events with equal keys are coalesced into the latest one at the position of the first one
+     * and that all other events are delivered in order.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testCoalescingAndOrder() throws Exception {
+        final CoalescingEventDispatcher dispatcher = new CoalescingEventDispatcher("Test-Notifier");
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.post(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add("first");
+        });
+        blocked.await();
+
+        // all of these are pending until the first delivery has finished
+        dispatcher.post("a", () -> delivered.add("a1"));
+        dispatcher.post("b", () -> delivered.add("b1"));
+        dispatcher.post(() -> delivered.add("x"));
+        dispatcher.post("a", () -> delivered.add("a2"));
+        dispatcher.post(() -> delivered.add("x"));
+        dispatcher.post("a", () -> delivered.add("a3"));
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.post(done::countDown);
+        release.countDown();
+        assertThat("Events not delivered in time", done.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThat(delivered, is(Arrays.asList("first", "a3", "b1", "x", "x")));
+    }
+
+    /**
+     * Checks that a failing delivery doesn't prevent subsequent ones.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testFailingDelivery() throws Exception {
+        final CoalescingEventDispatcher dispatcher = new CoalescingEventDispatcher("Test-Notifier");
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.post(() -> {
+            throw new IllegalStateException("expected by test");
+        });
+        dispatcher.post(() -> delivered.add("after failure"));
+        dispatcher.post(done::countDown);
+        assertThat("Events not delivered in time", done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(delivered, is(Collections.singletonList("after failure")));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.workflow.VariableType.IntType;
+import org.knime.core.node.workflow.Workflow.NodeAndInports;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+
+/**
+ * Tests that the cached loop body and successor analysis of {@link Workflow} is reused when the loop is restarted
+ * and invalidated when the loop body changes.
+ *
+ * <p>Uses the workflow of {@link Bug5510_LoopEndEmptyTable}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class LoopBodyCacheTest extends WorkflowTestCase {
+
+    private NodeID m_loopStart_2;
+    private NodeID m_stringManipulation_4;
+    private NodeID m_loopEnd_3;
+
+    @Before
+    public void setUp() throws Exception {
+        NodeID baseID = loadAndSetWorkflow(getWorkflowDirectory("bug5510_LoopEndEmptyTable"));
+        m_loopStart_2 = new NodeID(baseID, 2);
+        m_stringManipulation_4 = new NodeID(baseID, 4);
+        m_loopEnd_3 = new NodeID(baseID, 3);
+        final WorkflowManager manager = getManager();
+        NodeSettings s = new NodeSettings("counting-loop");
+        manager.saveNodeSettings(m_loopStart_2, s);
+        s.getNodeSettings("model").addInt("loops", 3);
+        manager.loadNodeSettings(m_loopStart_2, s);
+    }
+
+    /** Runs the loop repeatedly, each iteration restarts the loop body with the cached analysis. */
+    @Test
+    public void testRestartLoop() throws Exception {
+        final List<NodeID> loopBody = getLoopBody();
+        final List<NodeID> successors = getSuccessors();
+        for (int loops : new int[]{3, 100}) {
+            reset(m_loopStart_2);
+            NodeSettings s = new NodeSettings("counting-loop");
+            getManager().saveNodeSettings(m_loopStart_2, s);
+            s.getNodeSettings("model").addInt("loops", loops);
+            getManager().loadNodeSettings(m_loopStart_2, s);
+
+            executeAndWait(m_loopEnd_3);
+            checkState(m_loopEnd_3, InternalNodeContainerState.EXECUTED);
+            checkState(m_stringManipulation_4, InternalNodeContainerState.EXECUTED);
+            final Optional<FlowVariable> iteration = findNodeContainer(m_stringManipulation_4).getFlowObjectStack()
+                .peekFlowVariable("currentIteration", IntType.INSTANCE);
+            assertThat("Last iteration of the loop body", iteration.map(FlowVariable::getIntValue).orElse(-1),
+                is(loops - 1));
+            assertThat("Loop body changed by restarts", getLoopBody(), is(loopBody));
+            assertThat("Successors changed by restarts", getSuccessors(), is(successors));
+        }
+    }
+
+    /** Inserts a node into the loop body after the loop has been executed (and the analysis been cached). */
+    @Test
+    public void testInsertNodeIntoLoopBody() throws Exception {
+        final WorkflowManager manager = getManager();
+        executeAndWait(m_loopEnd_3);
+        checkState(m_loopEnd_3, InternalNodeContainerState.EXECUTED);
+
+        reset(m_loopStart_2);
+        deleteConnection(m_loopEnd_3, 1);
+        final NodeID inserted = manager.createAndAddNode(new AdapterNodeFactory());
+        manager.addConnection(m_stringManipulation_4, 1, inserted, 1);
+        manager.addConnection(inserted, 1, m_loopEnd_3, 1);
+        assertThat("Inserted node not in loop body", getLoopBody(), hasItem(inserted));
+        assertThat("Inserted node not a successor", getSuccessors(), hasItem(inserted));
+
+        executeAndWait(m_loopEnd_3);
+        checkState(m_loopEnd_3, InternalNodeContainerState.EXECUTED);
+        checkState(inserted, InternalNodeContainerState.EXECUTED);
+
+        reset(m_loopStart_2);
+        manager.removeNode(inserted);
+        assertThat("Removed node still in loop body", getLoopBody(), not(hasItem(inserted)));
+        assertThat("Removed node still a successor", getSuccessors(), not(hasItem(inserted)));
+    }
+
+    /** Modifying the result must not change the cached analysis. */
+    @Test
+    public void testResultIsCopy() throws Exception {
+        final Workflow workflow = getManager().getWorkflow();
+        try (WorkflowLock lock = getManager().lock()) {
+            workflow.findAllNodesConnectedToLoopBody(m_loopStart_2, m_loopEnd_3).clear();
+            workflow.getBreadthFirstListOfNodeAndSuccessors(m_loopStart_2, false).clear();
+        }
+        assertThat("Cached loop body modified", getLoopBody(), hasItem(m_stringManipulation_4));
+        assertThat("Cached successors modified", getSuccessors(), hasItem(m_stringManipulation_4));
+    }
+
+    private List<NodeID> getLoopBody() throws Exception {
+        final List<NodeID> result = new ArrayList<>();
+        try (WorkflowLock lock = getManager().lock()) {
+            for (NodeAndInports nai : getManager().getWorkflow().findAllNodesConnectedToLoopBody(m_loopStart_2,
+                m_loopEnd_3)) {
+                result.add(nai.getID());
+            }
+        }
+        return result;
+    }
+
+    private List<NodeID> getSuccessors() {
+        try (WorkflowLock lock = getManager().lock()) {
+            return new ArrayList<>(
+                getManager().getWorkflow().getBreadthFirstListOfNodeAndSuccessors(m_loopStart_2, false).keySet());
+        }
+    }
+
+}
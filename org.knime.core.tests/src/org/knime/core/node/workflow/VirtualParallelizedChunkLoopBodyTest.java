@@ -0,0 +1,386 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.ColumnRearranger;
+import org.knime.core.data.container.SingleCellFactory;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.node.workflow.virtual.parchunk.ParallelizedChunkContentMaster;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBodyNodeModel;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkNodeInput;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectOutNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests the virtual execution of parallel chunk loops ({@link KNIMEConstants#PROPERTY_VIRTUAL_PARALLEL_CHUNKS}) against
+ * the execution with copies of the loop body, including re-execution of a chunk after reset and after load.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class VirtualParallelizedChunkLoopBodyTest extends WorkflowTestCase {
+
+    private static final String ROWS_VARIABLE = "chunk_rows";
+
+    private File m_workflowDirectory;
+
+    private NodeID m_start;
+
+    private NodeID m_end;
+
+    /** Creates a workflow: source (3 rows) - chunk start (one row per chunk) - body - chunk end. */
+    @Before
+    public void setUp() throws Exception {
+        m_workflowDirectory = FileUtil.createTempDir(getClass().getSimpleName());
+        final WorkflowCreationHelper creationHelper = new WorkflowCreationHelper();
+        creationHelper.setWorkflowContext(new WorkflowContext.Factory(m_workflowDirectory).createContext());
+        final WorkflowManager wfm = WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(),
+            creationHelper);
+        setManager(wfm);
+        final NodeID source = wfm.createAndAddNode(new SourceNodeFactory());
+        m_start = wfm.createAndAddNode(new ChunkStartNodeFactory());
+        final NodeID body = wfm.createAndAddNode(new ChunkBodyNodeFactory());
+        m_end = wfm.createAndAddNode(new ChunkEndNodeFactory());
+        wfm.addConnection(source, 1, m_start, 1);
+        wfm.addConnection(m_start, 1, body, 1);
+        wfm.addConnection(body, 1, m_end, 1);
+    }
+
+    /** Executes the loop with copies of the loop body and virtually, both must give the same result. */
+    @Test
+    public void testVirtualMatchesCopy() throws Exception {
+        System.setProperty(KNIMEConstants.PROPERTY_VIRTUAL_PARALLEL_CHUNKS, "false");
+        executeAllAndWait();
+        checkState(m_end, InternalNodeContainerState.EXECUTED);
+        final List<String> copyResult = getRows(getEndTable());
+        assertThat("Wrong number of rows", copyResult.size(), is(3));
+        assertThat("Loop body copied", findChunkBodies().size(), is(0));
+        checkChunkVariables();
+
+        reset(m_start);
+        System.setProperty(KNIMEConstants.PROPERTY_VIRTUAL_PARALLEL_CHUNKS, "true");
+        executeAllAndWait();
+        checkState(m_end, InternalNodeContainerState.EXECUTED);
+        assertThat("Chunks not executed virtually", findChunkBodies().size(), is(2));
+        assertThat("Different result in virtual mode", getRows(getEndTable()), is(copyResult));
+        checkChunkVariables();
+    }
+
+    /** Resets the body node of a virtual chunk and executes it again, before and after saving and loading. */
+    @Test
+    public void testVirtualReexecute() throws Exception {
+        System.setProperty(KNIMEConstants.PROPERTY_VIRTUAL_PARALLEL_CHUNKS, "true");
+        executeAllAndWait();
+        checkState(m_end, InternalNodeContainerState.EXECUTED);
+        final List<List<String>> chunkResults = getChunkRows();
+        assertThat("Wrong number of chunks", chunkResults.size(), is(2));
+
+        reset(findChunkBodies().get(0));
+        checkState(findChunkBodies().get(0), InternalNodeContainerState.CONFIGURED);
+        executeAllAndWait();
+        checkState(findChunkBodies().get(0), InternalNodeContainerState.EXECUTED);
+        assertThat("Different result after reset", getChunkRows(), is(chunkResults));
+        checkChunkVariables();
+
+        getManager().save(m_workflowDirectory, new ExecutionMonitor(), true);
+        closeWorkflow();
+        setManager(loadWorkflow(m_workflowDirectory, new ExecutionMonitor()).getWorkflowManager());
+        m_start = new NodeID(getManager().getID(), m_start.getIndex());
+        m_end = new NodeID(getManager().getID(), m_end.getIndex());
+        checkState(m_end, InternalNodeContainerState.EXECUTED);
+
+        for (NodeID body : findChunkBodies()) {
+            reset(body);
+        }
+        executeAllAndWait();
+        for (NodeID body : findChunkBodies()) {
+            checkState(body, InternalNodeContainerState.EXECUTED);
+        }
+        assertThat("Different result after load", getChunkRows(), is(chunkResults));
+        checkChunkVariables();
+    }
+
+    private BufferedDataTable getEndTable() {
+        return (BufferedDataTable)findNodeContainer(m_end).getOutPort(1).getPortObject();
+    }
+
+    private static List<String> getRows(final BufferedDataTable table) {
+        final List<String> rows = new ArrayList<>();
+        for (DataRow row : table) {
+            final StringBuilder b = new StringBuilder(row.getKey().toString());
+            for (DataCell cell : row) {
+                b.append(',').append(cell);
+            }
+            rows.add(b.toString());
+        }
+        return rows;
+    }
+
+    private Optional<WorkflowManager> findChunksMetanode() {
+        return getManager().getNodeContainers().stream().filter(nc -> nc instanceof WorkflowManager)
+            .map(nc -> (WorkflowManager)nc).findFirst();
+    }
+
+    private List<NodeID> findNodes(final Class<?> modelClass) {
+        final List<NodeID> result = new ArrayList<>();
+        findChunksMetanode().ifPresent(chunks -> chunks.getNodeContainers().stream()
+            .filter(nc -> modelClass.isInstance(((NativeNodeContainer)nc).getNodeModel()))
+            .forEach(nc -> result.add(nc.getID())));
+        return result;
+    }
+
+    private List<NodeID> findChunkBodies() {
+        return findNodes(VirtualParallelizedChunkBodyNodeModel.class);
+    }
+
+    /** The tables arriving at the end nodes of the chunks. */
+    private List<List<String>> getChunkRows() {
+        final List<List<String>> result = new ArrayList<>();
+        for (NodeID id : findNodes(VirtualParallelizedChunkPortObjectOutNodeModel.class)) {
+            final PortObject[] outObjects = ((VirtualParallelizedChunkPortObjectOutNodeModel)(
+                (NativeNodeContainer)findNodeContainer(id)).getNodeModel()).getOutObjects();
+            result.add(getRows((BufferedDataTable)outObjects[0]));
+        }
+        return result;
+    }
+
+    /** The variable pushed by the loop body must arrive at the end node of each chunk. */
+    private void checkChunkVariables() {
+        for (NodeID id : findNodes(VirtualParallelizedChunkPortObjectOutNodeModel.class)) {
+            final Optional<FlowVariable> v = findNodeContainer(id).getFlowObjectStack()
+                .peekFlowVariable(ROWS_VARIABLE, VariableType.IntType.INSTANCE);
+            assertThat("Variable of loop body missing at chunk end " + id, v.orElse(null), notNullValue());
+            assertThat("Wrong variable value at chunk end " + id, v.get().getIntValue(), is(1));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(KNIMEConstants.PROPERTY_VIRTUAL_PARALLEL_CHUNKS);
+        super.tearDown();
+        FileUtil.deleteRecursively(m_workflowDirectory);
+    }
+
+    /** Source node with a table of 3 rows. */
+    public static final class SourceNodeFactory extends AdapterNodeFactory {
+        /** Creates a source node. */
+        public SourceNodeFactory() {
+            super(true);
+        }
+    }
+
+    /** Loop body node appending a column and pushing the row count as flow variable. */
+    public static final class ChunkBodyNodeFactory extends AdapterNodeFactory {
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new AdapterNodeModel(1, 1) {
+                @Override
+                protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+                    return new PortObjectSpec[]{createRearranger((DataTableSpec)inSpecs[0]).createSpec()};
+                }
+
+                @Override
+                protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec)
+                    throws Exception {
+                    final BufferedDataTable table = (BufferedDataTable)inObjects[0];
+                    pushFlowVariableInt(ROWS_VARIABLE, (int)table.size());
+                    return new PortObject[]{
+                        exec.createColumnRearrangeTable(table, createRearranger(table.getDataTableSpec()), exec)};
+                }
+            };
+        }
+
+        private static ColumnRearranger createRearranger(final DataTableSpec spec) {
+            final ColumnRearranger rearranger = new ColumnRearranger(spec);
+            rearranger.append(new SingleCellFactory(new DataColumnSpecCreator("Body", StringCell.TYPE).createSpec()) {
+                @Override
+                public DataCell getCell(final DataRow row) {
+                    return new StringCell("Body-" + row.getKey());
+                }
+            });
+            return rearranger;
+        }
+    }
+
+    /** Parallel chunk start node, creates one chunk per row. */
+    public static final class ChunkStartNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new ChunkStartNodeModel();
+        }
+    }
+
+    private static final class ChunkStartNodeModel extends AdapterNodeModel implements LoopStartParallelizeNode {
+
+        private BufferedDataTable[] m_remoteChunks = new BufferedDataTable[0];
+
+        private ParallelizedChunkContentMaster m_chunkMaster;
+
+        ChunkStartNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            final BufferedDataTable table = (BufferedDataTable)inObjects[0];
+            final List<BufferedDataTable> chunks = new ArrayList<>();
+            for (DataRow row : table) {
+                final BufferedDataContainer container = exec.createDataContainer(table.getDataTableSpec());
+                container.addRowToTable(row);
+                container.close();
+                chunks.add(container.getTable());
+            }
+            m_remoteChunks = chunks.subList(1, chunks.size()).toArray(new BufferedDataTable[chunks.size() - 1]);
+            return new PortObject[]{chunks.get(0)};
+        }
+
+        @Override
+        public VirtualParallelizedChunkNodeInput getVirtualNodeInput(final int chunkIndex) {
+            return new VirtualParallelizedChunkNodeInput(new PortObject[]{m_remoteChunks[chunkIndex]}, chunkIndex);
+        }
+
+        @Override
+        public int getNrRemoteChunks() {
+            return m_remoteChunks.length;
+        }
+
+        @Override
+        public void setChunkMaster(final ParallelizedChunkContentMaster pccm) {
+            m_chunkMaster = pccm;
+        }
+
+        @Override
+        protected void reset() {
+            if (m_chunkMaster != null) {
+                m_chunkMaster.cleanupChunks();
+                m_chunkMaster = null;
+            }
+            m_remoteChunks = new BufferedDataTable[0];
+        }
+    }
+
+    /** Parallel chunk end node, concatenates the local chunk with the remote chunks. */
+    public static final class ChunkEndNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new ChunkEndNodeModel();
+        }
+    }
+
+    private static final class ChunkEndNodeModel extends AdapterNodeModel implements LoopEndParallelizeNode {
+
+        private ParallelizedChunkContentMaster m_chunkMaster;
+
+        ChunkEndNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            synchronized (this) {
+                while (m_chunkMaster.nrExecutingChunks() > 0) {
+                    exec.checkCanceled();
+                    wait(100);
+                }
+            }
+            if (m_chunkMaster.nrFailedChunks() > 0) {
+                throw new Exception(m_chunkMaster.nrFailedChunks() + " chunk(s) failed");
+            }
+            // copy the rows, the chunks' tables are cleared when a chunk is reset
+            final BufferedDataTable local = (BufferedDataTable)inObjects[0];
+            final BufferedDataContainer container = exec.createDataContainer(local.getDataTableSpec());
+            addRows(local, container);
+            for (int i = 0; i < m_chunkMaster.nrChunks(); i++) {
+                addRows((BufferedDataTable)m_chunkMaster.getChunk(i).getOutportContent()[0], container);
+            }
+            container.close();
+            return new PortObject[]{container.getTable()};
+        }
+
+        private static void addRows(final BufferedDataTable table, final BufferedDataContainer container) {
+            for (DataRow row : table) {
+                container.addRowToTable(row);
+            }
+        }
+
+        @Override
+        public void setParallelChunkMaster(final ParallelizedChunkContentMaster pcm) {
+            m_chunkMaster = pcm;
+        }
+
+        @Override
+        public synchronized void updateStatus() {
+            notifyAll();
+        }
+    }
+}
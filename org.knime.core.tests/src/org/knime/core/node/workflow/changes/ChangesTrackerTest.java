@@ -0,0 +1,117 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow.changes;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.knime.core.node.workflow.NodeID;
+
+/**
+ * Tests the change log of {@link ChangesTracker}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ChangesTrackerTest {
+
+    private static final NodeID NODE_1 = NodeID.ROOTID.createChild(1);
+
+    private static final NodeID NODE_2 = NodeID.ROOTID.createChild(2);
+
+    private static List<String> toStrings(final Optional<List<TrackedChange>> changes) {
+        return changes.get().stream().map(TrackedChange::toString).collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that repeated changes are collapsed into the latest one and that the flags are still set.
+     */
+    @Test
+    public void testChangesSince() {
+        final ChangesTracker tracker = new ChangesTracker();
+        assertThat(tracker.getVersion(), is(0L));
+        assertThat(tracker.getChangesSince(0), is(Optional.of(Collections.emptyList())));
+
+        tracker.nodeStateChange(NODE_1);
+        tracker.otherChange(TrackedChange.Type.NODE_ADDED, NODE_2);
+        tracker.nodeStateChange(NODE_2);
+        tracker.nodeStateChange(NODE_1);
+        tracker.log(TrackedChange.Type.NODE_MESSAGE, NODE_1);
+        assertThat(tracker.getVersion(), is(5L));
+        assertThat(tracker.getTrackedChanges().hasNodeStateChanges(), is(true));
+        assertThat(tracker.getTrackedChanges().hasOtherChanges(), is(true));
+
+        assertThat(toStrings(tracker.getChangesSince(0)), is(Arrays.asList("2: NODE_ADDED " + NODE_2,
+            "3: NODE_STATE " + NODE_2, "4: NODE_STATE " + NODE_1, "5: NODE_MESSAGE " + NODE_1)));
+        assertThat(toStrings(tracker.getChangesSince(3)),
+            is(Arrays.asList("4: NODE_STATE " + NODE_1, "5: NODE_MESSAGE " + NODE_1)));
+        assertThat(tracker.getChangesSince(5), is(Optional.of(Collections.emptyList())));
+        assertThat("Unknown version", tracker.getChangesSince(6).isPresent(), is(false));
+
+        tracker.clearChanges();
+        assertThat(tracker.getTrackedChanges().hasNodeStateChanges(), is(false));
+        assertThat("Log must survive clearing the flags", tracker.getTrackedChanges().getVersion(), is(5L));
+    }
+
+    /**
+     * Tests that changes which have been dropped from the log are reported as unknown.
+     */
+    @Test
+    public void testTruncatedLog() {
+        final ChangesTracker tracker = new ChangesTracker(3);
+        for (int i = 0; i < 5; i++) {
+            tracker.log(TrackedChange.Type.WORKFLOW, null);
+        }
+        assertThat("Changes 1 and 2 are dropped", tracker.getChangesSince(0).isPresent(), is(false));
+        assertThat("Changes 1 and 2 are dropped", tracker.getChangesSince(1).isPresent(), is(false));
+        assertThat(toStrings(tracker.getChangesSince(2)), is(Collections.singletonList("5: WORKFLOW")));
+    }
+}
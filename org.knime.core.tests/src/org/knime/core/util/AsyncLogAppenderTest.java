@@ -0,0 +1,177 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.WriterAppender;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.varia.LevelRangeFilter;
+import org.junit.Test;
+import org.knime.core.util.AsyncLogAppender.OverflowPolicy;
+
+/**
+ * Tests for {@link AsyncLogAppender}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AsyncLogAppenderTest {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncLogAppenderTest.class);
+
+    private static final int THREADS = 4;
+
+    private static final int EVENTS_PER_THREAD = 5000;
+
+    private static WriterAppender createDelegate(final StringWriter writer) {
+        final WriterAppender delegate = new WriterAppender(new PatternLayout("%p %m%n"), writer);
+        delegate.setName("test");
+        final LevelRangeFilter filter = new LevelRangeFilter();
+        filter.setLevelMin(Level.INFO);
+        delegate.addFilter(filter);
+        return delegate;
+    }
+
+    private static void logConcurrently(final AsyncLogAppender appender) throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    final Level level = i % 2 == 0 ? Level.INFO : Level.WARN;
+                    appender.doAppend(new LoggingEvent(Logger.class.getName(), LOGGER, level, thread + ":" + i, null));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.close();
+    }
+
+    private static List<String> getLines(final StringWriter writer) {
+        return Arrays.asList(writer.toString().split("\\r?\\n"));
+    }
+
+    /**
+     * Checks that the appender takes over name and filters of the delegate.
+     */
+    @Test
+    public void testTakesOverDelegateSettings() {
+        final WriterAppender delegate = createDelegate(new StringWriter());
+        final LevelRangeFilter filter = (LevelRangeFilter)delegate.getFilter();
+        final AsyncLogAppender appender = new AsyncLogAppender(delegate, 16, OverflowPolicy.BLOCK);
+        try {
+            assertEquals("Wrong name", "test", appender.getName());
+            assertSame("Filter not taken over", filter, appender.getFilter());
+            assertNull("Filter not removed from delegate", delegate.getFilter());
+            assertSame("Wrong layout", delegate.getLayout(), appender.getLayout());
+            assertSame("Wrong delegate", delegate, appender.getDelegate());
+        } finally {
+            appender.close();
+        }
+    }
+
+    /**
+     * Checks that with the blocking policy all events are written, in order per thread, even if the buffer is much
+     * smaller than the number of events, and that filtered events are not written.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 20000)
+    public void testBlockingPolicy() throws Exception {
+        final StringWriter writer = new StringWriter();
+        final AsyncLogAppender appender = new AsyncLogAppender(createDelegate(writer), 64, OverflowPolicy.BLOCK);
+        appender.doAppend(new LoggingEvent(Logger.class.getName(), LOGGER, Level.DEBUG, "filtered", null));
+        logConcurrently(appender);
+
+        final List<String> lines = getLines(writer);
+        assertEquals("Wrong number of written events", THREADS * EVENTS_PER_THREAD, lines.size());
+        assertFalse("Filtered event written", lines.contains("DEBUG filtered"));
+        final int[] lastIndex = new int[THREADS];
+        Arrays.fill(lastIndex, -1);
+        for (String line : lines) {
+            final String[] parts = line.substring(line.indexOf(' ') + 1).split(":");
+            final int thread = Integer.parseInt(parts[0]);
+            final int index = Integer.parseInt(parts[1]);
+            assertTrue("Events of thread " + thread + " out of order", index > lastIndex[thread]);
+            lastIndex[thread] = index;
+        }
+    }
+
+    /**
+     * Checks that with the dropping policy warnings are never discarded and that discarded events are reported.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 20000)
+    public void testDroppingPolicy() throws Exception {
+        final StringWriter writer = new StringWriter();
+        final AsyncLogAppender appender = new AsyncLogAppender(createDelegate(writer), 4, OverflowPolicy.DROP);
+        logConcurrently(appender);
+
+        final List<String> lines = getLines(writer);
+        final long warnings = lines.stream().filter(l -> l.startsWith("WARN") && !l.contains("discarded")).count();
+        final long infos = lines.stream().filter(l -> l.startsWith("INFO")).count();
+        assertEquals("Warnings must not be discarded", THREADS * EVENTS_PER_THREAD / 2, warnings);
+        assertTrue("Too many info events: " + infos, infos <= THREADS * EVENTS_PER_THREAD / 2);
+        if (infos < THREADS * EVENTS_PER_THREAD / 2) {
+            assertTrue("Discarded events not reported", lines.stream().anyMatch(l -> l.contains("discarded")));
+        }
+    }
+}
@@ -55,9 +55,14 @@
 import static org.junit.Assume.assumeThat;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.eclipse.core.runtime.Platform;
 import org.junit.Test;
@@ -230,4 +235,107 @@ public void testFileResolvedFromUncUrlContainsTheProtocolHostAndPathInItsAbsolut
         File resolvedFile = FileUtil.getFileFromURL(new URL("file://HOST/path"));
         assertThat("Resolved file does not have a correct UNC path", resolvedFile.getAbsolutePath(), is("\\\\HOST\\path"));
     }
+
+    /**
+     * Tests {@link FileUtil#linkOrCopy(File, File)} on a directory tree.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testLinkOrCopy() throws Exception {
+        File source = FileUtil.createTempDir("linkOrCopySource");
+        File target = FileUtil.createTempDir("linkOrCopyTarget");
+        try {
+            Files.write(new File(source, "data.bin").toPath(), new byte[]{1, 2, 3});
+            File subDir = new File(source, "blobs");
+            assertThat("Sub directory created", subDir.mkdir(), is(true));
+            Files.write(new File(subDir, "blob").toPath(), "blob".getBytes(StandardCharsets.UTF_8));
+
+            File targetDir = new File(target, "data");
+            FileUtil.linkOrCopy(source, targetDir);
+            assertThat("Unexpected file content", Files.readAllBytes(new File(targetDir, "data.bin").toPath()),
+                is(new byte[]{1, 2, 3}));
+            assertThat("Unexpected blob content",
+                new String(Files.readAllBytes(new File(targetDir, "blobs/blob").toPath()), StandardCharsets.UTF_8),
+                is("blob"));
+
+            // deleting the source must not affect the target
+            FileUtil.deleteRecursively(source);
+            assertThat("Target file deleted with source", new File(targetDir, "data.bin").isFile(), is(true));
+        } finally {
+            FileUtil.deleteRecursively(source);
+            FileUtil.deleteRecursively(target);
+        }
+    }
+
+    /**
+     * Tests that {@link FileUtil#linkOrCopy(File, File)} doesn't overwrite existing files.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(expected = IOException.class)
+    public void testLinkOrCopyExistingTarget() throws Exception {
+        File source = FileUtil.createTempFile("linkOrCopy", ".bin");
+        File target = FileUtil.createTempFile("linkOrCopy", ".bin");
+        FileUtil.linkOrCopy(source, target);
+    }
+
+    /**
+     * Tests that archives written by {@link FileUtil#zipDirParallel(File, File, int, FileUtil.ZipFileFilter,
+     * org.knime.core.node.ExecutionMonitor)} can be read by the sequential and the parallel unzip methods.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testZipUnzipParallel() throws Exception {
+        File tempDir = FileUtil.createTempDir("zipParallel");
+        try {
+            File workflow = new File(tempDir, "workflow");
+            Random random = new Random(42);
+            for (int i = 0; i < 200; i++) {
+                File nodeDir = new File(workflow, "node " + (i % 10));
+                assertThat("Node directory created", nodeDir.isDirectory() || nodeDir.mkdirs(), is(true));
+                // a few files exceed the in-memory threshold
+                int size = i % 50 == 0 ? (int)ParallelZip.IN_MEMORY_THRESHOLD + 17 : random.nextInt(4096);
+                byte[] content = new byte[size];
+                for (int j = 0; j < content.length; j++) {
+                    content[j] = (byte)random.nextInt(16);
+                }
+                Files.write(new File(nodeDir, "file" + i + ".bin").toPath(), content);
+            }
+            assertThat("Empty directory created", new File(workflow, "empty").mkdir(), is(true));
+            File zipFile = new File(tempDir, "workflow.zip");
+            assertThat("Archive incomplete",
+                FileUtil.zipDirParallel(zipFile, workflow, 9, FileUtil.ZIP_INCLUDEALL_FILTER, null), is(true));
+
+            File sequentialOut = new File(tempDir, "sequential");
+            assertThat("Output directory created", sequentialOut.mkdir(), is(true));
+            FileUtil.unzip(zipFile, sequentialOut);
+            assertSameContent(workflow, new File(sequentialOut, "workflow"));
+
+            File parallelOut = new File(tempDir, "parallel");
+            assertThat("Output directory created", parallelOut.mkdir(), is(true));
+            FileUtil.unzipParallel(zipFile, parallelOut, null);
+            assertSameContent(workflow, new File(parallelOut, "workflow"));
+        } finally {
+            FileUtil.deleteRecursively(tempDir);
+        }
+    }
+
+    private static void assertSameContent(final File expected, final File actual) throws IOException {
+        assertThat("Not a directory: " + actual, actual.isDirectory(), is(expected.isDirectory()));
+        if (expected.isDirectory()) {
+            String[] children = expected.list();
+            Arrays.sort(children);
+            String[] actualChildren = actual.list();
+            Arrays.sort(actualChildren);
+            assertThat("Different directory content in " + actual, actualChildren, is(children));
+            for (String child : children) {
+                assertSameContent(new File(expected, child), new File(actual, child));
+            }
+        } else {
+            assertThat("Different file content: " + actual, Files.readAllBytes(actual.toPath()),
+                is(Files.readAllBytes(expected.toPath())));
+        }
+    }
 }
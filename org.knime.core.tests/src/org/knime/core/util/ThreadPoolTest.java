@@ -49,6 +49,8 @@
 
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -75,6 +77,16 @@ public class ThreadPoolTest extends TestCase {
     /** Counter for finished threads. */
     private final AtomicInteger m_finished = new AtomicInteger(0);
 
+    /**
+     * Creates the root pool under test.
+     *
+     * @param maxThreads the maximum number of threads
+     * @return a new pool
+     */
+    protected ThreadPool createPool(final int maxThreads) {
+        return new ThreadPool(maxThreads);
+    }
+
     private class Tester implements Runnable {
         private final String m_name = "Tester " + count++;
         private final ThreadPool m_pool;
@@ -124,7 +136,7 @@ private int ack(final int n, final int m) {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testRootPool() throws InterruptedException {
-        ThreadPool root = new ThreadPool(3);
+        ThreadPool root = createPool(3);
         final int loops = LOOPS;
 
         for (int i = 1; i <= loops; i++) {
@@ -170,7 +182,7 @@ public void testRootPool() throws InterruptedException {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testRootInvisible() throws InterruptedException {
-        final ThreadPool root = new ThreadPool(3);
+        final ThreadPool root = createPool(3);
         final int loops = LOOPS;
 
         final Callable<?> submitter = new Callable<Void>() {
@@ -219,7 +231,7 @@ public void run() {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testSubPools() throws InterruptedException {
-        ThreadPool root = new ThreadPool(20);
+        ThreadPool root = createPool(20);
         ThreadPool[] pools = new ThreadPool[4];
 
         pools[0] = root;
@@ -257,7 +269,7 @@ public void testSubPools() throws InterruptedException {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testSubInvisible() throws InterruptedException {
-        final ThreadPool root = new ThreadPool(10);
+        final ThreadPool root = createPool(10);
         final ThreadPool sub1 = root.createSubPool(6);
         final ThreadPool sub2 = root.createSubPool(6);
         final int loops = LOOPS;
@@ -314,7 +326,7 @@ public void run() {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testRootEnqueue() throws InterruptedException {
-        ThreadPool root = new ThreadPool(3);
+        ThreadPool root = createPool(3);
         final int loops = LOOPS;
 
         for (int i = 1; i <= loops; i++) {
@@ -371,7 +383,7 @@ public void testRootEnqueue() throws InterruptedException {
      * @throws InterruptedException if the thread is interrupted
      */
     public void testSubEnqueue() throws InterruptedException {
-        ThreadPool root = new ThreadPool(20);
+        ThreadPool root = createPool(20);
         ThreadPool[] pools = new ThreadPool[4];
 
         pools[0] = root;
@@ -408,13 +420,35 @@ public void testSubEnqueue() throws InterruptedException {
         assertEquals(loops, m_finished.get());
     }
 
+    /**
+     * Checks that runInvisible simply runs the callable if the current thread is not taken out of any pool (e.g.
+     * virtual threads that use the pool for parallel work).
+     *
+     * @throws Exception if an error occurs
+     */
+    public void testInvisibleOutsidePool() throws Exception {
+        ThreadPool root = createPool(1);
+        assertNull(ThreadPool.currentPool());
+        final Thread caller = Thread.currentThread();
+        assertThat("Callable not run in calling thread", root.runInvisible(() -> Thread.currentThread() == caller),
+            Is.is(Boolean.TRUE));
+        try {
+            root.runInvisible(() -> {
+                throw new IllegalStateException("expected");
+            });
+            fail("Exception of callable not propagated");
+        } catch (ExecutionException ex) {
+            assertThat("Unexpected cause", ex.getCause().getMessage(), Is.is("expected"));
+        }
+    }
+
     /**
      * Checks if the context classloader is set correctly for the threads in the pool.
      *
      * @throws Exception if an error occurs
      */
     public void testContextClassloader() throws Exception {
-        ThreadPool root = new ThreadPool(1);
+        ThreadPool root = createPool(1);
 
         Callable<ClassLoader> callable = new Callable<ClassLoader>() {
             @Override
@@ -434,4 +468,48 @@ public ClassLoader call() throws Exception {
             Thread.currentThread().setContextClassLoader(cl);
         }
     }
+
+    /**
+     * Checks that all jobs are run exactly once and the thread limit is obeyed when many short jobs are submitted
+     * concurrently, partly from outside the pool and partly from within running jobs.
+     *
+     * @throws Exception if an error occurs
+     */
+    public void testConcurrentEnqueue() throws Exception {
+        final int maxThreads = 4;
+        final int submitters = 4;
+        final int jobsPerSubmitter = 2000;
+        final ThreadPool root = createPool(maxThreads);
+        final AtomicInteger executed = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Runnable nestedJob = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            executed.incrementAndGet();
+            running.decrementAndGet();
+        };
+
+        final List<Thread> submitterThreads = new ArrayList<>();
+        for (int s = 0; s < submitters; s++) {
+            final Thread t = new Thread(() -> {
+                for (int i = 0; i < jobsPerSubmitter; i++) {
+                    root.enqueue(() -> {
+                        nestedJob.run();
+                        root.enqueue(nestedJob);
+                    });
+                }
+            });
+            submitterThreads.add(t);
+            t.start();
+        }
+        for (Thread t : submitterThreads) {
+            t.join();
+        }
+        root.waitForTermination();
+
+        assertThat("Unexpected number of executed jobs", executed.get(),
+            Is.is(2 * submitters * jobsPerSubmitter));
+        assertTrue("Too many jobs running in parallel: " + maxRunning.get(), maxRunning.get() <= maxThreads);
+        root.shutdown();
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link VirtualThreadExecutor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class VirtualThreadExecutorTest {
+
+    /**
+     * Checks that no more than the configured number of jobs run concurrently and that all jobs are eventually run.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testConcurrencyLimit() throws Exception {
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor(3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int index = i;
+            futures.add(executor.submit(() -> {
+                final int r = running.incrementAndGet();
+                maxRunning.accumulateAndGet(r, Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return index;
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("Wrong result", i, futures.get(i).get().intValue());
+        }
+        assertTrue("Too many concurrent jobs: " + maxRunning.get(), maxRunning.get() <= 3);
+        assertEquals("Wrong number of running jobs after completion", 0, executor.getRunningJobs());
+        assertEquals("Queue not empty after completion", 0, executor.getQueueSize());
+    }
+
+    /**
+     * Checks that running jobs are interrupted when cancelled and queued jobs are never started.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testCancel() throws Exception {
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Future<?> blocking = executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        });
+        final AtomicInteger queuedRuns = new AtomicInteger();
+        final Future<?> queued = executor.submit(queuedRuns::incrementAndGet);
+        assertTrue("Job not started", started.await(5, TimeUnit.SECONDS));
+        assertEquals("Wrong queue size", 1, executor.getQueueSize());
+
+        assertTrue("Queued job not cancelled", queued.cancel(true));
+        assertEquals("Cancelled job still queued", 0, executor.getQueueSize());
+        assertTrue("Running job not cancelled", blocking.cancel(true));
+        assertTrue("Running job not interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        try {
+            blocking.get();
+            fail("Expected CancellationException");
+        } catch (CancellationException ex) {
+            // expected
+        }
+
+        // the executor must still be usable afterwards
+        assertEquals("Wrong result", "ok", executor.submit(() -> "ok").get());
+        assertEquals("Cancelled job has been run", 0, queuedRuns.get());
+    }
+
+    /**
+     * Checks that the context class loader of the submitting thread is propagated to the job.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testContextClassloader() throws Exception {
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor(2);
+        final ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            Thread.currentThread().setContextClassLoader(loader);
+            final Future<ClassLoader> future = executor.submit(() -> Thread.currentThread().getContextClassLoader());
+            assertSame("Wrong context class loader", loader, future.get());
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Checks that raising the limit starts queued jobs immediately.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testRaiseLimit() throws Exception {
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> first = executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        final Future<String> second = executor.submit(() -> "second");
+        Thread.sleep(50);
+        assertFalse("Second job started despite limit", second.isDone());
+        executor.setMaxJobs(2);
+        assertEquals("Wrong result", "second", second.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        first.get();
+    }
+}
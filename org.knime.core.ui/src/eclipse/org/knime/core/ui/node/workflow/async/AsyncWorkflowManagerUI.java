@@ -222,6 +222,22 @@ default WorkflowCopyContent paste(final WorkflowCopyUI workflowCopy) {
      */
     CompletableFuture<Void> refreshAsync(final boolean deepRefresh);
 
+    /**
+     * Refreshes the workflow like {@link #refreshAsync(boolean)} but only fetches the parts that changed since the last
+     * refresh, as recorded in the change log of the workflow (see
+     * {@link org.knime.core.node.workflow.changes.TrackedChanges#getChangesSince(long)}). Implementations fall back to
+     * a complete refresh if the changes since the last refresh aren't known anymore, e.g. because the change log has
+     * been truncated in the meantime. The default implementation always does a complete refresh.
+     *
+     * @param deepRefresh if <code>true</code> the workflow itself and all contained sub-workflows (i.e. metanodes) will
+     *            be refreshed, if <code>false</code> only the top level workflow will be refreshed.
+     * @return a future for async use
+     * @since 4.2
+     */
+    default CompletableFuture<Void> refreshChangesAsync(final boolean deepRefresh) {
+        return refreshAsync(deepRefresh);
+    }
+
     /**
      * Refreshes the workflow (e.g. downloads the new state) and returns when done or fails with an
      * {@link SnapshotNotFoundException}.
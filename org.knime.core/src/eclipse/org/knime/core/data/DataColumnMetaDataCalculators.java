@@ -91,6 +91,16 @@ interface MetaDataCalculator {
          */
         void update(final DataCell cell);
 
+        /**
+         * Whether {@link #update(DataCell)} needs to be called at all, i.e. if the calculator processes the cells.
+         * Callers may skip creating cells if it doesn't.
+         *
+         * @return true if this calculator looks at the cells passed to {@link #update(DataCell)}
+         */
+        default boolean needsCells() {
+            return true;
+        }
+
         /**
          * Creates a {@link List} of {@link DataColumnMetaData} object corresponding to the information observed so
          * far.<br/>
@@ -163,6 +173,11 @@ public void update(final DataCell cell) {
             // do nothing
         }
 
+        @Override
+        public boolean needsCells() {
+            return false;
+        }
+
         @Override
         public List<DataColumnMetaData> createMetaData() {
             return Collections.emptyList();
@@ -186,7 +201,8 @@ private static class MetaDataCalculatorImpl implements MetaDataCalculator {
             m_metaDataCreators = DataColumnMetaDataRegistry.INSTANCE.getCreators(spec.getType());
             m_updateMetaData = updateMetaData;
             if (initializeWithSpec) {
-                m_metaDataCreators
+                // creators that only describe the cells they see would count the existing meta data twice
+                m_metaDataCreators.stream().filter(m -> !(updateMetaData && m.describesCellsOnly()))
                     .forEach(m -> spec.getMetaDataOfType(m.getMetaDataClass()).ifPresent(o -> merge(m, o)));
             }
         }
@@ -220,6 +236,11 @@ public void update(final DataCell cell) {
             }
         }
 
+        @Override
+        public boolean needsCells() {
+            return m_updateMetaData && !m_metaDataCreators.isEmpty();
+        }
+
         @Override
         public List<DataColumnMetaData> createMetaData() {
             return m_metaDataCreators.stream().map(DataColumnMetaDataCreator::create).collect(Collectors.toList());
@@ -46,15 +46,12 @@
  */
 package org.knime.core.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import org.knime.core.data.DataColumnMetaDataCalculators.MetaDataCalculator;
 import org.knime.core.data.container.BlobWrapperDataCell;
@@ -93,15 +90,41 @@ public class DataTableDomainCreator {
 
     private final boolean[] m_maxsMissing;
 
-    private final Map<DataCell, Long>[] m_possVals;
+    private final PossibleValues[] m_possVals;
 
     private final DataValueComparator[] m_comparators;
 
+    /** How min and max are tracked per column, one of the <code>BOUNDS_...</code> constants. */
+    private final byte[] m_boundsTypes;
+
+    /** Primitive copies of {@link #m_mins} and {@link #m_maxs} for columns of type {@link #BOUNDS_INT} and
+     * {@link #BOUNDS_LONG}, only valid if the respective cell is not missing. */
+    private final long[] m_longMins;
+
+    private final long[] m_longMaxs;
+
+    /** Primitive copies of {@link #m_mins} and {@link #m_maxs} for columns of type {@link #BOUNDS_DOUBLE}. */
+    private final double[] m_doubleMins;
+
+    private final double[] m_doubleMaxs;
+
     private final MetaDataCalculator[] m_metaDataCalculators;
 
     /** The batch id. */
     private long m_batchId;
 
+    /** Min and max are determined using the column's {@link DataValueComparator}. */
+    private static final byte BOUNDS_GENERIC = 0;
+
+    /** Min and max are determined on the primitive values of an {@link IntValue} column. */
+    private static final byte BOUNDS_INT = 1;
+
+    /** Min and max are determined on the primitive values of a {@link LongValue} column. */
+    private static final byte BOUNDS_LONG = 2;
+
+    /** Min and max are determined on the primitive values of a {@link DoubleValue} column (ignoring NaN). */
+    private static final byte BOUNDS_DOUBLE = 3;
+
     /**
      * A new instance that recreates the domain of certains columns. Which columns are processed and if the domains
      * should be initialized with the domain from the incoming table can be controlled by the two
@@ -129,7 +152,6 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
      * @param metaDataColumnSelection defines columns to calculate metaData for
      * @since 4.1
      */
-    @SuppressWarnings("unchecked")
     public DataTableDomainCreator(final DataTableSpec inputSpec,
         final DomainCreatorColumnSelection domainValuesColumnSelection,
         final DomainCreatorColumnSelection domainMinMaxColumnSelection,
@@ -139,8 +161,13 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
         m_minsMissing = new boolean[inputSpec.getNumColumns()];
         m_maxs = new DataCell[inputSpec.getNumColumns()];
         m_maxsMissing = new boolean[inputSpec.getNumColumns()];
-        m_possVals = new LinkedHashMap[inputSpec.getNumColumns()];
+        m_possVals = new PossibleValues[inputSpec.getNumColumns()];
         m_comparators = new DataValueComparator[inputSpec.getNumColumns()];
+        m_boundsTypes = new byte[inputSpec.getNumColumns()];
+        m_longMins = new long[inputSpec.getNumColumns()];
+        m_longMaxs = new long[inputSpec.getNumColumns()];
+        m_doubleMins = new double[inputSpec.getNumColumns()];
+        m_doubleMaxs = new double[inputSpec.getNumColumns()];
         m_domainValuesColumnSelection = domainValuesColumnSelection;
         m_domainMinMaxColumnSelection = domainMinMaxColumnSelection;
         m_maxPossibleValues = DataContainerSettings.getDefault().getMaxDomainValues();
@@ -152,19 +179,14 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
                 Set<DataCell> values = colSpec.getDomain().getValues();
 
                 if (!m_domainValuesColumnSelection.dropDomain(colSpec) && (values != null)) {
-                    m_possVals[i] = values.stream()//
-                        .collect(Collectors.toMap(//
-                            Function.identity(), //
-                            v -> m_batchId, //
-                            (v1, v2) -> {
-                                throw new IllegalStateException();
-                            }, //
-                            LinkedHashMap::new));
+                    m_possVals[i] = new PossibleValues(Math.max(values.size(), m_maxPossibleValues));
+                    for (DataCell value : values) {
+                        if (!m_possVals[i].addIfAbsent(value, m_batchId)) {
+                            throw new IllegalStateException();
+                        }
+                    }
                 } else {
-                    // since we're doing a lot of checks for whether a DataCell is contained in the set of possible
-                    // values, we should reduce the amount of expected hash collisions by creating a sufficiently
-                    // large hash set with a low load factor.
-                    m_possVals[i] = new LinkedHashMap<>(2 * m_maxPossibleValues, 1 / 3f);
+                    m_possVals[i] = new PossibleValues(m_maxPossibleValues);
                 }
             }
 
@@ -191,6 +213,9 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
             if (m_maxs[i] != null) {
                 m_maxsMissing[i] = m_maxs[i].isMissing();
             }
+            if (m_comparators[i] != null) {
+                initBoundsType(i);
+            }
 
             m_metaDataCalculators[i] = DataColumnMetaDataCalculators.createCalculator(colSpec,
                 metaDataColumnSelection.dropDomain(colSpec), metaDataColumnSelection.createDomain(colSpec));
@@ -220,7 +245,6 @@ public DataTableDomainCreator(final DataTableSpec inputSpec, final boolean initD
      * @param toCopy the instance to be copied
      * @since 4.0
      */
-    @SuppressWarnings("unchecked")
     public DataTableDomainCreator(final DataTableDomainCreator toCopy) {
         m_domainValuesColumnSelection = toCopy.m_domainValuesColumnSelection;
         m_domainMinMaxColumnSelection = toCopy.m_domainMinMaxColumnSelection;
@@ -230,12 +254,17 @@ public DataTableDomainCreator(final DataTableDomainCreator toCopy) {
         m_minsMissing = toCopy.m_minsMissing.clone();
         m_maxs = toCopy.m_maxs.clone();
         m_maxsMissing = toCopy.m_maxsMissing.clone();
-        m_possVals = new LinkedHashMap[toCopy.m_possVals.length];
+        m_possVals = new PossibleValues[toCopy.m_possVals.length];
         for (int i = 0; i < m_possVals.length; i++) {
-            Map<DataCell, Long> copyMap = toCopy.m_possVals[i];
-            m_possVals[i] = copyMap == null ? null : new LinkedHashMap<>(toCopy.m_possVals[i]);
+            PossibleValues copyValues = toCopy.m_possVals[i];
+            m_possVals[i] = copyValues == null ? null : new PossibleValues(copyValues);
         }
         m_comparators = toCopy.m_comparators.clone();
+        m_boundsTypes = toCopy.m_boundsTypes.clone();
+        m_longMins = toCopy.m_longMins.clone();
+        m_longMaxs = toCopy.m_longMaxs.clone();
+        m_doubleMins = toCopy.m_doubleMins.clone();
+        m_doubleMaxs = toCopy.m_doubleMaxs.clone();
         m_batchId = toCopy.m_batchId;
         m_metaDataCalculators = Arrays.stream(toCopy.m_metaDataCalculators).map(DataColumnMetaDataCalculators::copy)
             .toArray(MetaDataCalculator[]::new);
@@ -281,30 +310,175 @@ public void setBatchId(final long id) {
      * @param col the column of interest
      * @param cell the new value to check
      */
-    private void updateMinMax(final int col, final DataCell cell, final DataCell[] mins, final DataCell[] maxs,
-        final DataValueComparator[] comparators) {
+    private void updateMinMax(final int col, final DataCell cell) {
         final boolean isMissing = cell.isMissing();
 
         if (!isMissing && m_possVals[col] != null) {
-            if (m_possVals[col].putIfAbsent(cell, m_batchId) == null
-                && (m_possVals[col].size() > m_maxPossibleValues)) {
+            if (m_possVals[col].addIfAbsent(cell, m_batchId) && (m_possVals[col].size() > m_maxPossibleValues)) {
                 m_possVals[col] = null;
             }
         }
 
-        if (mins[col] == null || isMissing) {
+        if (m_mins[col] == null || isMissing) {
             return;
         }
 
         final DataCell unwrapped = (cell instanceof BlobWrapperDataCell) ? ((BlobWrapperDataCell)cell).getCell() : cell;
+        updateBounds(col, unwrapped, true, true);
+    }
 
-        if (isNaN(unwrapped)) {
+    /**
+     * Updates min and max of a column with a primitive value. Only creates the cell if it becomes the new min or max.
+     *
+     * @param col the column of interest
+     * @param row the row, whose value at <code>col</code> is primitive
+     * @return false if the bounds of the column are not tracked on primitive values (nothing has been updated)
+     */
+    private boolean updateMinMax(final int col, final PrimitiveDataRow row) {
+        if (m_mins[col] == null || row.isMissing(col)) {
+            return true;
+        }
+        switch (m_boundsTypes[col]) {
+            case BOUNDS_INT:
+            case BOUNDS_LONG:
+                final long l = m_boundsTypes[col] == BOUNDS_INT ? row.getInt(col) : row.getLong(col);
+                final boolean isNewLongMin = m_minsMissing[col] || l < m_longMins[col];
+                final boolean isNewLongMax = m_maxsMissing[col] || l > m_longMaxs[col];
+                if (isNewLongMin || isNewLongMax) {
+                    updateBounds(col, row.getCell(col), l, isNewLongMin, isNewLongMax);
+                }
+                return true;
+            case BOUNDS_DOUBLE:
+                final double d = row.getDouble(col);
+                if (Double.isNaN(d)) {
+                    return true;
+                }
+                final boolean isNewMin = m_minsMissing[col] || Double.compare(d, m_doubleMins[col]) < 0;
+                final boolean isNewMax = m_maxsMissing[col] || Double.compare(d, m_doubleMaxs[col]) > 0;
+                if (isNewMin || isNewMax) {
+                    updateBounds(col, row.getCell(col), d, isNewMin, isNewMax);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Chooses how min and max of a column are determined. Columns whose comparator compares the primitive values of
+     * {@link IntValue}, {@link LongValue} or {@link DoubleValue} are tracked on the primitive values instead of
+     * calling the comparator for each cell, the result is the same.
+     *
+     * @param col the column of interest, its comparator and initial min/max need to be set
+     */
+    private void initBoundsType(final int col) {
+        final Class<?> comparatorClass = m_comparators[col].getClass();
+        final byte type;
+        if (comparatorClass == IntValueComparator.class) {
+            type = BOUNDS_INT;
+        } else if (comparatorClass == LongValueComparator.class) {
+            type = BOUNDS_LONG;
+        } else if (comparatorClass == DoubleValueComparator.class) {
+            type = BOUNDS_DOUBLE;
+        } else {
+            type = BOUNDS_GENERIC;
+        }
+        m_boundsTypes[col] = type;
+        if (type == BOUNDS_GENERIC) {
             return;
         }
+        // initialize the primitive bounds from the (initial) domain, which may not be compatible with the column type
+        for (DataCell bound : new DataCell[]{m_minsMissing[col] ? null : m_mins[col],
+            m_maxsMissing[col] ? null : m_maxs[col]}) {
+            if (bound != null && !isPrimitiveValue(type, bound)) {
+                m_boundsTypes[col] = BOUNDS_GENERIC;
+                return;
+            }
+        }
+        if (!m_minsMissing[col]) {
+            m_longMins[col] = type == BOUNDS_DOUBLE ? 0L : getLongValue(type, m_mins[col]);
+            m_doubleMins[col] = type == BOUNDS_DOUBLE ? ((DoubleValue)m_mins[col]).getDoubleValue() : 0.0;
+        }
+        if (!m_maxsMissing[col]) {
+            m_longMaxs[col] = type == BOUNDS_DOUBLE ? 0L : getLongValue(type, m_maxs[col]);
+            m_doubleMaxs[col] = type == BOUNDS_DOUBLE ? ((DoubleValue)m_maxs[col]).getDoubleValue() : 0.0;
+        }
+    }
+
+    private static boolean isPrimitiveValue(final byte type, final DataCell cell) {
+        switch (type) {
+            case BOUNDS_INT:
+                return cell instanceof IntValue;
+            case BOUNDS_LONG:
+                return cell instanceof LongValue;
+            case BOUNDS_DOUBLE:
+                return cell instanceof DoubleValue;
+            default:
+                return true;
+        }
+    }
+
+    private static long getLongValue(final byte type, final DataCell cell) {
+        return type == BOUNDS_INT ? ((IntValue)cell).getIntValue() : ((LongValue)cell).getLongValue();
+    }
+
+    /**
+     * Updates min and/or max of a column with a non-missing (and unwrapped) cell.
+     */
+    private void updateBounds(final int col, final DataCell cell, final boolean updateMin, final boolean updateMax) {
+        switch (m_boundsTypes[col]) {
+            case BOUNDS_INT:
+                updateBounds(col, cell, ((IntValue)cell).getIntValue(), updateMin, updateMax);
+                break;
+            case BOUNDS_LONG:
+                updateBounds(col, cell, ((LongValue)cell).getLongValue(), updateMin, updateMax);
+                break;
+            case BOUNDS_DOUBLE:
+                final double d = ((DoubleValue)cell).getDoubleValue();
+                if (!Double.isNaN(d)) {
+                    updateBounds(col, cell, d, updateMin, updateMax);
+                }
+                break;
+            default:
+                if (isNaN(cell)) {
+                    return;
+                }
+                if (updateMin) {
+                    updateMin(col, m_mins, cell, m_comparators[col]);
+                }
+                if (updateMax) {
+                    updateMax(col, m_maxs, cell, m_comparators[col]);
+                }
+        }
+    }
+
+    private void updateBounds(final int col, final DataCell cell, final long value, final boolean updateMin,
+        final boolean updateMax) {
+        if (updateMin && (m_minsMissing[col] || value < m_longMins[col])) {
+            m_mins[col] = cell;
+            m_longMins[col] = value;
+            m_minsMissing[col] = false;
+        }
+        if (updateMax && (m_maxsMissing[col] || value > m_longMaxs[col])) {
+            m_maxs[col] = cell;
+            m_longMaxs[col] = value;
+            m_maxsMissing[col] = false;
+        }
+    }
 
-        Comparator<DataCell> comparator = comparators[col];
-        updateMin(col, mins, unwrapped, comparator);
-        updateMax(col, maxs, unwrapped, comparator);
+    /** Same order as {@link DoubleValueComparator}, which is based on {@link Double#compare(double, double)}. */
+    private void updateBounds(final int col, final DataCell cell, final double value, final boolean updateMin,
+        final boolean updateMax) {
+        if (updateMin && (m_minsMissing[col] || Double.compare(value, m_doubleMins[col]) < 0)) {
+            m_mins[col] = cell;
+            m_doubleMins[col] = value;
+            m_minsMissing[col] = false;
+        }
+        if (updateMax && (m_maxsMissing[col] || Double.compare(value, m_doubleMaxs[col]) > 0)) {
+            m_maxs[col] = cell;
+            m_doubleMaxs[col] = value;
+            m_maxsMissing[col] = false;
+        }
     }
 
     private void updateMin(final int col, final DataCell[] mins, final DataCell cell,
@@ -371,13 +545,11 @@ public DataTableSpec createSpec() {
     }
 
     private Set<DataCell> getSortedValues(final int index) {
-        Map<DataCell, Long> vals = m_possVals[index];
+        PossibleValues vals = m_possVals[index];
         if (vals == null) {
             return null;
         }
-        return vals.keySet().stream()//
-            .sorted((d1, d2) -> Long.compare(vals.get(d1), vals.get(d2)))//
-            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return vals.getSortedValues();
     }
 
     /**
@@ -390,14 +562,33 @@ public void updateDomain(final DataRow row) {
         assert row.getNumCells() == m_inputSpec.getNumColumns() : "Unequal number of columns in spec and row: "
             + m_inputSpec.getNumColumns() + " vs. " + row.getNumCells();
 
+        if (row instanceof PrimitiveDataRow) {
+            updateDomain((PrimitiveDataRow)row);
+            return;
+        }
         int i = 0;
         for (DataCell c : row) {
-            updateMinMax(i, c, m_mins, m_maxs, m_comparators);
+            updateMinMax(i, c);
             m_metaDataCalculators[i].update(c);
             i++;
         }
     }
 
+    /**
+     * Same as {@link #updateDomain(DataRow)} but reads the primitive values of the row where possible; cells are then
+     * only created if they become the new min or max.
+     */
+    private void updateDomain(final PrimitiveDataRow row) {
+        for (int i = 0; i < row.getNumCells(); i++) {
+            if (m_possVals[i] != null || m_metaDataCalculators[i].needsCells() || !row.isPrimitive(i)
+                || !updateMinMax(i, row)) {
+                final DataCell c = row.getCell(i);
+                updateMinMax(i, c);
+                m_metaDataCalculators[i].update(c);
+            }
+        }
+    }
+
     /**
      * Updates the domain values by scanning a whole table. Note that the table's structure must match the table spec
      * that has been provided to the constructor.
@@ -483,35 +674,202 @@ public void merge(final DataTableDomainCreator dataTableDomainCreator) {
             "Cannot merge data table domain creators using a different number of unique values");
         for (int i = 0; i < m_inputSpec.getNumColumns(); i++) {
             if (m_possVals[i] != null && dataTableDomainCreator.m_possVals[i] != null) {
-                for (final Entry<DataCell, Long> entry : dataTableDomainCreator.m_possVals[i].entrySet()) {
-                    Map<DataCell, Long> vals = m_possVals[i];
-                    if (!vals.containsKey(entry.getKey()) || vals.get(entry.getKey()) > entry.getValue()) {
-                        // removing the key fixes AP-12357, since re-inserting items does not change the
-                        // running order. Note that we know that all entries with the same batch index are
-                        // stored according to their running order
-                        vals.remove(entry.getKey());
-                        vals.put(entry.getKey(), entry.getValue());
-                        if ((m_possVals[i].size() > m_maxPossibleValues)) {
-                            m_possVals[i] = null;
-                            break;
-                        }
+                final PossibleValues vals = m_possVals[i];
+                final PossibleValues otherVals = dataTableDomainCreator.m_possVals[i];
+                for (int e = 0; e < otherVals.m_nrEntries; e++) {
+                    final DataCell value = otherVals.m_cells[e];
+                    if (value != null && vals.putWithMinBatchId(value, otherVals.m_batchIds[e])
+                        && (vals.size() > m_maxPossibleValues)) {
+                        m_possVals[i] = null;
+                        break;
                     }
                 }
             } else {
                 m_possVals[i] = null;
             }
-            final Comparator<DataCell> comparator = m_comparators[i];
             final DataCell otherMin = dataTableDomainCreator.m_mins[i];
             if (!dataTableDomainCreator.m_minsMissing[i] && otherMin != null) {
-                updateMin(i, m_mins, otherMin, comparator);
+                updateBounds(i, otherMin, true, false);
             }
             final DataCell otherMax = dataTableDomainCreator.m_maxs[i];
             if (!dataTableDomainCreator.m_maxsMissing[i] && otherMax != null) {
-                updateMax(i, m_maxs, otherMax, comparator);
+                updateBounds(i, otherMax, false, true);
             }
             DataColumnMetaDataCalculators.merge(m_metaDataCalculators[i],
                 dataTableDomainCreator.m_metaDataCalculators[i]);
         }
     }
 
+    /**
+     * Insertion ordered set of possible values, each associated with the id of the batch it was first seen in. The
+     * values are kept in an open addressing hash table (linear probing) that also holds the values' hash codes, i.e.
+     * checking a value that is already contained (the common case) neither allocates objects nor calls
+     * {@link DataCell#equals(Object)} for values with a different hash code.
+     */
+    private static final class PossibleValues {
+
+        /** Index of the entry + 1 for each slot of the hash table, 0 marks an empty slot. */
+        private int[] m_slots;
+
+        /** Hash code of the value in each slot of the hash table. */
+        private int[] m_slotHashes;
+
+        /** Values in insertion order, null for entries that have been moved to the end, see #putWithMinBatchId. */
+        private DataCell[] m_cells;
+
+        /** Batch ids of the entries in {@link #m_cells}. */
+        private long[] m_batchIds;
+
+        /** Number of entries in {@link #m_cells}, including moved ones. */
+        private int m_nrEntries;
+
+        /** Number of values. */
+        private int m_size;
+
+        PossibleValues(final int expectedSize) {
+            // low load factor to reduce the number of collisions, the table is queried for each cell
+            final int capacity = Integer.highestOneBit(Math.max(3 * Math.min(expectedSize, 1 << 16), 8) - 1) << 1;
+            m_slots = new int[capacity];
+            m_slotHashes = new int[capacity];
+            m_cells = new DataCell[Math.max(Math.min(expectedSize, 1 << 16), 4)];
+            m_batchIds = new long[m_cells.length];
+        }
+
+        PossibleValues(final PossibleValues toCopy) {
+            m_slots = toCopy.m_slots.clone();
+            m_slotHashes = toCopy.m_slotHashes.clone();
+            m_cells = toCopy.m_cells.clone();
+            m_batchIds = toCopy.m_batchIds.clone();
+            m_nrEntries = toCopy.m_nrEntries;
+            m_size = toCopy.m_size;
+        }
+
+        int size() {
+            return m_size;
+        }
+
+        /**
+         * @return true if the value was added, false if it was contained already
+         */
+        boolean addIfAbsent(final DataCell value, final long batchId) {
+            final int hash = value.hashCode();
+            final int slot = findSlot(value, hash);
+            if (m_slots[slot] != 0) {
+                return false;
+            }
+            addEntry(slot, hash, value, batchId);
+            return true;
+        }
+
+        /**
+         * Adds the value if it's not contained yet. If it's contained with a larger batch id, it's moved to the end
+         * with the given batch id, which keeps values with the same batch id in the order they were added (AP-12357).
+         *
+         * @return true if the set was changed
+         */
+        boolean putWithMinBatchId(final DataCell value, final long batchId) {
+            final int hash = value.hashCode();
+            final int slot = findSlot(value, hash);
+            final int entry = m_slots[slot] - 1;
+            if (entry < 0) {
+                addEntry(slot, hash, value, batchId);
+                return true;
+            } else if (m_batchIds[entry] > batchId) {
+                m_cells[entry] = null;
+                m_size--;
+                addEntry(slot, hash, value, batchId);
+                return true;
+            }
+            return false;
+        }
+
+        /** @return the values sorted by batch id, values of the same batch in the order they were added */
+        Set<DataCell> getSortedValues() {
+            final List<Integer> entries = new ArrayList<>(m_size);
+            for (int e = 0; e < m_nrEntries; e++) {
+                if (m_cells[e] != null) {
+                    entries.add(e);
+                }
+            }
+            entries.sort((e1, e2) -> Long.compare(m_batchIds[e1], m_batchIds[e2]));
+            final Set<DataCell> result = new LinkedHashSet<>();
+            for (Integer e : entries) {
+                result.add(m_cells[e]);
+            }
+            return result;
+        }
+
+        /** @return the slot containing the value or the empty slot where it is to be inserted */
+        private int findSlot(final DataCell value, final int hash) {
+            final int mask = m_slots.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (m_slots[slot] != 0) {
+                if (m_slotHashes[slot] == hash) {
+                    final DataCell existing = m_cells[m_slots[slot] - 1];
+                    if (existing == value || value.equals(existing)) {
+                        return slot;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void addEntry(final int slot, final int hash, final DataCell value, final long batchId) {
+            int insertSlot = slot;
+            if (m_nrEntries == m_cells.length && compactOrGrowEntries()) {
+                insertSlot = findSlot(value, hash);
+            }
+            m_cells[m_nrEntries] = value;
+            m_batchIds[m_nrEntries] = batchId;
+            m_nrEntries++;
+            m_size++;
+            m_slots[insertSlot] = m_nrEntries;
+            m_slotHashes[insertSlot] = hash;
+            if (3 * m_size > m_slots.length) {
+                rehash(2 * m_slots.length);
+            }
+        }
+
+        /** @return true if the hash table has been rebuilt */
+        private boolean compactOrGrowEntries() {
+            if (m_size < m_nrEntries) {
+                // remove moved entries, the hash table needs to be rebuilt as the indices change
+                int newNrEntries = 0;
+                for (int e = 0; e < m_nrEntries; e++) {
+                    if (m_cells[e] != null) {
+                        m_cells[newNrEntries] = m_cells[e];
+                        m_batchIds[newNrEntries] = m_batchIds[e];
+                        newNrEntries++;
+                    }
+                }
+                Arrays.fill(m_cells, newNrEntries, m_nrEntries, null);
+                m_nrEntries = newNrEntries;
+                rehash(m_slots.length);
+                return true;
+            } else {
+                m_cells = Arrays.copyOf(m_cells, 2 * m_cells.length);
+                m_batchIds = Arrays.copyOf(m_batchIds, m_cells.length);
+                return false;
+            }
+        }
+
+        private void rehash(final int capacity) {
+            m_slots = new int[capacity];
+            m_slotHashes = new int[capacity];
+            final int mask = capacity - 1;
+            for (int e = 0; e < m_nrEntries; e++) {
+                if (m_cells[e] != null) {
+                    final int hash = m_cells[e].hashCode();
+                    int slot = (hash ^ (hash >>> 16)) & mask;
+                    while (m_slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    m_slots[slot] = e + 1;
+                    m_slotHashes[slot] = hash;
+                }
+            }
+        }
+    }
+
 }
\ No newline at end of file
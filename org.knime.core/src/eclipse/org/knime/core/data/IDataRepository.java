@@ -52,6 +52,7 @@
 import java.util.UUID;
 
 import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.MemoryBudget;
 import org.knime.core.data.filestore.internal.IFileStoreHandler;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
 
@@ -152,4 +153,14 @@ public interface IDataRepository {
      */
     void printValidFileStoreHandlersToLogDebug();
 
+    /**
+     * The budget that tables held in memory are accounted against.
+     *
+     * @return the memory budget, empty if tables are not accounted for
+     * @since 4.2
+     */
+    default Optional<MemoryBudget> getMemoryBudget() {
+        return Optional.empty();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data;
+
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+
+/**
+ * A {@link DataRow} that keeps (some of) its values as primitives rather than as {@link DataCell} objects. Consumers
+ * that only need the numeric content of a row, e.g. comparators or domain calculation, can read it via
+ * {@link #getDouble(int)}, {@link #getInt(int)} and {@link #getLong(int)} without allocating a cell; calling
+ * {@link #getCell(int)} is always possible and materializes the cell on demand.
+ *
+ * <p>
+ * The accessors may only be used for indices for which {@link #isPrimitive(int)} returns <code>true</code>. The values
+ * are converted the same way as the corresponding {@link DataCell} would do it, i.e. {@link #getDouble(int)} of an
+ * {@link IntCell} column returns the same as {@link IntCell#getDoubleValue()} and a {@link BooleanCell} is read as
+ * <code>1</code> or <code>0</code>.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public interface PrimitiveDataRow extends DataRow {
+
+    /**
+     * Whether the value at the given index is kept as primitive (or is a missing value without error message). If so,
+     * {@link #isMissing(int)} and the numeric accessors applicable to the column type can be used, otherwise the
+     * content is only available via {@link #getCell(int)}.
+     *
+     * @param index the column index
+     * @return if the value at the given index is available without materializing a cell
+     */
+    boolean isPrimitive(int index);
+
+    /**
+     * Whether the value at the given index is missing. Must only be called if {@link #isPrimitive(int)} is
+     * <code>true</code>.
+     *
+     * @param index the column index
+     * @return true if the value is missing
+     * @throws IllegalStateException if the value is not kept as primitive
+     */
+    boolean isMissing(int index);
+
+    /**
+     * Returns the value at the given index as <code>double</code>, applicable to {@link DoubleCell}, {@link IntCell},
+     * {@link LongCell} and {@link BooleanCell} columns.
+     *
+     * @param index the column index
+     * @return the value as in {@link DoubleValue#getDoubleValue()}
+     * @throws IllegalStateException if the value is not kept as primitive or is missing
+     */
+    double getDouble(int index);
+
+    /**
+     * Returns the value at the given index as <code>int</code>, applicable to {@link IntCell} and {@link BooleanCell}
+     * columns.
+     *
+     * @param index the column index
+     * @return the value as in {@link IntValue#getIntValue()}
+     * @throws IllegalStateException if the value is not kept as primitive, is missing or is not an int value
+     */
+    int getInt(int index);
+
+    /**
+     * Returns the value at the given index as <code>long</code>, applicable to {@link LongCell}, {@link IntCell} and
+     * {@link BooleanCell} columns.
+     *
+     * @param index the column index
+     * @return the value as in {@link LongValue#getLongValue()}
+     * @throws IllegalStateException if the value is not kept as primitive, is missing or is not a long value
+     */
+    long getLong(int index);
+}
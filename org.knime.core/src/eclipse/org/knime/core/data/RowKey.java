@@ -60,6 +60,9 @@
  */
 public final class RowKey {
 
+    /** Prefix of the keys created by {@link #createRowKey(long)}. */
+    private static final String PREFIX = "Row";
+
     /** Private member holding non-null row id. */
     private final String m_id;
 
@@ -81,6 +84,41 @@ public String getString() {
         return m_id;
     }
 
+    /**
+     * Whether this key is equal to the key created by {@link #createRowKey(long)} for the given index. The check
+     * compares the characters of this key with the digits of the index and doesn't create any string.
+     *
+     * @param rowIndex the row index
+     * @return true if this key equals <code>RowKey.createRowKey(rowIndex)</code>
+     * @since 4.2
+     */
+    public boolean isDefaultKey(final long rowIndex) {
+        final String id = m_id;
+        if (!id.startsWith(PREFIX)) {
+            return false;
+        }
+        int pos = PREFIX.length();
+        long value = rowIndex;
+        if (value < 0) {
+            if (pos >= id.length() || id.charAt(pos++) != '-') {
+                return false;
+            }
+        } else {
+            // compare on the negative range, which also covers Long.MIN_VALUE
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= -(value / 10)) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10, pos++) {
+            if (pos >= id.length() || id.charAt(pos) != (char)('0' - value / divisor % 10)) {
+                return false;
+            }
+        }
+        return pos == id.length();
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -173,6 +211,6 @@ public static RowKey createRowKey(final int rowIndex) {
      * @since 3.0
      */
     public static RowKey createRowKey(final long rowIndex) {
-        return new RowKey("Row" + rowIndex);
+        return new RowKey(PREFIX + rowIndex);
     }
 }
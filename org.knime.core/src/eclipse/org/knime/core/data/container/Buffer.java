@@ -60,7 +60,6 @@
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -99,6 +98,7 @@
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellSerializer;
 import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.RowIterator;
@@ -256,6 +256,9 @@ public class Buffer implements KNIMEStreamConstants {
     /** Config entry: internal buffer ID. */
     private static final String CFG_BUFFER_ID = "container.id";
 
+    /** Config entry whether the row keys are the row indices and not stored (only written if true). */
+    private static final String CFG_IMPLICIT_ROW_KEYS = "container.implicit.rowkeys";
+
     /**
      * Config entries when writing the spec to the file (uses NodeSettings object, which uses key-value pairs. Here:
      * size of the table (#rows).
@@ -277,6 +280,15 @@ public class Buffer implements KNIMEStreamConstants {
     /** The version number corresponding to {@link #VERSION}. */
     public static final int IVERSION = 12;
 
+    /**
+     * Version string written instead of {@link #VERSION} by buffers with implicit row keys, which don't store any row
+     * keys. Older versions of KNIME can't read these tables as the row keys are missing in the data file.
+     */
+    static final String VERSION_IMPLICIT_ROW_KEYS = "container_13";
+
+    /** The version number corresponding to {@link #VERSION_IMPLICIT_ROW_KEYS}. */
+    static final int IVERSION_IMPLICIT_ROW_KEYS = 13;
+
     private static final HashMap<String, Integer> COMPATIBILITY_MAP;
 
     static {
@@ -293,6 +305,7 @@ public class Buffer implements KNIMEStreamConstants {
         COMPATIBILITY_MAP.put("container_10", 10); // version 3.6 (multiple table formats)
         COMPATIBILITY_MAP.put("container_11", 11); // version 3.7 - add FileStoreCell support for multiple FileStores
         COMPATIBILITY_MAP.put(VERSION, IVERSION); // version 3.8 - changed default compression to Snappy
+        COMPATIBILITY_MAP.put(VERSION_IMPLICIT_ROW_KEYS, IVERSION_IMPLICIT_ROW_KEYS); // 4.2 - implicit row keys
         // NOTE consider to also
         // - increment the workflow.knime version number when updating this list
         // - update list in NoKeyBuffer
@@ -523,6 +536,12 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
     /** A flag that is set when this buffer has been flushed to disk (for whatever reason). */
     private boolean m_flushedToDisk;
 
+    /**
+     * The memory occupied by the rows held in memory, accounted against the budget of the data repository; null if
+     * the rows are not accounted for (no budget or buffer not keeping rows in memory).
+     */
+    private final MemoryBudget.Reservation m_memoryReservation;
+
     /** maximum number of rows that are in memory. */
     private final int m_maxRowsInMem;
 
@@ -532,13 +551,19 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
      * <code>null</code> before the buffer has been closed will lead to a flushing of the buffer on the next access.
      * Such a prematurely flushed buffer will not be placed inside the cache ever.
      */
-    private List<BlobSupportDataRow> m_listWhileAddRow;
+    private List<DataRow> m_listWhileAddRow;
 
     private int[] m_indicesOfBlobInColumns;
 
     /** the spec the rows comply with, no checking is done, however. */
     private DataTableSpec m_spec;
 
+    /**
+     * Whether the row keys are implicit, i.e. equal to {@link RowKey#createRowKey(long)} of the row index. They are
+     * then neither written to disk nor kept in memory but created on access.
+     */
+    private boolean m_implicitRowKeys;
+
     /**
      * List of file iterators that look at this buffer. Need to close them when the node is reset and the file shall be
      * deleted.
@@ -631,7 +656,9 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
          * independent of the lifecycle, if maxRowsInMemory is zero, the buffer is expected to flush to disk (e.g, see
          * {@link org.knime.core.data.sort.DataTableSorter#createDataContainer(DataTableSpec, boolean)}).
          */
-        m_listWhileAddRow = maxRowsInMemory > 0 ? new ArrayList<BlobSupportDataRow>() : null;
+        m_implicitRowKeys = settings.useImplicitRowKeys();
+        m_listWhileAddRow =
+            maxRowsInMemory > 0 ? PackedRowList.createRowList(spec, settings, m_implicitRowKeys) : null;
         m_size = 0;
         m_bufferID = bufferID;
         m_localRepository = localRep;
@@ -639,6 +666,8 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_dataRepository = dataRepository;
         m_spec = spec;
         m_outputFormat = m_bufferSettings.getOutputFormat(m_spec);
+        m_memoryReservation = m_listWhileAddRow != null && dataRepository != null
+            ? dataRepository.getMemoryBudget().map(b -> b.register(new BudgetSpiller(this))).orElse(null) : null;
         BufferTracker.getInstance().bufferCreated(this);
     }
 
@@ -701,6 +730,7 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_flushedToDisk = true;
         m_bufferSettings = settings;
         m_maxRowsInMem = 0;
+        m_memoryReservation = null;
         m_lifecycle = m_bufferSettings.useLRU() ? new SoftRefLRULifecycle() : new MemorizeIfSmallLifecycle();
         CACHE.setLRUCacheSize(m_bufferSettings.getLRUCacheSize());
         try {
@@ -718,12 +748,13 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
 
     /**
      * Get the version string to write to the meta file. This method is overridden in the {@code NoKeyBuffer} to
-     * distinguish streams written by the different implementations.
+     * distinguish streams written by the different implementations. Buffers with implicit row keys write
+     * {@link #VERSION_IMPLICIT_ROW_KEYS}.
      *
      * @return The version string.
      */
     public String getVersion() {
-        return VERSION;
+        return m_implicitRowKeys ? VERSION_IMPLICIT_ROW_KEYS : VERSION;
     }
 
     /**
@@ -776,11 +807,14 @@ int validateVersion(final String version) {
      * @param forceCopyOfBlobs If true any blob that is not owned by this buffer, will be copied and this buffer will
      *            take ownership. This option is true for loop end nodes, which need to aggregate the data generated in
      *            the loop body
+     * @return the row as added to the buffer, i.e. with blobs and file stores taken care of
      */
-    synchronized void addRow(final DataRow r, final boolean isCopyOfExisting, final boolean forceCopyOfBlobs) {
+    synchronized BlobSupportDataRow addRow(final DataRow r, final boolean isCopyOfExisting,
+        final boolean forceCopyOfBlobs) {
         try {
             BlobSupportDataRow row = saveBlobsAndFileStores(r, isCopyOfExisting, forceCopyOfBlobs);
             addBlobSupportDataRow(row);
+            return row;
         } catch (Exception e) {
             if (!(e instanceof IOException)) {
                 LOGGER.coding("Writing cells to temporary buffer must not throw " + e.getClass().getSimpleName(), e);
@@ -811,9 +845,16 @@ synchronized void addBlobSupportDataRow(final BlobSupportDataRow row) throws IOE
         }
         if (m_listWhileAddRow != null) {
             m_listWhileAddRow.add(row);
+            if (m_memoryReservation != null) {
+                m_memoryReservation.add(row);
+            }
             if (m_listWhileAddRow.size() > m_maxRowsInMem) {
                 m_lifecycle.onAddRowToLargeList();
             }
+            if (m_listWhileAddRow != null && isSpillRequested()) {
+                // the memory budget of the workflow is exceeded and this buffer has been chosen to free memory
+                flushBuffer();
+            }
         } else {
             flushBuffer();
             m_outputWriter.writeRow(row);
@@ -1199,10 +1240,14 @@ synchronized void close(final DataTableSpec spec) {
     /** Closes by creating shortcut array for file access. */
     void closeInternal() {
         assert Thread.holdsLock(this);
-        if (m_listWhileAddRow != null) {
+        if (m_listWhileAddRow != null && !isSpillRequested()) {
             // buffer still held in memory; can be cached
             CACHE.put(Buffer.this, m_listWhileAddRow);
             m_listWhileAddRow = null;
+            if (m_memoryReservation != null) {
+                m_memoryReservation.reservePending();
+                m_memoryReservation.onClose();
+            }
             m_lifecycle.onCloseIfCached();
         } else {
             // buffer has been flushed during initialization or by DC due to low memory event
@@ -1275,6 +1320,11 @@ private void writeMetaToFile(final Supplier<OutputStream> out) throws IOExceptio
         subSettings.addString(CFG_FILESTORES_UUID, fileStoresUUID);
         subSettings.addBoolean(CFG_IS_IN_MEMORY, m_lifecycle.shallLoadBackIntoMemory());
         subSettings.addInt(CFG_BUFFER_ID, m_bufferID);
+        if (m_implicitRowKeys) {
+            // added in 4.2 together with version VERSION_IMPLICIT_ROW_KEYS - not written otherwise so that older
+            // versions can still read standard tables
+            subSettings.addBoolean(CFG_IMPLICIT_ROW_KEYS, true);
+        }
         subSettings.addString(CFG_TABLE_FORMAT, m_outputFormat.getClass().getName());
         NodeSettingsWO formatSettings = subSettings.addNodeSettings(CFG_TABLE_FORMAT_CONFIG);
         m_formatSettings.copyTo(formatSettings);
@@ -1358,6 +1408,8 @@ private void readMetaFromFile(final InputStream metaIn, final File fileStoreDir)
             NodeSettingsRO outputFormatSettings =
                 m_version >= 10 ? subSettings.getNodeSettings(CFG_TABLE_FORMAT_CONFIG) : subSettings;
             m_formatSettings = outputFormatSettings;
+            m_implicitRowKeys =
+                m_version >= IVERSION_IMPLICIT_ROW_KEYS && subSettings.getBoolean(CFG_IMPLICIT_ROW_KEYS, false);
             initOutputReader(outputFormatSettings, m_version);
         }
     }
@@ -1417,13 +1469,40 @@ public long size() {
     }
 
     /**
-     * Get whether the buffer wants to persist row keys. Here hard-coded to <code>true</code> but overwritten in
-     * {@link NoKeyBuffer}.
+     * Get whether the buffer doesn't persist row keys. That is the case for buffers with implicit row keys (see
+     * {@link #hasImplicitRowKeys()}) and always for {@link NoKeyBuffer}.
      *
-     * @return whether row keys needs to be written/read.
+     * @return whether row keys are not written/read.
      */
     boolean shouldSkipRowKey() {
-        return false;
+        return m_implicitRowKeys;
+    }
+
+    /**
+     * @return whether the row keys of this buffer are the row indices (created by {@link RowKey#createRowKey(long)})
+     *         and are only created on access
+     */
+    boolean hasImplicitRowKeys() {
+        return m_implicitRowKeys;
+    }
+
+    /**
+     * Creates an iterator on the table store of this buffer, assigning the implicit row keys if necessary.
+     *
+     * @param filter the filter or <code>null</code>
+     * @param exec the monitor for the filtered iteration, may be <code>null</code>
+     * @return a new, not yet registered iterator
+     */
+    @SuppressWarnings("resource")
+    private TableStoreCloseableRowIterator createTableStoreIterator(final TableFilter filter,
+        final ExecutionMonitor exec) {
+        final TableStoreCloseableRowIterator it =
+            filter == null ? m_outputReader.iterator() : m_outputReader.iteratorWithFilter(filter, exec);
+        if (!m_implicitRowKeys) {
+            return it;
+        }
+        final long fromIndex = filter == null ? 0L : filter.getFromRowIndex().orElse(0L);
+        return new ImplicitRowKeyIterator(it, fromIndex);
     }
 
     /**
@@ -1620,7 +1699,7 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
             throw new IllegalStateException("Cannot iterate over table: buffer has been cleared.");
         }
 
-        final List<BlobSupportDataRow> list = obtainListFromCacheOrBackIntoMemoryIterator();
+        final List<DataRow> list = obtainListFromCacheOrBackIntoMemoryIterator();
         if (list == null) {
 
             // Case 1: We don't have have the table in memory and want to iterate it back into memory.
@@ -1635,17 +1714,20 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
             }
 
             // Case 2: We don't have have the table in memory.
-            final TableStoreCloseableRowIterator tableStoreIt =
-                filter == null ? m_outputReader.iterator() : m_outputReader.iteratorWithFilter(filter, exec);
+            final TableStoreCloseableRowIterator tableStoreIt = createTableStoreIterator(filter, exec);
             // register the table store iterator with this buffer
             tableStoreIt.setBuffer(this);
             m_nrOpenInputStreams.incrementAndGet();
             synchronized (m_openIteratorSet) {
                 m_openIteratorSet.put(tableStoreIt, DUMMY);
             }
-            return tableStoreIt;
+            // large tables are read (and filtered) on a background thread while the caller processes the rows
+            return PrefetchingRowIterator.prefetch(tableStoreIt, size());
 
         } else {
+            if (m_memoryReservation != null) {
+                m_memoryReservation.touch();
+            }
             final BackIntoMemoryIterator backIntoMemoryIt =
                 m_backIntoMemoryIteratorRef != null ? m_backIntoMemoryIteratorRef.get() : null;
             if (filter != null && size() > 0) {
@@ -1686,8 +1768,8 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
         }
     }
 
-    private List<BlobSupportDataRow> obtainListFromCacheOrBackIntoMemoryIterator() {
-        final Optional<List<BlobSupportDataRow>> optionalList = CACHE.get(this);
+    private List<DataRow> obtainListFromCacheOrBackIntoMemoryIterator() {
+        final Optional<List<DataRow>> optionalList = CACHE.get(this);
         if (optionalList.isPresent()) {
             return optionalList.get();
         }
@@ -1737,7 +1819,7 @@ File getOwnFileStoreCellsDirectory() {
      */
     Buffer createLocalCloneForWriting() {
         return new Buffer(m_spec, 0, getBufferID(), m_dataRepository, Collections.emptyMap(),
-            castAndGetFileStoreHandler(), m_bufferSettings);
+            castAndGetFileStoreHandler(), m_bufferSettings.withImplicitRowKeys(m_implicitRowKeys));
     }
 
     /**
@@ -1796,7 +1878,7 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
             }
             int count = 1;
             for (RowIterator it = iterator(); it.hasNext();) {
-                final BlobSupportDataRow row = (BlobSupportDataRow)it.next();
+                final DataRow row = it.next();
                 final int countCurrent = count;
                 exec.setProgress(count / (double)size(),
                     () -> "Writing row " + countCurrent + " (\"" + row.getKey() + "\")");
@@ -1863,6 +1945,80 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
         }
     }
 
+    /**
+     * Method that's been called from the {@link ContainerTable} to save the content as plain files into a directory
+     * (using the same names as the entries written by {@link #addToZipFile(ZipOutputStream, ExecutionMonitor)}). If
+     * the data has already been written to a temp file of the current version, that file (and the blob and file store
+     * directories) is hard-linked into the target directory, which avoids reading and writing the data once more. Only
+     * if linking is not supported by the file system, the files are copied.
+     *
+     * @param dir The (existing) directory to write to.
+     * @param exec For progress/cancel
+     * @throws IOException If it fails to write to a file.
+     * @throws CanceledExecutionException If canceled.
+     */
+    synchronized void saveToDirectory(final File dir, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        m_lifecycle.onSave();
+        if (m_spec == null) {
+            throw new IOException("Can't save an open Buffer.");
+        }
+        final File dataFile = new File(dir, ZIP_ENTRY_DATA);
+        final Buffer metaSource;
+        final File blobDir;
+        if (!isFlushedToDisk() || m_version < IVERSION) {
+            // same as in addToZipFile: write a copy of the current version (see bug #1364)
+            Buffer copy = createLocalCloneForWriting();
+            File tempFile = DataContainer.createTempFile(copy.m_outputFormat.getFilenameSuffix());
+            copy.m_binFile = tempFile;
+            copy.initOutputWriter(tempFile);
+            int count = 1;
+            for (RowIterator it = iterator(); it.hasNext();) {
+                final DataRow row = it.next();
+                final int countCurrent = count;
+                exec.setProgress(count / (double)size(),
+                    () -> "Writing row " + countCurrent + " (\"" + row.getKey() + "\")");
+                exec.checkCanceled();
+                copy.addRow(row, m_version < IVERSION, false);
+                count++;
+            }
+            synchronized (copy) {
+                copy.closeInternal();
+            }
+            try {
+                FileUtil.linkOrCopy(tempFile, dataFile);
+            } finally {
+                tempFile.delete();
+            }
+            if (isFlushedToDisk()) {
+                copy.m_listWhileAddRow = null;
+            }
+            if (m_version < IVERSION) {
+                blobDir = copy.m_blobDir;
+            } else {
+                assert copy.m_blobDir == null;
+                blobDir = m_blobDir;
+            }
+            metaSource = copy;
+        } else {
+            exec.setMessage("Linking table files");
+            FileUtil.linkOrCopy(m_binFile, dataFile);
+            blobDir = m_blobDir;
+            metaSource = this;
+        }
+        exec.checkCanceled();
+        if (blobDir != null) {
+            FileUtil.linkOrCopy(blobDir, new File(dir, ZIP_ENTRY_BLOBS));
+        }
+        if (hasOwnFileStoreCells()) {
+            FileUtil.linkOrCopy(getOwnFileStoreCellsDirectory(), new File(dir, ZIP_ENTRY_FILESTORES));
+        }
+        final File metaFile = new File(dir, ZIP_ENTRY_META);
+        try (OutputStream metaOut = new BufferedOutputStream(new FileOutputStream(metaFile))) {
+            metaSource.writeMetaToFile(() -> new NonClosableOutputStream(metaOut));
+        }
+    }
+
     /**
      * Adds recursively the content of the directory <code>dir</code> to a zip output stream, prefixed with
      * <code>zipEntry</code>.
@@ -1954,6 +2110,7 @@ void performClear() {
                 BufferTracker.getInstance().bufferCleared(this);
                 m_listWhileAddRow = null;
                 CACHE.invalidate(this);
+                releaseMemoryReservation();
                 if (m_binFile != null) {
                     synchronized (m_openIteratorSet) {
                         m_openIteratorSet.keySet().stream().filter(f -> f != null)
@@ -2033,14 +2190,28 @@ private static void logDebug(final String message, final Throwable t) {
     synchronized void flushBuffer() {
         writeList(m_listWhileAddRow);
         m_listWhileAddRow = null; // don't write to internal cache any more
+        releaseMemoryReservation();
+    }
+
+    /** @return whether the memory budget requested this buffer to write its rows to disk while rows are added */
+    private boolean isSpillRequested() {
+        return m_memoryReservation != null && m_memoryReservation.isSpillRequested();
+    }
+
+    /** Returns the memory occupied by rows held in memory to the memory budget (if any). */
+    private void releaseMemoryReservation() {
+        final MemoryBudget.Reservation reservation = m_memoryReservation;
+        if (reservation != null) {
+            reservation.release();
+        }
     }
 
-    private void writeList(final List<BlobSupportDataRow> list) {
+    private void writeList(final List<DataRow> list) {
         try {
             ensureWriterIsOpen();
             if (list != null) {
-                for (BlobSupportDataRow row : list) {
-                    m_outputWriter.writeRow(row);
+                for (DataRow row : list) {
+                    m_outputWriter.writeRow(toWritableRow(row));
                 }
             }
         } catch (IOException ioe) {
@@ -2050,6 +2221,15 @@ private void writeList(final List<BlobSupportDataRow> list) {
         }
     }
 
+    /**
+     * Rows kept in memory are either {@link BlobSupportDataRow} or packed rows (see {@link PackedRowList}); the latter
+     * are converted as the table store writers expect the raw cells.
+     */
+    private static DataRow toWritableRow(final DataRow row) {
+        return row instanceof PackedRowList.PackedDataRow ? ((PackedRowList.PackedDataRow)row).toBlobSupportDataRow()
+            : row;
+    }
+
     /** Last recently used cache for blobs. */
     private static final class BlobLRUCache extends LinkedHashMap<BlobAddress, SoftReference<BlobDataCell>> {
 
@@ -2099,7 +2279,7 @@ private final class BackIntoMemoryIterator {
          * per-datarow hash lookups, the list is not put into the cache yet (the cache holds only unmodifiable lists
          * anyways).
          */
-        private final List<BlobSupportDataRow> m_listWhileBackIntoMemory;
+        private final List<DataRow> m_listWhileBackIntoMemory;
 
         /**
          * Creates a new BackIntoMemoryIterator.
@@ -2109,7 +2289,8 @@ private final class BackIntoMemoryIterator {
          */
         private BackIntoMemoryIterator(final CloseableRowIterator iterator, final long size) {
             m_iterator = iterator;
-            m_listWhileBackIntoMemory = new ArrayList<BlobSupportDataRow>((int)size);
+            m_listWhileBackIntoMemory =
+                PackedRowList.createRowList(m_spec, m_bufferSettings, m_implicitRowKeys, (int)size);
         }
 
         private boolean hasNext() {
@@ -2126,7 +2307,7 @@ private DataRow next() {
             return next;
         }
 
-        private List<BlobSupportDataRow> getList() {
+        private List<DataRow> getList() {
             return m_listWhileBackIntoMemory;
         }
 
@@ -2138,7 +2319,7 @@ private List<BlobSupportDataRow> getList() {
      */
     private abstract class FromListFallBackFromFileIterator extends CloseableRowIterator {
 
-        private final WeakReference<List<BlobSupportDataRow>> m_listRef;
+        private final WeakReference<List<DataRow>> m_listRef;
 
         private final int m_toIndex;
 
@@ -2148,7 +2329,7 @@ private abstract class FromListFallBackFromFileIterator extends CloseableRowIter
 
         private TableStoreCloseableRowIterator m_fallBackFromFileIterator;
 
-        private FromListFallBackFromFileIterator(final List<BlobSupportDataRow> list, final int fromIndex,
+        private FromListFallBackFromFileIterator(final List<DataRow> list, final int fromIndex,
             final int toIndex, final ExecutionMonitor exec) {
             assert fromIndex >= 0;
             assert toIndex < size();
@@ -2165,7 +2346,7 @@ public boolean hasNext() {
 
         void initFallBackFromFileIterator() {
             m_fallBackFromFileIterator =
-                m_outputReader.iteratorWithFilter(TableFilter.filterRangeOfRows(m_nextIndex, m_toIndex), m_exec);
+                createTableStoreIterator(TableFilter.filterRangeOfRows(m_nextIndex, m_toIndex), m_exec);
             m_fallBackFromFileIterator.setBuffer(Buffer.this);
         }
 
@@ -2181,7 +2362,7 @@ public DataRow next() {
                 return m_fallBackFromFileIterator.next();
             }
 
-            final List<BlobSupportDataRow> list = m_listRef.get();
+            final List<DataRow> list = m_listRef.get();
             if (list == null) {
                 initFallBackFromFileIterator();
                 return next();
@@ -2191,7 +2372,7 @@ public DataRow next() {
             return nextFromList(list);
         }
 
-        abstract DataRow nextFromList(final List<BlobSupportDataRow> list);
+        abstract DataRow nextFromList(final List<DataRow> list);
 
         @Override
         public void close() {
@@ -2206,18 +2387,56 @@ public void close() {
      */
     private final class FromListRangeIterator extends FromListFallBackFromFileIterator {
 
-        private FromListRangeIterator(final List<BlobSupportDataRow> list, final int fromIndex, final int toIndex,
+        private FromListRangeIterator(final List<DataRow> list, final int fromIndex, final int toIndex,
             final ExecutionMonitor exec) {
             super(list, fromIndex, toIndex, exec);
         }
 
         @Override
-        DataRow nextFromList(final List<BlobSupportDataRow> list) {
+        DataRow nextFromList(final List<DataRow> list) {
             return list.get(m_nextIndex++);
         }
 
     }
 
+    /**
+     * Iterator on the table store of a buffer with implicit row keys. The table store returns a dummy key for each
+     * row, which is replaced by the key of the row index.
+     */
+    private static final class ImplicitRowKeyIterator extends TableStoreCloseableRowIterator {
+
+        private final TableStoreCloseableRowIterator m_delegate;
+
+        private long m_nextIndex;
+
+        ImplicitRowKeyIterator(final TableStoreCloseableRowIterator delegate, final long fromIndex) {
+            m_delegate = delegate;
+            m_nextIndex = fromIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_delegate.hasNext();
+        }
+
+        @Override
+        public DataRow next() {
+            final DataRow row = m_delegate.next();
+            return new BlobSupportDataRow(RowKey.createRowKey(m_nextIndex++), row);
+        }
+
+        @Override
+        public void setBuffer(final Buffer buffer) {
+            super.setBuffer(buffer);
+            m_delegate.setBuffer(buffer);
+        }
+
+        @Override
+        public boolean performClose() throws IOException {
+            return m_delegate.performClose();
+        }
+    }
+
     /**
      * Memory alert listener that will - on memory alert - prevent a FromListIterator to read some table further back
      * into memory.
@@ -2251,7 +2470,7 @@ private final class FromListIterator extends FromListFallBackFromFileIterator {
 
         private BackIntoMemoryIterator m_backIntoMemoryIterator;
 
-        private FromListIterator(final List<BlobSupportDataRow> list,
+        private FromListIterator(final List<DataRow> list,
             final BackIntoMemoryIterator backIntoMemoryIterator, final ExecutionMonitor exec) {
             super(list, 0, (int) size() - 1, exec);
             m_backIntoMemoryIterator = backIntoMemoryIterator;
@@ -2264,7 +2483,7 @@ private void dropBackIntoMemoryIterator() {
         }
 
         @Override
-        DataRow nextFromList(final List<BlobSupportDataRow> list) {
+        DataRow nextFromList(final List<DataRow> list) {
         	final BackIntoMemoryIterator backIntoMemoryIterator = m_backIntoMemoryIterator;
         	// need to synchronize access to list, as it is potentially modified by the backIntoMemoryIterator
             final Object semaphore = backIntoMemoryIterator != null ? backIntoMemoryIterator : this;
@@ -2282,7 +2501,7 @@ DataRow nextFromList(final List<BlobSupportDataRow> list) {
                 }
 
                 // case 2b: read from file back into memory
-                final BlobSupportDataRow next = (BlobSupportDataRow)backIntoMemoryIterator.next();
+                final DataRow next = backIntoMemoryIterator.next();
                 if (next == null) {
                     throw new InternalError("Unable to restore data row from disk");
                 }
@@ -2514,6 +2733,30 @@ protected boolean memoryAlert(final MemoryAlert alert) {
         }
     }
 
+    /**
+     * Writes the buffer data when the memory budget of the workflow is exceeded. Like the {@link BufferFlusher}, this
+     * only keeps a weak reference to the buffer.
+     */
+    private static final class BudgetSpiller implements MemoryBudget.Holder {
+
+        private final WeakReference<Buffer> m_bufferRef;
+
+        BudgetSpiller(final Buffer buffer) {
+            m_bufferRef = new WeakReference<>(buffer);
+        }
+
+        @Override
+        public boolean spill() {
+            final Buffer buffer = m_bufferRef.get();
+            if (buffer == null) {
+                return false;
+            }
+            ASYNC_EXECUTOR.submit(new ASyncWriteCallable(buffer));
+            LOGGER.debug("Writing " + buffer.size() + " rows in order to stay within the workflow's memory budget.");
+            return true;
+        }
+    }
+
     /**
      * An interface that described the lifecycle of a buffer. It is interfaced during multiple stages of a buffer's
      * existence and is responsible for determining (a) when to evict tables from the cache, (b) when to move tables
@@ -2693,6 +2936,9 @@ public void onCloseIfCached() {
                  * closed (and the node likely has terminated).
                  */
                 m_asyncAddFuture = ASYNC_EXECUTOR.submit(new ASyncWriteCallable(Buffer.this));
+                if (m_memoryReservation != null) {
+                    m_memoryReservation.onSpill();
+                }
             }
         }
 
@@ -2816,6 +3062,10 @@ public final Void call() throws Exception {
                     /** Buffer was already discarded (no rows added) */
                     return null;
                 }
+                if (buffer.isFlushedToDisk()) {
+                    /** Buffer was already written by a previously submitted task (e.g., on memory alert and budget). */
+                    return null;
+                }
                 // START debug AP-13181 buffers not being cleared when workflow is closed and cleaned up
                 if (m_nodeContext != null) {
                     final WorkflowManager wfm = m_nodeContext.getWorkflowManager();
@@ -2833,18 +3083,18 @@ public final Void call() throws Exception {
                 // END debug AP-13181 buffers not being cleared when workflow is closed and cleaned up
 
                 buffer.ensureWriterIsOpen();
-                final List<BlobSupportDataRow> list = CACHE.getSilent(buffer).get();
+                final List<DataRow> list = CACHE.getSilent(buffer).get();
                 final AbstractTableStoreWriter outputWriter = buffer.m_outputWriter;
                 buffer = null;
 
                 if (list != null) {
-                    for (BlobSupportDataRow rowInList : list) {
+                    for (DataRow rowInList : list) {
                         /** Writer thread has been cancelled during clear(). */
                         if (Thread.currentThread().isInterrupted()) {
                             return null;
                         }
 
-                        outputWriter.writeRow(rowInList);
+                        outputWriter.writeRow(toWritableRow(rowInList));
                     }
                 }
 
@@ -2857,6 +3107,7 @@ public final Void call() throws Exception {
                 synchronized (buffer.m_isClearedLock) {
                     buffer.closeWriterAndWriteMeta();
                     buffer.m_lifecycle.onWriteSuccessful();
+                    buffer.releaseMemoryReservation();
                 }
                 buffer = null;
 
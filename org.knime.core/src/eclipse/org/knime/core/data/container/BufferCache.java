@@ -58,6 +58,7 @@
 import java.util.Map.Entry;
 import java.util.Optional;
 
+import org.knime.core.data.DataRow;
 import org.knime.core.data.util.memory.MemoryAlert;
 import org.knime.core.data.util.memory.MemoryAlertListener;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
@@ -66,7 +67,7 @@
 import org.knime.core.util.LRUCache;
 
 /**
- * A data structure that manages which tables (i.e., {@link List} of {@link BlobSupportDataRow}) to keep in memory. The
+ * A data structure that manages which tables (i.e., {@link List} of {@link DataRow}) to keep in memory. The
  * cache has two layers: an upper layer for tables that are guaranteed to be kept in memory and a lower level for tables
  * that are cleared for garbage collection. Tables in the lower level are attempted to be kept in-memory for as long as
  * they've recently been used, but are guaranteed to be dropped before KNIME runs out of memory. The cache itself does
@@ -93,7 +94,7 @@ final class BufferCache {
      * automatically. We use the buffer itself as key, since multiple buffers can have the same id. The Map has to have
      * weak keys such that unreferenced buffers can be garbage-collected if we forget to clear them.
      */
-    private final Map<Long, List<BlobSupportDataRow>> m_hardMap = new HashMap<>();
+    private final Map<Long, List<DataRow>> m_hardMap = new HashMap<>();
 
     /**
      * A number that determines how many tables are kept in the soft-references LRU cache before being weak-referenced.
@@ -105,18 +106,18 @@ final class BufferCache {
      * they were last accessed. When memory becomes scarce, the garbage collector should clear weak-referenced tables
      * first and then proceed with soft-referenced tables in the order in which they were least recently used.
      */
-    private LRUCache<Long, SoftReference<List<BlobSupportDataRow>>> m_LRUCache =
+    private LRUCache<Long, SoftReference<List<DataRow>>> m_LRUCache =
         new LRUCache<>(m_LRUCacheSize, m_LRUCacheSize);
 
     /**
      * A map of weak references to tables evicted from the LRU cache.
      */
-    private final Map<Long, WeakReference<List<BlobSupportDataRow>>> m_weakCache = new HashMap<>();
+    private final Map<Long, WeakReference<List<DataRow>>> m_weakCache = new HashMap<>();
 
     /**
      * A reference queue that holds any weak references that were cleared by the garbage collector.
      */
-    private final ReferenceQueue<List<BlobSupportDataRow>> m_weakCacheRefQueue = new ReferenceQueue<>();
+    private final ReferenceQueue<List<DataRow>> m_weakCacheRefQueue = new ReferenceQueue<>();
 
     /** Some counters for instrumentation / statistics. */
     private long m_nTables = 0;
@@ -146,7 +147,7 @@ private void logStatistics() {
 
             long nActiveTables = 0;
 
-            for (WeakReference<List<BlobSupportDataRow>> ref : m_weakCache.values()) {
+            for (WeakReference<List<DataRow>> ref : m_weakCache.values()) {
                 if (ref.get() != null) {
                     nActiveTables++;
                 }
@@ -173,31 +174,31 @@ private void logStatistics() {
      * @param buffer the buffer which the table is associated with
      * @param list a fully read table
      */
-    synchronized void put(final Buffer buffer, final List<BlobSupportDataRow> list) {
+    synchronized void put(final Buffer buffer, final List<? extends DataRow> list) {
         CheckUtils.checkArgumentNotNull(buffer);
         CheckUtils.checkArgumentNotNull(list);
 
         final long uniqueId = buffer.getUniqueID();
 
         /** disallow modification */
-        final List<BlobSupportDataRow> unmodifiableList = Collections.unmodifiableList(list);
+        final List<DataRow> unmodifiableList = Collections.unmodifiableList(list);
         m_hardMap.put(uniqueId, unmodifiableList);
 
         /** We already fill the soft cache here to keep track of how recently the table has been used. Note that soft
          * and weak references won't be cleared while there is still a hard reference on the object. */
         putIntoLRUCache(uniqueId, unmodifiableList);
 
-        final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.put(uniqueId,
-            new WeakReference<List<BlobSupportDataRow>>(unmodifiableList, m_weakCacheRefQueue));
+        final WeakReference<List<DataRow>> previousValue = m_weakCache.put(uniqueId,
+            new WeakReference<List<DataRow>>(unmodifiableList, m_weakCacheRefQueue));
         if (previousValue == null) {
             m_nTables++;
         }
     }
 
-    private void putIntoLRUCache(final long uniqueId, final List<BlobSupportDataRow> list) {
+    private void putIntoLRUCache(final long uniqueId, final List<DataRow> list) {
         final MemoryAlertSystem mas = MemoryAlertSystem.getInstanceUncollected();
         if (!mas.isMemoryLow()) {
-            m_LRUCache.put(uniqueId, new SoftReference<List<BlobSupportDataRow>>(list));
+            m_LRUCache.put(uniqueId, new SoftReference<List<DataRow>>(list));
             /**
              * We should remove soft-referenced tables from the LRU cache on memory alert. Otherwise, the LRU cache
              * would block memory despite memory alerts. This could lead to a scenario where new buffers are always
@@ -240,7 +241,7 @@ synchronized void clearForGarbageCollection(final Buffer buffer) {
     synchronized boolean contains(final Buffer buffer) {
         CheckUtils.checkArgumentNotNull(buffer);
 
-        final WeakReference<List<BlobSupportDataRow>> weakRef = m_weakCache.get(buffer.getUniqueID());
+        final WeakReference<List<DataRow>> weakRef = m_weakCache.get(buffer.getUniqueID());
         if (weakRef != null) {
             return weakRef.get() != null;
         }
@@ -251,10 +252,14 @@ synchronized boolean contains(final Buffer buffer) {
      * Retrieve the table associated with a buffer from the cache.
      *
      * @param buffer the buffer which the to-be-retrieved table is associated with
+     * @param <R> the type of the rows in the list the table has been put into the cache with; as lists of different
+     *            row types are cached, callers that don't know the type must use {@link DataRow}
      * @return a table represented as a list of datarows, if such a table is present in the cache
      */
-    synchronized Optional<List<BlobSupportDataRow>> get(final Buffer buffer) {
-        return getInternal(buffer, false);
+    @SuppressWarnings("unchecked")
+    synchronized <R extends DataRow> Optional<List<R>> get(final Buffer buffer) {
+        // the lists are unmodifiable, so the cast can only fail when reading rows of a different type
+        return getInternal(buffer, false).map(list -> (List<R>)list);
     }
 
     /**
@@ -264,16 +269,16 @@ synchronized Optional<List<BlobSupportDataRow>> get(final Buffer buffer) {
      * @param buffer the buffer which the to-be-retrieved table is associated with
      * @return a table represented as a list of datarows, if such a table is present in the cache
      */
-    synchronized Optional<List<BlobSupportDataRow>> getSilent(final Buffer buffer) {
+    synchronized Optional<List<DataRow>> getSilent(final Buffer buffer) {
         return getInternal(buffer, true);
     }
 
-    private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, final boolean silent) {
+    private Optional<List<DataRow>> getInternal(final Buffer buffer, final boolean silent) {
         CheckUtils.checkArgumentNotNull(buffer);
 
         final long uniqueId = buffer.getUniqueID();
 
-        final WeakReference<List<BlobSupportDataRow>> weakRef = m_weakCache.get(uniqueId);
+        final WeakReference<List<DataRow>> weakRef = m_weakCache.get(uniqueId);
         if (weakRef == null) {
             /** If we've never encountered this buffer or have deliberately invalidated it, it makes no sense to look
              * any further. */
@@ -291,19 +296,19 @@ private Optional<List<BlobSupportDataRow>> getInternal(final Buffer buffer, fina
         }
 
         /** Update recent access in LRU cache and soft reference. */
-        final SoftReference<List<BlobSupportDataRow>> softRef = m_LRUCache.get(uniqueId);
+        final SoftReference<List<DataRow>> softRef = m_LRUCache.get(uniqueId);
         if (softRef != null && softRef.get() != null && !hit) {
             m_nSoftHits++;
             hit = true;
         }
 
-        Optional<List<BlobSupportDataRow>> result = Optional.empty();
+        Optional<List<DataRow>> result = Optional.empty();
 
         /**
          * If the list is in the hard map or the LRU cache, it will also be in the weak cache, since weak references
          * won't be dropped while a hard(er) reference on the list still exists.
          */
-        final List<BlobSupportDataRow> list = weakRef.get();
+        final List<DataRow> list = weakRef.get();
         if (list != null) {
             /** Make sure to put the accessed table back into the LRU cache. */
         	if (!m_LRUCache.containsKey(uniqueId)) {
@@ -338,7 +343,7 @@ synchronized void invalidate(final Buffer buffer) {
 
         m_hardMap.remove(uniqueId);
         m_LRUCache.remove(uniqueId);
-        final WeakReference<List<BlobSupportDataRow>> previousValue = m_weakCache.remove(uniqueId);
+        final WeakReference<List<DataRow>> previousValue = m_weakCache.remove(uniqueId);
 
         if (previousValue != null && previousValue.get() != null) {
             m_nInvalidatedTables++;
@@ -356,11 +361,11 @@ synchronized void setLRUCacheSize(final int newSize) {
         }
 
         /** Since there is no way of adjusting the cache size of an LRUCache, we have to create a new cache. */
-        final LRUCache<Long, SoftReference<List<BlobSupportDataRow>>> cache = new LRUCache<>(newSize, newSize);
+        final LRUCache<Long, SoftReference<List<DataRow>>> cache = new LRUCache<>(newSize, newSize);
 
         /** If the new cache is smaller than the old one, the least-recently-accessed entries will be entered first
          * and then also evicted first when the new cache size is reached. */
-        for (Entry<Long, SoftReference<List<BlobSupportDataRow>>> entry : m_LRUCache.entrySet()) {
+        for (Entry<Long, SoftReference<List<DataRow>>> entry : m_LRUCache.entrySet()) {
             cache.put(entry.getKey(), entry.getValue());
         }
 
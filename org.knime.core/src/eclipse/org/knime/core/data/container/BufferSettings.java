@@ -86,6 +86,12 @@ public final class BufferSettings {
     /** The output table store format. */
     private final TableStoreFormat m_outputFormat;
 
+    /** Whether tables of primitive columns are kept in memory as {@link PackedRowList}. */
+    private final boolean m_packRows;
+
+    /** Whether the row keys are the row indices and are not stored. */
+    private final boolean m_implicitRowKeys;
+
     /**
      * Default constructor.
      */
@@ -93,6 +99,8 @@ public final class BufferSettings {
         m_enableLRU = initLRU();
         m_lruCacheSize = DEF_LRU_CACHE_SIZE;
         m_outputFormat = TableStoreFormatRegistry.getInstance().getInstanceTableStoreFormat();
+        m_packRows = Boolean.getBoolean(KNIMEConstants.PROPERTY_PACKED_ROWS);
+        m_implicitRowKeys = false;
     }
 
     /**
@@ -101,12 +109,17 @@ public final class BufferSettings {
      * @param enableLRU the enable LRU flag
      * @param lruCacheSize the LRU cache size
      * @param outputFormat the output format
+     * @param packRows the flag whether to pack rows of primitive tables
+     * @param implicitRowKeys the flag whether row keys are implicit
      * @noreference This constructor is not intended to be referenced by clients.
      */
-    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final TableStoreFormat outputFormat) {
+    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final TableStoreFormat outputFormat,
+        final boolean packRows, final boolean implicitRowKeys) {
         m_enableLRU = enableLRU;
         m_lruCacheSize = lruCacheSize;
         m_outputFormat = outputFormat;
+        m_packRows = packRows;
+        m_implicitRowKeys = implicitRowKeys;
     }
 
     /**
@@ -148,6 +161,31 @@ int getLRUCacheSize() {
         return m_lruCacheSize;
     }
 
+    /**
+     * Returns whether tables consisting of int, long, double and boolean columns are kept in memory as primitive
+     * arrays rather than as lists of cells.
+     *
+     * @return flag indicating whether to pack rows of primitive tables
+     * @see KNIMEConstants#PROPERTY_PACKED_ROWS
+     * @since 4.2
+     */
+    public boolean usePackedRows() {
+        return m_packRows;
+    }
+
+    /**
+     * Returns whether the row keys of the written table are implicit, i.e. equal to
+     * {@link org.knime.core.data.RowKey#createRowKey(long) RowKey.createRowKey(rowIndex)}. Such keys are neither
+     * written to disk nor kept in memory. Keys of tables without this flag are always stored with their full string,
+     * even if they are generated ones.
+     *
+     * @return flag indicating whether row keys are implicit
+     * @since 4.2
+     */
+    public boolean useImplicitRowKeys() {
+        return m_implicitRowKeys;
+    }
+
     /**
      * Returns the {@link TableStoreFormat} used to read and write the {@link Buffer Buffer's} content.
      *
@@ -183,7 +221,7 @@ public static BufferSettings getDefault() {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRU(final boolean enableLRU) {
-        return new BufferSettings(enableLRU, m_lruCacheSize, m_outputFormat);
+        return new BufferSettings(enableLRU, m_lruCacheSize, m_outputFormat, m_packRows, m_implicitRowKeys);
     }
 
     /**
@@ -194,7 +232,7 @@ public BufferSettings withLRU(final boolean enableLRU) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRUCacheSize(final int lruCacheSize) {
-        return new BufferSettings(m_enableLRU, lruCacheSize, m_outputFormat);
+        return new BufferSettings(m_enableLRU, lruCacheSize, m_outputFormat, m_packRows, m_implicitRowKeys);
     }
 
     /**
@@ -205,7 +243,32 @@ public BufferSettings withLRUCacheSize(final int lruCacheSize) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withOutputFormat(final TableStoreFormat outputFormat) {
-        return new BufferSettings(m_enableLRU, m_lruCacheSize, outputFormat);
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, outputFormat, m_packRows, m_implicitRowKeys);
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes the flag whether to pack rows of primitive tables.
+     *
+     * @param packRows the new flag whether to pack rows of primitive tables
+     * @return a new instance of {@code BufferSettings}
+     * @since 4.2
+     */
+    public BufferSettings withPackedRows(final boolean packRows) {
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_outputFormat, packRows, m_implicitRowKeys);
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes the flag whether row keys are implicit.
+     *
+     * @param implicitRowKeys the new flag whether row keys are implicit
+     * @return a new instance of {@code BufferSettings}
+     * @see #useImplicitRowKeys()
+     * @since 4.2
+     */
+    public BufferSettings withImplicitRowKeys(final boolean implicitRowKeys) {
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_outputFormat, m_packRows, implicitRowKeys);
     }
 
 }
@@ -145,6 +145,20 @@ public BufferedDataTable[] getReferenceTables() {
         return m_tables;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        final String[] parts = new String[m_tables.length + 1];
+        for (int i = 0; i < m_tables.length; i++) {
+            parts[i] = m_tables[i].getContentFingerprint(exec.createSubProgress(1.0 / m_tables.length));
+        }
+        parts[m_tables.length] = m_rowKeyDuplicateSuffix;
+        return TableFingerprint.combine(getClass().getName(), m_spec, parts);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -49,6 +49,7 @@
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.zip.ZipOutputStream;
 
 import org.knime.core.data.DataTableSpec;
@@ -86,6 +87,8 @@ public final class ContainerTable implements KnowsRowCountTable {
      * demand (e.g. iterator is opened). */
     private CopyOnAccessTask m_readTask;
     private DataTableSpec m_spec;
+    /** The content fingerprint, if computed while the table was written or requested before. */
+    private volatile String m_contentFingerprint;
 
     /**
      * Create new Table based on a Buffer. This constructor is called from
@@ -151,6 +154,11 @@ public int getRowCount() {
      */
     @Override
     public long size() {
+        final CopyOnAccessTask readTask = m_readTask;
+        if (readTask != null && readTask.getRowCount() >= 0) {
+            // known from the meta data saved with the table, no need to extract it
+            return readTask.getRowCount();
+        }
         ensureBufferOpen();
         return m_buffer.size();
     }
@@ -177,6 +185,37 @@ public int getBufferID() {
         return m_readTask.getBufferID();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        String fingerprint = m_contentFingerprint;
+        if (fingerprint == null) {
+            fingerprint = TableFingerprint.compute(this, exec);
+            m_contentFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the content fingerprint if it is known without reading the table, i.e. if it was computed while the
+     *         table was written or has been requested before
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public Optional<String> getKnownContentFingerprint() {
+        return Optional.ofNullable(m_contentFingerprint);
+    }
+
+    /**
+     * @param fingerprint the content fingerprint as computed while the table was written
+     */
+    void setContentFingerprint(final String fingerprint) {
+        m_contentFingerprint = fingerprint;
+    }
+
     /**
      * Instruct the underlying buffer to cache the rows into main memory to accelerate future iterations. This method
      * does nothing if the buffer is reading from memory already.
@@ -204,6 +243,24 @@ public void saveToFile(final File f, final NodeSettingsWO settings,
         }
     }
 
+    /**
+     * Saves the table as plain files into the argument directory instead of a zip file. Data that already resides in
+     * temp files is linked into the directory rather than copied. Tables saved this way are read back like zipped
+     * tables, using a file reference to the directory.
+     *
+     * @param dir The (existing) directory to write to.
+     * @param exec For progress/cancel.
+     * @throws IOException If writing fails.
+     * @throws CanceledExecutionException If canceled.
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public void saveToDirectory(final File dir, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        ensureBufferOpen();
+        m_buffer.saveToDirectory(dir, exec);
+    }
+
     /**
      * This methods exists to address possibly forward compatibility issues in KNIME 3.5 and before, see AP-8954.
      * Workflows created and saved in KNIME AP 3.6 were saved incompatibly to prior versions of KNIME (column store
@@ -223,6 +280,20 @@ public TableStoreFormat getTableStoreFormat() {
         return m_buffer.getOutputFormat();
     }
 
+    /**
+     * Whether the row keys of this table are implicit and not persisted. Such tables are saved under a separate table
+     * type so that KNIME 4.1 and before fail early when loading a workflow containing them (see
+     * {@link #getTableStoreFormat()}).
+     *
+     * @return whether the underlying buffer has implicit row keys
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public boolean hasImplicitRowKeys() {
+        ensureBufferOpen();
+        return m_buffer.hasImplicitRowKeys();
+    }
+
     /**
      * {@inheritDoc}
      */
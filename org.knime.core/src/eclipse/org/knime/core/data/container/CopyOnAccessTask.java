@@ -105,6 +105,8 @@ final class CopyOnAccessTask {
     /** Flag to indicate that the buffer needs to restore its content
      * into memory once it is created. */
     private boolean m_needsRestoreIntoMemory;
+    /** The number of rows as saved in the table's meta data, -1 if unknown. */
+    private long m_rowCount = -1;
 
     /**
      * Keeps reference, nothing else.
@@ -148,6 +150,9 @@ public void run() {
                 }
             };
             KNIMETimer.getInstance().schedule(timerTask, NOTIFICATION_DELAY);
+            if (file.isDirectory()) {
+                return createBufferFromDirectory(file);
+            }
             return createBuffer(
                     new BufferedInputStream(new FileInputStream(file)));
         } finally {
@@ -258,6 +263,53 @@ Buffer createBuffer(final InputStream in) throws IOException {
         return buffer;
     }
 
+    /**
+     * Creates the buffer from a directory as written by {@link Buffer#saveToDirectory(File,
+     * org.knime.core.node.ExecutionMonitor)}. The data, blob and file store files are linked to temp (or copied if the
+     * file system does not support links), which is much cheaper than extracting a zip file.
+     * @param dir The directory to read from.
+     * @return The buffer instance reading from the temp file.
+     * @throws IOException If the directory content is incomplete or can't be accessed.
+     */
+    private Buffer createBufferFromDirectory(final File dir) throws IOException {
+        final File dataFile = new File(dir, Buffer.ZIP_ENTRY_DATA);
+        final File metaFile = new File(dir, Buffer.ZIP_ENTRY_META);
+        if (!dataFile.isFile()) {
+            throw new IOException("No file " + Buffer.ZIP_ENTRY_DATA + " in directory " + dir.getAbsolutePath());
+        }
+        if (!metaFile.isFile()) {
+            throw new IOException("No file " + Buffer.ZIP_ENTRY_META + " in directory " + dir.getAbsolutePath());
+        }
+        if (m_spec == null) {
+            throw new IOException("No spec available for table in directory " + dir.getAbsolutePath());
+        }
+        File binFile = DataContainer.createTempFile(".tmp");
+        // temp file has been created empty -- replace it by a link to the data file
+        Files.delete(binFile.toPath());
+        FileUtil.linkOrCopy(dataFile, binFile);
+        File blobDir = null;
+        final File blobSourceDir = new File(dir, Buffer.ZIP_ENTRY_BLOBS);
+        if (blobSourceDir.isDirectory()) {
+            blobDir = Buffer.createBlobDirNameForTemp(binFile);
+            FileUtil.linkOrCopy(blobSourceDir, blobDir);
+        }
+        File fileStoreDir = null;
+        final File fileStoreSourceDir = new File(dir, Buffer.ZIP_ENTRY_FILESTORES);
+        if (fileStoreSourceDir.isDirectory()) {
+            fileStoreDir = FileUtil.createTempDir("knime_fs_datacontainer-");
+            FileUtil.linkOrCopy(fileStoreSourceDir, fileStoreDir);
+        }
+        final Buffer buffer;
+        try (InputStream metaIn = new BufferedInputStream(new FileInputStream(metaFile))) {
+            buffer = m_bufferCreator.createBuffer(binFile, blobDir, fileStoreDir, m_spec, metaIn, m_bufferID,
+                m_dataRepository);
+        }
+        if (m_needsRestoreIntoMemory) {
+            buffer.setRestoreIntoMemoryOnCacheMiss();
+        }
+        return buffer;
+    }
+
     /** Get name of file to copy from. Used for better error messages.
      * @return source file
      */
@@ -278,6 +330,17 @@ void setRestoreIntoMemory() {
         m_needsRestoreIntoMemory = true;
     }
 
+    /** Sets the number of rows in the table as saved in the table's meta data.
+     * @param rowCount the row count or -1 if unknown */
+    void setRowCount(final long rowCount) {
+        m_rowCount = rowCount;
+    }
+
+    /** @return the number of rows as saved in the table's meta data, -1 if unknown (table needs to be extracted). */
+    long getRowCount() {
+        return m_rowCount;
+    }
+
     /** @return the dataRepository for blob and file store resolution. */
     IDataRepository getDataRepository() {
         return m_dataRepository;
@@ -232,7 +232,7 @@ public Thread newThread(final Runnable r) {
     private long m_curBatchIdx;
 
     /** Map storing those rows that still need to be forwarded to the {@link Buffer}. */
-    private final Map<Long, List<BlobSupportDataRow>> m_pendingBatchMap;
+    private final Map<Long, PendingBatch> m_pendingBatchMap;
 
     /**
      * The current batch, i.e., a list of rows that have not yet been been verified nor added to the buffer. A
@@ -265,6 +265,12 @@ public Thread newThread(final Runnable r) {
     /** Holds the keys of the added rows to check for duplicates. */
     private DuplicateChecker m_duplicateChecker;
 
+    /**
+     * Whether the row keys are implicit, i.e. each added row must have the key {@link RowKey#createRowKey(long)} of its
+     * index. Such keys are unique by definition and neither checked for duplicates nor stored.
+     */
+    private final boolean m_implicitRowKeys;
+
     /** The tablespec of the return table. */
     private DataTableSpec m_spec;
 
@@ -273,6 +279,12 @@ public Thread newThread(final Runnable r) {
 
     private DataTableDomainCreator m_domainCreator;
 
+    /**
+     * The fingerprint of the rows added so far, null unless fingerprints are computed while tables are written (see
+     * {@link KNIMEConstants#PROPERTY_TABLE_FINGERPRINTS}).
+     */
+    private TableFingerprint m_fingerprint;
+
     /** Local repository map, created lazily. */
     private Map<Integer, ContainerTable> m_localMap;
 
@@ -352,9 +364,33 @@ public DataContainer(final DataTableSpec spec, final boolean initDomain, final i
      */
     protected DataContainer(final DataTableSpec spec, final boolean initDomain, final int maxCellsInMemory,
         final boolean forceSynchronousIO) {
-        this(spec,
-            DataContainerSettings.getDefault().withInitializedDomain(initDomain).withMaxCellsInMemory(maxCellsInMemory)
-                .withForceSequentialRowHandling(forceSynchronousIO || DataContainerSettings.getDefault().isForceSequentialRowHandling()));
+        this(spec, initDomain, maxCellsInMemory, forceSynchronousIO, false);
+    }
+
+    /**
+     * Opens the container so that rows can be added by <code>addRowToTable(DataRow)</code>.
+     * @param spec Table spec of the final table. Rows that are added to the container must comply with this spec.
+     * @param initDomain if set to true, the column domains in the container are initialized with the domains from spec.
+     * @param maxCellsInMemory Maximum count of cells in memory before swapping.
+     * @param forceSynchronousIO Whether to force synchronous IO. If this property is false, it's using the default
+     *            (which is false unless specified otherwise through {@link KNIMEConstants#PROPERTY_SYNCHRONOUS_IO})
+     * @param implicitRowKeys Whether the row keys are implicit, i.e. the row with index <i>i</i> must have the key
+     *            {@link RowKey#createRowKey(long) RowKey.createRowKey(i)}. The keys are then neither checked for
+     *            duplicates nor stored but recreated when the table is read.
+     * @throws IllegalArgumentException If <code>maxCellsInMemory</code> &lt; 0 or the spec is null
+     * @since 4.2
+     */
+    protected DataContainer(final DataTableSpec spec, final boolean initDomain, final int maxCellsInMemory,
+        final boolean forceSynchronousIO, final boolean implicitRowKeys) {
+        this(spec, createSettings(initDomain, maxCellsInMemory, forceSynchronousIO, implicitRowKeys));
+    }
+
+    private static DataContainerSettings createSettings(final boolean initDomain, final int maxCellsInMemory,
+        final boolean forceSynchronousIO, final boolean implicitRowKeys) {
+        final DataContainerSettings defaults = DataContainerSettings.getDefault();
+        return defaults.withInitializedDomain(initDomain).withMaxCellsInMemory(maxCellsInMemory)
+            .withForceSequentialRowHandling(forceSynchronousIO || defaults.isForceSequentialRowHandling())
+            .withBufferSettings(defaults.getBufferSettings().withImplicitRowKeys(implicitRowKeys));
     }
 
     /**
@@ -370,6 +406,7 @@ public DataContainer(final DataTableSpec spec, final DataContainerSettings setti
             settings.getMaxCellsInMemory());
         m_spec = spec;
         m_duplicateChecker = settings.createDuplicateChecker();
+        m_implicitRowKeys = settings.getBufferSettings().useImplicitRowKeys();
         m_forceSequentialRowHandling = settings.isForceSequentialRowHandling();
         m_batchSize = settings.getRowBatchSize();
         m_memoryLowState = false;
@@ -393,6 +430,7 @@ public DataContainer(final DataTableSpec spec, final DataContainerSettings setti
             m_curBatchIdx = 0;
         }
         m_domainCreator = settings.createDomainCreator(m_spec);
+        m_fingerprint = TableFingerprint.isComputedOnWrite() ? new TableFingerprint() : null;
         m_size = 0;
         // how many rows will occupy MAX_CELLS_IN_MEMORY
         final int colCount = spec.getNumColumns();
@@ -405,7 +443,15 @@ private void addRowToTableWrite(final DataRow row) {
         validateSpecCompatiblity(row);
         m_domainCreator.updateDomain(row);
         addRowKeyForDuplicateCheck(row.getKey());
-        m_buffer.addRow(row, false, m_forceCopyOfBlobs);
+        final BlobSupportDataRow addedRow = m_buffer.addRow(row, false, m_forceCopyOfBlobs);
+        if (m_fingerprint != null) {
+            try {
+                m_fingerprint.addRow(addedRow);
+            } catch (IOException e) {
+                throw new DataContainerException(
+                    "Unable to compute fingerprint of row \"" + row.getKey() + "\": " + e.getMessage(), e);
+            }
+        }
     }
 
     /**
@@ -599,6 +645,10 @@ public void close() {
             throw new DuplicateKeyException("Found duplicate row ID \"" + key + "\" (at unknown position)", key);
         }
         m_table = new ContainerTable(m_buffer);
+        if (m_fingerprint != null) {
+            m_table.setContentFingerprint(m_fingerprint.finish(finalSpec));
+            m_fingerprint = null;
+        }
         getLocalTableRepository().put(m_table.getBufferID(), m_table);
         m_buffer = null;
         m_spec = null;
@@ -728,6 +778,10 @@ public void addRowToTable(final DataRow row) {
         if (row == null) {
             throw new NullPointerException("Can't add null rows to container");
         }
+        if (m_implicitRowKeys && !row.getKey().isDefaultKey(m_size)) {
+            throw new IllegalArgumentException("Row ID \"" + row.getKey() + "\" does not match the implicit row ID \""
+                + RowKey.createRowKey((long)m_size) + "\" of row " + m_size);
+        }
         initBufferIfRequired();
         if (m_forceSequentialRowHandling) {
             addRowToTableSynchronously(row);
@@ -888,6 +942,10 @@ protected int createInternalBufferID() {
      * @throws DuplicateKeyException If a duplicate is encountered.
      */
     protected void addRowKeyForDuplicateCheck(final RowKey key) {
+        if (m_implicitRowKeys) {
+            // keys have been checked to be the row indices when the row was added
+            return;
+        }
         try {
             m_duplicateChecker.addKey(key.toString());
         } catch (IOException ioe) {
@@ -1161,7 +1219,26 @@ static ContainerTable readFromZip(final ReferencedFile zipFileRef, final BufferC
      */
     protected static ContainerTable readFromZipDelayed(final ReferencedFile zipFile, final DataTableSpec spec,
         final int bufferID, final WorkflowDataRepository dataRepository) {
+        return readFromZipDelayed(zipFile, spec, bufferID, dataRepository, -1L);
+    }
+
+    /**
+     * Used in {@link org.knime.core.node.BufferedDataContainer} to read the tables from the workspace location.
+     *
+     * @param zipFile To read from (is going to be copied to temp on access)
+     * @param spec The DTS for the table.
+     * @param bufferID The buffer's id used for blob (de)serialization
+     * @param dataRepository Workflow global data repository for blob and file store resolution.
+     * @param rowCount The number of rows as saved with the table or -1 if unknown. If known, the row count of the
+     *            returned table is available without copying the table to temp.
+     * @return Table contained in <code>zipFile</code>.
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    protected static ContainerTable readFromZipDelayed(final ReferencedFile zipFile, final DataTableSpec spec,
+        final int bufferID, final WorkflowDataRepository dataRepository, final long rowCount) {
         CopyOnAccessTask t = new CopyOnAccessTask(zipFile, spec, bufferID, dataRepository, new BufferCreator());
+        t.setRowCount(rowCount);
         return readFromZipDelayed(t, spec);
     }
 
@@ -1274,21 +1351,30 @@ public final void run() {
             try {
                 if (m_writeThrowable.get() == null) {
                     final List<BlobSupportDataRow> blobRows = new ArrayList<>(m_rows.size());
+                    // rows are hashed concurrently, the hashes are added to the fingerprint in order
+                    final TableFingerprint.RowHasher rowHasher =
+                        m_fingerprint == null ? null : new TableFingerprint.RowHasher();
+                    final byte[][] rowHashes = rowHasher == null ? null : new byte[m_rows.size()][];
                     for (final DataRow row : m_rows) {
                         validateSpecCompatiblity(row);
                         m_dataTableDomainCreator.updateDomain(row);
                         addRowKeyForDuplicateCheck(row.getKey());
-                        blobRows.add(m_buffer.saveBlobsAndFileStores(row, m_forceCopyOfBlobs));
+                        final BlobSupportDataRow blobRow = m_buffer.saveBlobsAndFileStores(row, m_forceCopyOfBlobs);
+                        if (rowHasher != null) {
+                            rowHashes[blobRows.size()] = rowHasher.hash(blobRow);
+                        }
+                        blobRows.add(blobRow);
                     }
+                    final PendingBatch batch = new PendingBatch(blobRows, rowHashes);
                     boolean addRows;
                     synchronized (m_pendingBatchIdx) {
                         addRows = m_batchIdx == m_pendingBatchIdx.longValue();
                         if (!addRows) {
-                            m_pendingBatchMap.put(m_batchIdx, blobRows);
+                            m_pendingBatchMap.put(m_batchIdx, batch);
                         }
                     }
                     if (addRows) {
-                        addRows(blobRows);
+                        addRows(batch);
                         m_numPendingBatches.release();
                         while (isNextPendingBatchExistent()) {
                             addRows(m_pendingBatchMap.remove(m_pendingBatchIdx.longValue()));
@@ -1324,15 +1410,20 @@ public final void run() {
         }
 
         /**
-         * Forwards the given list of {@link BlobSupportDataRow} to the buffer
+         * Forwards the rows of the given batch to the buffer and their hashes to the fingerprint (if any).
          *
-         * @param blobRows the rows to be forwarded to the buffer
+         * @param batch the batch to be forwarded to the buffer
          * @throws IOException - if the buffer cannot write the rows to disc
          */
-        private void addRows(final List<BlobSupportDataRow> blobRows) throws IOException {
-            for (final BlobSupportDataRow row : blobRows) {
+        private void addRows(final PendingBatch batch) throws IOException {
+            for (final BlobSupportDataRow row : batch.m_rows) {
                 m_buffer.addBlobSupportDataRow(row);
             }
+            if (batch.m_rowHashes != null) {
+                for (final byte[] rowHash : batch.m_rowHashes) {
+                    m_fingerprint.addRowHash(rowHash);
+                }
+            }
         }
 
         /**
@@ -1351,6 +1442,21 @@ private boolean isNextPendingBatchExistent() {
 
     }
 
+    /** A batch of rows processed by a {@link ContainerRunnable} that still needs to be forwarded to the buffer. */
+    private static final class PendingBatch {
+
+        /** The rows to be forwarded to the buffer. */
+        private final List<BlobSupportDataRow> m_rows;
+
+        /** The hashes of the rows or null if no fingerprint is computed. */
+        private final byte[][] m_rowHashes;
+
+        PendingBatch(final List<BlobSupportDataRow> rows, final byte[][] rowHashes) {
+            m_rows = rows;
+            m_rowHashes = rowHashes;
+        }
+    }
+
     /**
      * Helper class to create a Buffer instance given a binary file and the data table spec.
      */
@@ -49,6 +49,7 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -175,6 +176,18 @@ public BufferedDataTable[] getReferenceTables() {
         return new BufferedDataTable[]{m_leftTable, m_rightTable};
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        return TableFingerprint.combine(getClass().getName(), m_spec,
+            m_leftTable.getContentFingerprint(exec.createSubProgress(0.5)),
+            m_rightTable.getContentFingerprint(exec.createSubProgress(0.5)), Arrays.toString(m_map),
+            Arrays.toString(m_flags));
+    }
+
     /**
      * {@inheritDoc}
      * @deprecated use {@link #size()} instead which supports more than {@link Integer#MAX_VALUE} rows
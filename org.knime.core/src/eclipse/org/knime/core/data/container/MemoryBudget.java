@@ -0,0 +1,543 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.collection.CollectionDataValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.NodeID;
+
+/**
+ * Accounts for the memory occupied by the tables of a workflow that are held in memory and enforces an upper limit on
+ * it. Each {@link Buffer} that keeps its rows in memory holds a {@link Reservation} against the budget of its data
+ * repository, which grows by the estimated size of the rows added to it (in batches of rows) and is released once the
+ * rows are written to disk or the table is cleared. Once the sum of all reservations exceeds the limit, tables are
+ * written to disk, either the largest or the least recently used ones first (see {@link SpillPolicy}). Tables that are
+ * still being filled are written by the thread filling them upon the next row added; closed tables are written
+ * asynchronously.
+ *
+ * <p>
+ * Sizes are estimates derived from the cells' types (see {@link #estimateSize(DataRow)}), not measurements. The budget
+ * complements the {@link org.knime.core.data.util.memory.MemoryAlertSystem}, which still flushes tables if memory
+ * becomes critical.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class MemoryBudget {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(MemoryBudget.class);
+
+    /** The limit of a budget that never writes tables to disk, i.e., that only accounts for memory. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /** Assumed size of an object header plus some padding. */
+    private static final long OBJECT_OVERHEAD = 16;
+
+    /** Assumed size of a reference. */
+    private static final long REFERENCE_SIZE = 8;
+
+    /** Assumed size of a cell wrapping a single primitive value. */
+    private static final long PRIMITIVE_CELL_SIZE = 24;
+
+    /** Assumed size of a cell whose contents is written to a separate file (blob). */
+    private static final long BLOB_CELL_SIZE = 48;
+
+    /** Assumed size of any other cell. */
+    private static final long DEFAULT_CELL_SIZE = 64;
+
+    /** Maximum number of rows added to a reservation before their size is reserved against the budget. */
+    private static final int RESERVE_BATCH_ROWS = 128;
+
+    /** Maximum number of (estimated) bytes added to a reservation before they are reserved against the budget. */
+    private static final long RESERVE_BATCH_BYTES = 64 << 10;
+
+    /** If the budget is unlimited, only the size of every n-th row is estimated, the others are extrapolated. */
+    private static final int UNLIMITED_SAMPLE_INTERVAL = 16;
+
+    /** The order in which tables are written to disk once the budget is exceeded. */
+    public enum SpillPolicy {
+            /** Write the tables occupying the most memory first. */
+            LARGEST_FIRST,
+            /** Write the tables that were least recently added to or iterated first. */
+            LEAST_RECENTLY_USED;
+    }
+
+    /**
+     * Callback of the holder of a reservation to write its rows to disk. Only called for reservations of closed
+     * tables; tables still being filled check {@link Reservation#isSpillRequested()} themselves.
+     */
+    @FunctionalInterface
+    interface Holder {
+
+        /**
+         * Requests the rows held in memory to be written to disk. Must not block.
+         *
+         * @return <code>false</code> if the holder no longer exists (and its reservation can be dropped)
+         */
+        boolean spill();
+    }
+
+    private final long m_limit;
+
+    private final SpillPolicy m_policy;
+
+    /** All reservations currently occupying memory; guarded by this. */
+    private final Set<Reservation> m_reservations = new LinkedHashSet<>();
+
+    /** Sum of the bytes of all reservations; guarded by this. */
+    private long m_reservedBytes;
+
+    /** Logical clock used to determine the least recently used reservations; guarded by this. */
+    private long m_clock;
+
+    /**
+     * Creates a new budget.
+     *
+     * @param limit the maximum number of bytes that tables may occupy in memory, {@link #UNLIMITED} to only account
+     * @param policy the order in which tables are written to disk once the limit is exceeded
+     */
+    public MemoryBudget(final long limit, final SpillPolicy policy) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + limit);
+        }
+        m_limit = limit;
+        m_policy = policy == null ? SpillPolicy.LARGEST_FIRST : policy;
+    }
+
+    /**
+     * Creates a new budget as configured by the {@link KNIMEConstants#PROPERTY_WORKFLOW_MEMORY_BUDGET} and
+     * {@link KNIMEConstants#PROPERTY_WORKFLOW_MEMORY_BUDGET_POLICY} properties.
+     *
+     * @return a new budget, unlimited if no budget is configured
+     */
+    public static MemoryBudget fromSystemProperties() {
+        return new MemoryBudget(initLimit(), initPolicy());
+    }
+
+    private static long initLimit() {
+        final String prop = KNIMEConstants.PROPERTY_WORKFLOW_MEMORY_BUDGET;
+        final String val = System.getProperty(prop);
+        if (val != null) {
+            try {
+                final long limitInMB = Long.parseLong(val.trim());
+                if (limitInMB <= 0) {
+                    throw new IllegalArgumentException("memory budget <= 0: " + limitInMB);
+                }
+                return limitInMB > UNLIMITED >> 20 ? UNLIMITED : limitInMB << 20;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unable to parse property " + prop + ", using unlimited budget", e);
+            }
+        }
+        return UNLIMITED;
+    }
+
+    private static SpillPolicy initPolicy() {
+        final String prop = KNIMEConstants.PROPERTY_WORKFLOW_MEMORY_BUDGET_POLICY;
+        final String val = System.getProperty(prop);
+        if (val == null || val.trim().equalsIgnoreCase("largest")) {
+            return SpillPolicy.LARGEST_FIRST;
+        } else if (val.trim().equalsIgnoreCase("lru")) {
+            return SpillPolicy.LEAST_RECENTLY_USED;
+        }
+        LOGGER.warn("Unable to parse property " + prop + " (\"" + val + "\"), using default (largest)");
+        return SpillPolicy.LARGEST_FIRST;
+    }
+
+    /**
+     * @return the maximum number of bytes that tables may occupy in memory, {@link #UNLIMITED} if unlimited
+     */
+    public long getLimit() {
+        return m_limit;
+    }
+
+    /**
+     * @return whether tables are written to disk once the limit is exceeded
+     */
+    public boolean isLimited() {
+        return m_limit != UNLIMITED;
+    }
+
+    /**
+     * @return the order in which tables are written to disk once the limit is exceeded
+     */
+    public SpillPolicy getSpillPolicy() {
+        return m_policy;
+    }
+
+    /**
+     * @return the estimated number of bytes currently occupied by all tables held in memory
+     */
+    public synchronized long getReservedBytes() {
+        return m_reservedBytes;
+    }
+
+    /**
+     * @return the reservations currently occupying memory, largest first
+     */
+    public synchronized List<Reservation> getReservations() {
+        final List<Reservation> result = new ArrayList<>(m_reservations);
+        result.sort(Comparator.comparingLong((Reservation r) -> r.m_bytes).reversed());
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return the estimated number of bytes currently occupied per node; tables created outside of a node's context
+     *         are not contained
+     */
+    public synchronized Map<NodeID, Long> getReservedBytesPerNode() {
+        final Map<NodeID, Long> result = new LinkedHashMap<>();
+        for (Reservation r : m_reservations) {
+            if (r.m_nodeID != null) {
+                result.merge(r.m_nodeID, r.m_bytes, Long::sum);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Registers a new holder of rows with this budget. The reservation is attributed to the node whose
+     * {@link NodeContext} is set.
+     *
+     * @param holder callback to write the rows to disk
+     * @return a new, empty reservation
+     */
+    Reservation register(final Holder holder) {
+        final NodeContext context = NodeContext.getContext();
+        final NodeContainer nc = context != null ? context.getNodeContainer() : null;
+        return new Reservation(this, holder, nc != null ? nc.getID() : null);
+    }
+
+    private void reserve(final Reservation r, final long bytes) {
+        final List<Reservation> toWrite;
+        synchronized (this) {
+            if (r.m_state == State.RELEASED) {
+                return;
+            }
+            if (r.m_bytes == 0) {
+                // first reservation (the bytes only grow until released)
+                m_reservations.add(r);
+            }
+            r.m_bytes += bytes;
+            r.m_lastAccess = ++m_clock;
+            m_reservedBytes += bytes;
+            if (m_reservedBytes <= m_limit) {
+                return;
+            }
+            toWrite = selectForSpilling();
+        }
+        // call holders outside of this lock, they might (asynchronously) acquire their own locks
+        for (Reservation victim : toWrite) {
+            if (!victim.m_holder.spill()) {
+                victim.release();
+            }
+        }
+    }
+
+    /**
+     * Marks the reservations that are to be written to disk until the reserved bytes are within the limit again.
+     *
+     * @return the reservations of closed tables, whose holders are to be asked to write to disk
+     */
+    private List<Reservation> selectForSpilling() {
+        assert Thread.holdsLock(this);
+        final List<Reservation> candidates = new ArrayList<>();
+        for (Reservation r : m_reservations) {
+            if ((r.m_state == State.ADDING && !r.m_spillRequested) || r.m_state == State.CACHED) {
+                candidates.add(r);
+            }
+        }
+        candidates.sort(m_policy == SpillPolicy.LARGEST_FIRST
+            ? Comparator.comparingLong((Reservation r) -> r.m_bytes).reversed()
+            : Comparator.comparingLong((Reservation r) -> r.m_lastAccess));
+        final List<Reservation> toWrite = new ArrayList<>();
+        long remaining = m_reservedBytes;
+        for (Reservation r : candidates) {
+            if (remaining <= m_limit) {
+                break;
+            }
+            remaining -= r.m_bytes;
+            if (r.m_state == State.ADDING) {
+                r.m_spillRequested = true;
+            } else {
+                r.m_state = State.SPILLING;
+                toWrite.add(r);
+            }
+            LOGGER.debugWithFormat("Memory budget of %d MB exceeded (%d MB reserved), writing table of %s (%d MB)",
+                m_limit >> 20, m_reservedBytes >> 20, r.m_nodeID != null ? r.m_nodeID : "<no node>", r.m_bytes >> 20);
+        }
+        return toWrite;
+    }
+
+    /**
+     * Estimates the number of bytes a row occupies in memory. Blobs are assumed to be held on disk.
+     *
+     * @param row the row
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(final DataRow row) {
+        long size = OBJECT_OVERHEAD + REFERENCE_SIZE + estimateStringSize(row.getKey().getString());
+        final BlobSupportDataRow blobRow = row instanceof BlobSupportDataRow ? (BlobSupportDataRow)row : null;
+        for (int i = 0; i < row.getNumCells(); i++) {
+            // don't use getCell on blob support rows, as that would read blobs from disk
+            size += REFERENCE_SIZE + estimateSize(blobRow != null ? blobRow.getRawCell(i) : row.getCell(i));
+        }
+        return size;
+    }
+
+    private static long estimateSize(final DataCell cell) {
+        if (cell.isMissing() || cell instanceof BooleanCell) {
+            // shared instances
+            return 0;
+        } else if (cell instanceof DoubleCell || cell instanceof IntCell || cell instanceof LongCell) {
+            return PRIMITIVE_CELL_SIZE;
+        } else if (cell instanceof StringCell) {
+            return OBJECT_OVERHEAD + estimateStringSize(((StringCell)cell).getStringValue());
+        } else if (cell instanceof BlobWrapperDataCell) {
+            return BLOB_CELL_SIZE;
+        } else if (cell instanceof CollectionDataValue) {
+            long size = OBJECT_OVERHEAD;
+            for (DataCell c : (CollectionDataValue)cell) {
+                size += REFERENCE_SIZE + estimateSize(c);
+            }
+            return size;
+        }
+        return DEFAULT_CELL_SIZE;
+    }
+
+    private static long estimateStringSize(final String s) {
+        // the string object (hash, reference) and its char array
+        return OBJECT_OVERHEAD + 8 + OBJECT_OVERHEAD + 2L * s.length();
+    }
+
+    private enum State {
+            /** Rows are being added to the holder. */
+            ADDING,
+            /** The holder is closed and its rows are held in memory. */
+            CACHED,
+            /** The rows of the closed holder are being written to disk. */
+            SPILLING,
+            /** The rows no longer occupy memory. */
+            RELEASED;
+    }
+
+    /**
+     * The memory occupied by the rows of a single table held in memory.
+     *
+     * @noreference This class is not intended to be referenced by clients.
+     */
+    public static final class Reservation {
+
+        private final MemoryBudget m_budget;
+
+        private final Holder m_holder;
+
+        private final NodeID m_nodeID;
+
+        // all of the following are guarded by m_budget
+        private State m_state = State.ADDING;
+
+        /** Written under the budget's lock, volatile as it's checked for every row added. */
+        private volatile boolean m_spillRequested;
+
+        private long m_bytes;
+
+        private long m_lastAccess;
+
+        // the following are only accessed by the thread adding rows (holding the lock of the holder)
+        private int m_pendingRows;
+
+        private int m_pendingSampledRows;
+
+        private long m_pendingSampledBytes;
+
+        private Reservation(final MemoryBudget budget, final Holder holder, final NodeID nodeID) {
+            m_budget = budget;
+            m_holder = holder;
+            m_nodeID = nodeID;
+        }
+
+        /**
+         * @return the node that created the table, if it was created in a node's context
+         */
+        public Optional<NodeID> getNodeID() {
+            return Optional.ofNullable(m_nodeID);
+        }
+
+        /**
+         * @return the estimated number of bytes occupied by the table
+         */
+        public long getReservedBytes() {
+            synchronized (m_budget) {
+                return m_bytes;
+            }
+        }
+
+        /**
+         * @return a stamp of the last access to the table; larger stamps denote more recent accesses
+         */
+        public long getLastAccess() {
+            synchronized (m_budget) {
+                return m_lastAccess;
+            }
+        }
+
+        /**
+         * Adds the size of a number of rows to this reservation, potentially causing tables to be written to disk.
+         *
+         * @param bytes the estimated size of the rows
+         */
+        void reserve(final long bytes) {
+            m_budget.reserve(this, bytes);
+        }
+
+        /**
+         * Accounts for a row added to the table. The estimated sizes are summed up and only reserved against the
+         * budget every {@value MemoryBudget#RESERVE_BATCH_ROWS} rows or {@value MemoryBudget#RESERVE_BATCH_BYTES}
+         * bytes, see {@link #reservePending()}. If the budget is unlimited, only every
+         * {@value MemoryBudget#UNLIMITED_SAMPLE_INTERVAL}th row is estimated.
+         *
+         * @param row the row added
+         */
+        void add(final DataRow row) {
+            if (m_budget.isLimited() || m_pendingRows % UNLIMITED_SAMPLE_INTERVAL == 0) {
+                m_pendingSampledBytes += estimateSize(row);
+                m_pendingSampledRows++;
+            }
+            m_pendingRows++;
+            if (m_pendingRows >= RESERVE_BATCH_ROWS || m_pendingSampledBytes >= RESERVE_BATCH_BYTES) {
+                reservePending();
+            }
+        }
+
+        /** Reserves the size of the rows {@linkplain #add(DataRow) added} since the last reservation. */
+        void reservePending() {
+            if (m_pendingRows > 0) {
+                // the first pending row is always sampled
+                final long bytes = m_pendingSampledRows == m_pendingRows ? m_pendingSampledBytes
+                    : m_pendingSampledBytes * m_pendingRows / m_pendingSampledRows;
+                m_pendingRows = 0;
+                m_pendingSampledRows = 0;
+                m_pendingSampledBytes = 0;
+                reserve(bytes);
+            }
+        }
+
+        /** Marks the table as recently used. */
+        void touch() {
+            synchronized (m_budget) {
+                if (m_state != State.RELEASED) {
+                    m_lastAccess = ++m_budget.m_clock;
+                }
+            }
+        }
+
+        /** Called once the table is closed while its rows are held in memory. */
+        void onClose() {
+            synchronized (m_budget) {
+                if (m_state == State.ADDING) {
+                    m_state = State.CACHED;
+                }
+            }
+        }
+
+        /** Called if the holder writes its rows to disk by itself, so the budget doesn't request it again. */
+        void onSpill() {
+            synchronized (m_budget) {
+                if (m_state != State.RELEASED) {
+                    m_state = State.SPILLING;
+                }
+            }
+        }
+
+        /**
+         * @return whether the table, while rows are added to it, is to be written to disk to free memory
+         */
+        boolean isSpillRequested() {
+            return m_spillRequested;
+        }
+
+        /** Releases the memory once the rows are written to disk or discarded. Later reservations are ignored. */
+        void release() {
+            synchronized (m_budget) {
+                if (m_state != State.RELEASED) {
+                    m_state = State.RELEASED;
+                    m_budget.m_reservations.remove(this);
+                    m_budget.m_reservedBytes -= m_bytes;
+                    m_bytes = 0;
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Reservation of " + (m_nodeID != null ? m_nodeID : "<no node>") + ": " + getReservedBytes()
+                + " bytes";
+        }
+    }
+}
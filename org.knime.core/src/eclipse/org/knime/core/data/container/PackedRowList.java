@@ -0,0 +1,552 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.PrimitiveDataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultCellIterator;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+
+/**
+ * The in-memory representation of a {@link Buffer} whose columns are all of type {@link IntCell}, {@link LongCell},
+ * {@link DoubleCell} or {@link BooleanCell}. Instead of one {@link DataCell} object per value the rows are stored
+ * column-wise in primitive arrays (chunks of {@value #CHUNK_SIZE} rows), missing values are kept in bit sets. Cells
+ * that cannot be represented this way (e.g. missing cells carrying an error message) are kept as they are.
+ *
+ * <p>
+ * {@link #get(int)} returns a light-weight {@link PrimitiveDataRow} view on the stored values, cells are only created
+ * when {@link DataRow#getCell(int)} is called. The list only supports appending rows, as required by the buffer.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PackedRowList extends AbstractList<DataRow> implements RandomAccess {
+
+    /** Number of rows per chunk, a power of two. */
+    static final int CHUNK_SIZE = 1 << 10;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+
+    /** Initial capacity of the first chunk, it grows up to {@link #CHUNK_SIZE} so that small tables stay small. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final byte TYPE_INT = 0;
+
+    private static final byte TYPE_LONG = 1;
+
+    private static final byte TYPE_DOUBLE = 2;
+
+    private static final byte TYPE_BOOLEAN = 3;
+
+    /** One of the <code>TYPE_...</code> constants per column. */
+    private final byte[] m_types;
+
+    /** Whether the row keys are the row indices, in which case they are not stored but created on access. */
+    private final boolean m_implicitRowKeys;
+
+    private final List<Chunk> m_chunks = new ArrayList<>();
+
+    private int m_size;
+
+    /** Cells that are not stored as primitives, indexed by <code>row * nrColumns + column</code>; lazily created. */
+    private Map<Long, DataCell> m_specialCells;
+
+    private PackedRowList(final byte[] types, final boolean implicitRowKeys) {
+        m_types = types;
+        m_implicitRowKeys = implicitRowKeys;
+    }
+
+    /**
+     * Same as {@link #createRowList(DataTableSpec, BufferSettings, boolean, int)} for an unknown number of rows.
+     *
+     * @param spec the spec of the table, may be <code>null</code>
+     * @param settings the buffer settings determining whether rows are packed
+     * @param implicitRowKeys whether the row keys are the row indices (they are then not stored)
+     * @return a new empty, modifiable list
+     */
+    static List<DataRow> createRowList(final DataTableSpec spec, final BufferSettings settings,
+        final boolean implicitRowKeys) {
+        final byte[] types = settings.usePackedRows() ? getTypes(spec) : null;
+        return types != null ? new PackedRowList(types, implicitRowKeys) : new ArrayList<>();
+    }
+
+    /**
+     * Creates the list used to keep the rows of a table in memory. That is a {@link PackedRowList} if all columns of
+     * the spec are primitive and packing is enabled, otherwise an {@link ArrayList}.
+     *
+     * @param spec the spec of the table, may be <code>null</code>
+     * @param settings the buffer settings determining whether rows are packed
+     * @param implicitRowKeys whether the row keys are the row indices (they are then not stored)
+     * @param initialCapacity the expected number of rows (only used for array lists)
+     * @return a new empty, modifiable list
+     */
+    static List<DataRow> createRowList(final DataTableSpec spec, final BufferSettings settings,
+        final boolean implicitRowKeys, final int initialCapacity) {
+        final byte[] types = settings.usePackedRows() ? getTypes(spec) : null;
+        return types != null ? new PackedRowList(types, implicitRowKeys) : new ArrayList<>(initialCapacity);
+    }
+
+    /**
+     * @param spec the table spec
+     * @return the column types or <code>null</code> if the spec contains a column that can't be packed
+     */
+    static byte[] getTypes(final DataTableSpec spec) {
+        if (spec == null || spec.getNumColumns() == 0) {
+            return null;
+        }
+        final byte[] types = new byte[spec.getNumColumns()];
+        for (int i = 0; i < types.length; i++) {
+            final DataType type = spec.getColumnSpec(i).getType();
+            if (type.equals(IntCell.TYPE)) {
+                types[i] = TYPE_INT;
+            } else if (type.equals(LongCell.TYPE)) {
+                types[i] = TYPE_LONG;
+            } else if (type.equals(DoubleCell.TYPE)) {
+                types[i] = TYPE_DOUBLE;
+            } else if (type.equals(BooleanCell.TYPE)) {
+                types[i] = TYPE_BOOLEAN;
+            } else {
+                return null;
+            }
+        }
+        return types;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PackedDataRow get(final int index) {
+        if (index < 0 || index >= m_size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+        }
+        return new PackedDataRow(m_chunks.get(index >>> CHUNK_SHIFT), index);
+    }
+
+    /**
+     * Appends a row, its values are copied into the primitive arrays.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean add(final DataRow row) {
+        if (row.getNumCells() != m_types.length) {
+            throw new IllegalArgumentException(
+                "Row \"" + row.getKey() + "\" has " + row.getNumCells() + " cells, expected " + m_types.length);
+        }
+        final int index = m_size;
+        final int offset = index & (CHUNK_SIZE - 1);
+        final Chunk chunk;
+        if (offset == 0 && (index >>> CHUNK_SHIFT) == m_chunks.size()) {
+            chunk = new Chunk(m_chunks.isEmpty() ? INITIAL_CAPACITY : CHUNK_SIZE);
+            m_chunks.add(chunk);
+        } else {
+            chunk = m_chunks.get(m_chunks.size() - 1);
+        }
+        chunk.ensureCapacity(offset + 1);
+        if (!m_implicitRowKeys) {
+            chunk.m_keys[offset] = row.getKey();
+        }
+        final BlobSupportDataRow blobRow = row instanceof BlobSupportDataRow ? (BlobSupportDataRow)row : null;
+        for (int col = 0; col < m_types.length; col++) {
+            final DataCell cell = blobRow != null ? blobRow.getRawCell(col) : row.getCell(col);
+            if (!chunk.set(col, offset, cell)) {
+                if (m_specialCells == null) {
+                    m_specialCells = new HashMap<>();
+                }
+                m_specialCells.put(specialCellIndex(index, col), cell);
+            }
+        }
+        m_size++;
+        modCount++;
+        return true;
+    }
+
+    private long specialCellIndex(final int row, final int col) {
+        return (long)row * m_types.length + col;
+    }
+
+    /** Primitive storage of {@link #CHUNK_SIZE} rows. */
+    private final class Chunk {
+
+        /** The row keys, <code>null</code> if they are implicit. */
+        private RowKey[] m_keys;
+
+        /** Per column an int[], long[] or double[] of values or a long[] bit set for boolean columns. */
+        private final Object[] m_values;
+
+        /** Per column a bit set of missing values, <code>null</code> if there are none. */
+        private final long[][] m_missing;
+
+        /** Per column a bit set of values kept in {@link PackedRowList#m_specialCells}, may be <code>null</code>. */
+        private final long[][] m_special;
+
+        private int m_capacity;
+
+        Chunk(final int capacity) {
+            m_capacity = capacity;
+            m_keys = m_implicitRowKeys ? null : new RowKey[capacity];
+            m_values = new Object[m_types.length];
+            m_missing = new long[m_types.length][];
+            m_special = new long[m_types.length][];
+            for (int col = 0; col < m_types.length; col++) {
+                switch (m_types[col]) {
+                    case TYPE_INT:
+                        m_values[col] = new int[capacity];
+                        break;
+                    case TYPE_LONG:
+                        m_values[col] = new long[capacity];
+                        break;
+                    case TYPE_DOUBLE:
+                        m_values[col] = new double[capacity];
+                        break;
+                    default:
+                        m_values[col] = new long[bitSetLength(capacity)];
+                }
+            }
+        }
+
+        void ensureCapacity(final int capacity) {
+            if (capacity <= m_capacity) {
+                return;
+            }
+            final int newCapacity = Math.min(CHUNK_SIZE, Math.max(capacity, m_capacity * 2));
+            if (m_keys != null) {
+                m_keys = Arrays.copyOf(m_keys, newCapacity);
+            }
+            for (int col = 0; col < m_types.length; col++) {
+                final Object values = m_values[col];
+                switch (m_types[col]) {
+                    case TYPE_INT:
+                        m_values[col] = Arrays.copyOf((int[])values, newCapacity);
+                        break;
+                    case TYPE_LONG:
+                        m_values[col] = Arrays.copyOf((long[])values, newCapacity);
+                        break;
+                    case TYPE_DOUBLE:
+                        m_values[col] = Arrays.copyOf((double[])values, newCapacity);
+                        break;
+                    default:
+                        m_values[col] = Arrays.copyOf((long[])values, bitSetLength(newCapacity));
+                }
+                if (m_missing[col] != null) {
+                    m_missing[col] = Arrays.copyOf(m_missing[col], bitSetLength(newCapacity));
+                }
+                if (m_special[col] != null) {
+                    m_special[col] = Arrays.copyOf(m_special[col], bitSetLength(newCapacity));
+                }
+            }
+            m_capacity = newCapacity;
+        }
+
+        /** @return false if the cell can't be stored as primitive and needs to be kept as special cell */
+        boolean set(final int col, final int offset, final DataCell cell) {
+            if (cell == DataType.getMissingCell()) {
+                if (m_missing[col] == null) {
+                    m_missing[col] = new long[bitSetLength(m_capacity)];
+                }
+                setBit(m_missing[col], offset);
+                return true;
+            }
+            final Class<?> cellClass = cell.getClass();
+            switch (m_types[col]) {
+                case TYPE_INT:
+                    if (cellClass == IntCell.class) {
+                        ((int[])m_values[col])[offset] = ((IntCell)cell).getIntValue();
+                        return true;
+                    }
+                    break;
+                case TYPE_LONG:
+                    if (cellClass == LongCell.class) {
+                        ((long[])m_values[col])[offset] = ((LongCell)cell).getLongValue();
+                        return true;
+                    }
+                    break;
+                case TYPE_DOUBLE:
+                    if (cellClass == DoubleCell.class) {
+                        ((double[])m_values[col])[offset] = ((DoubleCell)cell).getDoubleValue();
+                        return true;
+                    }
+                    break;
+                default:
+                    if (cellClass == BooleanCell.class) {
+                        if (((BooleanCell)cell).getBooleanValue()) {
+                            setBit((long[])m_values[col], offset);
+                        }
+                        return true;
+                    }
+            }
+            if (m_special[col] == null) {
+                m_special[col] = new long[bitSetLength(m_capacity)];
+            }
+            setBit(m_special[col], offset);
+            return false;
+        }
+    }
+
+    private static int bitSetLength(final int capacity) {
+        return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void setBit(final long[] bits, final int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean isSet(final long[] bits, final int index) {
+        return bits != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * A view on a single row of the list. Creating it doesn't allocate any cells, {@link #getCell(int)} creates a new
+     * cell on each call.
+     */
+    final class PackedDataRow implements PrimitiveDataRow {
+
+        private final Chunk m_chunk;
+
+        private final int m_index;
+
+        private final int m_offset;
+
+        private PackedDataRow(final Chunk chunk, final int index) {
+            m_chunk = chunk;
+            m_index = index;
+            m_offset = index & (CHUNK_SIZE - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public RowKey getKey() {
+            return m_implicitRowKeys ? RowKey.createRowKey(m_index) : m_chunk.m_keys[m_offset];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getNumCells() {
+            return m_types.length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DataCell getCell(final int index) {
+            final DataCell cell = getRawCell(index);
+            if (cell instanceof BlobWrapperDataCell) {
+                return ((BlobWrapperDataCell)cell).getCell();
+            }
+            return cell;
+        }
+
+        /**
+         * Returns the cell at the given index, not unwrapping {@link BlobWrapperDataCell} as in
+         * {@link BlobSupportDataRow#getRawCell(int)}.
+         *
+         * @param index the column index
+         * @return the (newly created) cell
+         */
+        DataCell getRawCell(final int index) {
+            if (!isPrimitive(index)) {
+                return m_specialCells.get(specialCellIndex(m_index, index));
+            }
+            if (isSet(m_chunk.m_missing[index], m_offset)) {
+                return DataType.getMissingCell();
+            }
+            final Object values = m_chunk.m_values[index];
+            switch (m_types[index]) {
+                case TYPE_INT:
+                    return new IntCell(((int[])values)[m_offset]);
+                case TYPE_LONG:
+                    return new LongCell(((long[])values)[m_offset]);
+                case TYPE_DOUBLE:
+                    return new DoubleCell(((double[])values)[m_offset]);
+                default:
+                    return isSet((long[])values, m_offset) ? BooleanCell.TRUE : BooleanCell.FALSE;
+            }
+        }
+
+        /**
+         * Creates a row holding the raw cells of this row, as needed when writing the row to disk.
+         *
+         * @return a new row with the same key and content
+         */
+        BlobSupportDataRow toBlobSupportDataRow() {
+            final DataCell[] cells = new DataCell[m_types.length];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = getRawCell(i);
+            }
+            return new BlobSupportDataRow(getKey(), cells);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isPrimitive(final int index) {
+            return !isSet(m_chunk.m_special[index], m_offset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isMissing(final int index) {
+            if (!isPrimitive(index)) {
+                throw new IllegalStateException("Value at index " + index + " is not a primitive");
+            }
+            return isSet(m_chunk.m_missing[index], m_offset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getDouble(final int index) {
+            checkValue(index);
+            final Object values = m_chunk.m_values[index];
+            switch (m_types[index]) {
+                case TYPE_INT:
+                    return ((int[])values)[m_offset];
+                case TYPE_LONG:
+                    return ((long[])values)[m_offset];
+                case TYPE_DOUBLE:
+                    return ((double[])values)[m_offset];
+                default:
+                    return isSet((long[])values, m_offset) ? 1.0 : 0.0;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getInt(final int index) {
+            checkValue(index);
+            switch (m_types[index]) {
+                case TYPE_INT:
+                    return ((int[])m_chunk.m_values[index])[m_offset];
+                case TYPE_BOOLEAN:
+                    return isSet((long[])m_chunk.m_values[index], m_offset) ? 1 : 0;
+                default:
+                    throw new IllegalStateException("Value at index " + index + " is not an int value");
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getLong(final int index) {
+            checkValue(index);
+            switch (m_types[index]) {
+                case TYPE_INT:
+                    return ((int[])m_chunk.m_values[index])[m_offset];
+                case TYPE_LONG:
+                    return ((long[])m_chunk.m_values[index])[m_offset];
+                case TYPE_BOOLEAN:
+                    return isSet((long[])m_chunk.m_values[index], m_offset) ? 1L : 0L;
+                default:
+                    throw new IllegalStateException("Value at index " + index + " is not a long value");
+            }
+        }
+
+        private void checkValue(final int index) {
+            if (isMissing(index)) {
+                throw new IllegalStateException("Value at index " + index + " is missing");
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<DataCell> iterator() {
+            return new DefaultCellIterator(this);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(getKey().toString());
+            builder.append(": (");
+            for (int i = 0; i < getNumCells(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(getCell(i).toString());
+            }
+            return builder.append(")").toString();
+        }
+    }
+}
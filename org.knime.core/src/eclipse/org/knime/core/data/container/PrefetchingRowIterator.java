@@ -0,0 +1,361 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * A {@link CloseableRowIterator} that reads rows from a source iterator on a background thread. Rows are read in
+ * batches into a bounded queue, so that reading (decompressing, deserializing) the next rows overlaps with the
+ * processing of the current rows on the consumer thread. Any {@link org.knime.core.data.container.filter.TableFilter}
+ * is applied by the source iterator, i.e. also on the background thread.
+ *
+ * <p>
+ * {@link Buffer} uses this iterator for tables that are read from disk and that have more rows than can be held in
+ * the queue, the streaming {@link org.knime.core.node.streamable.DataTableRowInput} uses it for all buffered tables.
+ * The number of batches read ahead is defined by {@link KNIMEConstants#PROPERTY_TABLE_PREFETCH_DEPTH}.
+ *
+ * <p>
+ * The source iterator is closed on the background thread, once all rows have been read, this iterator has been closed
+ * or this iterator has been garbage collected. Exceptions thrown by the source are re-thrown on the consumer thread
+ * when the failing row is requested.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class PrefetchingRowIterator extends CloseableRowIterator {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PrefetchingRowIterator.class);
+
+    /** Number of batches read ahead if not specified by {@link KNIMEConstants#PROPERTY_TABLE_PREFETCH_DEPTH}. */
+    private static final int DEF_PREFETCH_DEPTH = 4;
+
+    /** Number of batches read ahead by iterators created via {@link #prefetch(CloseableRowIterator, long)}. */
+    static final int PREFETCH_DEPTH = initPrefetchDepth();
+
+    /** Number of rows per batch, same as the batch size for (asynchronously) writing rows. */
+    static final int BATCH_SIZE = Math.max(1, DataContainerSettings.getDefault().getRowBatchSize());
+
+    /** Limits the number of background threads used by {@link #prefetch(CloseableRowIterator, long)}. */
+    private static final Semaphore PREFETCH_PERMITS =
+        new Semaphore(DataContainerSettings.getDefault().getMaxContainerThreads());
+
+    /** Interval in which a blocked background thread checks whether its iterator was closed or collected. */
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private static final ThreadPoolExecutor PREFETCH_EXECUTOR;
+
+    static {
+        // threads are only created on demand, the number of running prefetchers is limited by the caller
+        PREFETCH_EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10L, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicLong m_threadCount = new AtomicLong();
+
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "KNIME-Prefetch-Thread-" + m_threadCount.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    }
+
+    /** Marks the end of the source. */
+    private static final Batch END = new Batch(Collections.emptyList(), null);
+
+    /** The state shared with the background thread, which does not reference the iterator itself. */
+    private final Prefetcher m_prefetcher;
+
+    private Iterator<DataRow> m_currentBatch = Collections.emptyIterator();
+
+    private boolean m_isEndReached;
+
+    /**
+     * Creates a new iterator and immediately starts reading rows from the source on a background thread.
+     *
+     * @param source the iterator to read from, must not be used by the caller afterwards
+     * @param depth the maximum number of batches that are read ahead, at least 1
+     * @param batchSize the number of rows per batch, at least 1
+     */
+    public PrefetchingRowIterator(final CloseableRowIterator source, final int depth, final int batchSize) {
+        this(source, depth, batchSize, null);
+    }
+
+    private PrefetchingRowIterator(final CloseableRowIterator source, final int depth, final int batchSize,
+        final Semaphore permits) {
+        if (depth < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Depth and batch size must be positive: " + depth + ", " + batchSize);
+        }
+        m_prefetcher = new Prefetcher(this, source, depth, batchSize, permits);
+        PREFETCH_EXECUTOR.execute(ThreadUtils.runnableWithContext(m_prefetcher::run, false));
+    }
+
+    /**
+     * Wraps the argument iterator into a {@link PrefetchingRowIterator} if prefetching is enabled and worthwhile for
+     * the given number of rows. Returns the argument if prefetching is disabled, the table is small (all rows fit
+     * into the queue), the iterator is prefetching already or the maximum number of prefetching threads is reached.
+     *
+     * @param source the iterator to read from, must not be used by the caller afterwards if wrapped
+     * @param rowCount the number of rows in the source or -1 if unknown
+     * @return a prefetching iterator or the argument
+     */
+    public static CloseableRowIterator prefetch(final CloseableRowIterator source, final long rowCount) {
+        if (PREFETCH_DEPTH == 0 || source instanceof PrefetchingRowIterator
+            || (rowCount >= 0 && rowCount <= (long)PREFETCH_DEPTH * BATCH_SIZE)) {
+            return source;
+        }
+        if (!PREFETCH_PERMITS.tryAcquire()) {
+            return source;
+        }
+        try {
+            return new PrefetchingRowIterator(source, PREFETCH_DEPTH, BATCH_SIZE, PREFETCH_PERMITS);
+        } catch (RuntimeException e) {
+            PREFETCH_PERMITS.release();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        while (!m_currentBatch.hasNext()) {
+            if (m_isEndReached) {
+                return false;
+            }
+            final Batch batch = m_prefetcher.take();
+            if (batch == END) {
+                m_isEndReached = true;
+                return false;
+            } else if (batch.m_failure != null) {
+                m_isEndReached = true;
+                close();
+                throw asUncheckedException(batch.m_failure);
+            }
+            m_currentBatch = batch.m_rows.iterator();
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows");
+        }
+        return m_currentBatch.next();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        m_isEndReached = true;
+        m_currentBatch = Collections.emptyIterator();
+        // the background thread closes the source (not waiting here as the source's close may need a lock the
+        // caller holds)
+        m_prefetcher.close();
+    }
+
+    private static RuntimeException asUncheckedException(final Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException)t;
+        } else if (t instanceof Error) {
+            throw (Error)t;
+        }
+        return new DataContainerException("Unable to read rows: " + t.getMessage(), t);
+    }
+
+    private static int initPrefetchDepth() {
+        final String prop = KNIMEConstants.PROPERTY_TABLE_PREFETCH_DEPTH;
+        final String val = System.getProperty(prop);
+        if (val != null) {
+            try {
+                final int depth = Integer.parseInt(val.trim());
+                if (depth < 0) {
+                    throw new IllegalArgumentException("prefetch depth < 0: " + depth);
+                }
+                LOGGER.debug("Setting table prefetch depth to " + depth + " batch(es)");
+                return depth;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Unable to parse property " + prop + ", using default (" + DEF_PREFETCH_DEPTH + ")", e);
+            }
+        }
+        return DEF_PREFETCH_DEPTH;
+    }
+
+    /** Rows read in one go or the failure that occurred while reading them. */
+    private static final class Batch {
+
+        private final List<DataRow> m_rows;
+
+        private final Throwable m_failure;
+
+        Batch(final List<DataRow> rows, final Throwable failure) {
+            m_rows = rows;
+            m_failure = failure;
+        }
+    }
+
+    /** Reads the source on the background thread. */
+    private static final class Prefetcher {
+
+        /** Used to stop reading if the iterator is garbage collected without being closed. */
+        private final WeakReference<PrefetchingRowIterator> m_iteratorRef;
+
+        private final CloseableRowIterator m_source;
+
+        private final BlockingQueue<Batch> m_queue;
+
+        private final int m_batchSize;
+
+        /** Released once the background thread is done, may be null. */
+        private final Semaphore m_permits;
+
+        private volatile boolean m_isClosed;
+
+        Prefetcher(final PrefetchingRowIterator iterator, final CloseableRowIterator source, final int depth,
+            final int batchSize, final Semaphore permits) {
+            m_iteratorRef = new WeakReference<>(iterator);
+            m_source = source;
+            m_queue = new ArrayBlockingQueue<>(depth);
+            m_batchSize = batchSize;
+            m_permits = permits;
+        }
+
+        void run() {
+            List<DataRow> rows = new ArrayList<>(m_batchSize);
+            try {
+                while (!m_isClosed && m_source.hasNext()) {
+                    rows.add(m_source.next());
+                    if (rows.size() >= m_batchSize) {
+                        if (!offer(new Batch(rows, null))) {
+                            return;
+                        }
+                        rows = new ArrayList<>(m_batchSize);
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    if (!offer(new Batch(rows, null))) {
+                        return;
+                    }
+                    rows = Collections.emptyList();
+                }
+                offer(END);
+            } catch (InterruptedException e) {
+                offerQuietly(rows, e);
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) { // NOSONAR also errors are passed on to the consumer
+                offerQuietly(rows, t);
+            } finally {
+                try {
+                    m_source.close();
+                } finally {
+                    if (m_permits != null) {
+                        m_permits.release();
+                    }
+                }
+            }
+        }
+
+        /** Puts the batch into the queue, returns false if the iterator was closed or collected in the meantime. */
+        private boolean offer(final Batch batch) throws InterruptedException {
+            while (!m_isClosed) {
+                if (m_queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (m_iteratorRef.get() == null) {
+                    m_isClosed = true;
+                }
+            }
+            return false;
+        }
+
+        /** Passes on the rows read before the failure (if not passed on yet), then the failure itself. */
+        private void offerQuietly(final List<DataRow> rows, final Throwable failure) {
+            try {
+                if (!rows.isEmpty() && !offer(new Batch(rows, null))) {
+                    return;
+                }
+                offer(new Batch(null, failure));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Batch take() {
+            try {
+                return m_queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new DataContainerException("Interrupted while waiting for rows", e);
+            }
+        }
+
+        void close() {
+            m_isClosed = true;
+            // unblocks the background thread if waiting for space in the queue
+            m_queue.clear();
+        }
+    }
+}
@@ -53,6 +53,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -250,6 +251,20 @@ public BufferedDataTable[] getReferenceTables() {
         return new BufferedDataTable[]{m_reference};
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        final double refFraction = m_appendTable == null ? 1.0 : 0.5;
+        final String refFingerprint = m_reference.getContentFingerprint(exec.createSubProgress(refFraction));
+        final String appendFingerprint = m_appendTable == null ? null
+            : m_appendTable.getContentFingerprint(exec.createSubProgress(1.0 - refFraction));
+        return TableFingerprint.combine(getClass().getName(), m_spec, refFingerprint, appendFingerprint,
+            Arrays.toString(m_map), Arrays.toString(m_isFromRefTable));
+    }
+
     /**
      * Get reference to the appended table. This table must not be used publicly as the append table is corrupted: It
      * does not contain proper row keys (it contains only the appended columns). This method returns null if this table
@@ -0,0 +1,312 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.output.NullOutputStream;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.filestore.FileStore;
+import org.knime.core.data.filestore.FileStoreCell;
+import org.knime.core.data.filestore.FileStoreUtil;
+import org.knime.core.data.util.NonClosableOutputStream;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.BufferedDataTable.KnowsRowCountTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.ModelContent;
+
+/**
+ * Computes content fingerprints of tables, i.e. SHA-256 hashes over the table spec (including domain and meta data)
+ * and all rows in their order. Each row is hashed separately (row key and the serialized form of its cells), the
+ * table's fingerprint is the hash of the spec's hash and the sequence of row hashes. The fingerprint is hence
+ * independent of how the rows are split into batches when a {@link DataContainer} writes them asynchronously.
+ *
+ * <p>
+ * Cells are hashed in the form written by their {@link DataCellSerializer} (or java serialization if there is none).
+ * File store cells are identified by the keys of their file stores rather than the files' content, as file stores are
+ * immutable once written.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class TableFingerprint {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final MessageDigest m_rowsDigest = newDigest();
+
+    /** Hashes the rows added via {@link #addRow(DataRow)}, created lazily. */
+    private RowHasher m_rowHasher;
+
+    /** Creates a fingerprint of a table that is about to be written. */
+    TableFingerprint() {
+    }
+
+    /**
+     * @return whether fingerprints are computed while tables are written
+     * @see KNIMEConstants#PROPERTY_TABLE_FINGERPRINTS
+     */
+    static boolean isComputedOnWrite() {
+        return Boolean.getBoolean(KNIMEConstants.PROPERTY_TABLE_FINGERPRINTS);
+    }
+
+    /**
+     * Hashes the argument row and adds it as next row.
+     *
+     * @param row the row to add
+     * @throws IOException if a cell can't be serialized
+     */
+    void addRow(final DataRow row) throws IOException {
+        if (m_rowHasher == null) {
+            m_rowHasher = new RowHasher();
+        }
+        addRowHash(m_rowHasher.hash(row));
+    }
+
+    /**
+     * Adds the hash of the next row, as computed by {@link RowHasher#hash(DataRow)}.
+     *
+     * @param rowHash the hash of the row
+     */
+    void addRowHash(final byte[] rowHash) {
+        m_rowsDigest.update(rowHash);
+    }
+
+    /**
+     * Completes the fingerprint once all rows have been added. This object must not be used afterwards.
+     *
+     * @param spec the final spec of the table
+     * @return the fingerprint
+     */
+    String finish(final DataTableSpec spec) {
+        final MessageDigest digest = newDigest();
+        digest.update(hashSpec(spec));
+        digest.update(m_rowsDigest.digest());
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Computes the fingerprint of a table by reading it entirely. The result is the same as if it was computed while
+     * the table was written.
+     *
+     * @param table the table to read
+     * @param exec for progress/cancelation
+     * @return the fingerprint
+     * @throws CanceledExecutionException if canceled
+     * @throws DataContainerException if a cell can't be serialized
+     */
+    public static String compute(final DataTable table, final ExecutionMonitor exec)
+        throws CanceledExecutionException {
+        final long size;
+        if (table instanceof BufferedDataTable) {
+            size = ((BufferedDataTable)table).size();
+        } else if (table instanceof KnowsRowCountTable) {
+            size = ((KnowsRowCountTable)table).size();
+        } else {
+            size = -1;
+        }
+        final TableFingerprint fingerprint = new TableFingerprint();
+        final RowIterator it = table.iterator();
+        try {
+            long row = 0;
+            while (it.hasNext()) {
+                fingerprint.addRow(it.next());
+                row++;
+                if (size > 0) {
+                    exec.setProgress(row / (double)size);
+                }
+                exec.checkCanceled();
+            }
+        } catch (IOException e) {
+            throw new DataContainerException("Unable to compute fingerprint of table: " + e.getMessage(), e);
+        } finally {
+            if (it instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)it).close();
+            }
+        }
+        return fingerprint.finish(table.getDataTableSpec());
+    }
+
+    /**
+     * Combines the fingerprints of the tables a derived table (such as a concatenated or joined table) is composed
+     * of. Derived tables are fingerprinted this way without reading their content. Note that a derived table and a
+     * table with equal content that was written by a {@link DataContainer} have different fingerprints.
+     *
+     * @param kind the kind of the derived table, e.g. its class name
+     * @param spec the spec of the derived table
+     * @param parts the fingerprints of the underlying tables and any further information defining how the derived
+     *            table is composed of them (e.g. column indices)
+     * @return the fingerprint of the derived table
+     */
+    public static String combine(final String kind, final DataTableSpec spec, final String... parts) {
+        final MessageDigest digest = newDigest();
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM,
+            digest))) {
+            out.writeUTF(kind);
+            out.write(hashSpec(spec));
+            out.writeInt(parts.length);
+            for (String part : parts) {
+                final byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // can't happen, nothing is written
+            throw new IllegalStateException(e);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static byte[] hashSpec(final DataTableSpec spec) {
+        final MessageDigest digest = newDigest();
+        final ModelContent specContent = new ModelContent("spec");
+        spec.save(specContent);
+        try (OutputStream out = new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, digest)) {
+            specContent.saveToXML(new NonClosableOutputStream(out));
+        } catch (IOException e) {
+            throw new DataContainerException("Unable to compute fingerprint of table spec: " + e.getMessage(), e);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hashes individual rows. Objects of this class are not thread-safe but rows can be hashed concurrently using
+     * separate instances.
+     */
+    static final class RowHasher {
+
+        private final MessageDigest m_digest = newDigest();
+
+        private final HashObjectOutputStream m_out;
+
+        /**
+         * Creates a new hasher.
+         *
+         * @throws IOException if the underlying object stream can't be created (not expected)
+         */
+        RowHasher() throws IOException {
+            m_out = new HashObjectOutputStream(new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, m_digest));
+            // the stream header is not part of any row
+            m_digest.reset();
+        }
+
+        /**
+         * Computes the hash of a row.
+         *
+         * @param row the row to hash
+         * @return the hash
+         * @throws IOException if a cell can't be serialized
+         */
+        byte[] hash(final DataRow row) throws IOException {
+            // makes the serialized form of a row independent of the rows hashed before
+            m_out.reset();
+            m_out.writeUTF(row.getKey().getString());
+            final int numCells = row.getNumCells();
+            m_out.writeInt(numCells);
+            for (int i = 0; i < numCells; i++) {
+                m_out.writeDataCell(row.getCell(i));
+            }
+            m_out.flush();
+            return m_digest.digest();
+        }
+    }
+
+    /** Serializes cells the same way as they are written to disc, used to hash them. */
+    private static final class HashObjectOutputStream extends ObjectOutputStream implements DataCellDataOutput {
+
+        HashObjectOutputStream(final OutputStream out) throws IOException {
+            super(out);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            final DataCell c = cell instanceof BlobWrapperDataCell ? ((BlobWrapperDataCell)cell).getCell() : cell;
+            writeUTF(c.getClass().getName());
+            if (c instanceof FileStoreCell) {
+                final FileStore[] fileStores = FileStoreUtil.getFileStores((FileStoreCell)c);
+                writeInt(fileStores.length);
+                for (FileStore fs : fileStores) {
+                    writeUTF(FileStoreUtil.getFileStoreKey(fs).toString());
+                }
+            }
+            final Optional<DataCellSerializer<DataCell>> serializer =
+                DataTypeRegistry.getInstance().getSerializer(c.getClass());
+            if (serializer.isPresent()) {
+                serializer.get().serialize(c, this);
+            } else {
+                writeObject(c);
+            }
+        }
+    }
+}
@@ -240,4 +240,13 @@ public long size() {
     public BufferedDataTable[] getReferenceTables() {
         return new BufferedDataTable[]{m_reference};
     }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        return TableFingerprint.combine(getClass().getName(), m_newSpec, m_reference.getContentFingerprint(exec));
+    }
 }
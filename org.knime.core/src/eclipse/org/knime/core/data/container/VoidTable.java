@@ -139,6 +139,12 @@ public BufferedDataTable[] getReferenceTables() {
         return ContainerTable.EMPTY_ARRAY;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) {
+        return TableFingerprint.combine(getClass().getName(), m_spec);
+    }
+
     /** {@inheritDoc}
      * @return 0 */
     @Override
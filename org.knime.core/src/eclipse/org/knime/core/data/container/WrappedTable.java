@@ -100,6 +100,12 @@ public BufferedDataTable[] getReferenceTables() {
         return new BufferedDataTable[]{m_table};
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        return m_table.getContentFingerprint(exec);
+    }
+
     /**
      * {@inheritDoc}
      * @deprecated use {@link #size()} instead which supports more than {@link Integer#MAX_VALUE} rows
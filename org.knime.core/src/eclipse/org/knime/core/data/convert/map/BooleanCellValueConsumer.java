@@ -82,4 +82,28 @@ default void consumeCellValue(final D destination, final Boolean value, final CP
             consumeMissingCellValue(destination, consumerParams);
         }
     }
+
+    /**
+     * Writes a batch of {@code boolean} values from a column-wise buffer to the given destination. The parameters at
+     * index {@code i} specify how to write the value of the {@code i}-th row of the batch.
+     *
+     * @param destination The {@link Destination}.
+     * @param values The buffer that holds the values to write. Must be at least as long as {@code params}. The
+     *            entries of missing rows are ignored.
+     * @param missing The buffer that flags the rows whose value is missing. Must be at least as long as
+     *            {@code params}.
+     * @param params The per-row parameters of the batch. Their number determines the size of the batch.
+     * @throws MappingException If an exception occurs while consuming the cell values.
+     * @since 4.2
+     */
+    default void consumeBooleanCellValues(final D destination, final boolean[] values, final boolean[] missing,
+        final CP[] params) throws MappingException {
+        for (int i = 0; i < params.length; i++) {
+            if (missing[i]) {
+                consumeMissingCellValue(destination, params[i]);
+            } else {
+                consumeBooleanCellValue(destination, values[i], params[i]);
+            }
+        }
+    }
 }
@@ -72,4 +72,22 @@
      * @throws Exception If consuming the data row failed.
      */
     void consumeDataRow(DataRow row, CP[] params) throws Exception;
+
+    /**
+     * Consumes a batch of data rows given a set of parameters per row. The parameters at index {@code i} configure the
+     * consumption of the {@code i}-th row of the batch and must therefore allow to address that row in the underlying
+     * destination. Implementations may consume the rows column-wise to reduce the per-row overhead. The default
+     * implementation consumes the rows one by one.
+     *
+     * @param rows The rows to consume. Their number determines the size of the batch.
+     * @param params The per-row arrays of per-{@link DataCell cell} {@link ConsumerParameters parameters} that
+     *            configure how the data rows are consumed. Must be of the same length as {@code rows}.
+     * @throws Exception If consuming the data rows failed.
+     * @since 4.2
+     */
+    default void consumeDataRows(final DataRow[] rows, final CP[][] params) throws Exception {
+        for (int i = 0; i < rows.length; i++) {
+            consumeDataRow(rows[i], params[i]);
+        }
+    }
 }
@@ -74,4 +74,25 @@
      * @throws Exception If producing the data row failed.
      */
     DataRow produceDataRow(final RowKey rowKey, PP[] params) throws Exception;
+
+    /**
+     * Creates a batch of data rows given their prospective row keys and a set of parameters per row. The parameters at
+     * index {@code i} configure the production of the {@code i}-th row of the batch and must therefore allow to address
+     * that row in the underlying source. Implementations may produce the rows column-wise to reduce the per-row
+     * overhead. The default implementation produces the rows one by one.
+     *
+     * @param rowKeys The row keys for the created rows. Their number determines the size of the batch.
+     * @param params The per-row arrays of per-{@link DataCell cell} {@link ProducerParameters parameters} that
+     *            configure how the data rows are produced. Must be of the same length as {@code rowKeys}.
+     * @return The produced data rows, in the order of the given row keys.
+     * @throws Exception If producing the data rows failed.
+     * @since 4.2
+     */
+    default DataRow[] produceDataRows(final RowKey[] rowKeys, final PP[][] params) throws Exception {
+        final DataRow[] rows = new DataRow[rowKeys.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = produceDataRow(rowKeys[i], params[i]);
+        }
+        return rows;
+    }
 }
@@ -48,6 +48,8 @@
  */
 package org.knime.core.data.convert.map;
 
+import java.lang.reflect.Array;
+
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.convert.java.DataCellToBooleanConverter;
@@ -68,7 +70,8 @@
  * {@link ConsumptionPath consumption paths}.
  * <P>
  * Internally, each consumption path is translated to an executable mapper. There are mapper implementations for all
- * Java primitive types (to avoid autoboxing) as well as a common one for all object types.
+ * Java primitive types (to avoid autoboxing) as well as a common one for all object types. Batches of rows
+ * ({@link #consumeDataRows(DataRow[], ConsumerParameters[][])}) are mapped column-wise through primitive buffers.
  *
  * @param <D> Type of the {@link Destination} to which to write the data rows.
  * @param <CP> Subtype of {@link ConsumerParameters} that can be used to configure the consumers per call to
@@ -188,12 +191,34 @@ public void consumeDataRow(final DataRow row, final CP[] params) throws Exceptio
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The rows are consumed column by column: each column's converter and consumer are created once per batch and
+     * Java primitive values are collected in reusable column buffers before being handed to the consumer at once.
+     */
+    @Override
+    public void consumeDataRows(final DataRow[] rows, final CP[][] params) throws Exception {
+        final int numRows = rows.length;
+        @SuppressWarnings("unchecked") // Same runtime component type as the per-row parameter arrays.
+        final CP[] columnParams =
+            (CP[])Array.newInstance(params.getClass().getComponentType().getComponentType(), numRows);
+        for (int j = 0; j < m_mappers.length; j++) {
+            for (int i = 0; i < numRows; i++) {
+                columnParams[i] = params[i][j];
+            }
+            m_mappers[j].map(rows, j, columnParams);
+        }
+    }
+
     // Mapper implementations:
 
     private final class DoubleMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToDoubleConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, DoubleCellValueConsumer<D, CP>>> {
 
+        private double[] m_values;
+
         private DoubleMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToDoubleConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, DoubleCellValueConsumer<D, CP>> consumerFactory) {
@@ -213,12 +238,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeDoubleCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToDoubleConverter converter = m_converterFactory.create();
+            final DoubleCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new double[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final double value = converter.convertIntoDouble(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeDoubleCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class IntMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToIntConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, IntCellValueConsumer<D, CP>>> {
 
+        private int[] m_values;
+
         private IntMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToIntConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, IntCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
@@ -237,12 +286,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeIntCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToIntConverter converter = m_converterFactory.create();
+            final IntCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new int[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final int value = converter.convertIntoInt(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeIntCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class LongMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToLongConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, LongCellValueConsumer<D, CP>>> {
 
+        private long[] m_values;
+
         private LongMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToLongConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, LongCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
@@ -261,12 +334,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeLongCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToLongConverter converter = m_converterFactory.create();
+            final LongCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new long[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final long value = converter.convertIntoLong(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeLongCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class BooleanMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToBooleanConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, BooleanCellValueConsumer<D, CP>>> {
 
+        private boolean[] m_values;
+
         private BooleanMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToBooleanConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, BooleanCellValueConsumer<D, CP>> consumerFactory) {
@@ -286,12 +383,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeBooleanCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToBooleanConverter converter = m_converterFactory.create();
+            final BooleanCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new boolean[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final boolean value = converter.convertIntoBoolean(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeBooleanCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class FloatMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToFloatConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, FloatCellValueConsumer<D, CP>>> {
 
+        private float[] m_values;
+
         private FloatMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToFloatConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, FloatCellValueConsumer<D, CP>> consumerFactory) {
@@ -311,12 +432,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeFloatCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToFloatConverter converter = m_converterFactory.create();
+            final FloatCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new float[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final float value = converter.convertIntoFloat(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeFloatCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class ByteMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToByteConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, ByteCellValueConsumer<D, CP>>> {
 
+        private byte[] m_values;
+
         private ByteMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToByteConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, ByteCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
@@ -335,12 +480,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeByteCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToByteConverter converter = m_converterFactory.create();
+            final ByteCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new byte[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final byte value = converter.convertIntoByte(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeByteCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class ShortMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToShortConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, ShortCellValueConsumer<D, CP>>> {
 
+        private short[] m_values;
+
         private ShortMapper(
             final TypedDataCellToJavaConverterFactory<?, ?, DataCellToShortConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, ShortCellValueConsumer<D, CP>> consumerFactory) {
@@ -360,12 +529,36 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeShortCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToShortConverter converter = m_converterFactory.create();
+            final ShortCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new short[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final short value = converter.convertIntoShort(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeShortCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class CharMapper extends Mapper<CP, //
             TypedDataCellToJavaConverterFactory<?, ?, DataCellToCharConverter<?>>, //
             TypedCellValueConsumerFactory<D, ?, ?, CP, CharCellValueConsumer<D, CP>>> {
 
+        private char[] m_values;
+
         private CharMapper(final TypedDataCellToJavaConverterFactory<?, ?, DataCellToCharConverter<?>> converterFactory,
             final TypedCellValueConsumerFactory<D, ?, ?, CP, CharCellValueConsumer<D, CP>> consumerFactory) {
             super(converterFactory, consumerFactory);
@@ -384,6 +577,28 @@ protected void map(final DataCell cell, final CP params) throws Exception {
                 consumer.consumeCharCellValue(m_destination, value, params);
             }
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            @SuppressWarnings("rawtypes")
+            final DataCellToCharConverter converter = m_converterFactory.create();
+            final CharCellValueConsumer<D, CP> consumer = m_consumerFactory.create();
+            final int numRows = rows.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new char[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            for (int i = 0; i < numRows; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                missing[i] = cell.isMissing();
+                if (!missing[i]) {
+                    @SuppressWarnings("unchecked")
+                    final char value = converter.convertIntoChar(cell);
+                    m_values[i] = value;
+                }
+            }
+            consumer.consumeCharCellValues(m_destination, m_values, missing, params);
+        }
     }
 
     private final class ObjectMapper extends Mapper<CP, //
@@ -404,6 +619,19 @@ protected void map(final DataCell cell, final CP params) throws Exception {
             final Object cellValue = cell.isMissing() ? null : converter.convertUnsafe(cell);
             consumer.consumeCellValue(m_destination, cellValue, params);
         }
+
+        @Override
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            final DataCellToJavaConverter<?, ?> converter = m_converterFactory.create();
+            @SuppressWarnings("unchecked")
+            final CellValueConsumer<D, Object, CP> consumer =
+                (CellValueConsumer<D, Object, CP>)m_consumerFactory.create();
+            for (int i = 0; i < rows.length; i++) {
+                final DataCell cell = rows[i].getCell(column);
+                final Object cellValue = cell.isMissing() ? null : converter.convertUnsafe(cell);
+                consumer.consumeCellValue(m_destination, cellValue, params[i]);
+            }
+        }
     }
 
     private abstract static class Mapper<CP extends ConsumerParameters<?>, //
@@ -419,6 +647,25 @@ private Mapper(final DC converterFactory, final CC consumerFactory) {
             m_consumerFactory = consumerFactory;
         }
 
+        private boolean[] m_missing;
+
         protected abstract void map(DataCell cell, final CP params) throws Exception;
+
+        /**
+         * Maps one column of a batch of rows. The default implementation maps the cells one by one, specializations
+         * create converter and consumer only once per batch and move the values through column-wise buffers.
+         */
+        protected void map(final DataRow[] rows, final int column, final CP[] params) throws Exception {
+            for (int i = 0; i < rows.length; i++) {
+                map(rows[i].getCell(column), params[i]);
+            }
+        }
+
+        protected final boolean[] getMissingBuffer(final int numRows) {
+            if (m_missing == null || m_missing.length < numRows) {
+                m_missing = new boolean[numRows];
+            }
+            return m_missing;
+        }
     }
 }
@@ -48,6 +48,8 @@
  */
 package org.knime.core.data.convert.map;
 
+import java.lang.reflect.Array;
+
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.MissingCell;
@@ -74,7 +76,8 @@
  * {@link ProductionPath production paths}.
  * <P>
  * Internally, each production path is translated to an executable mapper. There are mapper implementations for all Java
- * primitive types (to avoid autoboxing) as well as a common one for all object types.
+ * primitive types (to avoid autoboxing) as well as a common one for all object types. Batches of rows
+ * ({@link #produceDataRows(RowKey[], ProducerParameters[][])}) are mapped column-wise through primitive buffers.
  *
  * @param <S> Type of the {@link Source} from which to create data rows.
  * @param <PP> Subtype of {@link Source.ProducerParameters} that can be used to configure the producers per call to
@@ -221,12 +224,40 @@ public final DataRow produceDataRow(final RowKey rowKey, final PP[] params) thro
         return new DefaultRow(rowKey, m_tempCells);
     }
 
+    /**
+     * {@inheritDoc}
+     * <P>
+     * The rows are produced column by column: each column's producer and converter are created once per batch and
+     * Java primitive values are read into reusable column buffers before being converted into {@link DataCell cells}.
+     */
+    @Override
+    public final DataRow[] produceDataRows(final RowKey[] rowKeys, final PP[][] params) throws Exception {
+        final int numRows = rowKeys.length;
+        final DataCell[][] cells = new DataCell[numRows][m_mappers.length];
+        @SuppressWarnings("unchecked") // Same runtime component type as the per-row parameter arrays.
+        final PP[] columnParams =
+            (PP[])Array.newInstance(params.getClass().getComponentType().getComponentType(), numRows);
+        for (int j = 0; j < m_mappers.length; j++) {
+            for (int i = 0; i < numRows; i++) {
+                columnParams[i] = params[i][j];
+            }
+            m_mappers[j].map(columnParams, cells, j);
+        }
+        final DataRow[] rows = new DataRow[numRows];
+        for (int i = 0; i < numRows; i++) {
+            rows[i] = new DefaultRow(rowKeys[i], cells[i]);
+        }
+        return rows;
+    }
+
     // Mapper implementations:
 
     private final class DoubleMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, DoubleCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, DoubleToDataCellConverter>> {
 
+        private double[] m_values;
+
         private DoubleMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, DoubleCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, DoubleToDataCellConverter> converterFactory) {
@@ -243,12 +274,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertDouble(producer.produceDoubleCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final DoubleCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final DoubleToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new double[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceDoubleCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertDouble(m_values[i]);
+            }
+        }
     }
 
     private final class IntMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, IntCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, IntToDataCellConverter>> {
 
+        private int[] m_values;
+
         private IntMapper(final TypedCellValueProducerFactory<S, ?, ?, PP, IntCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, IntToDataCellConverter> converterFactory) {
             super(producerFactory, converterFactory);
@@ -264,12 +312,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertInt(producer.produceIntCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final IntCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final IntToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new int[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceIntCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertInt(m_values[i]);
+            }
+        }
     }
 
     private final class LongMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, LongCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, LongToDataCellConverter>> {
 
+        private long[] m_values;
+
         private LongMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, LongCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, LongToDataCellConverter> converterFactory) {
@@ -286,12 +351,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertLong(producer.produceLongCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final LongCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final LongToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new long[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceLongCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertLong(m_values[i]);
+            }
+        }
     }
 
     private final class BooleanMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, BooleanCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, BooleanToDataCellConverter>> {
 
+        private boolean[] m_values;
+
         private BooleanMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, BooleanCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, BooleanToDataCellConverter> converterFactory) {
@@ -308,12 +390,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertBoolean(producer.produceBooleanCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final BooleanCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final BooleanToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new boolean[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceBooleanCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertBoolean(m_values[i]);
+            }
+        }
     }
 
     private final class FloatMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, FloatCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, FloatToDataCellConverter>> {
 
+        private float[] m_values;
+
         private FloatMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, FloatCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, FloatToDataCellConverter> converterFactory) {
@@ -330,12 +429,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertFloat(producer.produceFloatCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final FloatCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final FloatToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new float[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceFloatCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertFloat(m_values[i]);
+            }
+        }
     }
 
     private final class ByteMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, ByteCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, ByteToDataCellConverter>> {
 
+        private byte[] m_values;
+
         private ByteMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, ByteCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, ByteToDataCellConverter> converterFactory) {
@@ -352,12 +468,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertByte(producer.produceByteCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final ByteCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final ByteToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new byte[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceByteCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertByte(m_values[i]);
+            }
+        }
     }
 
     private final class ShortMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, ShortCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, ShortToDataCellConverter>> {
 
+        private short[] m_values;
+
         private ShortMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, ShortCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, ShortToDataCellConverter> converterFactory) {
@@ -374,12 +507,29 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertShort(producer.produceShortCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final ShortCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final ShortToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new short[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceShortCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertShort(m_values[i]);
+            }
+        }
     }
 
     private final class CharMapper extends Mapper<PP, //
             TypedCellValueProducerFactory<S, ?, ?, PP, CharCellValueProducer<S, PP>>, //
             TypedJavaToDataCellConverterFactory<?, CharToDataCellConverter>> {
 
+        private char[] m_values;
+
         private CharMapper(
             final TypedCellValueProducerFactory<S, ?, ?, PP, CharCellValueProducer<S, PP>> producerFactory,
             final TypedJavaToDataCellConverterFactory<?, CharToDataCellConverter> converterFactory) {
@@ -396,6 +546,21 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertChar(producer.produceCharCellValue(m_source, params));
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final CharCellValueProducer<S, PP> producer = m_producerFactory.create();
+            final CharToDataCellConverter converter = m_converterFactory.create(m_fileStoreFactory);
+            final int numRows = params.length;
+            if (m_values == null || m_values.length < numRows) {
+                m_values = new char[numRows];
+            }
+            final boolean[] missing = getMissingBuffer(numRows);
+            producer.produceCharCellValues(m_source, params, m_values, missing);
+            for (int i = 0; i < numRows; i++) {
+                cells[i][column] = missing[i] ? new MissingCell(null) : converter.convertChar(m_values[i]);
+            }
+        }
     }
 
     private final class ObjectMapper extends Mapper<PP, //
@@ -418,6 +583,16 @@ protected final DataCell map(final PP params) throws Exception {
                 return converter.convertUnsafe(value);
             }
         }
+
+        @Override
+        protected final void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            final CellValueProducer<S, ?, PP> producer = m_producerFactory.create();
+            final JavaToDataCellConverter<?> converter = m_converterFactory.create(m_fileStoreFactory);
+            for (int i = 0; i < params.length; i++) {
+                final Object value = producer.produceCellValue(m_source, params[i]);
+                cells[i][column] = value == null ? new MissingCell(null) : converter.convertUnsafe(value);
+            }
+        }
     }
 
     private abstract static class Mapper<PP extends ProducerParameters<?>, //
@@ -433,6 +608,25 @@ private Mapper(final P producerFactory, final C converterFactory) {
             m_converterFactory = converterFactory;
         }
 
+        private boolean[] m_missing;
+
         protected abstract DataCell map(PP params) throws Exception;
+
+        /**
+         * Maps one column of a batch of rows. The default implementation maps the cells one by one, specializations
+         * create producer and converter only once per batch and move the values through column-wise buffers.
+         */
+        protected void map(final PP[] params, final DataCell[][] cells, final int column) throws Exception {
+            for (int i = 0; i < params.length; i++) {
+                cells[i][column] = map(params[i]);
+            }
+        }
+
+        protected final boolean[] getMissingBuffer(final int numRows) {
+            if (m_missing == null || m_missing.length < numRows) {
+                m_missing = new boolean[numRows];
+            }
+            return m_missing;
+        }
     }
 }
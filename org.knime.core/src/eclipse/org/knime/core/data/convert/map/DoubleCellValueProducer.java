@@ -79,4 +79,27 @@ default Double produceCellValue(final S source, final PP params) throws MappingE
             return produceDoubleCellValue(source, params);
         }
     }
+
+    /**
+     * Reads a batch of {@code double} values from the given source into a column-wise buffer. The parameters at index
+     * {@code i} specify how to read the value of the {@code i}-th row of the batch.
+     *
+     * @param source The {@link Source}.
+     * @param params The per-row parameters of the batch. Their number determines the size of the batch.
+     * @param values The buffer to which to write the read values. Must be at least as long as {@code params}. The
+     *            entries of rows that produce a missing value are undefined.
+     * @param missing The buffer in which to flag the rows that produce a missing value. Must be at least as long as
+     *            {@code params}.
+     * @throws MappingException If an exception occurs while producing the cell values.
+     * @since 4.2
+     */
+    default void produceDoubleCellValues(final S source, final PP[] params, final double[] values,
+        final boolean[] missing) throws MappingException {
+        producesMissingCellValues(source, params, missing);
+        for (int i = 0; i < params.length; i++) {
+            if (!missing[i]) {
+                values[i] = produceDoubleCellValue(source, params[i]);
+            }
+        }
+    }
 }
\ No newline at end of file
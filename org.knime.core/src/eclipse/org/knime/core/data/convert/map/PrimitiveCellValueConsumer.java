@@ -53,6 +53,11 @@
 /**
  * Base interface for consumers that accept values of a certain Java primitive type and write them to a
  * {@link Destination} as a certain external type.
+ * <P>
+ * Each primitive specialization also offers a batch variant that writes the values of several rows from a column-wise
+ * primitive buffer. The parameters of a batch are given per row, i.e., the destination must be able to address the
+ * rows of a batch by their parameters. Destinations that can accept whole blocks of values should override the batch
+ * methods; the default implementations fall back to writing the values one by one.
  *
  * @param <D> Type of {@link Destination} to which this consumer writes.
  * @param <T> The wrapper type of the Java primitive values that this consumer accepts. E.g., {@link Integer} for the
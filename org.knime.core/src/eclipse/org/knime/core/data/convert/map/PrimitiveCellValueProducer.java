@@ -57,6 +57,12 @@
  * Implementation note: Implementations of this interface are advised to throw a {@link MappingException} in their
  * primitive producing methods if they would produce a missing value. Clients should avoid that situation by checking
  * for missing values first by calling {@link #producesMissingCellValue(Source, Source.ProducerParameters)}.
+ * <P>
+ * Each primitive specialization also offers a batch variant that reads the values of several rows into a column-wise
+ * primitive buffer. The parameters of a batch are given per row, i.e., the source must be able to address the rows of
+ * a batch by their parameters (as is the case for block-oriented file formats or in-memory frames). Sources that can
+ * provide whole blocks of values should override the batch methods; the default implementations fall back to reading
+ * the values one by one.
  *
  * @param <S> Type of {@link Source} from which this producer reads.
  * @param <T> The wrapper type of the Java primitive values that this producer produces. E.g., {@link Integer} for the
@@ -83,4 +89,23 @@
      * @throws MappingException If an exception occurs while checking for a missing value.
      */
     boolean producesMissingCellValue(S source, PP params) throws MappingException;
+
+    /**
+     * Checks for a whole batch of rows if reading from the given source produces missing values. The parameters at
+     * index {@code i} specify how to read the {@code i}-th row of the batch. The default implementation checks the rows
+     * one by one.
+     *
+     * @param source The {@link Source} for which to check for missing values.
+     * @param params The per-row parameters of the batch. Their number determines the size of the batch.
+     * @param missing The buffer in which to flag the rows that produce a missing value. Must be at least as long as
+     *            {@code params}.
+     * @throws MappingException If an exception occurs while checking for missing values.
+     * @since 4.2
+     */
+    default void producesMissingCellValues(final S source, final PP[] params, final boolean[] missing)
+        throws MappingException {
+        for (int i = 0; i < params.length; i++) {
+            missing[i] = producesMissingCellValue(source, params[i]);
+        }
+    }
 }
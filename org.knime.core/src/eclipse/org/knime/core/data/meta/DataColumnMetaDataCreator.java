@@ -106,4 +106,18 @@ default DataColumnMetaDataCreator<T> merge(final DataColumnMetaDataCreator<T> ot
      * @return this creator for method chaining
      */
     DataColumnMetaDataCreator<T> merge(final T other);
+
+    /**
+     * Indicates whether the created meta data only describes the cells this creator has been updated with, e.g. counts
+     * or sketches of the values. In contrast, meta data like the domain may describe a superset of the actual values.
+     * Creators that only describe their cells are not initialized with the existing meta data of a column whose cells
+     * are passed to {@link #update(DataCell)}, because the existing meta data would otherwise be counted twice.
+     *
+     * @return {@code true} if the meta data only describes the cells passed to this creator, {@code false} (the
+     *         default) if it may be initialized with existing meta data
+     * @since 4.2
+     */
+    default boolean describesCellsOnly() {
+        return false;
+    }
 }
@@ -48,6 +48,7 @@
  */
 package org.knime.core.data.meta;
 
+import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
 
 /**
@@ -89,4 +90,28 @@
      */
     DataColumnMetaDataSerializer<T> createSerializer();
 
+    /**
+     * Indicates whether {@link DataColumnMetaDataCreator creators} of this extension are used to calculate meta data
+     * for new tables. The {@link DataColumnMetaDataSerializer serializer} is available regardless, i.e. meta data of a
+     * disabled extension can still be loaded.
+     *
+     * @return {@code true} if meta data of this type should be calculated for new tables (the default)
+     * @since 4.2
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Indicates whether meta data of this type is calculated for columns of the given type. This allows to exclude
+     * types that are compatible with {@link #getDataValueClass()} but too expensive to process, e.g. blobs.
+     *
+     * @param type the type of the column
+     * @return {@code true} if meta data of this type should be calculated for columns of the given type (the default)
+     * @since 4.2
+     */
+    default boolean appliesTo(final DataType type) {
+        return true;
+    }
+
 }
@@ -205,7 +205,9 @@ private static <M extends DataColumnMetaData, F extends DataColumnMetaDataFramew
 
     /**
      * Fetches a collection of all {@link DataColumnMetaDataCreator creators} that can be used to create meta data for
-     * columns of {@link DataType} type. </br>
+     * columns of {@link DataType} type. Creators of {@link DataColumnMetaDataExtension#isEnabled() disabled} extensions
+     * and of extensions that don't {@link DataColumnMetaDataExtension#appliesTo(DataType) apply to} the type are not
+     * included.</br>
      * An empty collection is returned if there are no {@link DataColumnMetaDataCreator creators} for this type.
      *
      * @param type the {@link DataType type} for which the {@link DataColumnMetaDataCreator MetaDataCreators} are
@@ -214,9 +216,11 @@ private static <M extends DataColumnMetaData, F extends DataColumnMetaDataFramew
      */
     public Collection<DataColumnMetaDataCreator<?>> getCreators(final DataType type) {
         CheckUtils.checkNotNull(type);
+        // an extension may apply to several value classes of the type (e.g. if it is registered for DataValue)
         return type.getValueClasses().stream()
-            .flatMap(d -> m_creatorFactories.values().stream().filter(m -> m.getDataValueClass().isAssignableFrom(d)))
-            .map(DataColumnMetaDataExtension::create).collect(Collectors.toList());
+            .flatMap(d -> m_creatorFactories.values().stream()
+                .filter(m -> m.isEnabled() && m.getDataValueClass().isAssignableFrom(d) && m.appliesTo(type)))
+            .distinct().map(DataColumnMetaDataExtension::create).collect(Collectors.toList());
     }
 
     /**
@@ -228,8 +232,8 @@ public Collection<DataColumnMetaDataCreator<?>> getCreators(final DataType type)
      *         {@link DataColumnMetaData} for {@link DataType type}
      */
     boolean hasMetaData(final DataType type) {
-        return type.getValueClasses().stream().anyMatch(
-            d -> m_creatorFactories.values().stream().anyMatch(m -> m.getDataValueClass().isAssignableFrom(d)));
+        return type.getValueClasses().stream().anyMatch(d -> m_creatorFactories.values().stream()
+            .anyMatch(m -> m.isEnabled() && m.getDataValueClass().isAssignableFrom(d) && m.appliesTo(type)));
     }
 
     /**
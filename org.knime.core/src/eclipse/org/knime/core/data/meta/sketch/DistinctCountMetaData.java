@@ -0,0 +1,190 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import java.util.Arrays;
+
+import org.knime.core.data.meta.DataColumnMetaData;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.config.ConfigRO;
+import org.knime.core.node.config.ConfigWO;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * Holds a HyperLogLog sketch of the non-missing values of a column, which estimates the number of distinct values with
+ * a relative standard error of about {@value #RELATIVE_STANDARD_ERROR}. Values are distinguished by their hash code,
+ * i.e. cells that are equal count as one value.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class DistinctCountMetaData implements DataColumnMetaData {
+
+    /** The number of bits of the hash that select the register. */
+    static final int PRECISION = 10;
+
+    /** The number of registers. */
+    static final int NR_REGISTERS = 1 << PRECISION;
+
+    /** The relative standard error of the estimate, 1.04 / sqrt({@link #NR_REGISTERS}). */
+    public static final double RELATIVE_STANDARD_ERROR = 0.0325;
+
+    static final String CFG_REGISTERS = "registers";
+
+    private final byte[] m_registers;
+
+    private final long m_estimate;
+
+    /**
+     * @param registers the registers, not copied
+     */
+    DistinctCountMetaData(final byte[] registers) {
+        m_registers = registers;
+        m_estimate = estimate(registers);
+    }
+
+    /**
+     * @return the estimated number of distinct non-missing values in the column
+     */
+    public long getEstimate() {
+        return m_estimate;
+    }
+
+    byte[] getRegisters() {
+        return m_registers;
+    }
+
+    /**
+     * Standard HyperLogLog estimate, using linear counting for small cardinalities. No large range correction is
+     * required as the hash has 64 bits.
+     */
+    static long estimate(final byte[] registers) {
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        final double m = registers.length;
+        final double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log(m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DistinctCountMetaData)) {
+            return false;
+        }
+        return Arrays.equals(m_registers, ((DistinctCountMetaData)obj).m_registers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(m_registers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Distinct values: ~" + m_estimate;
+    }
+
+    /**
+     * Serializer for {@link DistinctCountMetaData} objects.
+     *
+     * @author KNIME AG, Zurich, Switzerland
+     */
+    public static final class DistinctCountMetaDataSerializer
+        implements DataColumnMetaDataSerializer<DistinctCountMetaData> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void save(final DistinctCountMetaData metaData, final ConfigWO config) {
+            CheckUtils.checkNotNull(metaData, "The meta data provided to the serializer was null.");
+            config.addString(CFG_REGISTERS, SketchUtil.encode(metaData.m_registers));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DistinctCountMetaData load(final ConfigRO config) throws InvalidSettingsException {
+            final byte[] registers = SketchUtil.decodeBytes(config.getString(CFG_REGISTERS));
+            CheckUtils.checkSetting(registers.length == NR_REGISTERS, "Expected %s registers but got %s.",
+                NR_REGISTERS, registers.length);
+            return new DistinctCountMetaData(registers);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<DistinctCountMetaData> getMetaDataClass() {
+            return DistinctCountMetaData.class;
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import static org.knime.core.data.meta.sketch.DistinctCountMetaData.NR_REGISTERS;
+import static org.knime.core.data.meta.sketch.DistinctCountMetaData.PRECISION;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.meta.DataColumnMetaDataCreator;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * {@link DataColumnMetaDataCreator} for {@link DistinctCountMetaData}. Each non-missing cell updates one register of
+ * the HyperLogLog sketch; merging takes the maximum per register.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class DistinctCountMetaDataCreator implements DataColumnMetaDataCreator<DistinctCountMetaData> {
+
+    private final byte[] m_registers;
+
+    DistinctCountMetaDataCreator() {
+        m_registers = new byte[NR_REGISTERS];
+    }
+
+    private DistinctCountMetaDataCreator(final byte[] registers) {
+        m_registers = registers.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(final DataCell cell) {
+        if (cell.isMissing()) {
+            return;
+        }
+        final long hash = SketchUtil.hash(cell);
+        final int index = (int)(hash >>> (Long.SIZE - PRECISION));
+        // the appended bit bounds the rank if the remaining bits are all zero
+        final byte rank = (byte)(Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > m_registers[index]) {
+            m_registers[index] = rank;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DistinctCountMetaData create() {
+        return new DistinctCountMetaData(m_registers.clone());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DistinctCountMetaDataCreator copy() {
+        return new DistinctCountMetaDataCreator(m_registers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DistinctCountMetaDataCreator merge(final DataColumnMetaDataCreator<DistinctCountMetaData> other) {
+        CheckUtils.checkArgument(other instanceof DistinctCountMetaDataCreator,
+            "Can only merge with DistinctCountMetaDataCreator but received object of type %s.",
+            other.getClass().getName());
+        merge(((DistinctCountMetaDataCreator)other).m_registers);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DistinctCountMetaDataCreator merge(final DistinctCountMetaData other) {
+        merge(other.getRegisters());
+        return this;
+    }
+
+    private void merge(final byte[] registers) {
+        for (int i = 0; i < NR_REGISTERS; i++) {
+            if (registers[i] > m_registers[i]) {
+                m_registers[i] = registers[i];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean describesCellsOnly() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<DistinctCountMetaData> getMetaDataClass() {
+        return DistinctCountMetaData.class;
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValue;
+import org.knime.core.data.container.BlobDataCell;
+import org.knime.core.data.meta.DataColumnMetaDataCreator;
+import org.knime.core.data.meta.DataColumnMetaDataExtension;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.data.xml.XMLValue;
+
+/**
+ * {@link DataColumnMetaDataExtension} for {@link DistinctCountMetaData}, applies to columns of any type except blob and
+ * XML columns, whose cells would need to be read (and parsed) to hash them.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class DistinctCountMetaDataExtension implements DataColumnMetaDataExtension<DistinctCountMetaData> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataColumnMetaDataCreator<DistinctCountMetaData> create() {
+        return new DistinctCountMetaDataCreator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<? extends DataValue> getDataValueClass() {
+        return DataValue.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<DistinctCountMetaData> getMetaDataClass() {
+        return DistinctCountMetaData.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataColumnMetaDataSerializer<DistinctCountMetaData> createSerializer() {
+        return new DistinctCountMetaData.DistinctCountMetaDataSerializer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled() {
+        return SketchUtil.isEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean appliesTo(final DataType type) {
+        final Class<? extends DataCell> cellClass = type.getCellClass();
+        return !type.isCompatible(XMLValue.class)
+            && (cellClass == null || !BlobDataCell.class.isAssignableFrom(cellClass));
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.knime.core.data.meta.DataColumnMetaData;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.config.ConfigRO;
+import org.knime.core.node.config.ConfigWO;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * Holds the most frequent values (heavy hitters) of a string column as computed by the Misra-Gries algorithm with
+ * {@value #CAPACITY} counters. The estimated frequency of a value is a lower bound of its true frequency, which is at
+ * most {@link #getMaxError()} larger. Every value that occurs more often than {@code count / (CAPACITY + 1)} times is
+ * guaranteed to be contained.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class FrequentValuesMetaData implements DataColumnMetaData {
+
+    /** The maximum number of values that are tracked. */
+    public static final int CAPACITY = 64;
+
+    static final String CFG_COUNT = "count";
+
+    static final String CFG_MAX_ERROR = "maxError";
+
+    static final String CFG_VALUES = "values";
+
+    static final String CFG_FREQUENCIES = "frequencies";
+
+    private final String[] m_values;
+
+    private final long[] m_frequencies;
+
+    private final long m_count;
+
+    private final long m_maxError;
+
+    /**
+     * @param values the tracked values, sorted by descending frequency, not copied
+     * @param frequencies the estimated frequencies of the values, not copied
+     */
+    FrequentValuesMetaData(final String[] values, final long[] frequencies, final long count, final long maxError) {
+        m_values = values;
+        m_frequencies = frequencies;
+        m_count = count;
+        m_maxError = maxError;
+    }
+
+    /**
+     * @return the number of non-missing string values in the column
+     */
+    public long getCount() {
+        return m_count;
+    }
+
+    /**
+     * @return the maximum amount by which the estimated frequencies underestimate the true frequencies
+     */
+    public long getMaxError() {
+        return m_maxError;
+    }
+
+    /**
+     * @param k the maximum number of values to return
+     * @return the (at most) k most frequent values mapped to their estimated frequencies, in descending order of
+     *         frequency
+     */
+    public Map<String, Long> getFrequentValues(final int k) {
+        final Map<String, Long> frequentValues = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, m_values.length); i++) {
+            frequentValues.put(m_values[i], m_frequencies[i]);
+        }
+        return Collections.unmodifiableMap(frequentValues);
+    }
+
+    /**
+     * @param value a string value
+     * @return the estimated frequency of the value, 0 if it is not among the tracked values
+     */
+    public long getEstimatedFrequency(final String value) {
+        for (int i = 0; i < m_values.length; i++) {
+            if (m_values[i].equals(value)) {
+                return m_frequencies[i];
+            }
+        }
+        return 0;
+    }
+
+    String[] getValues() {
+        return m_values;
+    }
+
+    long[] getFrequencies() {
+        return m_frequencies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof FrequentValuesMetaData)) {
+            return false;
+        }
+        final FrequentValuesMetaData other = (FrequentValuesMetaData)obj;
+        return m_count == other.m_count && m_maxError == other.m_maxError && Arrays.equals(m_values, other.m_values)
+            && Arrays.equals(m_frequencies, other.m_frequencies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(m_count) + Arrays.hashCode(m_values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Frequent values: " + getFrequentValues(10);
+    }
+
+    /**
+     * Serializer for {@link FrequentValuesMetaData} objects.
+     *
+     * @author KNIME AG, Zurich, Switzerland
+     */
+    public static final class FrequentValuesMetaDataSerializer
+        implements DataColumnMetaDataSerializer<FrequentValuesMetaData> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void save(final FrequentValuesMetaData metaData, final ConfigWO config) {
+            CheckUtils.checkNotNull(metaData, "The meta data provided to the serializer was null.");
+            config.addLong(CFG_COUNT, metaData.m_count);
+            config.addLong(CFG_MAX_ERROR, metaData.m_maxError);
+            config.addStringArray(CFG_VALUES, metaData.m_values);
+            config.addLongArray(CFG_FREQUENCIES, metaData.m_frequencies);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public FrequentValuesMetaData load(final ConfigRO config) throws InvalidSettingsException {
+            final String[] values = config.getStringArray(CFG_VALUES);
+            final long[] frequencies = config.getLongArray(CFG_FREQUENCIES);
+            CheckUtils.checkSetting(values.length == frequencies.length,
+                "The number of values (%s) and frequencies (%s) differ.", values.length, frequencies.length);
+            return new FrequentValuesMetaData(values, frequencies, config.getLong(CFG_COUNT),
+                config.getLong(CFG_MAX_ERROR));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<FrequentValuesMetaData> getMetaDataClass() {
+            return FrequentValuesMetaData.class;
+        }
+
+    }
+
+}
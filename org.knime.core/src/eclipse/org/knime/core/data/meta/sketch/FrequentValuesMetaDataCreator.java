@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import static org.knime.core.data.meta.sketch.FrequentValuesMetaData.CAPACITY;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.meta.DataColumnMetaDataCreator;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * {@link DataColumnMetaDataCreator} for {@link FrequentValuesMetaData}. Implements the Misra-Gries algorithm: if a new
+ * value is encountered while all counters are in use, all counters are decremented instead. Merging adds the counters
+ * and then subtracts the {@code (CAPACITY + 1)}-th largest counter from all of them (Agarwal et al., "Mergeable
+ * Summaries").
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class FrequentValuesMetaDataCreator implements DataColumnMetaDataCreator<FrequentValuesMetaData> {
+
+    private static final Comparator<Entry<String, long[]>> BY_FREQUENCY =
+        Comparator.<Entry<String, long[]>> comparingLong(e -> -e.getValue()[0]).thenComparing(Entry::getKey);
+
+    /** Values mapped to their counter, boxed in an array to avoid re-boxing on each update. */
+    private final Map<String, long[]> m_counters;
+
+    private long m_count;
+
+    private long m_maxError;
+
+    FrequentValuesMetaDataCreator() {
+        m_counters = new HashMap<>();
+    }
+
+    private FrequentValuesMetaDataCreator(final FrequentValuesMetaDataCreator toCopy) {
+        m_counters = new HashMap<>();
+        toCopy.m_counters.forEach((k, v) -> m_counters.put(k, v.clone()));
+        m_count = toCopy.m_count;
+        m_maxError = toCopy.m_maxError;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(final DataCell cell) {
+        if (cell.isMissing()) {
+            return;
+        }
+        final DataCell unwrapped = SketchUtil.unwrap(cell);
+        if (!(unwrapped instanceof StringValue)) {
+            return;
+        }
+        m_count++;
+        final String value = ((StringValue)unwrapped).getStringValue();
+        final long[] counter = m_counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+        } else if (m_counters.size() < CAPACITY) {
+            m_counters.put(value, new long[]{1});
+        } else {
+            m_maxError++;
+            m_counters.values().removeIf(c -> --c[0] == 0);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrequentValuesMetaData create() {
+        @SuppressWarnings("unchecked")
+        final Entry<String, long[]>[] entries = m_counters.entrySet().toArray(new Entry[0]);
+        Arrays.sort(entries, BY_FREQUENCY);
+        final String[] values = new String[entries.length];
+        final long[] frequencies = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            values[i] = entries[i].getKey();
+            frequencies[i] = entries[i].getValue()[0];
+        }
+        return new FrequentValuesMetaData(values, frequencies, m_count, m_maxError);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrequentValuesMetaDataCreator copy() {
+        return new FrequentValuesMetaDataCreator(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrequentValuesMetaDataCreator merge(final DataColumnMetaDataCreator<FrequentValuesMetaData> other) {
+        CheckUtils.checkArgument(other instanceof FrequentValuesMetaDataCreator,
+            "Can only merge with FrequentValuesMetaDataCreator but received object of type %s.",
+            other.getClass().getName());
+        final FrequentValuesMetaDataCreator otherCreator = (FrequentValuesMetaDataCreator)other;
+        otherCreator.m_counters.forEach((k, v) -> add(k, v[0]));
+        reduce(otherCreator.m_count, otherCreator.m_maxError);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrequentValuesMetaDataCreator merge(final FrequentValuesMetaData other) {
+        final String[] values = other.getValues();
+        final long[] frequencies = other.getFrequencies();
+        for (int i = 0; i < values.length; i++) {
+            add(values[i], frequencies[i]);
+        }
+        reduce(other.getCount(), other.getMaxError());
+        return this;
+    }
+
+    private void add(final String value, final long frequency) {
+        m_counters.computeIfAbsent(value, k -> new long[1])[0] += frequency;
+    }
+
+    private void reduce(final long count, final long maxError) {
+        m_count += count;
+        m_maxError += maxError;
+        if (m_counters.size() > CAPACITY) {
+            final long[] frequencies = m_counters.values().stream().mapToLong(c -> c[0]).sorted().toArray();
+            // the (CAPACITY + 1)-th largest frequency
+            final long threshold = frequencies[frequencies.length - CAPACITY - 1];
+            m_maxError += threshold;
+            m_counters.values().removeIf(c -> (c[0] -= threshold) <= 0);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean describesCellsOnly() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<FrequentValuesMetaData> getMetaDataClass() {
+        return FrequentValuesMetaData.class;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import org.knime.core.data.meta.DataColumnMetaData;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.config.ConfigRO;
+import org.knime.core.node.config.ConfigWO;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * Holds the number of cells and the number of missing cells of a column.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class MissingCountMetaData implements DataColumnMetaData {
+
+    static final String CFG_COUNT = "count";
+
+    static final String CFG_MISSING_COUNT = "missingCount";
+
+    private final long m_count;
+
+    private final long m_missingCount;
+
+    MissingCountMetaData(final long count, final long missingCount) {
+        m_count = count;
+        m_missingCount = missingCount;
+    }
+
+    /**
+     * @return the number of cells in the column, including missing cells
+     */
+    public long getCount() {
+        return m_count;
+    }
+
+    /**
+     * @return the number of missing cells in the column
+     */
+    public long getMissingCount() {
+        return m_missingCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof MissingCountMetaData)) {
+            return false;
+        }
+        final MissingCountMetaData other = (MissingCountMetaData)obj;
+        return m_count == other.m_count && m_missingCount == other.m_missingCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(m_count) + Long.hashCode(m_missingCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Missing values: " + m_missingCount + " of " + m_count;
+    }
+
+    /**
+     * Serializer for {@link MissingCountMetaData} objects.
+     *
+     * @author KNIME AG, Zurich, Switzerland
+     */
+    public static final class MissingCountMetaDataSerializer
+        implements DataColumnMetaDataSerializer<MissingCountMetaData> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void save(final MissingCountMetaData metaData, final ConfigWO config) {
+            CheckUtils.checkNotNull(metaData, "The meta data provided to the serializer was null.");
+            config.addLong(CFG_COUNT, metaData.m_count);
+            config.addLong(CFG_MISSING_COUNT, metaData.m_missingCount);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public MissingCountMetaData load(final ConfigRO config) throws InvalidSettingsException {
+            return new MissingCountMetaData(config.getLong(CFG_COUNT), config.getLong(CFG_MISSING_COUNT));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<MissingCountMetaData> getMetaDataClass() {
+            return MissingCountMetaData.class;
+        }
+
+    }
+
+}
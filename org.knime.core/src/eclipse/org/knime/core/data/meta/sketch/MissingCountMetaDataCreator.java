@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.meta.DataColumnMetaDataCreator;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * {@link DataColumnMetaDataCreator} for {@link MissingCountMetaData}, counts all cells and the missing ones.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class MissingCountMetaDataCreator implements DataColumnMetaDataCreator<MissingCountMetaData> {
+
+    private long m_count;
+
+    private long m_missingCount;
+
+    MissingCountMetaDataCreator() {
+    }
+
+    private MissingCountMetaDataCreator(final MissingCountMetaDataCreator toCopy) {
+        m_count = toCopy.m_count;
+        m_missingCount = toCopy.m_missingCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(final DataCell cell) {
+        m_count++;
+        if (cell.isMissing()) {
+            m_missingCount++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MissingCountMetaData create() {
+        return new MissingCountMetaData(m_count, m_missingCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MissingCountMetaDataCreator copy() {
+        return new MissingCountMetaDataCreator(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MissingCountMetaDataCreator merge(final DataColumnMetaDataCreator<MissingCountMetaData> other) {
+        CheckUtils.checkArgument(other instanceof MissingCountMetaDataCreator,
+            "Can only merge with MissingCountMetaDataCreator but received object of type %s.",
+            other.getClass().getName());
+        final MissingCountMetaDataCreator otherCreator = (MissingCountMetaDataCreator)other;
+        m_count += otherCreator.m_count;
+        m_missingCount += otherCreator.m_missingCount;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MissingCountMetaDataCreator merge(final MissingCountMetaData other) {
+        m_count += other.getCount();
+        m_missingCount += other.getMissingCount();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean describesCellsOnly() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<MissingCountMetaData> getMetaDataClass() {
+        return MissingCountMetaData.class;
+    }
+
+}
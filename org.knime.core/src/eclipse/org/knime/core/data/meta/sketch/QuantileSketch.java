@@ -0,0 +1,205 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch after Karnin, Lang and Liberty ("Optimal Quantile Approximation in Streams"), using
+ * compactors of equal capacity. Level {@code h} holds values that represent {@code 2^h} values each. A full level is
+ * sorted and every other value is promoted to the next level, starting alternately at the first or the second value,
+ * so the total weight is preserved and the rank error stays small (typically within 2% of the count).
+ * Exact minimum and maximum are tracked separately. NaN values are ignored.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class QuantileSketch {
+
+    /** The capacity of each level. */
+    static final int K = 128;
+
+    private double[][] m_levels;
+
+    private int[] m_sizes;
+
+    /** Bit {@code h} determines which values of level {@code h} are promoted on its next compaction. */
+    private long m_offsets;
+
+    private long m_count;
+
+    private double m_min = Double.NaN;
+
+    private double m_max = Double.NaN;
+
+    QuantileSketch() {
+        m_levels = new double[][]{new double[K]};
+        m_sizes = new int[1];
+    }
+
+    QuantileSketch(final QuantileSketch toCopy) {
+        m_levels = new double[toCopy.m_levels.length][];
+        for (int i = 0; i < m_levels.length; i++) {
+            m_levels[i] = toCopy.m_levels[i].clone();
+        }
+        m_sizes = toCopy.m_sizes.clone();
+        m_offsets = toCopy.m_offsets;
+        m_count = toCopy.m_count;
+        m_min = toCopy.m_min;
+        m_max = toCopy.m_max;
+    }
+
+    void update(final double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        m_count++;
+        updateMinMax(value, value);
+        append(0, value);
+        if (m_sizes[0] >= K) {
+            compress();
+        }
+    }
+
+    /**
+     * Merges the values of another sketch into this one.
+     *
+     * @param levels the levels of the other sketch, each array only contains the level's values
+     * @param count the number of values represented by the other sketch
+     * @param min the minimum of the other sketch
+     * @param max the maximum of the other sketch
+     */
+    void merge(final double[][] levels, final long count, final double min, final double max) {
+        if (count == 0) {
+            return;
+        }
+        m_count += count;
+        updateMinMax(min, max);
+        for (int h = 0; h < levels.length; h++) {
+            for (double value : levels[h]) {
+                append(h, value);
+            }
+        }
+        compress();
+    }
+
+    void merge(final QuantileSketch other) {
+        merge(other.getLevels(), other.m_count, other.m_min, other.m_max);
+    }
+
+    /**
+     * @return copies of the levels, each array only contains the level's values
+     */
+    double[][] getLevels() {
+        final double[][] levels = new double[m_sizes.length][];
+        for (int h = 0; h < levels.length; h++) {
+            levels[h] = Arrays.copyOf(m_levels[h], m_sizes[h]);
+        }
+        return levels;
+    }
+
+    long getCount() {
+        return m_count;
+    }
+
+    double getMin() {
+        return m_min;
+    }
+
+    double getMax() {
+        return m_max;
+    }
+
+    private void updateMinMax(final double min, final double max) {
+        if (Double.isNaN(m_min) || min < m_min) {
+            m_min = min;
+        }
+        if (Double.isNaN(m_max) || max > m_max) {
+            m_max = max;
+        }
+    }
+
+    private void append(final int level, final double value) {
+        if (level == m_sizes.length) {
+            m_levels = Arrays.copyOf(m_levels, level + 1);
+            m_levels[level] = new double[K];
+            m_sizes = Arrays.copyOf(m_sizes, level + 1);
+        }
+        double[] values = m_levels[level];
+        if (m_sizes[level] == values.length) {
+            values = Arrays.copyOf(values, 2 * values.length);
+            m_levels[level] = values;
+        }
+        values[m_sizes[level]++] = value;
+    }
+
+    /** Compacts all full levels, bottom up. */
+    private void compress() {
+        for (int h = 0; h < m_sizes.length; h++) {
+            if (m_sizes[h] >= K) {
+                compact(h);
+            }
+        }
+    }
+
+    private void compact(final int level) {
+        final double[] values = m_levels[level];
+        final int size = m_sizes[level];
+        Arrays.sort(values, 0, size);
+        final int offset = (int)((m_offsets >>> level) & 1L);
+        m_offsets ^= 1L << level;
+        final int pairs = size / 2;
+        for (int i = 0; i < pairs; i++) {
+            append(level + 1, values[2 * i + offset]);
+        }
+        // an odd value (the largest one) stays on this level
+        if (size % 2 == 1) {
+            values[0] = values[size - 1];
+            m_sizes[level] = 1;
+        } else {
+            m_sizes[level] = 0;
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import java.util.Arrays;
+
+import org.knime.core.data.meta.DataColumnMetaData;
+import org.knime.core.data.meta.DataColumnMetaDataSerializer;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.config.ConfigRO;
+import org.knime.core.node.config.ConfigWO;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * Holds a mergeable quantile sketch of the non-missing values of a numeric column, which allows to estimate quantiles
+ * and ranks without another pass over the data. Minimum and maximum are exact; NaN values are ignored.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class QuantileSketchMetaData implements DataColumnMetaData {
+
+    static final String CFG_COUNT = "count";
+
+    static final String CFG_MIN = "min";
+
+    static final String CFG_MAX = "max";
+
+    static final String CFG_LEVEL_SIZES = "levelSizes";
+
+    static final String CFG_VALUES = "values";
+
+    private final double[][] m_levels;
+
+    private final long m_count;
+
+    private final double m_min;
+
+    private final double m_max;
+
+    /** The values of all levels in ascending order. */
+    private final double[] m_sortedValues;
+
+    /** The cumulative weights of {@link #m_sortedValues}. */
+    private final long[] m_cumulativeWeights;
+
+    /**
+     * @param levels the levels of the sketch, not copied
+     */
+    QuantileSketchMetaData(final double[][] levels, final long count, final double min, final double max) {
+        m_levels = levels;
+        m_count = count;
+        m_min = min;
+        m_max = max;
+        final int size = Arrays.stream(levels).mapToInt(l -> l.length).sum();
+        // sort the values together with their levels to compute the cumulative weights
+        final double[] values = new double[size];
+        final int[] valueLevels = new int[size];
+        int i = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (double v : levels[h]) {
+                values[i] = v;
+                valueLevels[i] = h;
+                i++;
+            }
+        }
+        final Integer[] order = new Integer[size];
+        Arrays.setAll(order, j -> j);
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        m_sortedValues = new double[size];
+        m_cumulativeWeights = new long[size];
+        long weight = 0;
+        for (int j = 0; j < size; j++) {
+            m_sortedValues[j] = values[order[j]];
+            weight += 1L << valueLevels[order[j]];
+            m_cumulativeWeights[j] = weight;
+        }
+    }
+
+    /**
+     * @return the number of non-missing, non-NaN values in the column
+     */
+    public long getCount() {
+        return m_count;
+    }
+
+    /**
+     * @return the smallest value of the column or NaN if the column has no values
+     */
+    public double getMin() {
+        return m_min;
+    }
+
+    /**
+     * @return the largest value of the column or NaN if the column has no values
+     */
+    public double getMax() {
+        return m_max;
+    }
+
+    /**
+     * Estimates the quantile of the column's values.
+     *
+     * @param fraction the fraction of values that are less than or equal to the quantile, in [0, 1]
+     * @return the estimated quantile, the exact minimum and maximum for 0 and 1, respectively, or NaN if the column
+     *         has no values
+     */
+    public double getQuantile(final double fraction) {
+        CheckUtils.checkArgument(fraction >= 0 && fraction <= 1, "The fraction must be in [0, 1] but was %s.",
+            fraction);
+        if (m_count == 0) {
+            return Double.NaN;
+        } else if (fraction == 0) {
+            return m_min;
+        } else if (fraction == 1) {
+            return m_max;
+        }
+        final double rank = fraction * m_count;
+        int index = Arrays.binarySearch(m_cumulativeWeights, (long)Math.ceil(rank));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return m_sortedValues[Math.min(index, m_sortedValues.length - 1)];
+    }
+
+    /**
+     * Estimates the fraction of the column's values that are less than or equal to the given value.
+     *
+     * @param value the value to get the rank for
+     * @return the estimated fraction in [0, 1] or NaN if the column has no values
+     */
+    public double getRank(final double value) {
+        if (m_count == 0) {
+            return Double.NaN;
+        } else if (value < m_min) {
+            return 0;
+        } else if (value >= m_max) {
+            return 1;
+        }
+        // index of the first value larger than the given one
+        int low = 0;
+        int high = m_sortedValues.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (m_sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? 0 : m_cumulativeWeights[low - 1] / (double)m_count;
+    }
+
+    double[][] getLevels() {
+        return m_levels;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof QuantileSketchMetaData)) {
+            return false;
+        }
+        final QuantileSketchMetaData other = (QuantileSketchMetaData)obj;
+        return m_count == other.m_count && Double.compare(m_min, other.m_min) == 0
+            && Double.compare(m_max, other.m_max) == 0 && Arrays.deepEquals(m_levels, other.m_levels);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(m_count) + Arrays.deepHashCode(m_levels);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Quantile sketch of " + m_count + " values in [" + m_min + ", " + m_max + "], median ~"
+            + getQuantile(0.5);
+    }
+
+    /**
+     * Serializer for {@link QuantileSketchMetaData} objects.
+     *
+     * @author KNIME AG, Zurich, Switzerland
+     */
+    public static final class QuantileSketchMetaDataSerializer
+        implements DataColumnMetaDataSerializer<QuantileSketchMetaData> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void save(final QuantileSketchMetaData metaData, final ConfigWO config) {
+            CheckUtils.checkNotNull(metaData, "The meta data provided to the serializer was null.");
+            config.addLong(CFG_COUNT, metaData.m_count);
+            config.addDouble(CFG_MIN, metaData.m_min);
+            config.addDouble(CFG_MAX, metaData.m_max);
+            final double[][] levels = metaData.m_levels;
+            config.addIntArray(CFG_LEVEL_SIZES, Arrays.stream(levels).mapToInt(l -> l.length).toArray());
+            config.addString(CFG_VALUES,
+                SketchUtil.encode(Arrays.stream(levels).flatMapToDouble(Arrays::stream).toArray()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public QuantileSketchMetaData load(final ConfigRO config) throws InvalidSettingsException {
+            final long count = config.getLong(CFG_COUNT);
+            final int[] levelSizes = config.getIntArray(CFG_LEVEL_SIZES);
+            final double[] values = SketchUtil.decodeDoubles(config.getString(CFG_VALUES));
+            CheckUtils.checkSetting(Arrays.stream(levelSizes).sum() == values.length,
+                "The number of values (%s) does not match the level sizes.", values.length);
+            final double[][] levels = new double[levelSizes.length][];
+            int offset = 0;
+            for (int h = 0; h < levels.length; h++) {
+                levels[h] = Arrays.copyOfRange(values, offset, offset + levelSizes[h]);
+                offset += levelSizes[h];
+            }
+            return new QuantileSketchMetaData(levels, count, config.getDouble(CFG_MIN), config.getDouble(CFG_MAX));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<QuantileSketchMetaData> getMetaDataClass() {
+            return QuantileSketchMetaData.class;
+        }
+
+    }
+
+}
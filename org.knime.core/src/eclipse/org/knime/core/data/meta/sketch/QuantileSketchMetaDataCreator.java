@@ -0,0 +1,139 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.meta.DataColumnMetaDataCreator;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * {@link DataColumnMetaDataCreator} for {@link QuantileSketchMetaData}, adds the values of all {@link DoubleValue}
+ * cells to the sketch.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class QuantileSketchMetaDataCreator implements DataColumnMetaDataCreator<QuantileSketchMetaData> {
+
+    private final QuantileSketch m_sketch;
+
+    QuantileSketchMetaDataCreator() {
+        m_sketch = new QuantileSketch();
+    }
+
+    private QuantileSketchMetaDataCreator(final QuantileSketch sketch) {
+        m_sketch = new QuantileSketch(sketch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(final DataCell cell) {
+        if (cell.isMissing()) {
+            return;
+        }
+        final DataCell unwrapped = SketchUtil.unwrap(cell);
+        if (unwrapped instanceof DoubleValue) {
+            m_sketch.update(((DoubleValue)unwrapped).getDoubleValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuantileSketchMetaData create() {
+        return new QuantileSketchMetaData(m_sketch.getLevels(), m_sketch.getCount(), m_sketch.getMin(),
+            m_sketch.getMax());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuantileSketchMetaDataCreator copy() {
+        return new QuantileSketchMetaDataCreator(m_sketch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuantileSketchMetaDataCreator merge(final DataColumnMetaDataCreator<QuantileSketchMetaData> other) {
+        CheckUtils.checkArgument(other instanceof QuantileSketchMetaDataCreator,
+            "Can only merge with QuantileSketchMetaDataCreator but received object of type %s.",
+            other.getClass().getName());
+        m_sketch.merge(((QuantileSketchMetaDataCreator)other).m_sketch);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuantileSketchMetaDataCreator merge(final QuantileSketchMetaData other) {
+        m_sketch.merge(other.getLevels(), other.getCount(), other.getMin(), other.getMax());
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean describesCellsOnly() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<QuantileSketchMetaData> getMetaDataClass() {
+        return QuantileSketchMetaData.class;
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.meta.sketch;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.container.BlobWrapperDataCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+
+/**
+ * Helper methods shared by the column sketches.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class SketchUtil {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private SketchUtil() {
+    }
+
+    /**
+     * @return whether column sketches are calculated for new tables
+     * @see KNIMEConstants#PROPERTY_COLUMN_SKETCHES
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(KNIMEConstants.PROPERTY_COLUMN_SKETCHES);
+    }
+
+    /**
+     * @param cell a cell, possibly wrapped in a {@link BlobWrapperDataCell}
+     * @return the actual cell
+     */
+    static DataCell unwrap(final DataCell cell) {
+        return cell instanceof BlobWrapperDataCell ? ((BlobWrapperDataCell)cell).getCell() : cell;
+    }
+
+    /**
+     * Computes a 64 bit hash of the cell's value. Long, int and boolean values are hashed on their long value, double
+     * values on their bits, string values on their characters and all other cells on their serialized form. The result
+     * is spread by the finalizer of MurmurHash3. Cells that are equal have the same hash.
+     *
+     * @param cell a non-missing cell
+     * @return a 64 bit hash of the cell
+     */
+    static long hash(final DataCell cell) {
+        final long h;
+        if (cell instanceof LongValue) {
+            h = ((LongValue)cell).getLongValue();
+        } else if (cell instanceof DoubleValue) {
+            h = Double.doubleToLongBits(((DoubleValue)cell).getDoubleValue());
+        } else if (cell instanceof StringValue) {
+            h = hash(((StringValue)cell).getStringValue());
+        } else {
+            h = hashSerialized(cell);
+        }
+        return mix(h);
+    }
+
+    /** FNV-1a hash of the characters. */
+    private static long hash(final String s) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Hashes the form written by the cell's {@link DataCellSerializer}. Cells without serializer (java serialization)
+     * fall back to their 32 bit hash code.
+     */
+    private static long hashSerialized(final DataCell cell) {
+        final Optional<DataCellSerializer<DataCell>> serializer =
+            DataTypeRegistry.getInstance().getSerializer(cell.getClass());
+        if (!serializer.isPresent()) {
+            return cell.hashCode();
+        }
+        final HashOutputStream hashOut = new HashOutputStream();
+        try (HashDataCellDataOutput out = new HashDataCellDataOutput(hashOut)) {
+            serializer.get().serialize(cell, out);
+        } catch (IOException ex) {
+            // nothing is written to disc, only a faulty serializer fails
+            return cell.hashCode();
+        }
+        return hashOut.m_hash;
+    }
+
+    /** Finalizer of MurmurHash3. */
+    private static long mix(final long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Computes the FNV-1a hash of the bytes written. */
+    private static final class HashOutputStream extends OutputStream {
+
+        private long m_hash = FNV_OFFSET;
+
+        @Override
+        public void write(final int b) {
+            m_hash = (m_hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+    }
+
+    /** Writes a cell's serialized form into a {@link HashOutputStream}, nested cells are written as their hash. */
+    private static final class HashDataCellDataOutput extends DataOutputStream implements DataCellDataOutput {
+
+        HashDataCellDataOutput(final HashOutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            final DataCell c = unwrap(cell);
+            writeUTF(c.getClass().getName());
+            if (!c.isMissing()) {
+                writeLong(hash(c));
+            }
+        }
+    }
+
+    /**
+     * Encodes the values as base64 string, which is considerably more compact in the spec's XML than one config
+     * entry per value.
+     *
+     * @param values the values to encode
+     * @return the encoded values
+     */
+    static String encode(final double[] values) {
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes values encoded with {@link #encode(double[])}.
+     *
+     * @param encoded the encoded values
+     * @return the decoded values
+     * @throws InvalidSettingsException if the string is not a valid encoding
+     */
+    static double[] decodeDoubles(final String encoded) throws InvalidSettingsException {
+        final byte[] bytes = decodeBytes(encoded);
+        if (bytes.length % Double.BYTES != 0) {
+            throw new InvalidSettingsException("Invalid length of encoded double values: " + bytes.length);
+        }
+        final double[] values = new double[bytes.length / Double.BYTES];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * @param bytes the bytes to encode
+     * @return the base64 encoded bytes
+     */
+    static String encode(final byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * @param encoded base64 encoded bytes
+     * @return the decoded bytes
+     * @throws InvalidSettingsException if the string is not a valid encoding
+     */
+    static byte[] decodeBytes(final String encoded) throws InvalidSettingsException {
+        if (encoded == null) {
+            throw new InvalidSettingsException("No encoded sketch data available.");
+        }
+        try {
+            return Base64.getDecoder().decode(encoded);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidSettingsException("Invalid encoded sketch data: " + ex.getMessage(), ex);
+        }
+    }
+}
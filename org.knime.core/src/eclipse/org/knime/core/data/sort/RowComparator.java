@@ -54,6 +54,10 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataValueComparator;
+import org.knime.core.data.DoubleValueComparator;
+import org.knime.core.data.IntValueComparator;
+import org.knime.core.data.LongValueComparator;
+import org.knime.core.data.PrimitiveDataRow;
 
 /**
  * The RowComparator is used to compare two DataRows. It implements the Comparator-interface, so we can use the
@@ -74,6 +78,24 @@ public final class RowComparator implements Comparator<DataRow> {
      */
     private final DataValueComparator[] m_colComparators;
 
+    /**
+     * For each column, how the values of two {@link PrimitiveDataRow}s are compared without creating cells. One of the
+     * <code>PRIMITIVE_...</code> constants, matching the order of the corresponding comparator.
+     */
+    private final byte[] m_primitiveComparisons;
+
+    /** The column comparator doesn't compare primitive values. */
+    private static final byte PRIMITIVE_NONE = 0;
+
+    /** Same order as {@link IntValueComparator}. */
+    private static final byte PRIMITIVE_INT = 1;
+
+    /** Same order as {@link LongValueComparator}. */
+    private static final byte PRIMITIVE_LONG = 2;
+
+    /** Same order as {@link DoubleValueComparator}. */
+    private static final byte PRIMITIVE_DOUBLE = 3;
+
     /**
      * Array containing information about the sort order for each column. true: ascending false: descending
      */
@@ -94,6 +116,7 @@ public RowComparator(final int[] indices, final boolean[] sortAscending, final b
         final DataTableSpec spec) {
         m_indices = indices;
         m_colComparators = new DataValueComparator[indices.length];
+        m_primitiveComparisons = new byte[indices.length];
         for (int i = 0; i < m_indices.length; i++) {
             // only if the cell is in the includeList
             // -1 is RowKey!
@@ -101,6 +124,7 @@ public RowComparator(final int[] indices, final boolean[] sortAscending, final b
                 m_colComparators[i] = null;
             } else {
                 m_colComparators[i] = spec.getColumnSpec(m_indices[i]).getType().getComparator();
+                m_primitiveComparisons[i] = getPrimitiveComparison(m_colComparators[i]);
             }
         }
         m_sortAscending = sortAscending;
@@ -144,7 +168,28 @@ private int compareIndex(final DataRow dr1, final DataRow dr2, final int i) {
         }
     }
 
+    private static byte getPrimitiveComparison(final DataValueComparator comparator) {
+        final Class<?> comparatorClass = comparator.getClass();
+        if (comparatorClass == IntValueComparator.class) {
+            return PRIMITIVE_INT;
+        } else if (comparatorClass == LongValueComparator.class) {
+            return PRIMITIVE_LONG;
+        } else if (comparatorClass == DoubleValueComparator.class) {
+            return PRIMITIVE_DOUBLE;
+        }
+        return PRIMITIVE_NONE;
+    }
+
     private int compareCells(final DataRow dr1, final DataRow dr2, final int i) {
+        if (m_primitiveComparisons[i] != PRIMITIVE_NONE && dr1 instanceof PrimitiveDataRow
+            && dr2 instanceof PrimitiveDataRow) {
+            final PrimitiveDataRow pr1 = (PrimitiveDataRow)dr1;
+            final PrimitiveDataRow pr2 = (PrimitiveDataRow)dr2;
+            final int index = m_indices[i];
+            if (pr1.isPrimitive(index) && pr2.isPrimitive(index)) {
+                return comparePrimitives(pr1, pr2, i);
+            }
+        }
         int cellComparison;
         final DataCell c1 = dr1.getCell(m_indices[i]);
         final DataCell c2 = dr2.getCell(m_indices[i]);
@@ -159,6 +204,28 @@ private int compareCells(final DataRow dr1, final DataRow dr2, final int i) {
         return cellComparison;
     }
 
+    /** Same result as {@link #compareCells(DataRow, DataRow, int)} but without materializing the cells. */
+    private int comparePrimitives(final PrimitiveDataRow dr1, final PrimitiveDataRow dr2, final int i) {
+        final int index = m_indices[i];
+        final boolean c1Missing = dr1.isMissing(index);
+        final boolean c2Missing = dr2.isMissing(index);
+        if (c1Missing || c2Missing) {
+            if (m_sortMissingsToEnd) {
+                return sortMissingsToEnd(i, c1Missing, c2Missing);
+            }
+            // as in DataValueComparator: missing values are smaller than any other value
+            return c1Missing == c2Missing ? 0 : (c1Missing ? -1 : 1);
+        }
+        switch (m_primitiveComparisons[i]) {
+            case PRIMITIVE_INT:
+                return Integer.compare(dr1.getInt(index), dr2.getInt(index));
+            case PRIMITIVE_LONG:
+                return Long.compare(dr1.getLong(index), dr2.getLong(index));
+            default:
+                return Double.compare(dr1.getDouble(index), dr2.getDouble(index));
+        }
+    }
+
     private int sortMissingsToEnd(final int i, final boolean c1Missing, final boolean c2Missing) {
         int cellComparison;
         if (c1Missing && c2Missing) {
@@ -0,0 +1,93 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.knime.core.data.xml.io.LimitedXPathMatcher;
+import org.w3c.dom.Document;
+
+/**
+ * Streaming access to the serialized form of an XML value. In contrast to {@link XMLValue#getDocumentSupplier()} none
+ * of the methods builds a DOM of the whole document, which makes them preferable for large documents that are only
+ * read. Implemented by {@link XMLCell}, {@link XMLBlobCell} and {@link XMLCellContent}; clients should check with
+ * <code>instanceof</code> and fall back to the DOM otherwise.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public interface StreamableXMLContent {
+
+    /**
+     * Opens a reader on the serialized XML document. The reader must be closed by the caller.
+     *
+     * @return a new reader
+     */
+    Reader openReader();
+
+    /**
+     * Creates a StAX reader on the serialized XML document. The reader must be closed by the caller.
+     *
+     * @return a new stream reader
+     * @throws XMLStreamException if the reader cannot be created
+     */
+    XMLStreamReader createXMLStreamReader() throws XMLStreamException;
+
+    /**
+     * Returns the elements of the document that match the given limited XPath, each as a separate XML value. Only the
+     * DOMs of the matching elements are built. Note that the matcher keeps state while the document is read and must
+     * therefore not be used concurrently.
+     *
+     * @param xpathMatcher the matcher for the elements to select
+     * @return the matching elements in document order
+     * @throws IOException if the document cannot be read
+     */
+    List<XMLValue<Document>> select(LimitedXPathMatcher xpathMatcher) throws IOException;
+}
@@ -48,8 +48,12 @@
 package org.knime.core.data.xml;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellDataInput;
@@ -60,6 +64,7 @@
 import org.knime.core.data.DataValue;
 import org.knime.core.data.StringValue;
 import org.knime.core.data.util.LockedSupplier;
+import org.knime.core.data.xml.io.LimitedXPathMatcher;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
@@ -69,7 +74,7 @@
  * @author Heiko Hofer
  */
 @SuppressWarnings("serial")
-public class XMLCell extends DataCell implements XMLValue<Document>, StringValue {
+public class XMLCell extends DataCell implements XMLValue<Document>, StringValue, StreamableXMLContent {
     /**
      * Type for this cell implementation.
      * Convenience access member for {@link XMLCellFactory#TYPE}.
@@ -196,4 +201,31 @@ public String getStringValue() {
     public LockedSupplier<Document> getDocumentSupplier() {
         return m_content.getDocumentSupplier();
     }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public Reader openReader() {
+        return m_content.openReader();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public XMLStreamReader createXMLStreamReader() throws XMLStreamException {
+        return m_content.createXMLStreamReader();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.2
+     */
+    @Override
+    public List<XMLValue<Document>> select(final LimitedXPathMatcher xpathMatcher) throws IOException {
+        return m_content.select(xpathMatcher);
+    }
 }
@@ -47,21 +47,35 @@
  */
 package org.knime.core.data.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
-import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import org.knime.core.data.StringValue;
 import org.knime.core.data.util.LockedSupplier;
+import org.knime.core.data.xml.io.LimitedXPathMatcher;
+import org.knime.core.data.xml.io.XMLCellReader;
 import org.knime.core.data.xml.io.XMLCellReaderFactory;
 import org.knime.core.data.xml.io.XMLCellWriter;
 import org.knime.core.data.xml.io.XMLCellWriterFactory;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.w3c.dom.DOMConfiguration;
 import org.w3c.dom.Document;
@@ -71,18 +85,38 @@
  * This class encapsulates a {@link Document}. It is the common content of a
  * {@link XMLCell} and a {@link XMLBlobCell}.
  *
+ * <p>
+ * The primary representation is the serialized XML document, which is kept compressed if it is larger than the
+ * threshold given by {@link KNIMEConstants#PROPERTY_XML_COMPRESSION_THRESHOLD}. Apart from validating the document
+ * when the content is created, the DOM is only built if it is requested and is then held in a size-bounded cache
+ * shared by all XML cells. Consumers that only read the document
+ * should prefer the streaming access of {@link StreamableXMLContent}.
+ *
  * @author Heiko Hofer
  */
-public class XMLCellContent implements XMLValue<Document> {
+public class XMLCellContent implements XMLValue<Document>, StreamableXMLContent {
     private static final NodeLogger LOGGER = NodeLogger
             .getLogger(XMLCellContent.class);
 
+    private static final int COMPRESSION_THRESHOLD =
+        Integer.getInteger(KNIMEConstants.PROPERTY_XML_COMPRESSION_THRESHOLD, -1);
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /** The serialized document, <code>null</code> if it is compressed. */
     private final String m_xmlString;
 
-    private SoftReference<Document> m_content;
+    /** The UTF-8 encoded, deflated document, <code>null</code> if it is not compressed. */
+    private final byte[] m_compressedXML;
+
+    /** The number of characters of the serialized document. */
+    private final int m_length;
 
     private final ReentrantLock m_lock = new ReentrantLock();
 
+    /** The hash code of the serialized document, computed on first access (0 if not yet computed). */
+    private int m_hashCode;
+
     /**
      * Creates a {@link Document} by parsing the passed string. It must contain
      * a valid XML document.
@@ -97,13 +131,11 @@ public class XMLCellContent implements XMLValue<Document> {
      */
     XMLCellContent(final String xmlString, final boolean checkXML)
             throws IOException, ParserConfigurationException, SAXException {
+        String s = xmlString;
         if (checkXML) {
             try {
-                // check if XML string is valid XML
-                Document doc = parse(xmlString);
-                // store the normalized string as cell content
-                m_xmlString = serialize(doc);
-                m_content = new SoftReference<Document>(doc);
+                // check if XML string is valid XML and store the normalized string as cell content
+                s = readNormalized(XMLCellReaderFactory.createXMLCellReader(new StringReader(xmlString)));
             } catch (IOException ex) {
                 Throwable cause = ex;
                 while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -115,10 +147,10 @@ public class XMLCellContent implements XMLValue<Document> {
                     throw ex;
                 }
             }
-        } else {
-            m_xmlString = xmlString;
-            m_content = new SoftReference<Document>(null);
         }
+        m_compressedXML = compress(s);
+        m_xmlString = m_compressedXML == null ? s : null;
+        m_length = s.length();
     }
 
     /**
@@ -133,21 +165,10 @@ public class XMLCellContent implements XMLValue<Document> {
      */
     XMLCellContent(final InputStream is) throws IOException,
             ParserConfigurationException, SAXException, XMLStreamException {
-        try {
-            Document doc = parse(is);
-            m_content = new SoftReference<Document>(doc);
-            m_xmlString = serialize(doc);
-        } catch (IOException ex) {
-            Throwable cause = ex;
-            while ((cause.getCause() != cause) && (cause.getCause() != null)) {
-                cause = cause.getCause();
-            }
-            if (cause instanceof SAXException) {
-                throw ex;
-            } else {
-                throw ex;
-            }
-        }
+        final String s = readNormalized(XMLCellReaderFactory.createXMLCellReader(is));
+        m_compressedXML = compress(s);
+        m_xmlString = m_compressedXML == null ? s : null;
+        m_length = s.length();
     }
 
     /**
@@ -156,21 +177,18 @@ public class XMLCellContent implements XMLValue<Document> {
      * @param doc an XML document
      */
     XMLCellContent(final Document doc) {
-        m_content = new SoftReference<Document>(doc);
-        // Transform CDATA to text
-        DOMConfiguration domConfig = doc.getDomConfig();
-        domConfig.setParameter("cdata-sections", Boolean.FALSE);
-        // Resolve entities
-        domConfig.setParameter("entities", Boolean.FALSE);
-        // normalizeDocument adds e.g. missing xmls attributes
-        doc.normalizeDocument();
+        normalizeDocument(doc);
         String s = null;
         try {
             s = serialize(doc);
         } catch (IOException ex) {
             // should not happen
         }
-        m_xmlString = s;
+        m_compressedXML = compress(s);
+        m_xmlString = m_compressedXML == null ? s : null;
+        m_length = s == null ? 0 : s.length();
+        // the caller passed the DOM, no need to parse it again when it is requested
+        XMLDocumentCache.put(this, doc);
     }
 
     /**
@@ -184,23 +202,14 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
         try {
             /* Serialize the xml string as in the other constructor.
              * This guarantees that we work on our own copy later on. */
-            Document doc = documentSupplier.get();
-
-            DOMConfiguration domConfig = doc.getDomConfig();
-            domConfig.setParameter("cdata-sections", Boolean.FALSE);
-            // Resolve entities
-            domConfig.setParameter("entities", Boolean.FALSE);
-            // normalizeDocument adds e.g. missing xmls attributes
-            doc.normalizeDocument();
-
+            normalizeDocument(documentSupplier.get());
             s = serialize(documentSupplier.get());
-            m_content = new SoftReference<Document>(null);
         } catch (IOException ex) {
             // should not happen
         }
-
-        m_xmlString = s;
-
+        m_compressedXML = compress(s);
+        m_xmlString = m_compressedXML == null ? s : null;
+        m_length = s == null ? 0 : s.length();
     }
 
     /**
@@ -214,11 +223,11 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
     @Deprecated
     @Override
     public Document getDocument() {
-        Document doc = m_content.get();
+        Document doc = XMLDocumentCache.get(this);
         if (doc == null) {
-            try {
-                doc = parse(m_xmlString);
-                m_content = new SoftReference<Document>(doc);
+            try (Reader reader = openReader()) {
+                doc = parse(reader);
+                XMLDocumentCache.put(this, doc);
             } catch (Exception ex) {
                 LOGGER.error("Error while parsing XML in XML Cell", ex);
             }
@@ -232,7 +241,114 @@ public Document getDocument() {
      * @return The XML Document as a string.
      */
     String getStringValue() {
-        return m_xmlString;
+        if (m_compressedXML == null) {
+            return m_xmlString;
+        }
+        final StringBuilder sb = new StringBuilder(m_length);
+        try (Reader reader = openReader()) {
+            final char[] buffer = new char[8192];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                sb.append(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            // reading from memory, should not happen
+            throw new IllegalStateException("Could not decompress XML document", ex);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the number of characters of the serialized document
+     */
+    int getLength() {
+        return m_length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.2
+     */
+    @Override
+    public Reader openReader() {
+        if (m_compressedXML == null) {
+            return new StringReader(m_xmlString);
+        }
+        return new InputStreamReader(new InflaterInputStream(new ByteArrayInputStream(m_compressedXML)),
+            StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.2
+     */
+    @Override
+    public XMLStreamReader createXMLStreamReader() throws XMLStreamException {
+        return INPUT_FACTORY.createXMLStreamReader(openReader());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.2
+     */
+    @Override
+    public List<XMLValue<Document>> select(final LimitedXPathMatcher xpathMatcher) throws IOException {
+        final List<XMLValue<Document>> result = new ArrayList<>();
+        try {
+            final XMLCellReader reader = XMLCellReaderFactory.createXPathXMLCellReader(openReader(), xpathMatcher);
+            try {
+                for (XMLValue<Document> value = reader.readXML(); value != null; value = reader.readXML()) {
+                    result.add(value);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (ParserConfigurationException | XMLStreamException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        return result;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        // the serialized form is self-contained, entities have been resolved when the cell was created
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Compresses the serialized document if it is larger than the configured threshold.
+     *
+     * @return the compressed document or <code>null</code> if it is not compressed
+     */
+    private static byte[] compress(final String xmlString) {
+        if (xmlString == null || COMPRESSION_THRESHOLD < 0 || xmlString.length() < COMPRESSION_THRESHOLD) {
+            return null;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(xmlString.length() / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(xmlString.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            // writing to memory, should not happen
+            throw new IllegalStateException("Could not compress XML document", ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the document and returns its normalized serialized form, which is the string value of the cell created by
+     * the reader. This saves serializing the document a second time.
+     */
+    @SuppressWarnings("deprecation")
+    private static String readNormalized(final XMLCellReader reader) throws IOException {
+        final XMLValue<Document> value = reader.readXML();
+        if (value instanceof StringValue) {
+            return ((StringValue)value).getStringValue();
+        }
+        return serialize(value.getDocument());
     }
 
     private static String serialize(final Document doc) throws IOException {
@@ -257,14 +373,20 @@ public LockedSupplier<Document> getDocumentSupplier() {
         return os.toString("UTF-8");
     }
 
-    @SuppressWarnings("deprecation")
-    private static Document parse(final String xmlString) throws IOException, ParserConfigurationException {
-        return XMLCellReaderFactory.createXMLCellReader(new StringReader(xmlString)).readXML().getDocument();
+    private static Document parse(final Reader reader) throws IOException, ParserConfigurationException {
+        final Document doc = XMLCellReaderFactory.parseDocument(reader);
+        normalizeDocument(doc);
+        return doc;
     }
 
-    @SuppressWarnings("deprecation")
-    private static Document parse(final InputStream is) throws IOException, ParserConfigurationException {
-        return XMLCellReaderFactory.createXMLCellReader(is).readXML().getDocument();
+    private static void normalizeDocument(final Document doc) {
+        // Transform CDATA to text
+        DOMConfiguration domConfig = doc.getDomConfig();
+        domConfig.setParameter("cdata-sections", Boolean.FALSE);
+        // Resolve entities
+        domConfig.setParameter("entities", Boolean.FALSE);
+        // normalizeDocument adds e.g. missing xmls attributes
+        doc.normalizeDocument();
     }
 
     /**
@@ -277,23 +399,90 @@ public String toString() {
 
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     * Compares the normalized serialized documents, which doesn't require parsing them.
      */
     @Override
     public boolean equals(final Object obj) {
-        if (obj instanceof XMLCellContent) {
-            XMLCellContent that = (XMLCellContent)obj;
-            return XMLValue.equalContent(this, that);
-        } else {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof XMLCellContent)) {
+            return false;
+        }
+        final XMLCellContent that = (XMLCellContent)obj;
+        if (m_length != that.m_length) {
             return false;
         }
+        if (m_length == 0) {
+            // serialization failed for both
+            return true;
+        }
+        if (m_xmlString != null && that.m_xmlString != null) {
+            return m_xmlString.equals(that.m_xmlString);
+        }
+        if (m_compressedXML != null && that.m_compressedXML != null
+            && Arrays.equals(m_compressedXML, that.m_compressedXML)) {
+            return true;
+        }
+        if (m_hashCode != 0 && that.m_hashCode != 0 && m_hashCode != that.m_hashCode) {
+            return false;
+        }
+        try (Reader r1 = openReader(); Reader r2 = that.openReader()) {
+            final char[] b1 = new char[8192];
+            final char[] b2 = new char[8192];
+            for (int read = r1.read(b1); read >= 0; read = r1.read(b1)) {
+                int offset = 0;
+                while (offset < read) {
+                    final int read2 = r2.read(b2, offset, read - offset);
+                    if (read2 < 0) {
+                        return false;
+                    }
+                    offset += read2;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (b1[i] != b2[i]) {
+                        return false;
+                    }
+                }
+            }
+            return r2.read() < 0;
+        } catch (IOException ex) {
+            // reading from memory, should not happen
+            throw new IllegalStateException("Could not decompress XML document", ex);
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     * The hash code of the normalized serialized document, i.e. {@link String#hashCode()} of
+     * {@link #getStringValue()}.
      */
     @Override
     public int hashCode() {
-        return XMLValue.hashCode(this);
+        int h = m_hashCode;
+        if (h == 0 && m_length > 0) {
+            if (m_xmlString != null) {
+                h = m_xmlString.hashCode();
+            } else {
+                try (Reader reader = openReader()) {
+                    final char[] buffer = new char[8192];
+                    for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                        for (int i = 0; i < read; i++) {
+                            h = 31 * h + buffer[i];
+                        }
+                    }
+                } catch (IOException ex) {
+                    // reading from memory, should not happen
+                    throw new IllegalStateException("Could not decompress XML document", ex);
+                }
+            }
+            m_hashCode = h;
+        }
+        return h;
     }
 
     /**
@@ -0,0 +1,103 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import org.knime.core.data.util.memory.MemoryAlert;
+import org.knime.core.data.util.memory.MemoryAlertListener;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.NodeLogger;
+import org.w3c.dom.Document;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Shared cache for the DOMs of {@link XMLCellContent}s that are built on request. A DOM needs roughly ten times the
+ * memory of the serialized document, so the cache is bounded by the total length of the serialized documents (a 200th
+ * of the maximum heap size, i.e. the cached DOMs occupy around 10% of the heap). Least recently used documents are
+ * evicted first; the whole cache is cleared on low memory.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class XMLDocumentCache {
+
+    private static final long MAX_WEIGHT = Math.max(1 << 20, Runtime.getRuntime().maxMemory() / 200);
+
+    /** Weak keys, i.e. the contents are compared by identity and their entries vanish with them. */
+    private static final Cache<XMLCellContent, Document> CACHE = CacheBuilder.newBuilder().weakKeys().softValues()
+        .maximumWeight(MAX_WEIGHT).weigher((final XMLCellContent c, final Document d) -> Math.max(1, c.getLength()))
+        .build();
+
+    static {
+        MemoryAlertSystem.getInstance().addListener(new MemoryAlertListener() {
+            @Override
+            protected boolean memoryAlert(final MemoryAlert alert) {
+                NodeLogger.getLogger(XMLDocumentCache.class)
+                    .debug("Clearing XML document cache due to low memory event");
+                CACHE.invalidateAll();
+                return false;
+            }
+        });
+    }
+
+    private XMLDocumentCache() {
+    }
+
+    /**
+     * @param content an XML cell content
+     * @return the cached document of the content or <code>null</code> if it is not cached
+     */
+    static Document get(final XMLCellContent content) {
+        return CACHE.getIfPresent(content);
+    }
+
+    /**
+     * @param content an XML cell content
+     * @param doc the document of the content
+     */
+    static void put(final XMLCellContent content, final Document doc) {
+        CACHE.put(content, doc);
+    }
+}
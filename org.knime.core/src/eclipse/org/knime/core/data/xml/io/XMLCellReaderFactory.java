@@ -47,12 +47,15 @@
  */
 package org.knime.core.data.xml.io;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
 
+import org.w3c.dom.Document;
+
 /**
  * Factory class for {@link XMLCellReader}.
  *
@@ -91,6 +94,24 @@ public static XMLCellReader createXMLCellReader(final Reader reader)
     }
 
 
+	/**
+	 * Parses a single XML document from the given {@link Reader} the same way
+	 * as the reader created by {@link #createXMLCellReader(Reader)} does, but
+	 * without creating a cell (and serializing the document) for it.
+	 *
+	 * @param reader a reader for the xml document
+	 * @return the parsed document
+	 * @throws ParserConfigurationException when the factory object for
+	 * DOMs could not be created.
+	 * @throws IOException If an error occurred during the read process.
+	 * @since 4.2
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static Document parseDocument(final Reader reader)
+			throws ParserConfigurationException, IOException {
+		return new XMLDOMCellReader(reader).readDocument();
+	}
+
 	/**
 	 * Creates a {@link XMLCellReader} to read nodes matching the given limited
 	 * XPath. Every node is read in a single DataCell whereas namespaces,
@@ -109,4 +130,24 @@ public static XMLCellReader createXPathXMLCellReader(final InputStream is,
 			throws ParserConfigurationException, XMLStreamException {
 		return new XMLXpathCellReader(is, xpathMatcher);
 	}
+
+	/**
+	 * Creates a {@link XMLCellReader} to read nodes matching the given limited
+	 * XPath from a {@link Reader}, see
+	 * {@link #createXPathXMLCellReader(InputStream, LimitedXPathMatcher)}.
+	 *
+	 * @param reader a reader for the xml document
+	 * @param xpathMatcher Only nodes that match are read
+	 * @return {@link XMLCellReader} to read nodes matching the given limited
+	 * XPath. Every node is read in a single DataCell.
+	 * @throws ParserConfigurationException when the factory object for
+	 * DOMs could not be created.
+	 * @throws XMLStreamException when parser could not be configured
+	 * @since 4.2
+	 */
+	public static XMLCellReader createXPathXMLCellReader(final Reader reader,
+			final LimitedXPathMatcher xpathMatcher)
+			throws ParserConfigurationException, XMLStreamException {
+		return new XMLXpathCellReader(reader, xpathMatcher);
+	}
 }
@@ -166,20 +166,29 @@ public XMLDOMCellReader(final Reader reader) throws ParserConfigurationException
     public XMLValue<Document> readXML() throws IOException {
         if (m_first) {
             m_first = false;
-
-            Document doc;
-            try {
-                doc = m_builder.parse(m_in);
-            } catch (SAXException e) {
-                throw new IOException(e);
-            }
-            removeEmptyTextRecursive(doc, new LinkedList<Boolean>());
-            return (XMLValue<Document>)XMLCellFactory.create(doc);
+            return (XMLValue<Document>)XMLCellFactory.create(readDocument());
         } else {
             return null;
         }
     }
 
+    /**
+     * Parses the document without creating a cell for it.
+     *
+     * @return the parsed document without whitespace-only text nodes
+     * @throws IOException If an error occurred during the read process.
+     */
+    Document readDocument() throws IOException {
+        Document doc;
+        try {
+            doc = m_builder.parse(m_in);
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+        removeEmptyTextRecursive(doc, new LinkedList<Boolean>());
+        return doc;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -47,8 +47,10 @@
  */
 package org.knime.core.data.xml.io;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -85,7 +87,7 @@
  * @author Heiko Hofer
  */
 public class XMLXpathCellReader implements XMLCellReader {
-	private final InputStream m_in;
+	private final Closeable m_in;
 	private XMLStreamReader m_parser;
 	private final DocumentBuilder m_builder;
 	private final LimitedXPathMatcher m_xpathMatcher;
@@ -108,7 +110,29 @@ public class XMLXpathCellReader implements XMLCellReader {
 	public XMLXpathCellReader(final InputStream is,
 			final LimitedXPathMatcher xpathMatcher)
 			throws ParserConfigurationException, XMLStreamException {
-		this.m_in = is;
+		this(is, xpathMatcher, createInputFactory().createXMLStreamReader(is));
+	}
+
+	/**
+	 * Create a new instance.
+	 *
+	 * @param reader the xml source
+	 * @param xpathMatcher nodes of the input that match will be read, only
+	 * @throws ParserConfigurationException
+	 * @throws XMLStreamException
+	 * @since 4.2
+	 */
+	public XMLXpathCellReader(final Reader reader,
+			final LimitedXPathMatcher xpathMatcher)
+			throws ParserConfigurationException, XMLStreamException {
+		this(reader, xpathMatcher, createInputFactory().createXMLStreamReader(reader));
+	}
+
+	private XMLXpathCellReader(final Closeable in,
+			final LimitedXPathMatcher xpathMatcher, final XMLStreamReader parser)
+			throws ParserConfigurationException {
+		this.m_in = in;
+		this.m_parser = parser;
 
 		DocumentBuilderFactory domFactory = DocumentBuilderFactory
 				.newInstance();
@@ -126,19 +150,17 @@ public XMLXpathCellReader(final InputStream is,
 		m_base = new LinkedList<String>();
 		m_space = new LinkedList<String>();
 		m_lang = new LinkedList<String>();
-		initStreamParser();
 	}
 
-	/** Initialize the stream parser object. */
-	private void initStreamParser() throws XMLStreamException {
+	/** Create the factory for the stream parser object. */
+	private static XMLInputFactory createInputFactory() {
 		XMLInputFactory factory = XMLInputFactory.newInstance();
 		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
 		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.TRUE);
         if (Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_DISABLE_EXT_ENTITIES)) { // see AP-6752
             factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
         }
-
-		m_parser = factory.createXMLStreamReader(m_in);
+		return factory;
 	}
 
 	private void pushNamespaceContext() {
@@ -140,6 +140,33 @@ public class BufferedDataContainer extends DataContainer {
             final IDataRepository dataRepository,
             final Map<Integer, ContainerTable> localTableRepository,
             final IWriteFileStoreHandler fileStoreHandler) {
+        this(spec, initDomain, node, policy, forceCopyOfBlobs, maxCellsInMemory, dataRepository,
+            localTableRepository, fileStoreHandler, false);
+    }
+
+    /**
+     * Creates new container.
+     * @param spec The table spec.
+     * @param initDomain Whether or not the spec's domain shall be used for
+     * initialization.
+     * @param node The owner of the outcome table.
+     * @param forceCopyOfBlobs The property whether to copy any blob cell
+     * @param maxCellsInMemory Number of cells to be kept in memory, if negative
+     * use user settings (according to node)
+     * being added, see {@link DataContainer#setForceCopyOfBlobs(boolean)}.
+     * @param dataRepository A data repository for deserializing blobs and file stores
+     *        and for handling table ids
+     * @param localTableRepository
+     *        The local (Node) table repository for blob (de)serialization.
+     * @param implicitRowKeys Whether the row keys are implicit, i.e. derived from the row index
+     * @see DataContainer#DataContainer(DataTableSpec, boolean, int, boolean, boolean)
+     */
+    BufferedDataContainer(final DataTableSpec spec, final boolean initDomain,
+            final Node node, final MemoryPolicy policy,
+            final boolean forceCopyOfBlobs, final int maxCellsInMemory,
+            final IDataRepository dataRepository,
+            final Map<Integer, ContainerTable> localTableRepository,
+            final IWriteFileStoreHandler fileStoreHandler, final boolean implicitRowKeys) {
         /**
          * Force sequential handling of rows when the node is a loop end: At a loop end, rows containing blobs need to
          * be written instantly as their owning buffer is discarded in the next loop iteration, see bug 2935. To be
@@ -147,7 +174,7 @@ public class BufferedDataContainer extends DataContainer {
          */
         super(spec, initDomain, maxCellsInMemory < 0
                 ? getMaxCellsInMemory(policy) : maxCellsInMemory,
-                        node.isForceSychronousIO());
+                        node.isForceSychronousIO(), implicitRowKeys);
         m_node = node;
         m_localTableRepository = localTableRepository;
         /**
@@ -235,4 +262,23 @@ protected static ContainerTable readFromZipDelayed(final ReferencedFile zipFileR
         final int bufID, final WorkflowDataRepository dataRepository) {
         return DataContainer.readFromZipDelayed(zipFileRef, spec, bufID, dataRepository);
     }
+
+    /**
+     * Just delegates to
+     * {@link DataContainer#readFromZipDelayed(ReferencedFile, DataTableSpec, int, WorkflowDataRepository, long)}
+     * This method is available in this class to enable other classes in this package to use it.
+     *
+     * @param zipFileRef Delegated.
+     * @param spec Delegated.
+     * @param bufID Delegated.
+     * @param dataRepository Delegated.
+     * @param rowCount Delegated.
+     * @return Delegated.
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    protected static ContainerTable readFromZipDelayed(final ReferencedFile zipFileRef, final DataTableSpec spec,
+        final int bufID, final WorkflowDataRepository dataRepository, final long rowCount) {
+        return DataContainer.readFromZipDelayed(zipFileRef, spec, bufID, dataRepository, rowCount);
+    }
 }
@@ -62,6 +62,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.swing.JComponent;
@@ -83,6 +84,7 @@
 import org.knime.core.data.container.DefaultTableStoreFormat;
 import org.knime.core.data.container.JoinedTable;
 import org.knime.core.data.container.RearrangeColumnsTable;
+import org.knime.core.data.container.TableFingerprint;
 import org.knime.core.data.container.TableSpecReplacerTable;
 import org.knime.core.data.container.VoidTable;
 import org.knime.core.data.container.WrappedTable;
@@ -183,6 +185,8 @@ static PortObjectSerializer<BufferedDataTable> getPortObjectSerializer() {
     private final KnowsRowCountTable m_delegate;
     private int m_tableID;
     private Node m_owner;
+    /** The fingerprint of the content, computed lazily or restored when loaded. */
+    private volatile String m_contentFingerprint;
 
     /**
      * Creates a new buffered data table based on a container table (caching everything).
@@ -443,6 +447,41 @@ public long size() {
         return m_delegate.size();
     }
 
+    /**
+     * Returns a fingerprint of this table's content, i.e. a hash over its spec and all rows in their order. Tables
+     * with equal fingerprints have equal content, which makes the fingerprint suitable for comparisons and cache keys.
+     * The reverse doesn't hold in general: a table composed of other tables (e.g. by concatenation or by appending
+     * columns) combines their fingerprints and differs from a table of equal content that was written row by row.
+     *
+     * <p>
+     * The fingerprint is computed while the table is written if
+     * {@link KNIMEConstants#PROPERTY_TABLE_FINGERPRINTS} is set and otherwise on first request, which requires reading
+     * the entire table. It is saved with the table.
+     *
+     * @param exec for progress/cancelation in case the table needs to be read
+     * @return the fingerprint, a hex string
+     * @throws CanceledExecutionException if canceled
+     * @since 4.2
+     */
+    public String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+        String fingerprint = m_contentFingerprint;
+        if (fingerprint == null) {
+            fingerprint = m_delegate.getContentFingerprint(exec);
+            m_contentFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the content fingerprint if it is known without reading the table
+     */
+    private Optional<String> getKnownContentFingerprint() {
+        if (m_contentFingerprint == null && m_delegate instanceof ContainerTable) {
+            return ((ContainerTable)m_delegate).getKnownContentFingerprint();
+        }
+        return Optional.ofNullable(m_contentFingerprint);
+    }
+
 
     /** Method being used internally, not interesting for the implementor of
      * a new node model. It will return a unique ID to identify the table
@@ -506,6 +545,8 @@ public void close() {
     private static final String CFG_TABLE_CONTAINER_FORMAT = "table_format";
     private static final String CFG_TABLE_CONTAINER_FORMAT_VERSION = "table_format_version";
     private static final String CFG_TABLE_COMPRESSION_FORMAT = "table_compression_format";
+    private static final String CFG_TABLE_CONTENT_FINGERPRINT = "table_content_fingerprint";
+    private static final String CFG_TABLE_ROW_COUNT = "table_row_count";
 
     private static final String TABLE_TYPE_CONTAINER = "container_table";
     /**
@@ -518,6 +559,19 @@ public void close() {
      * format other than GZIP under this value in order to make KNIME <= 3.7 fail when loading such a workflow.
      */
     private static final String TABLE_TYPE_CONTAINER_COMPRESS = "container_table_compressed";
+    /**
+     * As of 4.2 KNIME saves container tables as plain files in a directory rather than a zip file if
+     * {@link KNIMEConstants#PROPERTY_TABLE_SAVE_AS_FILES} is set. Such tables are saved under this value in order to
+     * make KNIME <= 4.1 fail when loading such a workflow. Custom formats and compressions are still written to the
+     * settings and validated on load.
+     */
+    private static final String TABLE_TYPE_CONTAINER_FILES = "container_table_files";
+    /**
+     * As of 4.2 KNIME saves container tables with implicit row keys, which are not stored in the data file, under
+     * this value in order to make KNIME <= 4.1 fail when loading such a workflow. Custom formats and compressions are
+     * still written to the settings and validated on load.
+     */
+    private static final String TABLE_TYPE_CONTAINER_IMPLICIT_KEYS = "container_table_implicit_keys";
     private static final String TABLE_TYPE_REARRANGE_COLUMN = "rearrange_columns_table";
     /**
      * Similar to the container table (see above), we have to make sure that earlier versions of KNIME complain when
@@ -538,6 +592,8 @@ public void close() {
     private static final String TABLE_TYPE_REFERENCE_IN_SAME_NODE = "reference_from_same_node_table";
     private static final String TABLE_TYPE_EXTENSION = "extension_table";
     private static final String TABLE_FILE = "data.zip";
+    /** Directory containing the table files if saved with {@link KNIMEConstants#PROPERTY_TABLE_SAVE_AS_FILES}. */
+    private static final String TABLE_DIR = "data";
     private static final String TABLE_DESCRIPTION_FILE = "data.xml";
     private static final String TABLE_SPEC_FILE = "spec.xml";
 
@@ -563,21 +619,37 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
             s.addString(CFG_TABLE_TYPE, TABLE_TYPE_REFERENCE_IN_SAME_NODE);
         } else if (m_delegate instanceof ContainerTable) {
             final TableStoreFormat format = ((ContainerTable)m_delegate).getTableStoreFormat();
+            String tableType;
             if (!DefaultTableStoreFormat.class.equals(format.getClass())) {
                 // use different identifier to cause old versions of KNIME to fail loading newer workflows
-                s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER_CUSTOM);
+                tableType = TABLE_TYPE_CONTAINER_CUSTOM;
                 s.addString(CFG_TABLE_CONTAINER_FORMAT, format.getClass().getName());
                 s.addString(CFG_TABLE_CONTAINER_FORMAT_VERSION, format.getVersion());
             } else {
                 final DefaultTableStoreFormat defaultFormat = (DefaultTableStoreFormat)format;
                 if (!Arrays.asList(NONE, GZIP).contains(defaultFormat.getCompressionFormat())) {
-                    s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER_COMPRESS);
+                    tableType = TABLE_TYPE_CONTAINER_COMPRESS;
                     s.addString(CFG_TABLE_COMPRESSION_FORMAT, defaultFormat.getCompressionFormat().toString());
                 } else {
-                    s.addString(CFG_TABLE_TYPE, TABLE_TYPE_CONTAINER);
+                    tableType = TABLE_TYPE_CONTAINER;
                 }
             }
-            m_delegate.saveToFile(outFile, s, exec);
+            if (((ContainerTable)m_delegate).hasImplicitRowKeys()) {
+                tableType = TABLE_TYPE_CONTAINER_IMPLICIT_KEYS;
+            }
+            final boolean saveAsFiles = Boolean.getBoolean(KNIMEConstants.PROPERTY_TABLE_SAVE_AS_FILES);
+            s.addString(CFG_TABLE_TYPE, saveAsFiles ? TABLE_TYPE_CONTAINER_FILES : tableType);
+            // added in 4.2 -- allows to determine the row count without extracting the table after load
+            s.addLong(CFG_TABLE_ROW_COUNT, m_delegate.size());
+            if (saveAsFiles) {
+                outFile = new File(dir, TABLE_DIR);
+                if (!outFile.mkdir() && !outFile.isDirectory()) {
+                    throw new IOException("Could not create directory " + outFile.getAbsolutePath());
+                }
+                ((ContainerTable)m_delegate).saveToDirectory(outFile, exec);
+            } else {
+                m_delegate.saveToFile(outFile, s, exec);
+            }
         } else {
             if (m_delegate instanceof RearrangeColumnsTable) {
                 final ContainerTable appendTable = ((RearrangeColumnsTable)m_delegate).getAppendTable();
@@ -638,10 +710,15 @@ void save(final File dir, final Set<Integer> savedTableIDs, final ExecutionMonit
         }
         // only write the data file to the settings if it has been created
         if (outFile.exists()) {
-            s.addString(CFG_TABLE_FILE_NAME, TABLE_FILE);
+            s.addString(CFG_TABLE_FILE_NAME, outFile.getName());
         } else {
             s.addString(CFG_TABLE_FILE_NAME, null);
         }
+        final Optional<String> fingerprint = getKnownContentFingerprint();
+        if (fingerprint.isPresent()) {
+            // added in 4.2
+            s.addString(CFG_TABLE_CONTENT_FINGERPRINT, fingerprint.get());
+        }
         saveSpec(getDataTableSpec(), dir);
         File dataXML = new File(dir, TABLE_DESCRIPTION_FILE);
         try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dataXML))) {
@@ -751,7 +828,8 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
             if (!file.exists()) {
                 throw new IOException("No such data file: " + fileRef);
             }
-            if (!file.isFile() || !file.canRead()) {
+            // a directory if saved as TABLE_TYPE_CONTAINER_FILES, the type is checked below
+            if (!(file.isFile() || file.isDirectory()) || !file.canRead()) {
                 throw new IOException("Cannot read file " + fileRef);
             }
         } else {
@@ -767,6 +845,20 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
         if (Arrays.asList(TABLE_TYPE_CONTAINER_COMPRESS, TABLE_TYPE_REARRANGE_COLUMN_COMPRESS).contains(tableType)) {
             checkCompression(s);
         }
+        if (Arrays.asList(TABLE_TYPE_CONTAINER_FILES, TABLE_TYPE_CONTAINER_IMPLICIT_KEYS).contains(tableType)) {
+            if (s.containsKey(CFG_TABLE_CONTAINER_FORMAT)) {
+                checkFormat(s);
+            }
+            if (s.containsKey(CFG_TABLE_COMPRESSION_FORMAT)) {
+                checkCompression(s);
+            }
+        }
+        if (TABLE_TYPE_CONTAINER_FILES.equals(tableType)) {
+            CheckUtils.checkSetting(fileRef != null && fileRef.getFile().isDirectory(),
+                "No table directory for table of type \"%s\": %s", tableType, fileRef);
+        } else if (fileRef != null && !fileRef.getFile().isFile()) {
+            throw new IOException("Cannot read file " + fileRef);
+        }
 
         switch (tableType) {
             case TABLE_TYPE_REFERENCE_IN_SAME_NODE:
@@ -783,7 +875,10 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
                 }
             case TABLE_TYPE_CONTAINER_CUSTOM: // added in 3.6
             case TABLE_TYPE_CONTAINER_COMPRESS: // added in 4.0
-                final ContainerTable cont = BufferedDataContainer.readFromZipDelayed(fileRef, spec, id, dataRepository);
+            case TABLE_TYPE_CONTAINER_FILES: // added in 4.2
+            case TABLE_TYPE_CONTAINER_IMPLICIT_KEYS: // added in 4.2
+                final ContainerTable cont = BufferedDataContainer.readFromZipDelayed(fileRef, spec, id, dataRepository,
+                    s.getLong(CFG_TABLE_ROW_COUNT, -1L));
                 t = new BufferedDataTable(cont, id);
                 break;
             case TABLE_TYPE_REARRANGE_COLUMN_CUSTOM:
@@ -848,6 +943,7 @@ static BufferedDataTable loadFromFile(final ReferencedFile dirRef,
                 throw new InvalidSettingsException("Unknown table identifier: " + tableType);
         }
         t.m_tableID = id;
+        t.m_contentFingerprint = s.getString(CFG_TABLE_CONTENT_FINGERPRINT, null);
         tblRep.put(id, t);
         return t;
     }
@@ -1057,6 +1153,20 @@ default CloseableRowIterator iteratorWithFilter(final TableFilter filter) {
          */
         boolean removeFromTableRepository(final WorkflowDataRepository dataRepository);
 
+        /**
+         * Computes the fingerprint of this table's content, see
+         * {@link BufferedDataTable#getContentFingerprint(ExecutionMonitor)}. The default implementation reads the
+         * entire table; tables composed of other tables combine the fingerprints of those instead.
+         *
+         * @param exec for progress/cancelation
+         * @return the fingerprint
+         * @throws CanceledExecutionException if canceled
+         * @since 4.2
+         */
+        default String getContentFingerprint(final ExecutionMonitor exec) throws CanceledExecutionException {
+            return TableFingerprint.compute(this, exec);
+        }
+
         /**
          * Checks if the row count is greater than {@link Integer#MAX_VALUE}. If this is the case an exception is
          * thrown, otherwise the number of rows is returned as an int.
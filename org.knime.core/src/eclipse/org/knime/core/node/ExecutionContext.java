@@ -75,8 +75,10 @@
 import org.knime.core.node.util.KNIMEJob;
 import org.knime.core.node.workflow.LoopEndNode;
 import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBodyNodeModel;
 import org.knime.core.node.workflow.virtual.subnode.VirtualSubNodeOutputNodeModel;
 import org.knime.core.util.DuplicateKeyException;
+import org.knime.core.util.VirtualThreadExecutor;
 
 /**
  * An <code>ExecutionContext</code> provides storage capacities during a
@@ -357,13 +359,38 @@ public BufferedDataContainer createDataContainer(final DataTableSpec spec,
      */
     public BufferedDataContainer createDataContainer(final DataTableSpec spec,
             final boolean initDomain, final int maxCellsInMemory) {
-        boolean forceCopyOfBlobs = m_node.isModelCompatibleTo(LoopEndNode.class)
-                || m_node.isModelCompatibleTo(VirtualSubNodeOutputNodeModel.class);
         return new BufferedDataContainer(spec, initDomain, m_node,
-                m_memoryPolicy, forceCopyOfBlobs, maxCellsInMemory, m_dataRepository,
+                m_memoryPolicy, isForceCopyOfBlobs(), maxCellsInMemory, m_dataRepository,
                 m_localTableRepository, m_fileStoreHandler);
     }
 
+    /**
+     * Creates a container whose row keys are implicit: the <i>i</i>-th row added to the container must have the key
+     * {@link org.knime.core.data.RowKey#createRowKey(long) RowKey.createRowKey(i)}, otherwise an
+     * {@link IllegalArgumentException} is thrown when adding the row. As such keys are unique by definition, the
+     * container neither checks them for duplicates nor stores them; they are recreated when the table is read. Use this
+     * method for tables that have no meaningful row keys, e.g. freshly generated or read data. Otherwise it behaves as
+     * {@link #createDataContainer(DataTableSpec, boolean)}.
+     *
+     * @param spec The spec to open the container.
+     * @param initDomain If the domain information from the argument shall be used to initialize the domain (min, max,
+     *            possible values). If false, the domain will be determined on the fly.
+     * @return A container to which rows can be added and which provides the <code>BufferedDataTable</code>.
+     * @throws NullPointerException If the spec argument is <code>null</code>.
+     * @since 4.2
+     */
+    public BufferedDataContainer createDataContainerWithImplicitRowKeys(final DataTableSpec spec,
+        final boolean initDomain) {
+        return new BufferedDataContainer(spec, initDomain, m_node, m_memoryPolicy, isForceCopyOfBlobs(), -1,
+            m_dataRepository, m_localTableRepository, m_fileStoreHandler, true);
+    }
+
+    private boolean isForceCopyOfBlobs() {
+        return m_node.isModelCompatibleTo(LoopEndNode.class)
+                || m_node.isModelCompatibleTo(VirtualSubNodeOutputNodeModel.class)
+                || m_node.isModelCompatibleTo(VirtualParallelizedChunkBodyNodeModel.class);
+    }
+
     /**
      * Creates a new <code>BufferedDataTable</code> based on a given input table
      * (<code>in</code>) whereby only some of the columns of <code>in</code>
@@ -709,4 +736,25 @@ public PortObject[] call() throws Exception {
 
         return KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(task);
     }
+
+    /**
+     * Submits a job that mostly waits for I/O (e.g. database queries or HTTP requests) for execution. Unlike
+     * {@link #submitJob(PortObject[], NodeSettingsRO, Class, ExecutionMonitor)} the job does not occupy a thread of the
+     * global thread pool but is run on a virtual thread, if supported by the Java runtime. The number of concurrently
+     * running I/O-bound jobs is limited separately, see {@link KNIMEConstants#PROPERTY_MAX_VIRTUAL_THREAD_JOBS}. The
+     * current node context is available in the job and cancelling the returned future interrupts the job.
+     *
+     * @param input the input data for the job
+     * @param settings the settings for the job
+     * @param jobClass the job's class
+     * @param exec the execution monitor
+     * @return a future holding the job's results
+     * @throws NoSuchMethodException of the job class does not have a default constructor
+     * @since 4.2
+     */
+    public Future<PortObject[]> submitIOBoundJob(final PortObject[] input, final NodeSettingsRO settings,
+        final Class<? extends KNIMEJob> jobClass, final ExecutionMonitor exec) throws NoSuchMethodException {
+        final Constructor<? extends KNIMEJob> cons = jobClass.getConstructor();
+        return VirtualThreadExecutor.getInstance().submit(() -> cons.newInstance().run(input, settings, this));
+    }
 }
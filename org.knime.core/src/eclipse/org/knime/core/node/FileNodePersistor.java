@@ -156,6 +156,9 @@ public class FileNodePersistor implements NodePersistor {
 
     private PortObject[] m_portObjects;
 
+    /** Non-null entries for port objects whose restoration is deferred until first access. */
+    private PortObjectLoadTask[] m_portObjectLoadTasks;
+
     private PortObjectSpec[] m_portObjectSpecs;
 
     private String[] m_portObjectSummaries;
@@ -344,6 +347,7 @@ void loadPort(final Node node, final ReferencedFile portDir, final NodeSettingsR
         PortType designatedType = node.getOutputType(portIdx);
         PortObjectSpec spec = null;
         PortObject object = null;
+        PortObjectLoadTask objectLoadTask = null;
         // this cannot be simplified as BDT must be loaded as BDT even if
         // the port type is not BDT (but general PortObject)
         boolean isBDT =
@@ -368,6 +372,13 @@ void loadPort(final Node node, final ReferencedFile portDir, final NodeSettingsR
             } else if (specClass != null) {
                 spec = BufferedDataTable.loadSpec(portDir);
             }
+        } else if (!isInactive && isDeferredPortObject(settings, designatedType)) {
+            // only read the spec now, the object is restored when first accessed
+            spec = loadPortObjectSpec(portDir, settings);
+            final PortObjectSpec objectSpec = spec;
+            final LoadVersion loadVersion = getLoadVersion();
+            objectLoadTask = new PortObjectLoadTask(portDir, spec, e -> loadPortObject(portDir, settings,
+                objectClass, objectSpec, e, dataRepository, loadVersion));
         } else {
             object = loadPortObject(portDir, settings, exec, dataRepository).orElse(null);
             spec = object != null ? object.getSpec() : null;
@@ -390,10 +401,34 @@ void loadPort(final Node node, final ReferencedFile portDir, final NodeSettingsR
             if (summary == null) {
                 summary = object.getSummary();
             }
+        } else if (objectLoadTask != null) {
+            summary = settings.getString("port_object_summary");
         }
         setPortObjectSpec(portIdx, spec);
         setPortObject(portIdx, object);
         setPortObjectSummary(portIdx, summary);
+        m_portObjectLoadTasks[portIdx] = objectLoadTask;
+    }
+
+    /**
+     * Whether the port object described by the argument settings is restored on first access rather than during
+     * load. This is the case if the summary was saved (so no object is needed to display the port's state) and the
+     * saved object class is compatible with the port type. Can be disabled via
+     * {@link KNIMEConstants#PROPERTY_EAGER_PORT_OBJECT_LOADING}.
+     */
+    private boolean isDeferredPortObject(final NodeSettingsRO settings, final PortType designatedType)
+        throws InvalidSettingsException {
+        if (Boolean.getBoolean(KNIMEConstants.PROPERTY_EAGER_PORT_OBJECT_LOADING)) {
+            return false;
+        }
+        final String specClass = settings.getString("port_spec_class");
+        final String objectClass = loadPortObjectClassName(settings);
+        if (specClass == null || objectClass == null || settings.getString("port_object_summary", null) == null) {
+            return false;
+        }
+        // incompatible or unknown classes are loaded (and reported) right away
+        return PortTypeRegistry.getInstance().getObjectClass(objectClass)
+            .filter(designatedType.getPortObjectClass()::isAssignableFrom).isPresent();
     }
 
     /**
@@ -411,9 +446,19 @@ private Optional<PortObject> loadPortObject(final ReferencedFile portDir, final
         final ExecutionMonitor exec, final WorkflowDataRepository dataRepository)
             throws IOException, InvalidSettingsException, FileNotFoundException, CanceledExecutionException {
         exec.setMessage("Loading port object");
-        final String specClass = settings.getString("port_spec_class");
         final String objectClass = loadPortObjectClassName(settings);
         PortObject object = null;
+        PortObjectSpec spec = loadPortObjectSpec(portDir, settings);
+        if (spec != null && objectClass != null) {
+            object = loadPortObject(portDir, settings, objectClass, spec, exec, dataRepository, getLoadVersion());
+        }
+        return Optional.ofNullable(object);
+    }
+
+    /** Reads the spec of a (non-table) port object, returns null if no spec was saved. */
+    private static PortObjectSpec loadPortObjectSpec(final ReferencedFile portDir, final NodeSettingsRO settings)
+        throws IOException, InvalidSettingsException {
+        final String specClass = settings.getString("port_spec_class");
         PortObjectSpec spec = null;
         if (specClass != null) {
             Class<? extends PortObjectSpec> cl = PortTypeRegistry.getInstance().getSpecClass(specClass)
@@ -433,41 +478,56 @@ private Optional<PortObject> loadPortObject(final ReferencedFile portDir, final
                 }
             }
         }
-        if (spec != null && objectClass != null) {
-            Class<? extends PortObject> cl = PortTypeRegistry.getInstance().getObjectClass(objectClass)
-                    .orElseThrow(() -> new IOException("Invalid object class \"" + objectClass + "\""));
-            ReferencedFile objectFileRef = new ReferencedFile(portDir, settings.getString("port_object_location"));
-            File objectFile = objectFileRef.getFile();
-            if (!objectFile.isFile()) {
-                throw new IOException("Can't read file " + objectFile.getAbsolutePath());
-            }
-            // buffering both disc I/O and the gzip stream pays off
-            try (PortObjectZipInputStream in = PortUtil.getPortObjectZipInputStream(
-                new BufferedInputStream(new FileInputStream(objectFile)))) {
-                PortObjectSerializer<?> serializer = PortTypeRegistry.getInstance().getObjectSerializer(cl).get();
-                object = serializer.loadPortObject(in, spec, exec);
-            }
-            if (object instanceof FileStorePortObject) {
-                File fileStoreXML = new File(objectFile.getParent(), "filestore.xml");
-                final ModelContentRO fileStoreModelContent =
-                        ModelContent.loadFromXML(new FileInputStream(fileStoreXML));
-                List<FileStoreKey> fileStoreKeys = new ArrayList<FileStoreKey>();
-                if (getLoadVersion().isOlderThan(LoadVersion.V2100)) {
-                    // only one filestore in <2.10 (bug 5227)
-                    FileStoreKey fileStoreKey = FileStoreKey.load(fileStoreModelContent);
-                    fileStoreKeys.add(fileStoreKey);
-                } else {
-                    ModelContentRO keysContent = fileStoreModelContent.getModelContent("filestore_keys");
-                    for (String id : keysContent.keySet()) {
-                        ModelContentRO keyContent = keysContent.getModelContent(id);
-                        fileStoreKeys.add(FileStoreKey.load(keyContent));
-                    }
+        return spec;
+    }
+
+    /**
+     * Reads a (non-table) port object, including the retrieval of its file stores. Static as it's also called after
+     * load (via {@link PortObjectLoadTask}) and must not keep a reference to the persistor.
+     */
+    private static PortObject loadPortObject(final ReferencedFile portDir, final NodeSettingsRO settings,
+        final String objectClass, final PortObjectSpec spec, final ExecutionMonitor exec,
+        final WorkflowDataRepository dataRepository, final LoadVersion loadVersion)
+        throws IOException, InvalidSettingsException, CanceledExecutionException {
+        Class<? extends PortObject> cl = PortTypeRegistry.getInstance().getObjectClass(objectClass)
+                .orElseThrow(() -> new IOException("Invalid object class \"" + objectClass + "\""));
+        ReferencedFile objectFileRef = new ReferencedFile(portDir, settings.getString("port_object_location"));
+        File objectFile = objectFileRef.getFile();
+        if (!objectFile.isFile()) {
+            throw new IOException("Can't read file " + objectFile.getAbsolutePath());
+        }
+        PortObject object;
+        // buffering both disc I/O and the gzip stream pays off
+        try (PortObjectZipInputStream in = PortUtil.getPortObjectZipInputStream(
+            new BufferedInputStream(new FileInputStream(objectFile)))) {
+            PortObjectSerializer<?> serializer = PortTypeRegistry.getInstance().getObjectSerializer(cl).get();
+            object = serializer.loadPortObject(in, spec, exec);
+        }
+        // added in 4.2
+        final String fingerprint = settings.getString("port_object_fingerprint", null);
+        if (fingerprint != null && object != null) {
+            PortUtil.setContentFingerprint(object, fingerprint);
+        }
+        if (object instanceof FileStorePortObject) {
+            File fileStoreXML = new File(objectFile.getParent(), "filestore.xml");
+            final ModelContentRO fileStoreModelContent =
+                    ModelContent.loadFromXML(new FileInputStream(fileStoreXML));
+            List<FileStoreKey> fileStoreKeys = new ArrayList<FileStoreKey>();
+            if (loadVersion.isOlderThan(LoadVersion.V2100)) {
+                // only one filestore in <2.10 (bug 5227)
+                FileStoreKey fileStoreKey = FileStoreKey.load(fileStoreModelContent);
+                fileStoreKeys.add(fileStoreKey);
+            } else {
+                ModelContentRO keysContent = fileStoreModelContent.getModelContent("filestore_keys");
+                for (String id : keysContent.keySet()) {
+                    ModelContentRO keyContent = keysContent.getModelContent(id);
+                    fileStoreKeys.add(FileStoreKey.load(keyContent));
                 }
-                FileStoreUtil.retrieveFileStoreHandlerFrom(
-                    (FileStorePortObject)object, fileStoreKeys, dataRepository);
             }
+            FileStoreUtil.retrieveFileStoreHandlerFrom(
+                (FileStorePortObject)object, fileStoreKeys, dataRepository);
         }
-        return Optional.ofNullable(object);
+        return object;
     }
 
     private BufferedDataTable loadBufferedDataTable(final ReferencedFile objectDir, final ExecutionMonitor exec,
@@ -952,6 +1012,7 @@ public final void load(final Node node, final WorkflowPersistor parentPersistor,
         ExecutionMonitor loadIntTblsExec = exec.createSilentSubProgress(0.2);
         exec.setMessage("settings");
         m_portObjects = new PortObject[node.getNrOutPorts()];
+        m_portObjectLoadTasks = new PortObjectLoadTask[node.getNrOutPorts()];
         m_portObjectSpecs = new PortObjectSpec[node.getNrOutPorts()];
         m_portObjectSummaries = new String[node.getNrOutPorts()];
         String nodeName = node.getName();
@@ -991,7 +1052,11 @@ public final void load(final Node node, final WorkflowPersistor parentPersistor,
         exec.setMessage("ports");
         try {
             if (!loadHelper.isTemplateFlow()) {
+                final long start = System.currentTimeMillis();
                 loadPorts(node, loadExec, m_settings, loadTblRep, dataRepository);
+                final long deferredCount = Arrays.stream(m_portObjectLoadTasks).filter(t -> t != null).count();
+                getLogger().debugWithFormat("Loaded ports of node \"%s\" in %d ms (%d port object(s) deferred to "
+                    + "first access)", nodeName, System.currentTimeMillis() - start, deferredCount);
             }
         } catch (Exception e) {
             if (!(e instanceof InvalidSettingsException) && !(e instanceof IOException)) {
@@ -1064,9 +1129,23 @@ public PortObject getPortObject(final int outportIndex) {
                 return FlowVariablePortObject.INSTANCE;
             }
         }
+        final PortObjectLoadTask objectLoadTask = getPortObjectLoadTask(outportIndex);
+        if (objectLoadTask != null) {
+            // e.g. referenced by an internally held object -- needs to be the same instance as the node's output
+            return objectLoadTask.get();
+        }
         return m_portObjects[outportIndex];
     }
 
+    /**
+     * @param outportIndex The outport index.
+     * @return the task restoring the port object on first access or null if the port object was loaded with the
+     *         workflow (or there is no object)
+     */
+    PortObjectLoadTask getPortObjectLoadTask(final int outportIndex) {
+        return m_portObjectLoadTasks == null ? null : m_portObjectLoadTasks[outportIndex];
+    }
+
     /**
      * @param idx The outport index.
      * @param portObject the portObjects to set
@@ -1074,6 +1153,7 @@ public PortObject getPortObject(final int outportIndex) {
     void setPortObject(final int idx, final PortObject portObject) {
         checkPortIndexOnSet(idx);
         m_portObjects[idx] = portObject;
+        m_portObjectLoadTasks[idx] = null;
     }
 
     private void checkPortIndexOnSet(final int index) {
@@ -1363,8 +1443,11 @@ private static void savePortObject(final PortObjectSpec spec, final PortObject o
 
         File specFile = new File(specDir, specFileName);
         settings.addString("port_spec_location", specPath);
-        try (PortObjectSpecZipOutputStream out = PortUtil.getPortObjectSpecZipOutputStream(
-            new BufferedOutputStream(new FileOutputStream(specFile)))) {
+        // kept to compute the object's fingerprint once the object is written
+        final PortObjectSpecZipOutputStream specOut =
+            PortUtil.getPortObjectSpecZipOutputStreamWithContentDigest(
+                new BufferedOutputStream(new FileOutputStream(specFile)));
+        try (PortObjectSpecZipOutputStream out = specOut) {
             PortObjectSpecSerializer serializer =
                     PortTypeRegistry.getInstance().getSpecSerializer(spec.getClass()).get();
             serializer.savePortObjectSpec(spec, out);
@@ -1379,8 +1462,8 @@ private static void savePortObject(final PortObjectSpec spec, final PortObject o
         objectPath = objectDirName + "/" + objectFileName;
         settings.addString("port_object_location", objectPath);
         File file = new File(objectDir, objectFileName);
-        try (PortObjectZipOutputStream out =
-            PortUtil.getPortObjectZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+        try (PortObjectZipOutputStream out = PortUtil.getPortObjectZipOutputStreamWithContentDigest(
+            new BufferedOutputStream(new FileOutputStream(file)))) {
             PortObjectSerializer serializer =
                     PortTypeRegistry.getInstance().getObjectSerializer(object.getClass()).get();
             serializer.savePortObject(object, out, exec);
@@ -1397,6 +1480,8 @@ private static void savePortObject(final PortObjectSpec spec, final PortObject o
                 }
                 fileStoreModelContent.saveToXML(new FileOutputStream(fileStoreXML));
             }
+            // added in 4.2
+            settings.addString("port_object_fingerprint", PortUtil.createContentFingerprint(object, specOut, out));
         }
     }
 
@@ -74,6 +74,7 @@
 import org.knime.core.internal.ConfigurationAreaChecker;
 import org.knime.core.internal.KNIMEPath;
 import org.knime.core.util.ThreadPool;
+import org.knime.core.util.WorkStealingThreadPool;
 import org.osgi.framework.Bundle;
 
 /**
@@ -110,6 +111,87 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_MAX_THREAD_COUNT = "org.knime.core.maxThreads";
 
+    /**
+     * Java property name to specify the order in which node executions that wait for a free thread are started by the
+     * default (threaded) job manager. Possible values are {@code fifo} (default, start in queuing order),
+     * {@code critical-path} (start the nodes with the longest estimated remaining path first, based on the previous
+     * execution durations of the nodes) and {@code critical-path-fair} (like {@code critical-path} but distribute the
+     * threads evenly among the workflows that have nodes waiting).
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_NODE_SCHEDULING = "knime.execution.scheduling";
+
+    /**
+     * Java property name to switch the global thread pool to a work-stealing implementation, which distributes many
+     * small jobs with less contention than the default pool. Set to {@code true} to enable it.
+     *
+     * @since 4.2
+     * @see org.knime.core.util.WorkStealingThreadPool
+     */
+    public static final String PROPERTY_WORK_STEALING_THREAD_POOL = "knime.threadpool.workstealing";
+
+    /**
+     * Java property name to specify the maximum number of I/O-bound jobs that are run concurrently on virtual threads
+     * (or dedicated platform threads if the Java runtime does not support virtual threads). This limit is independent
+     * of {@link #PROPERTY_MAX_THREAD_COUNT}. The default is 256.
+     *
+     * @since 4.2
+     * @see org.knime.core.util.VirtualThreadExecutor
+     */
+    public static final String PROPERTY_MAX_VIRTUAL_THREAD_JOBS = "knime.execution.virtualthreads.max";
+
+    /**
+     * Java property name to execute the chunks of parallel chunk loops without copying the loop body for each chunk.
+     * If set to {@code true}, each chunk is represented by a single node that runs the loop body's nodes internally,
+     * which is considerably cheaper for large loop bodies and many chunks. Loop bodies that contain metanodes,
+     * components or nested loops are still copied.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_VIRTUAL_PARALLEL_CHUNKS = "knime.parallelchunks.virtual";
+
+    /**
+     * Java property name to specify a directory in which the outputs of cacheable nodes are kept across sessions. If
+     * set, a node whose settings, flow variables and input data equal those of an earlier execution takes its output
+     * from the cache instead of executing again. Only nodes that implement
+     * {@link org.knime.core.node.exec.CacheableNode} or that are listed in
+     * {@link #PROPERTY_NODE_OUTPUT_CACHE_FACTORIES} are cached. The cache is disabled by default.
+     *
+     * @since 4.2
+     * @see #PROPERTY_NODE_OUTPUT_CACHE_SIZE
+     */
+    public static final String PROPERTY_NODE_OUTPUT_CACHE_DIR = "knime.node.outputcache.dir";
+
+    /**
+     * Java property name to specify the maximum size of the node output cache in MB, see
+     * {@link #PROPERTY_NODE_OUTPUT_CACHE_DIR}. Least recently used entries are deleted once the size is exceeded. The
+     * default is 10240 (10 GB).
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_NODE_OUTPUT_CACHE_SIZE = "knime.node.outputcache.size";
+
+    /**
+     * Java property name to specify a comma separated list of node factory class names whose nodes are cached in the
+     * node output cache (see {@link #PROPERTY_NODE_OUTPUT_CACHE_DIR}) in addition to those implementing
+     * {@link org.knime.core.node.exec.CacheableNode}. Only list nodes whose output solely depends on their settings,
+     * flow variables and input data, e.g. no readers of external resources or nodes with side effects.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_NODE_OUTPUT_CACHE_FACTORIES = "knime.node.outputcache.factories";
+
+    /**
+     * Java property name to calculate column sketches while tables are written, i.e. the number of missing values,
+     * the approximate number of distinct values, quantiles of numeric columns and the most frequent values of string
+     * columns. The sketches are stored as meta data in the table spec. Set to {@code true} to enable them.
+     *
+     * @since 4.2
+     * @see org.knime.core.data.meta.sketch
+     */
+    public static final String PROPERTY_COLUMN_SKETCHES = "knime.data.columnsketches";
+
     /**
      * Java property name to specify the default temp directory for KNIME temp files (such as data files). This can be
      * changed in the preference pages and is by default the same as the java.io.tmpdir
@@ -196,6 +278,15 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_TABLE_CACHE = "knime.table.cache";
 
+    /**
+     * Java property to enable/disable keeping tables that only consist of int, long, double and boolean columns in
+     * memory as primitive arrays instead of one cell object per value. Cells are then only created on access. The
+     * default is {@code false}.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_PACKED_ROWS = "knime.table.packedrows";
+
     /**
      * Java property to discourage KNIME from triggering a full stop-the-world garbage collection. Note that (a)
      * individual nodes are allowed to disregard this setting and (b) the garbage collector may independently decide
@@ -222,6 +313,65 @@ public final class KNIMEConstants {
     @Deprecated
     public static final String PROPERTY_TABLE_GZIP_COMPRESSION = PROPERTY_TABLE_COMPRESSION;
 
+    /**
+     * Java property to save node output tables as plain files in the node directory instead of a <i>data.zip</i> file.
+     * The temp files holding the table data are then hard-linked into the workflow (or copied if the file system does
+     * not support hard links) rather than being re-read and streamed into a zip archive, which avoids duplicating the
+     * disk I/O for large tables. The default is {@code false}.
+     * <p>
+     * <strong>Warning:</strong> Workflows saved with this property enabled can't be read by KNIME versions prior 4.2.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_TABLE_SAVE_AS_FILES = "knime.table.save.files";
+
+    /**
+     * Java property to compute the content fingerprint of tables while they are written (see
+     * {@link BufferedDataTable#getContentFingerprint(ExecutionMonitor)}). If not set, a table's fingerprint is only
+     * computed when first requested, which requires a full scan of the table. The default is {@code false}.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_TABLE_FINGERPRINTS = "knime.table.fingerprints";
+
+    /**
+     * Java property to set the number of row batches that are read ahead on a background thread when iterating a large
+     * table that is stored on disk (see {@link org.knime.core.data.container.PrefetchingRowIterator}). The size of a
+     * batch is defined by {@link #PROPERTY_ASYNC_WRITE_CACHE_SIZE}. A value of 0 disables prefetching, the default
+     * is 4.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_TABLE_PREFETCH_DEPTH = "knime.table.prefetch.depth";
+
+    /**
+     * Java property to set the memory budget (in MB) of a workflow, i.e. the (estimated) amount of memory that all
+     * tables created in the workflow may occupy while being held in memory. Once the budget is exceeded, tables are
+     * written to disk (see {@link org.knime.core.data.container.MemoryBudget}). If not set, the budget is unlimited and
+     * memory is only accounted for; tables are then written to disk only if memory becomes critical.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_WORKFLOW_MEMORY_BUDGET = "knime.workflow.memorybudget";
+
+    /**
+     * Java property to choose which tables are written to disk first once the memory budget of a workflow (see
+     * {@link #PROPERTY_WORKFLOW_MEMORY_BUDGET}) is exceeded: "largest" (the default) writes the largest tables first,
+     * "lru" writes the least recently used tables first.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_WORKFLOW_MEMORY_BUDGET_POLICY = "knime.workflow.memorybudget.policy";
+
+    /**
+     * Java property to restore all (non-table) port objects when a workflow is loaded. If not set, only the spec and
+     * the summary of a saved port object are read during load; the object itself is restored when it is first
+     * accessed, e.g. when a downstream node executes or a port view is opened. The default is {@code false}.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_EAGER_PORT_OBJECT_LOADING = "knime.workflow.eagerportobjects";
+
     /** Java property to enable/disable row ID duplicate checks on tables.
      * Tables in KNIME are supposed to have unique IDs, whereby the uniqueness
      * is asserted using a duplicate checker. This property will disable this
@@ -263,6 +413,15 @@ public final class KNIMEConstants {
     // see AP-6752
     public static final String PROPERTY_XML_DISABLE_EXT_ENTITIES = "knime.xml.disable_external_entities";
 
+    /**
+     * Java property name to specify the size (in characters) from which the serialized form of XML cells is kept
+     * compressed in memory. Compressed documents need less heap but have to be decompressed whenever their string
+     * representation or their DOM is accessed. By default XML cells are not compressed.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_XML_COMPRESSION_THRESHOLD = "knime.xml.compressionthreshold";
+
     /** For KNIME's R extension: Run the R process in debug mode and print debug messages to the logging facilities.
      * Value is true or false (default).
      * @since 3.2*/
@@ -358,6 +517,35 @@ public final class KNIMEConstants {
    public static final String PROPERTY_DISABLE_LOG4J_CONFIG =
        "knime.log4j.config.disabled";
 
+    /**
+     * Java property to write log messages to the log files (the global <i>knime.log</i> and the workflow relative log
+     * files) asynchronously. Messages are then handed over to a background thread through a bounded buffer and written
+     * in batches instead of being written and flushed on the logging thread. The default is {@code false}.
+     *
+     * @since 4.2
+     * @see #PROPERTY_ASYNC_LOGGING_BUFFER_SIZE
+     * @see #PROPERTY_ASYNC_LOGGING_POLICY
+     */
+    public static final String PROPERTY_ASYNC_LOGGING = "knime.logging.async";
+
+    /**
+     * Java property to set the number of log messages that can be queued for asynchronous logging, see
+     * {@link #PROPERTY_ASYNC_LOGGING}. The value is rounded up to the next power of two, the default is 8192.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_ASYNC_LOGGING_BUFFER_SIZE = "knime.logging.async.buffersize";
+
+    /**
+     * Java property to define what happens if the buffer for asynchronous logging is full, see
+     * {@link #PROPERTY_ASYNC_LOGGING}. With {@code block} (the default) the logging thread waits until the message can
+     * be queued; with {@code drop} debug and info messages are discarded (and the number of discarded messages is
+     * logged later on) whereas more severe messages still wait.
+     *
+     * @since 4.2
+     */
+    public static final String PROPERTY_ASYNC_LOGGING_POLICY = "knime.logging.async.policy";
+
    /**
     * Java property for doing all dialog operations automatically in the
     * AWT event dispatch thread.
@@ -511,7 +699,8 @@ public static Optional<ImageIcon> getKNIMEIcon16X16() {
                     + "\"org.knime.core.maxThreads\" (\"" + maxThreadsString
                     + "\") as number: " + nfe.getMessage());
         }
-        GLOBAL_THREAD_POOL = new ThreadPool(maxThreads);
+        GLOBAL_THREAD_POOL = Boolean.getBoolean(PROPERTY_WORK_STEALING_THREAD_POOL)
+            ? new WorkStealingThreadPool(maxThreads) : new ThreadPool(maxThreads);
         boolean flag;
         try {
             assert false;
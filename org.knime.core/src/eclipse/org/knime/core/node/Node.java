@@ -55,6 +55,7 @@
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,6 +67,7 @@
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.lang3.ArrayUtils;
@@ -84,11 +86,13 @@
 import org.knime.core.node.context.NodeCreationConfiguration;
 import org.knime.core.node.dialog.ValueControlledDialogPane;
 import org.knime.core.node.dialog.ValueControlledNode;
+import org.knime.core.node.exec.NodeOutputCache;
 import org.knime.core.node.interactive.InteractiveNode;
 import org.knime.core.node.interactive.InteractiveNodeFactoryExtension;
 import org.knime.core.node.interactive.InteractiveView;
 import org.knime.core.node.interactive.ViewContent;
 import org.knime.core.node.interrupt.InterruptibleNodeModel;
+import org.knime.core.node.port.ImmutablePortObject;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectHolder;
 import org.knime.core.node.port.PortObjectSpec;
@@ -127,6 +131,7 @@
 import org.knime.core.node.workflow.NodeMessageListener;
 import org.knime.core.node.workflow.ScopeEndNode;
 import org.knime.core.node.workflow.ScopeStartNode;
+import org.knime.core.node.workflow.VariableType;
 import org.knime.core.node.workflow.WorkflowDataRepository;
 import org.knime.core.node.workflow.WorkflowPersistor.LoadResult;
 import org.knime.core.node.workflow.execresult.NodeExecutionResult;
@@ -202,6 +207,8 @@ static class Output {
         PortType type;
         PortObjectSpec spec;
         PortObject object;
+        /** Non-null if the object was saved with the workflow and has not been restored yet. */
+        volatile PortObjectLoadTask objectLoadTask;
         HiLiteHandler hiliteHdl;
         String summary;
     }
@@ -391,14 +398,18 @@ public NodeExecutionResult createNodeExecutionResult(
         result.setPortObjectSpecs(poSpecs);
 
         // Add the outgoing flow variables to the execution result
+        result.setFlowVariables(getOutgoingNodeFlowVariables());
+        return result;
+    }
+
+    /** @return the flow variables pushed by the node model, the bottom most element first. */
+    private List<FlowVariable> getOutgoingNodeFlowVariables() {
         FlowObjectStack outgoingStack = m_model.getOutgoingFlowObjectStack();
 
         List<FlowVariable> nodeFlowVars = outgoingStack.getAvailableFlowVariables().values()
             .stream().filter(f -> f.getScope().equals(FlowVariable.Scope.Flow)).collect(Collectors.toList());
         Collections.reverse(nodeFlowVars); // the bottom most element should remain at the bottom of the stack
-
-        result.setFlowVariables(nodeFlowVars);
-        return result;
+        return nodeFlowVars;
     }
 
     /**
@@ -481,6 +492,16 @@ public void loadDataAndInternals(final NodeContentPersistor loader,
                 loader.setNeedsResetAfterLoad();
             }
 
+            PortObjectLoadTask objectLoadTask = loader instanceof FileNodePersistor
+                ? ((FileNodePersistor)loader).getPortObjectLoadTask(i) : null;
+            if (objectLoadTask != null) {
+                // object is restored on first access (the persistor has checked the class already)
+                m_outputs[i].object = null;
+                m_outputs[i].objectLoadTask = objectLoadTask;
+                m_outputs[i].summary = loader.getPortObjectSummary(i);
+                m_outputs[i].hiliteHdl = m_model.getOutHiLiteHandler(i - 1);
+                continue;
+            }
             PortObject obj = loader.getPortObject(i);
             if (checkPortObjectClass(obj, i)) {
                 m_outputs[i].object = obj;
@@ -815,7 +836,32 @@ public PortObjectSpec getOutputSpec(final int index) {
     }
 
     public PortObject getOutputObject(final int index) {
-        return m_outputs[index].object;
+        final Output output = m_outputs[index];
+        final PortObjectLoadTask objectLoadTask = output.objectLoadTask;
+        if (objectLoadTask != null) {
+            synchronized (objectLoadTask) {
+                // another thread may have restored the object while this one was blocked
+                if (output.objectLoadTask != null) {
+                    output.object = objectLoadTask.get();
+                    output.objectLoadTask = null;
+                }
+            }
+        }
+        return output.object;
+    }
+
+    /**
+     * Whether there is an output object at the given port, without restoring the object if it was saved with the
+     * workflow and has not been accessed since the workflow was loaded.
+     *
+     * @param index The output port index.
+     * @return true if {@link #getOutputObject(int)} returns a non-null object.
+     * @since 4.2
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public boolean hasOutputObject(final int index) {
+        final Output output = m_outputs[index];
+        return output.objectLoadTask != null || output.object != null;
     }
 
     public String getOutputObjectSummary(final int index) {
@@ -993,6 +1039,8 @@ public boolean execute(final PortObject[] rawInData, final ExecutionEnvironment
                     newInData[i] = null;  // (checked above)
                 } else if (rawInData[i] instanceof BufferedDataTable) {
                     newInData[i] = rawInData[i];
+                } else if (isImmutable(rawInData[i])) {
+                    newInData[i] = rawInData[i]; // can't be modified by the node, no need to copy
                 } else {
                     exec.setMessage("Copying input object at port " +  i);
                     ExecutionContext subExec = exec.createSubExecutionContext(0.0);
@@ -1013,7 +1061,7 @@ public boolean execute(final PortObject[] rawInData, final ExecutionEnvironment
             try {
                 // INVOKE MODEL'S EXECUTE
                 // (warnings will now be processed "automatically" - we listen)
-                rawOutData = invokeFullyNodeModelExecute(exec, exEnv, newInData);
+                rawOutData = invokeFullyNodeModelExecuteOrLoadFromCache(exec, exEnv, newInData);
             } catch (Throwable th) {
                 boolean isCanceled = th instanceof CanceledExecutionException;
                 isCanceled = isCanceled || th instanceof InterruptedException;
@@ -1236,6 +1284,67 @@ public PortObject[] invokeFullyNodeModelExecute(final ExecutionContext exec, fin
         return m_model.executeModel(inData, exEnv, exec);
     }
 
+    /** Calls {@link #invokeFullyNodeModelExecute(ExecutionContext, ExecutionEnvironment, PortObject[])} unless the
+     * output of the node can be taken from the {@link NodeOutputCache}. Freshly computed output of cacheable nodes is
+     * added to the cache. Problems with the cache are logged and otherwise ignored.
+     * @param exec The execution context.
+     * @param exEnv The execution environment.
+     * @param inData The input data to the node (including flow var port)
+     * @return The output of node, including flow variable port
+     * @throws Exception An exception thrown by the client.
+     */
+    private PortObject[] invokeFullyNodeModelExecuteOrLoadFromCache(final ExecutionContext exec,
+        final ExecutionEnvironment exEnv, final PortObject[] inData) throws Exception {
+        final NodeOutputCache cache = NodeOutputCache.getInstance().orElse(null);
+        // loop bodies are not cached, their intermediate results would only displace useful entries
+        if (cache == null || (exEnv != null && exEnv.reExecute()) || !cache.isCacheable(m_factory, m_model)
+            || getFlowObjectStack().peek(FlowLoopContext.class) != null) {
+            return invokeFullyNodeModelExecute(exec, exEnv, inData);
+        }
+        String key = null;
+        try {
+            NodeSettings settings = new NodeSettings("node");
+            saveModelSettingsTo(settings.addNodeSettings("model"));
+            if (m_creationConfig != null) {
+                // the ports of nodes with dynamic ports are not part of the model settings
+                m_creationConfig.saveSettingsTo(settings);
+            }
+            Collection<FlowVariable> flowVariables =
+                getFlowObjectStack().getAvailableFlowVariables(VariableType.getAllTypes()).values();
+            exec.setMessage("Checking node output cache");
+            key = cache.createKey(m_factory, settings, flowVariables, inData, exec.createSubProgress(0.0));
+            Optional<NodeExecutionResult> cachedResult = cache.load(key, exec.createSubExecutionContext(0.0));
+            if (cachedResult.isPresent()) {
+                LOGGER.debug("Output of node \"" + getName() + "\" taken from node output cache");
+                NodeExecutionResult result = cachedResult.get();
+                result.getFlowVariables().ifPresent(l -> l.stream()
+                    .map(f -> FlowObjectStack.cloneUnsetOwner(f)).forEach(f -> m_model.pushFlowVariable(f)));
+                m_model.setWarningMessage(result.getWarningMessage());
+                m_model.setHasContent(true);
+                return IntStream.range(0, result.getNrOfPortObjects()).mapToObj(result::getPortObject)
+                    .toArray(PortObject[]::new);
+            }
+        } catch (IOException | RuntimeException e) {
+            // a broken cache entry must never fail the node, it is executed normally instead
+            LOGGER.debug("Unable to use node output cache: " + e.getMessage(), e);
+        }
+        exec.setMessage((String)null);
+        PortObject[] rawOutData = invokeFullyNodeModelExecute(exec, exEnv, inData);
+        if (key != null && !(rawOutData[0] instanceof InactiveBranchPortObject)) {
+            NodeExecutionResult result = new NodeExecutionResult();
+            result.setPortObjects(rawOutData);
+            result.setFlowVariables(getOutgoingNodeFlowVariables());
+            result.setWarningMessage(m_model.getWarningMessage());
+            try {
+                exec.setMessage("Adding output to node output cache");
+                cache.store(key, result, exec.createSubProgress(0.0));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Unable to add output to node output cache: " + e.getMessage(), e);
+            }
+        }
+        return rawOutData;
+    }
+
     /** Invokes the corresponding package scope method in class NodeModel. Put here to avoid adding API.
      * @param model to call on.
      * @return result of that call
@@ -1341,10 +1450,12 @@ private boolean setOutPortObjects(final PortObject[] newOutData,
                 BufferedDataTable t = thisTable;
                 t.setOwnerRecursively(this);
                 m_outputs[p].object = t;
+                m_outputs[p].objectLoadTask = null;
                 m_outputs[p].summary = t.getSummary();
                 m_outputs[p].spec = newPortSpec;
             } else {
                 m_outputs[p].object = newOutData[p];
+                m_outputs[p].objectLoadTask = null;
                 if (newOutData[p] != null) {
                     m_outputs[p].spec = newOutData[p].getSpec();
                     m_outputs[p].summary = newOutData[p].getSummary();
@@ -1388,6 +1499,16 @@ public void openFileStoreHandler(final ExecutionContext ec) {
         }
     }
 
+    /**
+     * Whether the argument can be given to the node model without a copy. That is the case if its class itself
+     * declares {@link ImmutablePortObject} (an inherited declaration isn't sufficient as subclasses may add state) and
+     * it has no file stores, which are re-attached by {@link #copyPortObject(PortObject, ExecutionContext)}.
+     */
+    private static boolean isImmutable(final PortObject portObject) {
+        return !(portObject instanceof FileStorePortObject)
+            && Arrays.asList(portObject.getClass().getInterfaces()).contains(ImmutablePortObject.class);
+    }
+
     /** Copies the PortObject so that the copy can be given to the node model
      * implementation (and potentially modified). The copy is carried out by
      * means of the respective serializer (via streams).
@@ -1405,7 +1526,6 @@ public static PortObject copyPortObject(final PortObject portObject,
         if (portObject instanceof BufferedDataTable) {
             throw new IOException("Can't copy BufferedDataTable objects");
         }
-
         // first copy the spec, then copy the object
         final PortObjectSpec s = portObject.getSpec();
         PortObjectSpec.PortObjectSpecSerializer ser =
@@ -1601,6 +1721,7 @@ public void cleanOutPorts(final boolean isLoopRestart) {
             }
             m_outputs[i].spec = null;
             m_outputs[i].object = null;
+            m_outputs[i].objectLoadTask = null;
             m_outputs[i].summary = null;
         }
 
@@ -2441,6 +2562,11 @@ public boolean isInterruptible() {
     /** Ensures that any port object is read for later saving with a
      * newer version. */
     public void ensureOutputDataIsRead() {
+        for (int i = 0; i < m_outputs.length; i++) {
+            if (m_outputs[i].objectLoadTask != null) {
+                getOutputObject(i);
+            }
+        }
         for (Output p : m_outputs) {
             if (p.object instanceof BufferedDataTable) {
                 ((BufferedDataTable)p.object).ensureOpen();
@@ -64,6 +64,7 @@
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Appender;
@@ -95,6 +96,7 @@
 import org.knime.core.node.workflow.WorkflowEvent.Type;
 import org.knime.core.node.workflow.WorkflowListener;
 import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.util.AsyncLogAppender;
 import org.knime.core.util.EclipseUtil;
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.LogfileAppender;
@@ -292,6 +294,9 @@ public void workflowChanged(final WorkflowEvent event) {
     /** Default log file appender. */
     private static final Appender LOG_FILE_APPENDER;
 
+    /** Whether the log file appenders write asynchronously, see {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING}. */
+    private static final boolean ASYNC_LOGGING = Boolean.getBoolean(KNIMEConstants.PROPERTY_ASYNC_LOGGING);
+
     private static boolean LOG_IN_WF_DIR = false;
 
     private static boolean LOG_GLOBAL_IN_WF_DIR = false;
@@ -323,9 +328,14 @@ public void workflowChanged(final WorkflowEvent event) {
             Logger root = Logger.getRootLogger();
             Appender a = root.getAppender(LOGFILE_APPENDER);
             if (a != null) {
-                LOG_FILE_APPENDER = a;
                 WF_DIR_LOG_FILE_LAYOUT = a.getLayout();
                 checkLayoutFlags(WF_DIR_LOG_FILE_LAYOUT);
+                if (ASYNC_LOGGING) {
+                    root.removeAppender(a);
+                    a = new AsyncLogAppender(a);
+                    root.addAppender(a);
+                }
+                LOG_FILE_APPENDER = a;
             } else {
                 root.warn("Could not find '" + LOGFILE_APPENDER + "' appender");
                 LOG_FILE_APPENDER = new NullAppender();
@@ -510,9 +520,11 @@ private static void startMessage() {
         copyrightMessage();
         l.info("#                                                                                       #");
         l.info("#########################################################################################");
-        if (LOG_FILE_APPENDER instanceof LogfileAppender) {
+        final Appender logFileAppender = LOG_FILE_APPENDER instanceof AsyncLogAppender
+            ? ((AsyncLogAppender)LOG_FILE_APPENDER).getDelegate() : LOG_FILE_APPENDER;
+        if (logFileAppender instanceof LogfileAppender) {
             l.info("# For more details see the KNIME log file:                                              #");
-            l.info("# " + ((LogfileAppender)LOG_FILE_APPENDER).getFile());
+            l.info("# " + ((LogfileAppender)logFileAppender).getFile());
             l.info("#---------------------------------------------------------------------------------------#");
         }
 
@@ -632,6 +644,18 @@ public void warn(final Object o) {
         getLoggerInternal().warn(getLogObject(o));
     }
 
+    /**
+     * Write warning message into this logger. The message is only created if warnings are logged at all.
+     *
+     * @param messageSupplier supplies the object to print
+     * @since 4.2
+     */
+    public void warn(final Supplier<?> messageSupplier) {
+        if (isEnabledFor(LEVEL.WARN)) {
+            warn(messageSupplier.get());
+        }
+    }
+
     /**
      * Write debugging message into this logger.
      *
@@ -641,6 +665,19 @@ public void debug(final Object o) {
         getLoggerInternal().debug(getLogObject(o));
     }
 
+    /**
+     * Write debugging message into this logger. The message is only created if debug messages are logged at all,
+     * which makes this method preferable in frequently executed code.
+     *
+     * @param messageSupplier supplies the object to print
+     * @since 4.2
+     */
+    public void debug(final Supplier<?> messageSupplier) {
+        if (isDebugEnabled()) {
+            debug(messageSupplier.get());
+        }
+    }
+
 
     /**
      * Write debugging message into this logger. The message is logged without a node context. This method should only
@@ -794,8 +831,9 @@ public int decide(final LoggingEvent event) {
                     });
                     //we have to call this function to activate the writer!!!
                     fileAppender.activateOptions();
-                    logger.addAppender(fileAppender);
-                    WF_APPENDER.put(workflowDirPath, fileAppender);
+                    wfAppender = ASYNC_LOGGING ? new AsyncLogAppender(fileAppender) : fileAppender;
+                    logger.addAppender(wfAppender);
+                    WF_APPENDER.put(workflowDirPath, wfAppender);
                     if (m_listener == null) {
                         m_listener = new MyWorkflowListener();
                         WorkflowManager.ROOT.addListener(m_listener);
@@ -840,6 +878,18 @@ public void info(final Object o) {
         getLoggerInternal().info(getLogObject(o));
     }
 
+    /**
+     * Write info message into this logger. The message is only created if info messages are logged at all.
+     *
+     * @param messageSupplier supplies the object to print
+     * @since 4.2
+     */
+    public void info(final Supplier<?> messageSupplier) {
+        if (isEnabledFor(LEVEL.INFO)) {
+            info(messageSupplier.get());
+        }
+    }
+
     /**
      * Write error message into the logger.
      *
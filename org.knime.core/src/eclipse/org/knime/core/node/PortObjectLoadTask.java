@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.io.IOException;
+
+import org.knime.core.internal.ReferencedFile;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+
+/**
+ * Restores a port object that was saved with the workflow when it is accessed for the first time. It's the
+ * counterpart of the (table specific) {@link org.knime.core.data.container.ContainerTable} delayed read: when a
+ * workflow is loaded only the spec and the summary of a port are read, the (possibly expensive) deserialization of the
+ * port object is deferred until {@link #get()} is called.
+ *
+ * <p>
+ * Instances are created by the {@link FileNodePersistor} and handed over to the {@link Node}, which resolves them in
+ * {@link Node#getOutputObject(int)} and {@link Node#ensureOutputDataIsRead()}. The latter is called before the node
+ * directory is overwritten, so the source files are still available on first access.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PortObjectLoadTask {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PortObjectLoadTask.class);
+
+    /** Reads the port object from the port directory, called once (unless it fails). */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * @param exec for progress/cancelation
+         * @return the restored port object
+         * @throws IOException if the files can't be read
+         * @throws InvalidSettingsException if the port settings are invalid
+         * @throws CanceledExecutionException if canceled
+         */
+        PortObject load(ExecutionMonitor exec)
+            throws IOException, InvalidSettingsException, CanceledExecutionException;
+    }
+
+    /** The directory the object is read from, locked while reading. */
+    private final ReferencedFile m_portDir;
+
+    /** The spec, read during workflow load. */
+    private final PortObjectSpec m_spec;
+
+    /** Set to null once the object has been restored. */
+    private Loader m_loader;
+
+    private PortObject m_object;
+
+    /**
+     * Keeps references, nothing else.
+     * @param portDir The directory the object is read from.
+     * @param spec The spec of the port object, already restored.
+     * @param loader To restore the port object on first access.
+     */
+    PortObjectLoadTask(final ReferencedFile portDir, final PortObjectSpec spec, final Loader loader) {
+        m_portDir = portDir;
+        m_spec = spec;
+        m_loader = loader;
+    }
+
+    /** @return the spec of the port object, available without restoring the object. */
+    PortObjectSpec getSpec() {
+        return m_spec;
+    }
+
+    /** @return true if the object has been restored already. */
+    synchronized boolean isLoaded() {
+        return m_loader == null;
+    }
+
+    /**
+     * Restores the port object if that hasn't been done before.
+     * @return the port object, the same instance in subsequent calls
+     * @throws RuntimeException if the object can't be restored (similar to a table failing to extract its content)
+     */
+    synchronized PortObject get() {
+        if (m_loader == null) {
+            return m_object;
+        }
+        final long start = System.currentTimeMillis();
+        m_portDir.lock();
+        try {
+            m_object = m_loader.load(new ExecutionMonitor());
+        } catch (IOException | InvalidSettingsException | CanceledExecutionException e) {
+            throw new RuntimeException("Exception while restoring port object from \"" + m_portDir + "\": "
+                + e.getMessage(), e);
+        } finally {
+            m_portDir.unlock();
+        }
+        m_loader = null;
+        LOGGER.debugWithFormat("Restored port object from \"%s\" on first access (%d ms)", m_portDir,
+            System.currentTimeMillis() - start);
+        return m_object;
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.node.workflow.ConnectionContainer;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.NodeTimer;
+import org.knime.core.node.workflow.WorkflowEvent;
+import org.knime.core.node.workflow.WorkflowListener;
+import org.knime.core.node.workflow.WorkflowManager;
+
+/**
+ * Estimates the remaining critical path of a node, i.e. the longest chain of (estimated) execution durations from the
+ * node to the end of its workflow. Durations are taken from the {@link NodeTimer} of each node (the duration of its
+ * last execution); nodes that have not been executed yet count with {@link #UNKNOWN_DURATION} so that, without any
+ * history, the estimate degrades to the length of the longest downstream chain.
+ *
+ * <p>
+ * The analysis is restricted to the workflow level of the node; connections leaving the workflow (to its outports) end
+ * the path. Metanodes on the path are accounted for with the sum of their contained nodes' durations.
+ *
+ * <p>
+ * Estimates are memoized per workflow level, so that the nodes of an execution wave share the downstream walk. The
+ * memo is dropped when nodes or connections are added or removed, and when a new wave starts (see
+ * {@link #invalidateAll()}), so that durations measured in the previous wave are taken into account.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class CriticalPathEstimator {
+
+    /** Duration in ms assumed for nodes without execution history. */
+    static final long UNKNOWN_DURATION = 1L;
+
+    /** Estimators per workflow level; the values must not reference their key. */
+    private static final Map<WorkflowManager, CriticalPathEstimator> ESTIMATORS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Incremented whenever a new execution wave starts, invalidating all memoized estimates. */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    /** Remaining path per node, guarded by 'this'. */
+    private final Map<NodeID, Long> m_cache = new HashMap<>();
+
+    /** The generation the memoized estimates belong to, guarded by 'this'. */
+    private long m_generation = GENERATION.get();
+
+    /** Set by the workflow listener (without locking, the event might be fired under the workflow lock). */
+    private volatile boolean m_structureChanged;
+
+    private CriticalPathEstimator() {
+    }
+
+    /**
+     * Estimates the remaining critical path length of the given node, including its own duration.
+     *
+     * @param nc the node about to be executed
+     * @return the estimated duration in ms of the longest path starting at the node
+     */
+    static long estimate(final NodeContainer nc) {
+        final WorkflowManager parent = nc.getParent();
+        if (parent == null) {
+            return estimateOwnDuration(nc);
+        }
+        return ESTIMATORS.computeIfAbsent(parent, CriticalPathEstimator::createFor).remainingPath(parent, nc);
+    }
+
+    /** Drops all memoized estimates, called when a new execution wave starts. */
+    static void invalidateAll() {
+        GENERATION.incrementAndGet();
+    }
+
+    private static CriticalPathEstimator createFor(final WorkflowManager wfm) {
+        final CriticalPathEstimator estimator = new CriticalPathEstimator();
+        wfm.addListener(new StructureListener(estimator));
+        return estimator;
+    }
+
+    private synchronized long remainingPath(final WorkflowManager wfm, final NodeContainer nc) {
+        final long generation = GENERATION.get();
+        if (generation != m_generation || m_structureChanged) {
+            m_structureChanged = false;
+            m_cache.clear();
+            m_generation = generation;
+        }
+        return remainingPathInternal(wfm, nc);
+    }
+
+    private long remainingPathInternal(final WorkflowManager wfm, final NodeContainer nc) {
+        final NodeID id = nc.getID();
+        final Long cached = m_cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long longestSuccessor = 0L;
+        for (ConnectionContainer cc : wfm.getOutgoingConnectionsFor(id)) {
+            final NodeID dest = cc.getDest();
+            if (dest.equals(wfm.getID())) {
+                // leaves the workflow level
+                continue;
+            }
+            longestSuccessor = Math.max(longestSuccessor, remainingPathInternal(wfm, wfm.getNodeContainer(dest)));
+        }
+        final long result = estimateOwnDuration(nc) + longestSuccessor;
+        m_cache.put(id, result);
+        return result;
+    }
+
+    private static long estimateOwnDuration(final NodeContainer nc) {
+        if (nc instanceof WorkflowManager) {
+            long sum = 0L;
+            for (NodeContainer child : ((WorkflowManager)nc).getNodeContainers()) {
+                sum += estimateOwnDuration(child);
+            }
+            return Math.max(sum, UNKNOWN_DURATION);
+        }
+        final long lastDuration = nc.getNodeTimer().getLastExecutionDuration();
+        return lastDuration >= 0 ? Math.max(lastDuration, UNKNOWN_DURATION) : UNKNOWN_DURATION;
+    }
+
+    /** Drops the memoized estimates of a workflow level when its nodes or connections change. */
+    private static final class StructureListener implements WorkflowListener {
+
+        private final CriticalPathEstimator m_estimator;
+
+        StructureListener(final CriticalPathEstimator estimator) {
+            m_estimator = estimator;
+        }
+
+        @Override
+        public void workflowChanged(final WorkflowEvent event) {
+            switch (event.getType()) {
+                case NODE_ADDED:
+                case NODE_REMOVED:
+                case CONNECTION_ADDED:
+                case CONNECTION_REMOVED:
+                    m_estimator.m_structureChanged = true;
+                    break;
+                default:
+                    // annotations, settings and dirty state don't change the paths
+            }
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.filestore.FileStoreCell;
+import org.knime.core.data.util.NonClosableOutputStream;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.BufferedDataTableHolder;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectHolder;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortUtil;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.inactive.InactiveBranchPortObject;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.FlowVariable;
+import org.knime.core.node.workflow.ScopeEndNode;
+import org.knime.core.node.workflow.ScopeStartNode;
+import org.knime.core.node.workflow.execresult.NodeExecutionResult;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Persistent cache of node outputs, which allows a node to skip its execution if it has been executed before (also in
+ * an earlier session) with the same settings, flow variables and input data. The outputs are kept in a local
+ * directory, one sub-directory per cache key, and the least recently used entries are deleted once the cache exceeds
+ * its maximum size.
+ *
+ * <p>
+ * The cache key is a SHA-256 hash over the node factory, the node settings, the available flow variables and a
+ * content fingerprint of each input (see {@link BufferedDataTable#getContentFingerprint(ExecutionMonitor)} and
+ * {@link PortUtil#getContentFingerprint(PortObject, ExecutionMonitor)}). Only nodes that implement
+ * {@link CacheableNode} or whose factory is listed in {@link KNIMEConstants#PROPERTY_NODE_OUTPUT_CACHE_FACTORIES} are
+ * cached. Cached outputs are returned as {@link NodeExecutionResult}, whereby tables and file stores are copied into
+ * the node's execution context, similar to the results of a sandboxed execution.
+ *
+ * <p>
+ * The cache is enabled via {@link KNIMEConstants#PROPERTY_NODE_OUTPUT_CACHE_DIR}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class NodeOutputCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeOutputCache.class);
+
+    /** Default maximum size in MB, see {@link KNIMEConstants#PROPERTY_NODE_OUTPUT_CACHE_SIZE}. */
+    static final long DEFAULT_MAX_SIZE_MB = 10 * 1024;
+
+    /** Part of each key, needs to be incremented whenever the key computation or the entry format changes. */
+    private static final String FORMAT_VERSION = "1";
+
+    /** Name of the file describing an entry, written last so that entries without it are incomplete. */
+    static final String ENTRY_FILE = "entry.xml";
+
+    /** Prefix of the directories that entries are written to before they are renamed to their key. */
+    private static final String TEMP_DIR_PREFIX = "tmp-";
+
+    /** Age after which temporary directories are considered abandoned (by a crashed process). */
+    private static final long ABANDONED_TEMP_DIR_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String CFG_WARNING = "warning";
+
+    private static final String CFG_PORTS = "ports";
+
+    private static final String CFG_PORT_TYPE = "type";
+
+    private static final String CFG_FLOW_VARIABLES = "flow_variables";
+
+    private static final String PORT_TYPE_VARIABLES = "variables";
+
+    private static final String PORT_TYPE_INACTIVE = "inactive";
+
+    private static final String PORT_TYPE_TABLE = "table";
+
+    private static final String PORT_TYPE_OBJECT = "object";
+
+    private static final Optional<NodeOutputCache> INSTANCE = createFromSystemProperties();
+
+    private final File m_dir;
+
+    private final long m_maxSize;
+
+    private final Set<String> m_factoryClassNames;
+
+    /** Prevents that entries are evicted while they are read. */
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param dir the (existing) cache directory
+     * @param maxSize the maximum size of all entries in bytes
+     * @param factoryClassNames names of the node factories whose nodes are cached even though they don't implement
+     *            {@link CacheableNode}
+     */
+    NodeOutputCache(final File dir, final long maxSize, final Set<String> factoryClassNames) {
+        m_dir = CheckUtils.checkArgumentNotNull(dir);
+        m_maxSize = maxSize;
+        m_factoryClassNames = factoryClassNames;
+    }
+
+    /**
+     * @return the cache as configured by {@link KNIMEConstants#PROPERTY_NODE_OUTPUT_CACHE_DIR}, or an empty optional
+     *         if the cache is disabled
+     */
+    public static Optional<NodeOutputCache> getInstance() {
+        return INSTANCE;
+    }
+
+    private static Optional<NodeOutputCache> createFromSystemProperties() {
+        final String dirName = System.getProperty(KNIMEConstants.PROPERTY_NODE_OUTPUT_CACHE_DIR);
+        if (StringUtils.isBlank(dirName)) {
+            return Optional.empty();
+        }
+        final File dir = new File(dirName.trim());
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOGGER.warn("Unable to create node output cache directory \"" + dir.getAbsolutePath()
+                + "\", node outputs are not cached");
+            return Optional.empty();
+        }
+        final long maxSizeMB = Long.getLong(KNIMEConstants.PROPERTY_NODE_OUTPUT_CACHE_SIZE, DEFAULT_MAX_SIZE_MB);
+        final Set<String> factoryClassNames =
+            Arrays.stream(System.getProperty(KNIMEConstants.PROPERTY_NODE_OUTPUT_CACHE_FACTORIES, "").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet());
+        LOGGER.debugWithFormat("Caching node outputs in \"%s\" (at most %d MB)", dir.getAbsolutePath(), maxSizeMB);
+        return Optional.of(new NodeOutputCache(dir, maxSizeMB * 1024 * 1024, factoryClassNames));
+    }
+
+    /**
+     * Whether the outputs of a node may be taken from the cache. That is the case for nodes that implement
+     * {@link CacheableNode} or whose factory is listed in {@link KNIMEConstants#PROPERTY_NODE_OUTPUT_CACHE_FACTORIES},
+     * unless they hold internal tables or port objects or start or end a scope (as their state isn't restored).
+     *
+     * @param factory the node's factory
+     * @param model the node's model
+     * @return whether the node's outputs can be cached
+     */
+    public boolean isCacheable(final NodeFactory<?> factory, final NodeModel model) {
+        if (!(model instanceof CacheableNode) && !m_factoryClassNames.contains(factory.getClass().getName())) {
+            return false;
+        }
+        return !(model instanceof BufferedDataTableHolder || model instanceof PortObjectHolder
+            || model instanceof ScopeStartNode || model instanceof ScopeEndNode);
+    }
+
+    /**
+     * Computes the key under which the outputs of a node are cached.
+     *
+     * @param factory the node's factory
+     * @param nodeSettings the node's model settings (with flow variables applied) and other settings that affect its
+     *            output, such as the port configuration
+     * @param flowVariables the flow variables available to the node
+     * @param inData the node's input, including the flow variable port
+     * @param exec for progress/cancelation, the input tables are read entirely unless fingerprinted before
+     * @return the key
+     * @throws IOException if the input can't be read
+     * @throws CanceledExecutionException if canceled
+     */
+    public String createKey(final NodeFactory<?> factory, final NodeSettings nodeSettings,
+        final Collection<FlowVariable> flowVariables, final PortObject[] inData, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final MessageDigest digest = newDigest();
+        try (DataOutputStream out = newDigestStream(digest)) {
+            writeString(out, FORMAT_VERSION);
+            writeString(out, factory.getClass().getName());
+            nodeSettings.saveToXML(new NonClosableOutputStream(out));
+            final List<FlowVariable> sortedVariables = new ArrayList<>(flowVariables);
+            sortedVariables.sort(Comparator.comparing(FlowVariable::getName));
+            out.writeInt(sortedVariables.size());
+            for (FlowVariable v : sortedVariables) {
+                writeString(out, v.getName());
+                writeString(out, v.getVariableType().getIdentifier());
+                writeString(out, v.getValueAsString());
+            }
+            out.writeInt(inData.length);
+            for (PortObject object : inData) {
+                writeString(out, createFingerprint(object, exec.createSubProgress(1.0 / inData.length)));
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Computes a fingerprint of a node input.
+     *
+     * @param object the input object, may be null (unconnected optional input)
+     * @param exec for progress/cancelation
+     * @return the fingerprint
+     * @throws IOException if the object can't be read or serialized
+     * @throws CanceledExecutionException if canceled
+     */
+    String createFingerprint(final PortObject object, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        if (object == null) {
+            return "none";
+        } else if (object instanceof InactiveBranchPortObject) {
+            return PORT_TYPE_INACTIVE;
+        } else if (object instanceof FlowVariablePortObject) {
+            // the flow variables are part of the key already
+            return PORT_TYPE_VARIABLES;
+        } else if (object instanceof BufferedDataTable) {
+            return PORT_TYPE_TABLE + ":" + ((BufferedDataTable)object).getContentFingerprint(exec);
+        } else {
+            return PORT_TYPE_OBJECT + ":" + PortUtil.getContentFingerprint(object, exec);
+        }
+    }
+
+    /**
+     * Reads the outputs cached under the given key and marks the entry as recently used.
+     *
+     * @param key the key as computed by {@link #createKey(NodeFactory, NodeSettings, Collection, PortObject[],
+     *            ExecutionMonitor) createKey}
+     * @param exec the execution context of the node, used to create the output tables
+     * @return the cached outputs, including the flow variable port, or an empty optional if there is no such entry
+     * @throws IOException if the entry can't be read (it is then removed from the cache)
+     * @throws CanceledExecutionException if canceled
+     */
+    public Optional<NodeExecutionResult> load(final String key, final ExecutionContext exec)
+        throws IOException, CanceledExecutionException {
+        final File entryDir = new File(m_dir, key);
+        boolean isCorrupt = false;
+        m_lock.readLock().lock();
+        try {
+            final File entryFile = new File(entryDir, ENTRY_FILE);
+            if (!entryFile.isFile()) {
+                return Optional.empty();
+            }
+            entryDir.setLastModified(System.currentTimeMillis());
+            final NodeSettingsRO settings;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(entryFile))) {
+                settings = NodeSettings.loadFromXML(in);
+            }
+            return Optional.of(readEntry(entryDir, settings, exec));
+        } catch (IOException | InvalidSettingsException e) {
+            isCorrupt = true;
+            throw new IOException("Unable to read node output cache entry " + key + ": " + e.getMessage(), e);
+        } finally {
+            m_lock.readLock().unlock();
+            if (isCorrupt) {
+                deleteEntry(entryDir);
+            }
+        }
+    }
+
+    private static NodeExecutionResult readEntry(final File entryDir, final NodeSettingsRO settings,
+        final ExecutionContext exec) throws IOException, InvalidSettingsException, CanceledExecutionException {
+        final NodeSettingsRO portsSettings = settings.getNodeSettings(CFG_PORTS);
+        final PortObject[] objects = new PortObject[portsSettings.getChildCount()];
+        final PortObjectSpec[] specs = new PortObjectSpec[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            final String type = portsSettings.getNodeSettings(getPortKey(i)).getString(CFG_PORT_TYPE);
+            final File file = new File(entryDir, getPortKey(i) + ".zip");
+            final ExecutionContext subExec = exec.createSubExecutionContext(1.0 / objects.length);
+            switch (type) {
+                case PORT_TYPE_VARIABLES:
+                    objects[i] = FlowVariablePortObject.INSTANCE;
+                    break;
+                case PORT_TYPE_INACTIVE:
+                    objects[i] = InactiveBranchPortObject.INSTANCE;
+                    break;
+                case PORT_TYPE_TABLE:
+                    objects[i] = readTable(file, subExec);
+                    break;
+                case PORT_TYPE_OBJECT:
+                    // re-attaches file stores to the node's file store handler
+                    objects[i] = Node.copyPortObject(PortUtil.readObjectFromFile(file, subExec), subExec);
+                    break;
+                default:
+                    throw new InvalidSettingsException("Unknown port type \"" + type + "\"");
+            }
+            specs[i] = objects[i].getSpec();
+        }
+        final NodeSettingsRO variablesSettings = settings.getNodeSettings(CFG_FLOW_VARIABLES);
+        final List<FlowVariable> flowVariables = new ArrayList<>();
+        for (int i = 0; i < variablesSettings.getChildCount(); i++) {
+            flowVariables.add(FlowVariable.load(variablesSettings.getNodeSettings("variable_" + i)));
+        }
+        final NodeExecutionResult result = new NodeExecutionResult();
+        result.setPortObjects(objects);
+        result.setPortObjectSpecs(specs);
+        result.setFlowVariables(flowVariables);
+        result.setWarningMessage(settings.getString(CFG_WARNING));
+        return result;
+    }
+
+    private static BufferedDataTable readTable(final File file, final ExecutionContext exec)
+        throws IOException, CanceledExecutionException {
+        final ContainerTable table = DataContainer.readFromZip(file);
+        try {
+            final BufferedDataContainer container = exec.createDataContainer(table.getDataTableSpec());
+            final long size = table.size();
+            long row = 0;
+            try (CloseableRowIterator it = table.iterator()) {
+                while (it.hasNext()) {
+                    container.addRowToTable(it.next());
+                    row++;
+                    exec.setProgress(row / (double)size);
+                    exec.checkCanceled();
+                }
+            } finally {
+                container.close();
+            }
+            return container.getTable();
+        } finally {
+            table.clear();
+        }
+    }
+
+    /**
+     * Adds the outputs of a node to the cache, unless there is an entry for the key already. The least recently used
+     * entries are deleted afterwards if the cache exceeds its maximum size.
+     *
+     * @param key the key as computed by {@link #createKey(NodeFactory, NodeSettings, Collection, PortObject[],
+     *            ExecutionMonitor) createKey}
+     * @param result the port objects (including the flow variable port), the flow variables pushed by the node and
+     *            its warning message
+     * @param exec for progress/cancelation
+     * @throws IOException if writing fails
+     * @throws CanceledExecutionException if canceled
+     */
+    public void store(final String key, final NodeExecutionResult result, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        CheckUtils.checkArgument(KEY_PATTERN.matcher(key).matches(), "Invalid key \"%s\"", key);
+        final File entryDir = new File(m_dir, key);
+        if (entryDir.isDirectory()) {
+            entryDir.setLastModified(System.currentTimeMillis());
+            return;
+        }
+        final PortObject[] objects = new PortObject[result.getNrOfPortObjects()];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = result.getPortObject(i);
+            if (objects[i] instanceof BufferedDataTable
+                && hasFileStoreColumns(((BufferedDataTable)objects[i]).getDataTableSpec())) {
+                LOGGER.debugWithFormat("Not caching output of \"%s\", tables with file store cells are not supported",
+                    key);
+                return;
+            }
+        }
+
+        final File tempDir = FileUtil.createTempDir(TEMP_DIR_PREFIX, m_dir, false);
+        try {
+            final NodeSettings settings = new NodeSettings("node_output_cache_entry");
+            settings.addString(CFG_WARNING, result.getWarningMessage());
+            final NodeSettingsWO portsSettings = settings.addNodeSettings(CFG_PORTS);
+            for (int i = 0; i < objects.length; i++) {
+                final File file = new File(tempDir, getPortKey(i) + ".zip");
+                final ExecutionMonitor subExec = exec.createSubProgress(1.0 / objects.length);
+                final String type;
+                if (objects[i] instanceof FlowVariablePortObject) {
+                    type = PORT_TYPE_VARIABLES;
+                } else if (objects[i] instanceof InactiveBranchPortObject) {
+                    type = PORT_TYPE_INACTIVE;
+                } else if (objects[i] instanceof BufferedDataTable) {
+                    type = PORT_TYPE_TABLE;
+                    DataContainer.writeToZip((BufferedDataTable)objects[i], file, subExec);
+                } else {
+                    type = PORT_TYPE_OBJECT;
+                    PortUtil.writeObjectToFile(CheckUtils.checkArgumentNotNull(objects[i]), file, subExec);
+                }
+                portsSettings.addNodeSettings(getPortKey(i)).addString(CFG_PORT_TYPE, type);
+            }
+            final NodeSettingsWO variablesSettings = settings.addNodeSettings(CFG_FLOW_VARIABLES);
+            final List<FlowVariable> flowVariables = result.getFlowVariables().orElse(Collections.emptyList());
+            for (int i = 0; i < flowVariables.size(); i++) {
+                flowVariables.get(i).save(variablesSettings.addNodeSettings("variable_" + i));
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(tempDir, ENTRY_FILE)))) {
+                settings.saveToXML(out);
+            }
+
+            m_lock.writeLock().lock();
+            try {
+                Files.move(tempDir.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // stored concurrently (by another process)
+            } finally {
+                m_lock.writeLock().unlock();
+            }
+        } finally {
+            if (tempDir.exists()) {
+                FileUtil.deleteRecursively(tempDir);
+            }
+        }
+        trimToSize();
+    }
+
+    /** Deletes the least recently used entries until the cache doesn't exceed its maximum size. */
+    void trimToSize() {
+        m_lock.writeLock().lock();
+        try {
+            final File[] children = m_dir.listFiles();
+            if (children == null) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            final List<Entry> entries = new ArrayList<>();
+            long totalSize = 0;
+            for (File child : children) {
+                if (!child.isDirectory()) {
+                    continue;
+                }
+                if (KEY_PATTERN.matcher(child.getName()).matches()) {
+                    final Entry entry = new Entry(child);
+                    entries.add(entry);
+                    totalSize += entry.m_size;
+                } else if (child.getName().startsWith(TEMP_DIR_PREFIX)
+                    && now - child.lastModified() > ABANDONED_TEMP_DIR_AGE) {
+                    FileUtil.deleteRecursively(child);
+                }
+            }
+            entries.sort(Comparator.comparingLong(e -> e.m_lastModified));
+            for (int i = 0; i < entries.size() && totalSize > m_maxSize; i++) {
+                final Entry entry = entries.get(i);
+                FileUtil.deleteRecursively(entry.m_dir);
+                totalSize -= entry.m_size;
+                LOGGER.debugWithFormat("Evicted node output cache entry %s (%d bytes)", entry.m_dir.getName(),
+                    entry.m_size);
+            }
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    private void deleteEntry(final File entryDir) {
+        m_lock.writeLock().lock();
+        try {
+            FileUtil.deleteRecursively(entryDir);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean hasFileStoreColumns(final DataTableSpec spec) {
+        for (DataColumnSpec column : spec) {
+            DataType type = column.getType();
+            while (type != null) {
+                final Class<? extends DataCell> cellClass = type.getCellClass();
+                if (cellClass != null && FileStoreCell.class.isAssignableFrom(cellClass)) {
+                    return true;
+                }
+                type = type.getCollectionElementType();
+            }
+        }
+        return false;
+    }
+
+    private static String getPortKey(final int index) {
+        return "port_" + index;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static DataOutputStream newDigestStream(final MessageDigest digest) {
+        return new DataOutputStream(new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, digest));
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** A directory with cached outputs, with its size and last access time determined upfront. */
+    private static final class Entry {
+
+        private final File m_dir;
+
+        private final long m_size;
+
+        private final long m_lastModified;
+
+        Entry(final File dir) {
+            m_dir = dir;
+            m_size = FileUtils.sizeOfDirectory(dir);
+            m_lastModified = dir.lastModified();
+        }
+    }
+}
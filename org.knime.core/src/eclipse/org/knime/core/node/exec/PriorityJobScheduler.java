@@ -0,0 +1,222 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Orders jobs that wait for a thread of a {@link ThreadPool} by priority rather than by submission time. The pool
+ * itself stays FIFO: for each submitted job a small dispatcher task is enqueued and, once that dispatcher gets a
+ * thread, it runs the pending job with the highest priority (ties are resolved in submission order).
+ *
+ * <p>
+ * In fair mode jobs are grouped (e.g. by workflow project) and a free thread is given to the group with the fewest
+ * running jobs (among equals round robin); within a group the highest priority wins. This prevents a single large
+ * workflow from occupying all threads of a shared executor.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PriorityJobScheduler {
+
+    /** Group key used for all jobs if the scheduler is not fair. */
+    private static final Object SINGLE_GROUP = new Object();
+
+    private final ThreadPool m_pool;
+
+    private final boolean m_fair;
+
+    /** Called whenever the last pending or running job has finished, may be null. */
+    private final Runnable m_onIdle;
+
+    /** Pending and running jobs per group, guarded by 'this'. */
+    private final Map<Object, Group> m_groups = new HashMap<>();
+
+    /** Submission counter, guarded by 'this'. */
+    private long m_sequence;
+
+    /** Dispatch counter, used to serve groups round robin, guarded by 'this'. */
+    private long m_dispatchCounter;
+
+    /**
+     * @param pool the pool that provides the threads
+     * @param fair whether threads are distributed fairly among job groups
+     */
+    PriorityJobScheduler(final ThreadPool pool, final boolean fair) {
+        this(pool, fair, null);
+    }
+
+    /**
+     * @param pool the pool that provides the threads
+     * @param fair whether threads are distributed fairly among job groups
+     * @param onIdle called (while holding the scheduler's lock) once all queued jobs have finished, may be null
+     */
+    PriorityJobScheduler(final ThreadPool pool, final boolean fair, final Runnable onIdle) {
+        m_pool = pool;
+        m_fair = fair;
+        m_onIdle = onIdle;
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param job the job to run
+     * @param priority its priority, higher values are run first
+     * @param group the group the job belongs to (only used in fair mode), not null
+     * @return a future representing the pending execution of the job; canceling it before the job has started will
+     *         skip the job
+     */
+    Future<?> enqueue(final Runnable job, final long priority, final Object group) {
+        final Object groupKey = m_fair ? group : SINGLE_GROUP;
+        final PendingJob pendingJob;
+        synchronized (this) {
+            final Group g = m_groups.computeIfAbsent(groupKey, k -> new Group());
+            pendingJob = new PendingJob(job, priority, m_sequence++, g);
+            g.m_queue.add(pendingJob);
+        }
+        m_pool.enqueue(this::runNext);
+        return pendingJob;
+    }
+
+    /** Run by the dispatcher tasks: executes the next job, skipping canceled ones. */
+    private void runNext() {
+        PendingJob next;
+        while ((next = poll()) != null) {
+            final boolean canceled = next.isCancelled();
+            try {
+                if (!canceled) {
+                    next.run();
+                }
+            } finally {
+                synchronized (this) {
+                    next.m_group.m_running--;
+                    removeIfIdle(next.m_group);
+                }
+            }
+            if (!canceled) {
+                return;
+            }
+        }
+    }
+
+    private synchronized PendingJob poll() {
+        Group best = null;
+        for (Group g : m_groups.values()) {
+            final PendingJob head = g.m_queue.peek();
+            if (head == null) {
+                continue;
+            }
+            if (best == null || isPreferred(g, head, best)) {
+                best = g;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.m_running++;
+        best.m_lastServed = ++m_dispatchCounter;
+        return best.m_queue.poll();
+    }
+
+    /** Fewest running jobs first, then the group served longest ago, then the job with the higher priority. */
+    private static boolean isPreferred(final Group g, final PendingJob head, final Group best) {
+        if (g.m_running != best.m_running) {
+            return g.m_running < best.m_running;
+        }
+        if (g.m_lastServed != best.m_lastServed) {
+            return g.m_lastServed < best.m_lastServed;
+        }
+        return head.compareTo(best.m_queue.peek()) < 0;
+    }
+
+    private void removeIfIdle(final Group group) {
+        if (group.m_running == 0 && group.m_queue.isEmpty()) {
+            m_groups.values().remove(group);
+            if (m_groups.isEmpty() && m_onIdle != null) {
+                m_onIdle.run();
+            }
+        }
+    }
+
+    /** @return number of jobs that are queued but not yet started (for tests). */
+    synchronized int getQueueSize() {
+        return m_groups.values().stream().mapToInt(g -> g.m_queue.size()).sum();
+    }
+
+    private static final class Group {
+        private final PriorityQueue<PendingJob> m_queue = new PriorityQueue<>();
+
+        private int m_running;
+
+        private long m_lastServed;
+    }
+
+    private static final class PendingJob extends FutureTask<Void> implements Comparable<PendingJob> {
+
+        private final long m_priority;
+
+        private final long m_sequence;
+
+        private final Group m_group;
+
+        PendingJob(final Runnable job, final long priority, final long sequence, final Group group) {
+            super(job, null);
+            m_priority = priority;
+            m_sequence = sequence;
+            m_group = group;
+        }
+
+        @Override
+        public int compareTo(final PendingJob o) {
+            final int c = Long.compare(o.m_priority, m_priority);
+            return c != 0 ? c : Long.compare(m_sequence, o.m_sequence);
+        }
+    }
+}
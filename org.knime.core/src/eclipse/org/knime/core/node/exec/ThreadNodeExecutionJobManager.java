@@ -51,11 +51,13 @@
 import java.util.concurrent.Future;
 
 import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.workflow.AbstractNodeExecutionJobManager;
 import org.knime.core.node.workflow.NodeContainer;
 import org.knime.core.node.workflow.NodeExecutionJob;
 import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.WorkflowManager;
 import org.knime.core.util.ThreadPool;
 
 /**
@@ -69,15 +71,57 @@ public class ThreadNodeExecutionJobManager extends AbstractNodeExecutionJobManag
 
     private final ThreadPool m_pool;
 
+    /** Orders queued jobs by priority, null if jobs are run in FIFO order. */
+    private final PriorityJobScheduler m_scheduler;
+
     public ThreadNodeExecutionJobManager() {
         this(KNIMEConstants.GLOBAL_THREAD_POOL);
     }
 
     public ThreadNodeExecutionJobManager(final ThreadPool pool) {
+        this(pool, getSchedulingFromSystemProperty());
+    }
+
+    /**
+     * Creates a job manager that runs the jobs in the given pool and orders jobs that wait for a thread according to
+     * the given scheduling policy.
+     *
+     * @param pool the pool to run the jobs in
+     * @param scheduling the order in which waiting jobs are started
+     * @since 4.2
+     */
+    public ThreadNodeExecutionJobManager(final ThreadPool pool, final Scheduling scheduling) {
         if (pool == null) {
             throw new NullPointerException("arg must not be null");
         }
         m_pool = pool;
+        switch (scheduling) {
+            case CRITICAL_PATH:
+                // estimates are memoized while jobs are queued, re-estimate with fresh durations in the next wave
+                m_scheduler = new PriorityJobScheduler(pool, false, CriticalPathEstimator::invalidateAll);
+                break;
+            case CRITICAL_PATH_FAIR:
+                m_scheduler = new PriorityJobScheduler(pool, true, CriticalPathEstimator::invalidateAll);
+                break;
+            default:
+                m_scheduler = null;
+        }
+    }
+
+    private static Scheduling getSchedulingFromSystemProperty() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_NODE_SCHEDULING);
+        if (value == null || value.trim().isEmpty()) {
+            return Scheduling.FIFO;
+        }
+        for (Scheduling s : Scheduling.values()) {
+            if (s.getKey().equalsIgnoreCase(value.trim())) {
+                return s;
+            }
+        }
+        NodeLogger.getLogger(ThreadNodeExecutionJobManager.class).warnWithFormat(
+            "Invalid value for property \"%s\": \"%s\", using \"%s\"", KNIMEConstants.PROPERTY_NODE_SCHEDULING,
+            value, Scheduling.FIFO.getKey());
+        return Scheduling.FIFO;
     }
 
     /** {@inheritDoc} */
@@ -88,7 +132,15 @@ public NodeExecutionJob submitJob(final NodeContainer nc, final PortObject[] dat
                     + " is not able to execute a metanode: " + nc.getNameWithID());
         }
         LocalNodeExecutionJob job = new LocalNodeExecutionJob((SingleNodeContainer)nc, data);
-        Future<?> future = m_pool.enqueue(job);
+        Future<?> future;
+        if (m_scheduler != null) {
+            // the project is the unit of fairness, jobs of nested metanodes and components compete with their project
+            WorkflowManager parent = nc.getParent();
+            Object group = parent != null ? parent.getProjectWFM() : nc;
+            future = m_scheduler.enqueue(job, CriticalPathEstimator.estimate(nc), group);
+        } else {
+            future = m_pool.enqueue(job);
+        }
         job.setFuture(future);
         return job;
     }
@@ -111,4 +163,36 @@ public URL getIcon() {
         return null;
     }
 
+    /**
+     * Order in which node jobs that wait for a free thread are started.
+     *
+     * @since 4.2
+     * @see KNIMEConstants#PROPERTY_NODE_SCHEDULING
+     */
+    public enum Scheduling {
+        /** Jobs are started in the order they have been queued. */
+        FIFO("fifo"),
+        /**
+         * Jobs with the longest estimated remaining critical path (based on the previous execution durations of the
+         * node and its successors) are started first.
+         */
+        CRITICAL_PATH("critical-path"),
+        /**
+         * Like {@link #CRITICAL_PATH} but free threads are distributed evenly among the workflow projects that have
+         * jobs waiting, which is useful for executors shared by multiple users.
+         */
+        CRITICAL_PATH_FAIR("critical-path-fair");
+
+        private final String m_key;
+
+        Scheduling(final String key) {
+            m_key = key;
+        }
+
+        /** @return the value of the system property selecting this policy */
+        public String getKey() {
+            return m_key;
+        }
+    }
+
 }
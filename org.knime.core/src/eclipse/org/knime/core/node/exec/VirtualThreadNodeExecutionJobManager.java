@@ -0,0 +1,129 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.exec;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeExecutionJob;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.SubNodeContainer;
+import org.knime.core.util.VirtualThreadExecutor;
+
+/**
+ * Job manager for nodes that spend most of their execution time waiting for I/O, e.g. database, REST or remote file
+ * system nodes. The nodes are executed locally but on virtual threads (see {@link VirtualThreadExecutor}) and hence do
+ * not occupy a thread of the {@link KNIMEConstants#GLOBAL_THREAD_POOL}. The number of concurrently executing nodes is
+ * limited separately by {@link KNIMEConstants#PROPERTY_MAX_VIRTUAL_THREAD_JOBS} so that CPU-bound nodes are not
+ * starved.
+ *
+ * <p>
+ * Components can't be executed by this job manager: they wait for their content in the calling thread via
+ * {@link org.knime.core.util.ThreadPool#runInvisible(java.util.concurrent.Callable)}, which requires a thread of the
+ * global thread pool.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public class VirtualThreadNodeExecutionJobManager extends ThreadNodeExecutionJobManager {
+
+    /** The shared instance using {@link VirtualThreadExecutor#getInstance()}. */
+    public static final VirtualThreadNodeExecutionJobManager INSTANCE = new VirtualThreadNodeExecutionJobManager();
+
+    private final VirtualThreadExecutor m_executor;
+
+    /** Creates a job manager that uses the shared {@link VirtualThreadExecutor}. */
+    public VirtualThreadNodeExecutionJobManager() {
+        this(VirtualThreadExecutor.getInstance());
+    }
+
+    /**
+     * Creates a job manager that runs the jobs in the given executor.
+     *
+     * @param executor the executor to run the jobs in
+     */
+    public VirtualThreadNodeExecutionJobManager(final VirtualThreadExecutor executor) {
+        super(KNIMEConstants.GLOBAL_THREAD_POOL, Scheduling.FIFO);
+        if (executor == null) {
+            throw new NullPointerException("arg must not be null");
+        }
+        m_executor = executor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeExecutionJob submitJob(final NodeContainer nc, final PortObject[] data) {
+        if (!(nc instanceof SingleNodeContainer)) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " is not able to execute a metanode: " + nc.getNameWithID());
+        }
+        if (nc instanceof SubNodeContainer) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " is not able to execute a component: " + nc.getNameWithID());
+        }
+        LocalNodeExecutionJob job = new LocalNodeExecutionJob((SingleNodeContainer)nc, data);
+        job.setFuture(m_executor.submit(job));
+        return job;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean canExecute(final NodeContainer nc) {
+        return !(nc instanceof SubNodeContainer);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getID() {
+        return VirtualThreadNodeExecutionJobManagerFactory.INSTANCE.getID();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return VirtualThreadNodeExecutionJobManagerFactory.INSTANCE.getLabel();
+    }
+
+}
@@ -47,7 +47,9 @@
  */
 package org.knime.core.node.port;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
@@ -62,13 +64,57 @@
  * @author Bernd Wiswedel, University of Konstanz
  */
 public class PortObjectSpecZipOutputStream extends ZipOutputStream {
-    
+
+    /** Hashes what is written, used to fingerprint the port object; <code>null</code> if not enabled. */
+    private final ZipContentDigest m_contentDigest;
+
     /** Delegates to underlying output stream.
      * @param outStream To write to.
      * @see ZipOutputStream#ZipOutputStream(OutputStream)
      */
     PortObjectSpecZipOutputStream(final OutputStream outStream) {
+        this(outStream, false);
+    }
+
+    /** Delegates to underlying output stream.
+     * @param outStream To write to.
+     * @param hashContent Whether to hash the written content, see {@link #getContentDigest()}
+     * @see ZipOutputStream#ZipOutputStream(OutputStream)
+     */
+    PortObjectSpecZipOutputStream(final OutputStream outStream, final boolean hashContent) {
         super(outStream);
+        m_contentDigest = hashContent ? new ZipContentDigest() : null;
     }
-    
+
+    /** {@inheritDoc} */
+    @Override
+    public void putNextEntry(final ZipEntry e) throws IOException {
+        super.putNextEntry(e);
+        if (m_contentDigest != null) {
+            m_contentDigest.putNextEntry(e.getName());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+        super.write(b, off, len);
+        if (m_contentDigest != null) {
+            m_contentDigest.update(b, off, len);
+        }
+    }
+
+    /**
+     * @return the hash of the names and the content of all entries written to this stream, must only be called
+     *         once all entries have been written
+     * @throws IllegalStateException if the stream has not been created to hash its content
+     * @see PortUtil#createContentFingerprint(PortObject, PortObjectSpecZipOutputStream, PortObjectZipOutputStream)
+     */
+    byte[] getContentDigest() {
+        if (m_contentDigest == null) {
+            throw new IllegalStateException("Content of stream is not hashed");
+        }
+        return m_contentDigest.digest();
+    }
+
 }
@@ -44,23 +44,32 @@
  */
 package org.knime.core.node.port;
 
+import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
+
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.codec.binary.Hex;
 import org.knime.core.data.filestore.FileStore;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.filestore.FileStorePortObject;
@@ -68,6 +77,7 @@
 import org.knime.core.data.filestore.internal.NotInWorkflowWriteFileStoreHandler;
 import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.data.util.NonClosableOutputStream;
+import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
@@ -78,6 +88,8 @@
 import org.knime.core.node.port.PortObjectSpec.PortObjectSpecSerializer;
 import org.knime.core.util.FileUtil;
 
+import com.google.common.collect.MapMaker;
+
 /**
  * Contains framework methods that are used to persist or read {@link PortObject} and {@link PortObjectSpec} objects.
  *
@@ -88,6 +100,10 @@
  * @author Bernd Wiswedel, University of Konstanz
  */
 public final class PortUtil {
+
+    /** Fingerprints of port objects that were saved, loaded or fingerprinted before (weak keys, identity based). */
+    private static final Map<PortObject, String> CONTENT_FINGERPRINTS = new MapMaker().weakKeys().makeMap();
+
     private PortUtil() {
     }
 
@@ -138,6 +154,42 @@ public static PortObjectZipOutputStream getPortObjectZipOutputStream(final Outpu
         return zipOut;
     }
 
+    /**
+     * Same as {@link #getPortObjectSpecZipOutputStream(OutputStream)}, but the returned stream also hashes the written
+     * content as needed by {@link #createContentFingerprint(PortObject, PortObjectSpecZipOutputStream,
+     * PortObjectZipOutputStream)}.
+     *
+     * @param in the stream to write to
+     * @return a new stream hashing its content
+     * @throws IOException if the first entry can't be written
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public static PortObjectSpecZipOutputStream getPortObjectSpecZipOutputStreamWithContentDigest(
+        final OutputStream in) throws IOException {
+        PortObjectSpecZipOutputStream zipOut = new PortObjectSpecZipOutputStream(in, true);
+        zipOut.putNextEntry(new ZipEntry("portSpec.file"));
+        return zipOut;
+    }
+
+    /**
+     * Same as {@link #getPortObjectZipOutputStream(OutputStream)}, but the returned stream also hashes the written
+     * content as needed by {@link #createContentFingerprint(PortObject, PortObjectSpecZipOutputStream,
+     * PortObjectZipOutputStream)}.
+     *
+     * @param in the stream to write to
+     * @return a new stream hashing its content
+     * @throws IOException if the first entry can't be written
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public static PortObjectZipOutputStream getPortObjectZipOutputStreamWithContentDigest(final OutputStream in)
+        throws IOException {
+        PortObjectZipOutputStream zipOut = new PortObjectZipOutputStream(in, true);
+        zipOut.putNextEntry(new ZipEntry("portObject.file"));
+        return zipOut;
+    }
+
     public static PortObjectSpecZipInputStream getPortObjectSpecZipInputStream(final InputStream in)
         throws IOException {
         PortObjectSpecZipInputStream zipIn = new PortObjectSpecZipInputStream(in);
@@ -232,6 +284,102 @@ public static void writeObjectToStream(final PortObject po, final OutputStream o
         }
     }
 
+    /**
+     * Returns a fingerprint of a port object's content, i.e. a hash over the data written by its spec and object
+     * serializers. Objects with equal fingerprints have equal content. The fingerprint is computed while the object is
+     * saved with its workflow and restored when it's loaded, otherwise it's computed on first request by serializing
+     * the object. Fingerprints of {@link BufferedDataTable} are determined by
+     * {@link BufferedDataTable#getContentFingerprint(ExecutionMonitor)}.
+     *
+     * @param po any port object
+     * @param exec for progress/cancelation
+     * @return the fingerprint, a hex string
+     * @throws IOException if the object can't be serialized
+     * @throws CanceledExecutionException if canceled
+     * @since 4.2
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static String getContentFingerprint(final PortObject po, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        if (po instanceof BufferedDataTable) {
+            return ((BufferedDataTable)po).getContentFingerprint(exec);
+        }
+        final String fingerprint = CONTENT_FINGERPRINTS.get(po);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        final PortObjectSpec spec = po.getSpec();
+        try (PortObjectSpecZipOutputStream specOut =
+                getPortObjectSpecZipOutputStreamWithContentDigest(NULL_OUTPUT_STREAM);
+                PortObjectZipOutputStream objOut = getPortObjectZipOutputStreamWithContentDigest(NULL_OUTPUT_STREAM)) {
+            // only the uncompressed content is hashed, compressing it would be a waste
+            specOut.setLevel(Deflater.NO_COMPRESSION);
+            objOut.setLevel(Deflater.NO_COMPRESSION);
+            PortObjectSpecSerializer specSer = PortTypeRegistry.getInstance().getSpecSerializer(spec.getClass()).get();
+            specSer.savePortObjectSpec(spec, specOut);
+            PortObjectSerializer objSer = PortTypeRegistry.getInstance().getObjectSerializer(po.getClass()).get();
+            objSer.savePortObject(po, objOut, exec);
+            return createContentFingerprint(po, specOut, objOut);
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a port object that has just been written to the argument streams and remembers it,
+     * see {@link #getContentFingerprint(PortObject, ExecutionMonitor)}. Called by the framework when it saves port
+     * objects.
+     *
+     * @param po the port object
+     * @param specOut the stream its spec was written to, nothing must be written to it afterwards; created by
+     *            {@link #getPortObjectSpecZipOutputStreamWithContentDigest(OutputStream)}
+     * @param objOut the stream it was written to, nothing must be written to it afterwards; created by
+     *            {@link #getPortObjectZipOutputStreamWithContentDigest(OutputStream)}
+     * @return the fingerprint
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public static String createContentFingerprint(final PortObject po, final PortObjectSpecZipOutputStream specOut,
+        final PortObjectZipOutputStream objOut) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(NULL_OUTPUT_STREAM, digest))) {
+            out.writeUTF(po.getClass().getName());
+            out.write(specOut.getContentDigest());
+            out.write(objOut.getContentDigest());
+            if (po instanceof FileStorePortObject) {
+                // file stores are immutable, their keys identify their content
+                final List<FileStore> fileStores = FileStoreUtil.getFileStores((FileStorePortObject)po);
+                out.writeInt(fileStores.size());
+                for (FileStore fs : fileStores) {
+                    out.writeUTF(FileStoreUtil.getFileStoreKey(fs).toString());
+                }
+            }
+        } catch (IOException e) {
+            // can't happen, nothing is written
+            throw new IllegalStateException(e);
+        }
+        final String fingerprint = Hex.encodeHexString(digest.digest());
+        CONTENT_FINGERPRINTS.put(po, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * Remembers the fingerprint of a port object that was restored along with the object, see
+     * {@link #getContentFingerprint(PortObject, ExecutionMonitor)}.
+     *
+     * @param po the port object
+     * @param fingerprint its fingerprint as computed when it was saved
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public static void setContentFingerprint(final PortObject po, final String fingerprint) {
+        CONTENT_FINGERPRINTS.put(po, fingerprint);
+    }
+
     public static PortObject readObjectFromFile(final File file, final ExecutionMonitor exec)
         throws IOException, CanceledExecutionException {
         try (FileInputStream input = new FileInputStream(file)) {
@@ -0,0 +1,112 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes the names and the uncompressed content of the entries written to a port object (spec) zip stream. Neither
+ * compression nor the time stamps of the entries affect the hash, it's hence a hash of the object's content.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ZipContentDigest {
+
+    private final MessageDigest m_digest;
+
+    private long m_entryLength;
+
+    ZipContentDigest() {
+        try {
+            m_digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Called when a new entry is started.
+     *
+     * @param name the name of the entry
+     */
+    void putNextEntry(final String name) {
+        finishEntry();
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        m_digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        m_digest.update(bytes);
+    }
+
+    /**
+     * Called when content is written to the current entry.
+     *
+     * @param b the data
+     * @param off the start offset in the data
+     * @param len the number of bytes written
+     */
+    void update(final byte[] b, final int off, final int len) {
+        m_digest.update(b, off, len);
+        m_entryLength += len;
+    }
+
+    /**
+     * Completes the hash. Must only be called once all entries have been written.
+     *
+     * @return the hash
+     */
+    byte[] digest() {
+        finishEntry();
+        return m_digest.digest();
+    }
+
+    /** Hashes the length of the current entry, which separates the content of subsequent entries. */
+    private void finishEntry() {
+        m_digest.update(ByteBuffer.allocate(Long.BYTES).putLong(m_entryLength).array());
+        m_entryLength = 0;
+    }
+}
@@ -54,7 +54,7 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.ImmutablePortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortObjectZipInputStream;
 import org.knime.core.node.port.PortObjectZipOutputStream;
@@ -68,7 +68,7 @@
  * @author Thorsten Meinl, KNIME AG, Zurich, Switzerland
  * @since 2.10
  */
-public class DatabaseConnectionPortObject implements PortObject {
+public class DatabaseConnectionPortObject implements ImmutablePortObject {
 
     /**
      * The spec for this port object.
@@ -63,6 +63,7 @@
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.AbstractPortObject;
+import org.knime.core.node.port.ImmutablePortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortObjectZipInputStream;
 import org.knime.core.node.port.PortObjectZipOutputStream;
@@ -74,7 +75,7 @@
  *
  * @author Thomas Gabriel, KNIME AG, Zurich, Switzerland
  */
-public class ImagePortObject extends AbstractPortObject {
+public class ImagePortObject extends AbstractPortObject implements ImmutablePortObject {
     /**
      * @noreference This class is not intended to be referenced by clients.
      * @since 3.0
@@ -96,11 +96,13 @@
 import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.data.xml.PMMLCellFactory;
 import org.knime.core.data.xml.PMMLValue;
+import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.pmml.preproc.DerivedFieldMapper;
+import org.knime.core.node.port.pmml.preproc.PMMLCompiledTransformations;
 import org.knime.core.pmml.PMMLFormatter;
 import org.knime.core.pmml.PMMLModelType;
 import org.knime.core.pmml.PMMLUtils;
@@ -204,6 +206,9 @@ public final class PMMLPortObject implements PortObject {
 
     private PMMLPortObjectSpec m_spec;
 
+    /** The compiled derived fields, created on demand and reset whenever the document changes. */
+    private volatile PMMLCompiledTransformations m_compiledTransformations;
+
     /**
      * Default constructor necessary for loading. Derived classes also
      * <em>must</em> provide a default constructor, otherwise loading will fail.
@@ -319,6 +324,7 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
     @Deprecated
     public void addPMMLModelFromHandler(final PMMLContentHandler handler)
             throws SAXException {
+        m_compiledTransformations = null;
         XmlObject model = null;
         try {
             model = XmlObject.Factory.parse(
@@ -368,6 +374,7 @@ private void initializePMMLDocument(final DataTableSpec inData) {
      * @param translator the model translator to be initialized
      */
     public void initializeModelTranslator(final PMMLTranslator translator) {
+        m_compiledTransformations = null;
         translator.initializeFrom(m_pmmlDoc);
     }
 
@@ -377,6 +384,7 @@ public void initializeModelTranslator(final PMMLTranslator translator) {
      *      added
      */
     public void addModelTranslater(final PMMLTranslator modelTranslator) {
+        m_compiledTransformations = null;
         SchemaType type = modelTranslator.exportTo(m_pmmlDoc, m_spec);
         LocalTransformations localTransformations = moveDerivedFields(type);
 
@@ -449,6 +457,7 @@ public void addModelTranslater(final PMMLTranslator modelTranslator) {
     /** Moves the content of the transformation dictionary to local
      * transformations of the model if a model exists. */
     public void moveGlobalTransformationsToModel() {
+        m_compiledTransformations = null;
         PMML pmml = m_pmmlDoc.getPMML();
         TransformationDictionary transDict
                 = pmml.getTransformationDictionary();
@@ -653,6 +662,7 @@ public void loadFrom(final PMMLPortObjectSpec spec, final InputStream is)
         // close to closeEntry(), we have to make sure that close is only
         // called once.
         // TODO: The document is read twice here. Could we "probe" into the file to check the version?
+        m_compiledTransformations = null;
         XmlObject xmlDoc = XmlObject.Factory.parse(
                 new NonClosableInputStream(is));
         is.close();
@@ -712,6 +722,7 @@ public JComponent[] getViews() {
      */
     public void addGlobalTransformations(
             final TransformationDictionary dictionary) {
+        m_compiledTransformations = null;
         // add the transformations to the TransformationDictionary
         if (dictionary.getDefineFunctionArray().length > 0) {
             throw new IllegalArgumentException("DefineFunctions are not "
@@ -863,6 +874,24 @@ public DerivedField[] getDerivedFields() {
         return DerivedFieldMapper.getDerivedFields(m_pmmlDoc.getPMML());
     }
 
+    /**
+     * Returns the derived fields compiled for fast application to tables. The compiled form is created on the first
+     * call and cached until the document is changed via one of the methods of this class.
+     *
+     * @return the compiled derived fields of the transformation dictionary and local transformations
+     * @throws InvalidSettingsException if the derived fields contain expressions that cannot be compiled
+     * @see PMMLCompiledTransformations
+     * @since 4.2
+     */
+    public PMMLCompiledTransformations getCompiledTransformations() throws InvalidSettingsException {
+        PMMLCompiledTransformations compiled = m_compiledTransformations;
+        if (compiled == null) {
+            compiled = PMMLCompiledTransformations.compile(getDerivedFields());
+            m_compiledTransformations = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Returns the PMML value.
      *
@@ -0,0 +1,373 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.pmml.preproc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dmg.pmml.DerivedFieldDocument.DerivedField;
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.container.AbstractCellFactory;
+import org.knime.core.data.container.CellFactory;
+import org.knime.core.data.container.ColumnRearranger;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.port.pmml.PMMLPortObject;
+import org.knime.core.util.UniqueNameGenerator;
+import org.w3c.dom.Element;
+
+/**
+ * The derived fields of a PMML document compiled into evaluators that can be applied to the rows of a table without
+ * interpreting the PMML again for each row. Supported are the expressions Constant, FieldRef, NormContinuous,
+ * NormDiscrete, Discretize, MapValues with an inline table and Apply with the built-in functions of PMML. Derived
+ * fields may reference each other; they are evaluated in the order of their dependencies.
+ *
+ * <p>
+ * Instances are immutable and thread-safe. They are usually obtained via
+ * {@link PMMLPortObject#getCompiledTransformations()}, which caches the compiled form per port object.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class PMMLCompiledTransformations {
+
+    /** The field names of all slots, derived fields first. */
+    private final String[] m_slotNames;
+
+    /** The derived fields in the order they are defined in the document. */
+    private final CompiledField[] m_fields;
+
+    /** The indices into m_fields in the order of evaluation. */
+    private final int[] m_evaluationOrder;
+
+    private PMMLCompiledTransformations(final String[] slotNames, final CompiledField[] fields,
+        final int[] evaluationOrder) {
+        m_slotNames = slotNames;
+        m_fields = fields;
+        m_evaluationOrder = evaluationOrder;
+    }
+
+    /**
+     * Compiles derived fields, e.g. the ones returned by {@link PMMLPortObject#getDerivedFields()}.
+     *
+     * @param derivedFields the derived fields
+     * @return the compiled transformations
+     * @throws InvalidSettingsException if a derived field contains an unsupported or invalid expression or if the
+     *             derived fields depend on each other cyclically
+     */
+    public static PMMLCompiledTransformations compile(final DerivedField... derivedFields)
+        throws InvalidSettingsException {
+        final List<Element> elements = new ArrayList<>(derivedFields.length);
+        for (DerivedField derivedField : derivedFields) {
+            elements.add((Element)derivedField.getDomNode());
+        }
+        return compile(elements);
+    }
+
+    /**
+     * @param derivedFields the DerivedField elements
+     * @return the compiled transformations
+     * @throws InvalidSettingsException if the derived fields cannot be compiled
+     */
+    static PMMLCompiledTransformations compile(final List<Element> derivedFields) throws InvalidSettingsException {
+        final PMMLExpressionCompiler compiler = new PMMLExpressionCompiler();
+        // the derived fields occupy the first slots, in order of definition
+        final Set<String> names = new HashSet<>();
+        for (Element derivedField : derivedFields) {
+            final String name = derivedField.getAttribute(PMMLElements.NAME);
+            if (!names.add(name)) {
+                throw new InvalidSettingsException("Derived field \"" + name + "\" is defined more than once.");
+            }
+            compiler.slot(name);
+        }
+        final int nrFields = derivedFields.size();
+        final CompiledField[] fields = new CompiledField[nrFields];
+        final List<List<String>> dependencies = new ArrayList<>(nrFields);
+        for (int i = 0; i < nrFields; i++) {
+            final Element derivedField = derivedFields.get(i);
+            final PMMLExpression expression = compiler.compileDerivedField(derivedField);
+            dependencies.add(new ArrayList<>(compiler.getReferencedFields()));
+            fields[i] = new CompiledField(derivedField.getAttribute(PMMLElements.NAME),
+                PMMLExpressionCompiler.attr(derivedField, "displayName"),
+                PMMLExpressionCompiler.attr(derivedField, PMMLElements.DATATYPE), expression);
+        }
+        final List<String> slotNames = compiler.getSlotNames();
+        return new PMMLCompiledTransformations(slotNames.toArray(new String[0]), fields,
+            evaluationOrder(fields, dependencies));
+    }
+
+    /** Sorts the derived fields topologically by their references to other derived fields. */
+    private static int[] evaluationOrder(final CompiledField[] fields, final List<List<String>> dependencies)
+        throws InvalidSettingsException {
+        final Map<String, Integer> fieldIndices = new HashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            fieldIndices.put(fields[i].m_name, i);
+        }
+        // 0: not visited, 1: in progress, 2: done
+        final int[] state = new int[fields.length];
+        final int[] order = new int[fields.length];
+        int nrSorted = 0;
+        for (int start = 0; start < fields.length; start++) {
+            if (state[start] != 0) {
+                continue;
+            }
+            // iterative depth first search, the stack holds field index and index of the next dependency
+            final List<int[]> stack = new ArrayList<>();
+            stack.add(new int[]{start, 0});
+            state[start] = 1;
+            while (!stack.isEmpty()) {
+                final int[] top = stack.get(stack.size() - 1);
+                final List<String> deps = dependencies.get(top[0]);
+                if (top[1] < deps.size()) {
+                    final Integer dep = fieldIndices.get(deps.get(top[1]++));
+                    if (dep == null || state[dep] == 2) {
+                        continue;
+                    } else if (state[dep] == 1) {
+                        throw new InvalidSettingsException(
+                            "Cyclic reference of derived field \"" + fields[dep].m_name + "\".");
+                    }
+                    state[dep] = 1;
+                    stack.add(new int[]{dep, 0});
+                } else {
+                    state[top[0]] = 2;
+                    order[nrSorted++] = top[0];
+                    stack.remove(stack.size() - 1);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return the names of the compiled derived fields in the order they are defined
+     */
+    public List<String> getDerivedFieldNames() {
+        final List<String> names = new ArrayList<>(m_fields.length);
+        for (CompiledField field : m_fields) {
+            names.add(field.m_name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Creates a cell factory that computes all derived fields and appends them as new columns named as the derived
+     * fields (made unique with respect to the input spec). The factory processes rows concurrently.
+     *
+     * @param spec the spec of the table to apply the transformations to
+     * @return a new cell factory
+     * @throws InvalidSettingsException if a field referenced by the transformations is not a column of the spec
+     */
+    public CellFactory createCellFactory(final DataTableSpec spec) throws InvalidSettingsException {
+        final int[] outputs = new int[m_fields.length];
+        final String[] names = new String[m_fields.length];
+        final UniqueNameGenerator nameGenerator = new UniqueNameGenerator(spec);
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = i;
+            names[i] = nameGenerator.newName(m_fields[i].m_name);
+        }
+        return createCellFactory(spec, outputs, names);
+    }
+
+    /**
+     * Creates a column rearranger that applies the transformations to a table in the way KNIME preprocessing nodes
+     * write them: a derived field whose display name is the name of a column replaces that column (if there are
+     * several, the last one), all other derived fields are appended. The cells are computed concurrently.
+     *
+     * @param spec the spec of the table to apply the transformations to
+     * @return a new column rearranger
+     * @throws InvalidSettingsException if a field referenced by the transformations is not a column of the spec
+     */
+    public ColumnRearranger createColumnRearranger(final DataTableSpec spec) throws InvalidSettingsException {
+        // column name -> index of the derived field replacing it, the last one wins
+        final Map<String, Integer> replaced = new LinkedHashMap<>();
+        for (int i = 0; i < m_fields.length; i++) {
+            final String displayName = m_fields[i].m_displayName;
+            if (displayName != null && spec.containsName(displayName)) {
+                replaced.put(displayName, i);
+            }
+        }
+        final List<Integer> outputs = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : replaced.entrySet()) {
+            outputs.add(e.getValue());
+            names.add(e.getKey());
+        }
+        final UniqueNameGenerator nameGenerator = new UniqueNameGenerator(spec);
+        for (int i = 0; i < m_fields.length; i++) {
+            final String displayName = m_fields[i].m_displayName;
+            if (displayName == null || !replaced.containsKey(displayName)) {
+                outputs.add(i);
+                names.add(nameGenerator.newName(m_fields[i].m_name));
+            }
+        }
+        final CellFactory factory = createCellFactory(spec, outputs.stream().mapToInt(Integer::intValue).toArray(),
+            names.toArray(new String[0]));
+        final ColumnRearranger rearranger = new ColumnRearranger(spec);
+        final String[] replacedColumns = replaced.keySet().toArray(new String[0]);
+        final int[] positions = Arrays.stream(replacedColumns).mapToInt(spec::findColumnIndex).toArray();
+        rearranger.remove(replacedColumns);
+        rearranger.append(factory);
+        // move the replacing columns to the positions of the replaced ones, left to right keeps the positions valid
+        final Integer[] byPosition = new Integer[replacedColumns.length];
+        for (int i = 0; i < byPosition.length; i++) {
+            byPosition[i] = i;
+        }
+        Arrays.sort(byPosition, (a, b) -> Integer.compare(positions[a], positions[b]));
+        for (Integer i : byPosition) {
+            rearranger.move(replacedColumns[i], positions[i]);
+        }
+        return rearranger;
+    }
+
+    private CellFactory createCellFactory(final DataTableSpec spec, final int[] outputs, final String[] names)
+        throws InvalidSettingsException {
+        // the slots after the derived fields are input columns
+        final int nrSlots = m_slotNames.length;
+        final int[] inputColumns = new int[nrSlots - m_fields.length];
+        for (int i = 0; i < inputColumns.length; i++) {
+            final String column = m_slotNames[m_fields.length + i];
+            inputColumns[i] = spec.findColumnIndex(column);
+            if (inputColumns[i] < 0) {
+                throw new InvalidSettingsException("The field \"" + column
+                    + "\" referenced by the PMML transformations is not contained in the input table.");
+            }
+        }
+        final DataColumnSpec[] colSpecs = new DataColumnSpec[outputs.length];
+        for (int i = 0; i < outputs.length; i++) {
+            colSpecs[i] = new DataColumnSpecCreator(names[i], m_fields[outputs[i]].m_type).createSpec();
+        }
+        return new AbstractCellFactory(true, colSpecs) {
+            @Override
+            public DataCell[] getCells(final DataRow row) {
+                final Object[] values = new Object[nrSlots];
+                for (int i = 0; i < inputColumns.length; i++) {
+                    values[m_fields.length + i] = toValue(row.getCell(inputColumns[i]));
+                }
+                for (int f : m_evaluationOrder) {
+                    values[f] = m_fields[f].m_expression.evaluate(values);
+                }
+                final DataCell[] cells = new DataCell[outputs.length];
+                for (int i = 0; i < outputs.length; i++) {
+                    cells[i] = m_fields[outputs[i]].toCell(values[outputs[i]]);
+                }
+                return cells;
+            }
+        };
+    }
+
+    private static Object toValue(final DataCell cell) {
+        if (cell.isMissing()) {
+            return null;
+        } else if (cell instanceof BooleanValue) {
+            return ((BooleanValue)cell).getBooleanValue();
+        } else if (cell instanceof DoubleValue) {
+            return ((DoubleValue)cell).getDoubleValue();
+        } else if (cell instanceof StringValue) {
+            return ((StringValue)cell).getStringValue();
+        }
+        return cell.toString();
+    }
+
+    /** A compiled derived field. */
+    private static final class CompiledField {
+
+        private final String m_name;
+
+        private final String m_displayName;
+
+        private final DataType m_type;
+
+        private final PMMLExpression m_expression;
+
+        CompiledField(final String name, final String displayName, final String dataType,
+            final PMMLExpression expression) {
+            m_name = name;
+            m_displayName = displayName;
+            m_expression = expression;
+            if ("double".equals(dataType) || "float".equals(dataType)) {
+                m_type = DoubleCell.TYPE;
+            } else if ("integer".equals(dataType)) {
+                m_type = IntCell.TYPE;
+            } else if ("boolean".equals(dataType)) {
+                m_type = BooleanCell.TYPE;
+            } else {
+                m_type = StringCell.TYPE;
+            }
+        }
+
+        DataCell toCell(final Object value) {
+            if (m_type == StringCell.TYPE) {
+                final String s = PMMLExpression.asString(value);
+                return s == null ? DataType.getMissingCell() : new StringCell(s);
+            } else if (m_type == BooleanCell.TYPE) {
+                final Boolean b = PMMLExpression.asBoolean(value);
+                return b == null ? DataType.getMissingCell() : BooleanCell.get(b);
+            }
+            final Double d = PMMLExpression.asDouble(value);
+            if (d == null) {
+                return DataType.getMissingCell();
+            }
+            return m_type == IntCell.TYPE ? new IntCell((int)Math.round(d)) : new DoubleCell(d);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.pmml.preproc;
+
+/**
+ * A compiled PMML expression (the content of a derived field) that is evaluated on the values of the fields it
+ * references. Values are {@link Double}, {@link String} or {@link Boolean} objects, missing values are
+ * <code>null</code>.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@FunctionalInterface
+interface PMMLExpression {
+
+    /**
+     * @param values the current values of all fields, indexed by the slots assigned during compilation
+     * @return the value of the expression, <code>null</code> if it is missing
+     */
+    Object evaluate(Object[] values);
+
+    /**
+     * @param value a field value
+     * @return the value as double, <code>null</code> if it is missing or not numeric
+     */
+    static Double asDouble(final Object value) {
+        if (value instanceof Double) {
+            return (Double)value;
+        } else if (value instanceof Boolean) {
+            return ((Boolean)value) ? 1.0 : 0.0;
+        } else if (value instanceof String) {
+            try {
+                return Double.valueOf(((String)value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param value a field value
+     * @return the value as string, integral doubles without fraction digits, <code>null</code> if it is missing
+     */
+    static String asString(final Object value) {
+        if (value instanceof Double) {
+            final double d = (Double)value;
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e15) {
+                return Long.toString((long)d);
+            }
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @param value a field value
+     * @return the value as boolean, <code>null</code> if it is missing or not a boolean
+     */
+    static Boolean asBoolean(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean)value;
+        } else if (value instanceof Double) {
+            return ((Double)value) != 0;
+        } else if (value instanceof String) {
+            final String s = ((String)value).trim();
+            if ("true".equalsIgnoreCase(s)) {
+                return Boolean.TRUE;
+            } else if ("false".equalsIgnoreCase(s)) {
+                return Boolean.FALSE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a value given as text in the PMML document, e.g. of a constant.
+     *
+     * @param text the text
+     * @param dataType the PMML data type, may be <code>null</code> in which case numbers are detected
+     * @return the parsed value, <code>null</code> if the text is <code>null</code>
+     */
+    static Object parse(final String text, final String dataType) {
+        if (text == null) {
+            return null;
+        }
+        if (dataType == null) {
+            final Double d = asDouble(text);
+            return d != null ? d : text;
+        }
+        switch (dataType) {
+            case "double":
+            case "float":
+            case "integer":
+                return asDouble(text);
+            case "boolean":
+                return asBoolean(text);
+            default:
+                return text;
+        }
+    }
+}
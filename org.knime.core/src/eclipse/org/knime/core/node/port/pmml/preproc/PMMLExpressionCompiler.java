@@ -0,0 +1,595 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.pmml.preproc;
+
+import static org.knime.core.node.port.pmml.preproc.PMMLExpression.asBoolean;
+import static org.knime.core.node.port.pmml.preproc.PMMLExpression.asDouble;
+import static org.knime.core.node.port.pmml.preproc.PMMLExpression.asString;
+import static org.knime.core.node.port.pmml.preproc.PMMLExpression.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Compiles the expressions of PMML derived fields (Constant, FieldRef, NormContinuous, NormDiscrete, Discretize,
+ * MapValues and Apply with the built-in functions) into {@link PMMLExpression} objects. The DOM of the derived fields
+ * is walked once; fields referenced by the expressions are assigned consecutive slots in the value array passed to
+ * {@link PMMLExpression#evaluate(Object[])}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PMMLExpressionCompiler {
+
+    private final Map<String, Integer> m_slots = new HashMap<>();
+
+    private final List<String> m_slotNames = new ArrayList<>();
+
+    private final Set<String> m_referencedFields = new LinkedHashSet<>();
+
+    /**
+     * @param field a field name
+     * @return the slot of the field, assigned on first use
+     */
+    int slot(final String field) {
+        m_referencedFields.add(field);
+        return m_slots.computeIfAbsent(field, f -> {
+            m_slotNames.add(f);
+            return m_slotNames.size() - 1;
+        });
+    }
+
+    /**
+     * @return the names of all fields in the order of their slots
+     */
+    List<String> getSlotNames() {
+        return m_slotNames;
+    }
+
+    /**
+     * @return the fields referenced by the last compiled derived field
+     */
+    Set<String> getReferencedFields() {
+        return m_referencedFields;
+    }
+
+    /**
+     * Compiles the expression of a derived field.
+     *
+     * @param derivedField the DerivedField element
+     * @return the compiled expression
+     * @throws InvalidSettingsException if the derived field contains unsupported or invalid elements
+     */
+    PMMLExpression compileDerivedField(final Element derivedField) throws InvalidSettingsException {
+        m_referencedFields.clear();
+        final List<Element> children = childElements(derivedField);
+        if (children.isEmpty()) {
+            throw new InvalidSettingsException(
+                "Derived field \"" + derivedField.getAttribute(PMMLElements.NAME) + "\" has no expression.");
+        }
+        return compile(children.get(0));
+    }
+
+    private PMMLExpression compile(final Element element) throws InvalidSettingsException {
+        final PMMLTransformation transformation;
+        try {
+            transformation = PMMLTransformation.valueOf(localName(element));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSettingsException("Unknown PMML expression \"" + localName(element) + "\".", e);
+        }
+        switch (transformation) {
+            case Constant:
+                final Object constant = parse(element.getTextContent().trim(), attr(element, PMMLElements.DATATYPE));
+                return v -> constant;
+            case FieldRef:
+                return compileFieldRef(element);
+            case NormContinuous:
+                return compileNormContinuous(element);
+            case NormDiscrete:
+                return compileNormDiscrete(element);
+            case Discretize:
+                return compileDiscretize(element);
+            case MapValues:
+                return compileMapValues(element);
+            case Apply:
+                return compileApply(element);
+            default:
+                throw new InvalidSettingsException(
+                    "The PMML expression \"" + transformation + "\" is not supported.");
+        }
+    }
+
+    private PMMLExpression compileFieldRef(final Element fieldRef) throws InvalidSettingsException {
+        final int slot = slot(requiredAttr(fieldRef, PMMLElements.FIELD));
+        final Object mapMissingTo = parse(attr(fieldRef, "mapMissingTo"), null);
+        return v -> {
+            final Object value = v[slot];
+            return value == null ? mapMissingTo : value;
+        };
+    }
+
+    private PMMLExpression compileNormContinuous(final Element norm) throws InvalidSettingsException {
+        final int slot = slot(requiredAttr(norm, PMMLElements.FIELD));
+        final Double mapMissingTo = asDouble(attr(norm, "mapMissingTo"));
+        final String outliers = attr(norm, "outliers");
+        final List<Element> linearNorms = childElements(norm);
+        if (linearNorms.size() < 2) {
+            throw new InvalidSettingsException("NormContinuous requires at least two LinearNorm elements.");
+        }
+        final double[] orig = new double[linearNorms.size()];
+        final double[] normed = new double[linearNorms.size()];
+        for (int i = 0; i < orig.length; i++) {
+            orig[i] = requiredDouble(linearNorms.get(i), PMMLElements.ORIG);
+            normed[i] = requiredDouble(linearNorms.get(i), PMMLElements.NORM);
+            if (i > 0 && orig[i] <= orig[i - 1]) {
+                throw new InvalidSettingsException("LinearNorm elements must be sorted by ascending orig value.");
+            }
+        }
+        final int last = orig.length - 1;
+        final boolean asMissing = "asMissingValues".equals(outliers);
+        final boolean asExtreme = "asExtremeValues".equals(outliers);
+        return v -> {
+            final Double value = asDouble(v[slot]);
+            if (value == null) {
+                return mapMissingTo;
+            }
+            final double x = value;
+            int segment;
+            if (x < orig[0] || x > orig[last]) {
+                if (asMissing) {
+                    return null;
+                } else if (asExtreme) {
+                    return x < orig[0] ? normed[0] : normed[last];
+                }
+                // asIs: extrapolate the first or last segment
+                segment = x < orig[0] ? 0 : last - 1;
+            } else {
+                segment = Arrays.binarySearch(orig, x);
+                if (segment >= 0) {
+                    return normed[segment];
+                }
+                segment = -segment - 2;
+            }
+            return normed[segment]
+                + (x - orig[segment]) / (orig[segment + 1] - orig[segment]) * (normed[segment + 1] - normed[segment]);
+        };
+    }
+
+    private PMMLExpression compileNormDiscrete(final Element norm) throws InvalidSettingsException {
+        final int slot = slot(requiredAttr(norm, PMMLElements.FIELD));
+        final String value = requiredAttr(norm, PMMLElements.VALUE);
+        final Double mapMissingTo = asDouble(attr(norm, "mapMissingTo"));
+        return v -> {
+            final String s = asString(v[slot]);
+            if (s == null) {
+                return mapMissingTo;
+            }
+            return value.equals(s) ? 1.0 : 0.0;
+        };
+    }
+
+    private PMMLExpression compileDiscretize(final Element discretize) throws InvalidSettingsException {
+        final int slot = slot(requiredAttr(discretize, PMMLElements.FIELD));
+        final Object mapMissingTo = parse(attr(discretize, "mapMissingTo"), null);
+        final Object defaultValue = parse(attr(discretize, "defaultValue"), null);
+        final List<Element> bins = childElements(discretize);
+        final int nrBins = bins.size();
+        final Object[] binValues = new Object[nrBins];
+        final double[] left = new double[nrBins];
+        final double[] right = new double[nrBins];
+        final boolean[] leftClosed = new boolean[nrBins];
+        final boolean[] rightClosed = new boolean[nrBins];
+        for (int i = 0; i < nrBins; i++) {
+            final Element bin = bins.get(i);
+            binValues[i] = parse(requiredAttr(bin, "binValue"), null);
+            final List<Element> intervals = childElements(bin);
+            if (intervals.isEmpty()) {
+                throw new InvalidSettingsException("DiscretizeBin without Interval.");
+            }
+            final Element interval = intervals.get(0);
+            final String closure = requiredAttr(interval, "closure");
+            left[i] = interval.hasAttribute("leftMargin") ? requiredDouble(interval, "leftMargin")
+                : Double.NEGATIVE_INFINITY;
+            right[i] = interval.hasAttribute("rightMargin") ? requiredDouble(interval, "rightMargin")
+                : Double.POSITIVE_INFINITY;
+            leftClosed[i] = closure.startsWith("closed");
+            rightClosed[i] = closure.endsWith("Closed");
+        }
+        return v -> {
+            final Double value = asDouble(v[slot]);
+            if (value == null) {
+                return mapMissingTo;
+            }
+            final double x = value;
+            for (int i = 0; i < nrBins; i++) {
+                if ((leftClosed[i] ? x >= left[i] : x > left[i]) && (rightClosed[i] ? x <= right[i] : x < right[i])) {
+                    return binValues[i];
+                }
+            }
+            return defaultValue;
+        };
+    }
+
+    private PMMLExpression compileMapValues(final Element mapValues) throws InvalidSettingsException {
+        final String outputColumn = requiredAttr(mapValues, "outputColumn");
+        final Object mapMissingTo = parse(attr(mapValues, "mapMissingTo"), attr(mapValues, PMMLElements.DATATYPE));
+        final Object defaultValue = parse(attr(mapValues, "defaultValue"), attr(mapValues, PMMLElements.DATATYPE));
+        final List<Integer> slots = new ArrayList<>();
+        final List<String> columns = new ArrayList<>();
+        Element inlineTable = null;
+        for (Element child : childElements(mapValues)) {
+            switch (localName(child)) {
+                case "FieldColumnPair":
+                    slots.add(slot(requiredAttr(child, PMMLElements.FIELD)));
+                    columns.add(requiredAttr(child, "column"));
+                    break;
+                case "InlineTable":
+                    inlineTable = child;
+                    break;
+                default:
+                    throw new InvalidSettingsException(
+                        "MapValues with " + localName(child) + " is not supported, only InlineTable.");
+            }
+        }
+        if (inlineTable == null) {
+            throw new InvalidSettingsException("MapValues without InlineTable.");
+        }
+        // the keys are the values of the input columns in the order of the field column pairs
+        final Map<List<String>, Object> table = new HashMap<>();
+        for (Element row : childElements(inlineTable)) {
+            final Map<String, String> cells = new HashMap<>();
+            for (Element cell : childElements(row)) {
+                cells.put(localName(cell), cell.getTextContent().trim());
+            }
+            final List<String> key = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                key.add(cells.get(column));
+            }
+            // the first matching row is used
+            table.putIfAbsent(key, parse(cells.get(outputColumn), attr(mapValues, PMMLElements.DATATYPE)));
+        }
+        final int[] fieldSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+        return v -> {
+            final String[] key = new String[fieldSlots.length];
+            for (int i = 0; i < fieldSlots.length; i++) {
+                key[i] = asString(v[fieldSlots[i]]);
+                if (key[i] == null) {
+                    return mapMissingTo;
+                }
+            }
+            final Object value = table.get(Arrays.asList(key));
+            return value != null ? value : defaultValue;
+        };
+    }
+
+    private PMMLExpression compileApply(final Element apply) throws InvalidSettingsException {
+        final String function = requiredAttr(apply, "function");
+        final List<Element> children = childElements(apply);
+        final PMMLExpression[] args = new PMMLExpression[children.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = compile(children.get(i));
+        }
+        final Object mapMissingTo = parse(attr(apply, "mapMissingTo"), null);
+        final Object defaultValue = parse(attr(apply, "defaultValue"), null);
+        // functions that handle missing values themselves
+        switch (function) {
+            case "isMissing":
+                checkArity(function, args, 1, 1);
+                return v -> args[0].evaluate(v) == null;
+            case "isNotMissing":
+                checkArity(function, args, 1, 1);
+                return v -> args[0].evaluate(v) != null;
+            case "if":
+                checkArity(function, args, 2, 3);
+                return v -> {
+                    final Boolean condition = asBoolean(args[0].evaluate(v));
+                    if (condition == null) {
+                        return mapMissingTo;
+                    } else if (condition) {
+                        return args[1].evaluate(v);
+                    }
+                    return args.length > 2 ? args[2].evaluate(v) : null;
+                };
+            default:
+        }
+        final Function<Object[], Object> f = builtInFunction(function, args);
+        return v -> {
+            final Object[] values = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                values[i] = args[i].evaluate(v);
+                if (values[i] == null) {
+                    return mapMissingTo;
+                }
+            }
+            // invalid results (e.g. a division by zero) are null
+            final Object result = f.apply(values);
+            return result != null ? result : defaultValue;
+        };
+    }
+
+    private static Function<Object[], Object> builtInFunction(final String function, final PMMLExpression[] args)
+        throws InvalidSettingsException {
+        switch (function) {
+            case "+":
+                return binary(function, args, (a, b) -> a + b);
+            case "-":
+                return binary(function, args, (a, b) -> a - b);
+            case "*":
+                return binary(function, args, (a, b) -> a * b);
+            case "/":
+                return binary(function, args, (a, b) -> a / b);
+            case "pow":
+                return binary(function, args, Math::pow);
+            case "threshold":
+                return binary(function, args, (a, b) -> a > b ? 1 : 0);
+            case "min":
+                return aggregate(function, args, Math::min);
+            case "max":
+                return aggregate(function, args, Math::max);
+            case "sum":
+                return aggregate(function, args, (a, b) -> a + b);
+            case "product":
+                return aggregate(function, args, (a, b) -> a * b);
+            case "avg":
+                final Function<Object[], Object> sum = aggregate(function, args, (a, b) -> a + b);
+                return values -> {
+                    final Double s = (Double)sum.apply(values);
+                    return s == null ? null : s / values.length;
+                };
+            case "log10":
+                return unary(function, args, Math::log10);
+            case "ln":
+                return unary(function, args, Math::log);
+            case "sqrt":
+                return unary(function, args, Math::sqrt);
+            case "abs":
+                return unary(function, args, Math::abs);
+            case "exp":
+                return unary(function, args, Math::exp);
+            case "floor":
+                return unary(function, args, Math::floor);
+            case "ceil":
+                return unary(function, args, Math::ceil);
+            case "round":
+                return unary(function, args, a -> Math.floor(a + 0.5));
+            case "equal":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) == 0;
+            case "notEqual":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) != 0;
+            case "lessThan":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) < 0;
+            case "lessOrEqual":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) <= 0;
+            case "greaterThan":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) > 0;
+            case "greaterOrEqual":
+                checkArity(function, args, 2, 2);
+                return values -> compare(values[0], values[1]) >= 0;
+            case "isIn":
+            case "isNotIn":
+                checkArity(function, args, 2, Integer.MAX_VALUE);
+                final boolean isIn = "isIn".equals(function);
+                return values -> {
+                    for (int i = 1; i < values.length; i++) {
+                        if (compare(values[0], values[i]) == 0) {
+                            return isIn;
+                        }
+                    }
+                    return !isIn;
+                };
+            case "and":
+            case "or":
+                checkArity(function, args, 2, Integer.MAX_VALUE);
+                final boolean isAnd = "and".equals(function);
+                return values -> {
+                    for (Object value : values) {
+                        final Boolean b = asBoolean(value);
+                        if (b == null) {
+                            return null;
+                        } else if (b != isAnd) {
+                            return b;
+                        }
+                    }
+                    return isAnd;
+                };
+            case "not":
+                checkArity(function, args, 1, 1);
+                return values -> {
+                    final Boolean b = asBoolean(values[0]);
+                    return b == null ? null : !b;
+                };
+            case "uppercase":
+                checkArity(function, args, 1, 1);
+                return values -> asString(values[0]).toUpperCase();
+            case "lowercase":
+                checkArity(function, args, 1, 1);
+                return values -> asString(values[0]).toLowerCase();
+            case "trimBlanks":
+                checkArity(function, args, 1, 1);
+                return values -> asString(values[0]).trim();
+            case "concat":
+                checkArity(function, args, 1, Integer.MAX_VALUE);
+                return values -> {
+                    final StringBuilder sb = new StringBuilder();
+                    for (Object value : values) {
+                        sb.append(asString(value));
+                    }
+                    return sb.toString();
+                };
+            case "substring":
+                checkArity(function, args, 3, 3);
+                return values -> {
+                    final String s = asString(values[0]);
+                    final Double start = asDouble(values[1]);
+                    final Double length = asDouble(values[2]);
+                    if (start == null || length == null || start < 1 || length < 0) {
+                        return null;
+                    }
+                    // PMML positions start at 1
+                    final int from = Math.min(s.length(), start.intValue() - 1);
+                    return s.substring(from, Math.min(s.length(), from + length.intValue()));
+                };
+            default:
+                throw new InvalidSettingsException("The PMML function \"" + function + "\" is not supported.");
+        }
+    }
+
+    private static Function<Object[], Object> unary(final String function, final PMMLExpression[] args,
+        final DoubleUnaryOperator op) throws InvalidSettingsException {
+        checkArity(function, args, 1, 1);
+        return values -> {
+            final Double a = asDouble(values[0]);
+            return a == null ? null : valid(op.applyAsDouble(a));
+        };
+    }
+
+    private static Function<Object[], Object> binary(final String function, final PMMLExpression[] args,
+        final DoubleBinaryOperator op) throws InvalidSettingsException {
+        checkArity(function, args, 2, 2);
+        return aggregate(function, args, op);
+    }
+
+    private static Function<Object[], Object> aggregate(final String function, final PMMLExpression[] args,
+        final DoubleBinaryOperator op) throws InvalidSettingsException {
+        checkArity(function, args, 1, Integer.MAX_VALUE);
+        return values -> {
+            Double result = asDouble(values[0]);
+            for (int i = 1; i < values.length && result != null; i++) {
+                final Double b = asDouble(values[i]);
+                result = b == null ? null : op.applyAsDouble(result, b);
+            }
+            return result == null ? null : valid(result);
+        };
+    }
+
+    /** @return the value or <code>null</code> if it is NaN or infinite, i.e. invalid */
+    private static Double valid(final double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+
+    /** Compares numerically if both values are numbers, otherwise by their string representation. */
+    private static int compare(final Object a, final Object b) {
+        final Double da = asDouble(a);
+        final Double db = asDouble(b);
+        if (da != null && db != null) {
+            return Double.compare(da, db);
+        }
+        return asString(a).compareTo(asString(b));
+    }
+
+    private static void checkArity(final String function, final PMMLExpression[] args, final int min,
+        final int max) throws InvalidSettingsException {
+        if (args.length < min || args.length > max) {
+            throw new InvalidSettingsException(
+                "Invalid number of arguments for PMML function \"" + function + "\": " + args.length);
+        }
+    }
+
+    /**
+     * @param node a DOM node
+     * @return the local name of the node, i.e. without namespace prefix
+     */
+    static String localName(final Node node) {
+        final String localName = node.getLocalName();
+        return localName != null ? localName : node.getNodeName();
+    }
+
+    /**
+     * @param element a DOM element
+     * @return the child elements except extensions
+     */
+    static List<Element> childElements(final Element element) {
+        final List<Element> children = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && !PMMLElements.EXTENSION.equals(localName(child))) {
+                children.add((Element)child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * @param element a DOM element
+     * @param name the attribute name
+     * @return the attribute value or <code>null</code> if the attribute is not set
+     */
+    static String attr(final Element element, final String name) {
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    private static String requiredAttr(final Element element, final String name) throws InvalidSettingsException {
+        final String value = attr(element, name);
+        if (value == null) {
+            throw new InvalidSettingsException(
+                "Attribute \"" + name + "\" of PMML element " + localName(element) + " is missing.");
+        }
+        return value;
+    }
+
+    private static double requiredDouble(final Element element, final String name) throws InvalidSettingsException {
+        final Double value = asDouble(requiredAttr(element, name));
+        if (value == null) {
+            throw new InvalidSettingsException(
+                "Attribute \"" + name + "\" of PMML element " + localName(element) + " is not a number.");
+        }
+        return value;
+    }
+}
@@ -49,6 +49,7 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.ModelContent;
 import org.knime.core.node.config.Config;
+import org.knime.core.node.port.ImmutablePortObject;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.workflow.ModelContentOutPortView;
@@ -60,7 +61,8 @@
  * @author Simon Schmid, KNIME.com, Konstanz, Germany
  * @since 3.3
  */
-public class FilterDefinitionHandlerPortObject extends ViewPropertyPortObject {
+public class FilterDefinitionHandlerPortObject extends ViewPropertyPortObject
+    implements ImmutablePortObject {
     /**
      * @noreference This class is not intended to be referenced by clients.
      */
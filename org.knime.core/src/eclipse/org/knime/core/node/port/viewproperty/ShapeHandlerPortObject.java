@@ -48,6 +48,7 @@
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.ModelContent;
+import org.knime.core.node.port.ImmutablePortObject;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.workflow.ModelContentOutPortView;
@@ -58,7 +59,7 @@
  *
  * @author Thomas Gabriel, University of Konstanz
  */
-public class ShapeHandlerPortObject extends ViewPropertyPortObject {
+public class ShapeHandlerPortObject extends ViewPropertyPortObject implements ImmutablePortObject {
     /**
      * @noreference This class is not intended to be referenced by clients.
      * @since 3.0
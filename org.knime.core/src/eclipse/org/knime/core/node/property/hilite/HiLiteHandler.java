@@ -44,7 +44,9 @@
  */
 package org.knime.core.node.property.hilite;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -61,7 +63,9 @@
  * This implementation keeps a list of row keys only for the hilit items.
  * Furthermore, an event is only sent for items whose status actually changed.
  * The list of hilite keys is modified (delete or add keys) before the actual
- * event is send.
+ * event is send. Events are delivered in the AWT event dispatch thread; events
+ * of the same kind and source that are fired in quick succession, i.e. before
+ * the first one has been delivered, are coalesced into one event.
  * <p>
  * Do NOT derive this class which intended to be final but can't due to the
  * historical <code>DefaultHiLiteHandler</code> class.
@@ -101,8 +105,11 @@ public class HiLiteHandler {
     /** List of registered <code>HiLiteListener</code>s to fire event to. */
     private final CopyOnWriteArrayList<HiLiteListener> m_listenerList;
 
-    /** Set of non-<code>null</code> hilit items. */
-    private Set<RowKey> m_hiLitKeys;
+    /** Set of non-<code>null</code> hilit items, replaced (copy on write) when changed. */
+    private volatile Set<RowKey> m_hiLitKeys;
+
+    /** Events that have been fired but not yet delivered to the listeners, guarded by itself. */
+    private final Deque<PendingEvent> m_pendingEvents = new ArrayDeque<>();
 
     /** Not-null if this {@link HiLiteHandler} is associated with one or more {@link HiLiteTranslator}s */
     private Set<HiLiteTranslator> m_hiliteTranslators;
@@ -352,8 +359,6 @@ public synchronized void fireHiLiteEvent(final KeyEvent event) {
             throw new NullPointerException("KeyEvent must not be null");
         }
 
-        Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(m_hiLitKeys);
-
         /*
          * Do not change this implementation, unless you are aware of the
          * following problem:
@@ -371,6 +376,7 @@ public synchronized void fireHiLiteEvent(final KeyEvent event) {
         if (ids.isEmpty()) {
             return;
         }
+        final Set<RowKey> hilitKeys = m_hiLitKeys;
         // create list of row keys from input key array
         final Set<RowKey> changedIDs = new LinkedHashSet<RowKey>();
         // iterates over all keys and adds them to the changed set
@@ -380,31 +386,17 @@ public synchronized void fireHiLiteEvent(final KeyEvent event) {
                         "Key array must not contains null elements.");
             }
             // if the key is already hilit, do not add it
-            if (newHilitKeys.add(id)) {
+            if (!hilitKeys.contains(id)) {
                 changedIDs.add(id);
             }
         }
 
-        // if at least on key changed
+        // if at least on key changed (the hilit keys are only copied then)
         if (!changedIDs.isEmpty()) {
+            final Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(hilitKeys);
+            newHilitKeys.addAll(changedIDs);
             m_hiLitKeys = newHilitKeys;
-            final KeyEvent fireEvent =
-                new KeyEvent(event.getSource(), changedIDs);
-            final Runnable r = new Runnable() {
-                @Override
-                public void run() {
-                    for (final HiLiteListener l : m_listenerList) {
-                        try {
-                            l.hiLite(fireEvent);
-                        } catch (final Throwable t) {
-                            LOGGER.coding(
-                                    "Exception while notifying listeners, "
-                                        + "reason: " + t.getMessage(), t);
-                        }
-                    }
-                }
-            };
-            ViewUtils.runOrInvokeLaterInEDT(r);
+            queueEvent(new PendingEvent(EventType.HILITE, event.getSource(), changedIDs));
         }
     }
 
@@ -440,7 +432,7 @@ public synchronized void fireUnHiLiteEvent(final KeyEvent event) {
             return;
         }
 
-        Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(m_hiLitKeys);
+        final Set<RowKey> hilitKeys = m_hiLitKeys;
 
         // create list of row keys from input key array
         final Set<RowKey> changedIDs = new LinkedHashSet<RowKey>();
@@ -450,31 +442,17 @@ public synchronized void fireUnHiLiteEvent(final KeyEvent event) {
                 throw new IllegalArgumentException(
                         "Key array must not contains null elements.");
             }
-            if (newHilitKeys.remove(id)) {
+            if (hilitKeys.contains(id)) {
                 changedIDs.add(id);
             }
         }
-        // if at least on key changed
+        // if at least on key changed (the hilit keys are only copied then)
         if (!changedIDs.isEmpty()) {
+            final Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(hilitKeys);
+            newHilitKeys.removeAll(changedIDs);
             m_hiLitKeys = newHilitKeys;
             // throw unhilite event
-            final KeyEvent fireEvent = new KeyEvent(
-                    event.getSource(), changedIDs);
-            final Runnable r = new Runnable() {
-                @Override
-                public void run() {
-                    for (final HiLiteListener l : m_listenerList) {
-                        try {
-                            l.unHiLite(fireEvent);
-                        } catch (final Throwable t) {
-                            LOGGER.coding(
-                                 "Exception while notifying listeners, reason: "
-                                        + t.getMessage(), t);
-                        }
-                    }
-                }
-            };
-            ViewUtils.runOrInvokeLaterInEDT(r);
+            queueEvent(new PendingEvent(EventType.UNHILITE, event.getSource(), changedIDs));
         }
     }
 
@@ -502,21 +480,64 @@ public synchronized void fireClearHiLiteEvent(final KeyEvent event) {
          */
         if (!m_hiLitKeys.isEmpty()) {
             m_hiLitKeys = new LinkedHashSet<RowKey>();
-            final Runnable r = new Runnable() {
-                @Override
-                public void run() {
-                    for (final HiLiteListener l : m_listenerList) {
-                        try {
+            queueEvent(new PendingEvent(event));
+        }
+    }
+
+    /**
+     * Queues the event for delivery in the EDT. If the last queued event has not been delivered yet and is of the same
+     * kind and from the same source, the keys are added to that event instead. The order of the events is retained.
+     *
+     * @param event the event to deliver
+     */
+    private void queueEvent(final PendingEvent event) {
+        synchronized (m_pendingEvents) {
+            final PendingEvent last = m_pendingEvents.peekLast();
+            if (last != null && last.coalesce(event)) {
+                // delivery is already scheduled
+                return;
+            }
+            m_pendingEvents.addLast(event);
+            if (m_pendingEvents.size() > 1) {
+                // the first event has scheduled the delivery, which also delivers this one
+                return;
+            }
+        }
+        ViewUtils.runOrInvokeLaterInEDT(this::deliverPendingEvents);
+    }
+
+    /** Delivers all queued events to the listeners, called in the EDT. */
+    private void deliverPendingEvents() {
+        while (true) {
+            final KeyEvent event;
+            final EventType type;
+            synchronized (m_pendingEvents) {
+                // removed before delivery, so no further keys are added to it
+                final PendingEvent pending = m_pendingEvents.pollFirst();
+                if (pending == null) {
+                    return;
+                }
+                event = pending.toKeyEvent();
+                type = pending.m_type;
+            }
+            for (final HiLiteListener l : m_listenerList) {
+                try {
+                    switch (type) {
+                        case HILITE:
+                            l.hiLite(event);
+                            break;
+                        case UNHILITE:
+                            l.unHiLite(event);
+                            break;
+                        default:
                             l.unHiLiteAll(event);
-                        } catch (final Throwable t) {
-                            LOGGER.coding(
-                                "Exception while notifying listeners, reason: "
-                                    + t.getMessage(), t);
-                        }
                     }
+                } catch (final Throwable t) {
+                    LOGGER.coding(
+                        "Exception while notifying listeners, reason: "
+                            + t.getMessage(), t);
                 }
-            };
-            ViewUtils.runOrInvokeLaterInEDT(r);
+            }
         }
     }
 
@@ -528,4 +549,54 @@ public void run() {
     public Set<RowKey> getHiLitKeys() {
         return new LinkedHashSet<RowKey>(m_hiLitKeys);
     }
+
+    /** The kinds of events sent to the {@link HiLiteListener}s. */
+    private enum EventType {
+            HILITE, UNHILITE, CLEAR;
+    }
+
+    /** An event that has been fired but not yet been delivered. */
+    private static final class PendingEvent {
+
+        private final EventType m_type;
+
+        private final Object m_source;
+
+        /** The changed keys, null for clear events. */
+        private final Set<RowKey> m_keys;
+
+        /** The original event, only set for clear events. */
+        private final KeyEvent m_clearEvent;
+
+        PendingEvent(final EventType type, final Object source, final Set<RowKey> keys) {
+            m_type = type;
+            m_source = source;
+            m_keys = keys;
+            m_clearEvent = null;
+        }
+
+        PendingEvent(final KeyEvent clearEvent) {
+            m_type = EventType.CLEAR;
+            m_source = clearEvent.getSource();
+            m_keys = null;
+            m_clearEvent = clearEvent;
+        }
+
+        /**
+         * Adds the keys of the other event to this one if both are hilite or unhilite events from the same source.
+         *
+         * @return whether the other event has been merged into this one
+         */
+        boolean coalesce(final PendingEvent other) {
+            if (m_type == EventType.CLEAR || m_type != other.m_type || m_source != other.m_source) {
+                return false;
+            }
+            m_keys.addAll(other.m_keys);
+            return true;
+        }
+
+        KeyEvent toKeyEvent() {
+            return m_clearEvent != null ? m_clearEvent : new KeyEvent(m_source, m_keys);
+        }
+    }
 }
@@ -174,15 +174,19 @@ public void hiLite(final KeyEvent event) {
                 for (HiLiteHandler hdl : m_targetHandlers) {
                     all.addAll(hdl.getHiLitKeys());
                 }
-                // check overlap with all mappings
+                // check overlap with all mappings, hilite all keys whose
+                // mapped keys are hilit with one event
+                final Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
                 for (RowKey key : m_mapper.keySet()) {
                     final Set<RowKey> keys = m_mapper.getKeys(key);
-                    // if all mapped keys are hilite then fire event
                     if (all.containsAll(keys)) {
-                        m_sourceHandler.fireHiLiteEvent(
-                            new KeyEvent(m_eventSource, key));
+                        fireSet.add(key);
                     }
                 }
+                if (!fireSet.isEmpty()) {
+                    m_sourceHandler.fireHiLiteEvent(
+                        new KeyEvent(m_eventSource, fireSet));
+                }
             }
         }
         /**
@@ -194,18 +198,22 @@ public void unHiLite(final KeyEvent event) {
                 return;
             }
             if (m_mapper != null) {
-                // check all mappings
+                // check all mappings, unhilite all keys with at least one
+                // unhilit mapped key with one event
+                final Set<RowKey> unhilit = event.keys();
+                final Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
                 for (RowKey key : m_mapper.keySet()) {
-                    final Set<RowKey> keys = m_mapper.getKeys(key);
-                    // if at least one item is unhilite then fire event
-                    for (RowKey hilite : event.keys()) {
-                        if (keys.contains(hilite)) {
-                            m_sourceHandler.fireUnHiLiteEvent(
-                                new KeyEvent(m_eventSource, key));
+                    for (RowKey mapped : m_mapper.getKeys(key)) {
+                        if (unhilit.contains(mapped)) {
+                            fireSet.add(key);
                             break;
                         }
                     }
                 }
+                if (!fireSet.isEmpty()) {
+                    m_sourceHandler.fireUnHiLiteEvent(
+                        new KeyEvent(m_eventSource, fireSet));
+                }
             }
         }
         /**
@@ -52,6 +52,7 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.PrefetchingRowIterator;
 import org.knime.core.node.BufferedDataTable;
 
 /** Default implementation of a {@link RowInput}. It reads data
@@ -70,10 +71,12 @@ public class DataTableRowInput extends RowInput {
      * @param table The table to read from. */
     public DataTableRowInput(final DataTable table) {
         m_tableSpec = table.getDataTableSpec();
-        m_iterator = table.iterator();
         if (table instanceof BufferedDataTable) {
             m_rowCount = ((BufferedDataTable)table).size();
+            // rows are polled by the (usually CPU bound) streamed node, read them ahead in the background
+            m_iterator = PrefetchingRowIterator.prefetch(((BufferedDataTable)table).iterator(), m_rowCount);
         } else {
+            m_iterator = table.iterator();
             m_rowCount = -1;
         }
     }
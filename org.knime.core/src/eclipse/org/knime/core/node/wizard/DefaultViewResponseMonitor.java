@@ -75,6 +75,7 @@
     private String m_id;
     private int m_requestSequence;
     private CompletableFuture<RES> m_future;
+    private boolean m_cancelled;
     private RES m_response;
     private boolean m_executionStarted;
     private boolean m_executionFinished;
@@ -107,8 +108,17 @@
         });
     }
 
+    /**
+     * Sets the future processing the request. If the monitor has been cancelled before, the future is cancelled
+     * right away.
+     */
     void setFuture(final CompletableFuture<RES> future) {
-        m_future = future;
+        synchronized (m_block) {
+            m_future = future;
+            if (m_cancelled && !future.isDone()) {
+                future.cancel(true);
+            }
+        }
     }
 
     void setExecutionStarted() {
@@ -125,6 +135,10 @@ void setExecutionFailed(final Exception ex) {
         updateStatusListeners();
     }
 
+    void setExecutionCancelled() {
+        updateStatusListeners();
+    }
+
     void setResponse(final RES response) {
         synchronized (m_block) {
             boolean success = response != null;
@@ -171,6 +185,8 @@ public void removeAllUpdateListeners() {
     @Override
     public void cancel() {
         synchronized (m_block) {
+            // remembered in case the future isn't set yet
+            m_cancelled = true;
             if (m_future != null && !m_future.isDone()) {
                 m_future.cancel(true);
             }
@@ -222,7 +238,7 @@ public boolean isCancelled() {
             if (m_future != null) {
                 return m_future.isCancelled();
             }
-            return false;
+            return m_cancelled;
         }
     }
 
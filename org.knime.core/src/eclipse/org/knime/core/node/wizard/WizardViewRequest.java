@@ -65,4 +65,17 @@ public interface WizardViewRequest extends ViewRequest, WebViewContent {
      */
     public int getSequence();
 
+    /**
+     * Whether this request makes an earlier, not yet finished request of the same view obsolete, e.g. because both
+     * request the same kind of data and the view only displays the latest result. Superseded requests are cancelled
+     * and not processed at all if they haven't been started yet. By default no request supersedes another one.
+     *
+     * @param earlierRequest a request of the same view with a lower sequence, not <code>null</code>
+     * @return <code>true</code> if the earlier request is superseded by this one
+     * @since 4.2
+     */
+    default boolean supersedes(final WizardViewRequest earlierRequest) {
+        return false;
+    }
+
 }
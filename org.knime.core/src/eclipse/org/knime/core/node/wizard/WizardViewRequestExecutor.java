@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.wizard;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Thread pool dedicated to the processing of view requests, see {@link WizardViewRequestRunner}. Requests are grouped
+ * by a key (usually the workflow project the view belongs to); at most {@link #MAX_RUNNING_PER_KEY} requests of the
+ * same key run concurrently, further requests of that key wait in a queue of their own. Many requests of one workflow
+ * hence don't delay the requests of other workflows, and view requests don't compete with other users of the common
+ * fork join pool (e.g. parallel streams).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class WizardViewRequestExecutor {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WizardViewRequestExecutor.class);
+
+    /** Maximum number of threads processing view requests. */
+    static final int MAX_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /** Maximum number of concurrently running requests with the same key. */
+    static final int MAX_RUNNING_PER_KEY = Math.max(1, MAX_THREADS / 2);
+
+    private static final ThreadPoolExecutor POOL;
+
+    static {
+        final AtomicInteger threadCount = new AtomicInteger();
+        POOL = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            r -> {
+                final Thread t = new Thread(r, "KNIME-View-Request-Handler-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        POOL.allowCoreThreadTimeOut(true);
+    }
+
+    /** Queued and running requests per key; guarded by itself. */
+    private static final Map<Object, KeyQueue> QUEUES = new HashMap<>();
+
+    private WizardViewRequestExecutor() {
+    }
+
+    /**
+     * Returns an executor that runs its tasks in the shared pool, limited by the number of concurrently running tasks
+     * of the given key.
+     *
+     * @param key the key grouping the requests, e.g. the workflow project, not <code>null</code>
+     * @return an executor for the key
+     */
+    static Executor forKey(final Object key) {
+        return task -> submit(key, task);
+    }
+
+    private static void submit(final Object key, final Runnable task) {
+        synchronized (QUEUES) {
+            final KeyQueue queue = QUEUES.computeIfAbsent(key, k -> new KeyQueue());
+            if (queue.m_running >= MAX_RUNNING_PER_KEY) {
+                queue.m_waiting.add(task);
+                return;
+            }
+            queue.m_running++;
+        }
+        POOL.execute(() -> runAndContinue(key, task));
+    }
+
+    private static void runAndContinue(final Object key, final Runnable task) {
+        Runnable next = task;
+        while (next != null) {
+            try {
+                next.run();
+            } catch (Throwable t) { // NOSONAR the waiting requests of the key must still be run
+                LOGGER.error("Unexpected error while processing view request: " + t.getMessage(), t);
+            }
+            synchronized (QUEUES) {
+                final KeyQueue queue = QUEUES.get(key);
+                next = queue.m_waiting.poll();
+                if (next == null) {
+                    queue.m_running--;
+                    if (queue.m_running == 0) {
+                        QUEUES.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class KeyQueue {
+        private int m_running;
+
+        private final Queue<Runnable> m_waiting = new ArrayDeque<>();
+    }
+}
@@ -48,6 +48,10 @@
  */
 package org.knime.core.node.wizard;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.knime.core.node.CanceledExecutionException;
@@ -56,10 +60,17 @@
 import org.knime.core.node.interactive.ViewRequestHandlingException;
 import org.knime.core.node.interactive.ViewResponseMonitor;
 import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.WorkflowManager;
 
 /**
  * Utility class to run view requests.
  *
+ * <p>
+ * Requests are processed by a thread pool dedicated to view requests, with the number of concurrently processed
+ * requests limited per workflow project. A new request cancels all unfinished earlier requests of the same handler it
+ * {@linkplain WizardViewRequest#supersedes(WizardViewRequest) supersedes}; requests that are still queued are then
+ * dropped without being processed.
+ *
  * @author Christian Albrecht, KNIME GmbH, Konstanz, Germany
  * @since 3.7
  * @noreference This class is not intended to be referenced by clients.
@@ -67,6 +78,12 @@
  */
 public final class WizardViewRequestRunner {
 
+    /** Unfinished requests per handler; guarded by itself. */
+    private static final Map<ViewRequestHandler<?, ?>, List<ActiveRequest>> ACTIVE_REQUESTS = new HashMap<>();
+
+    private WizardViewRequestRunner() {
+    }
+
     /**
      * Starts running a view request on the specified {@link ViewRequestHandler}.
      *
@@ -81,23 +98,80 @@ public final class WizardViewRequestRunner {
     public static <REQ extends WizardViewRequest, RES extends WizardViewResponse> ViewResponseMonitor<RES>
         run(final ViewRequestHandler<REQ, RES> handler, final REQ request, final ExecutionMonitor exec) {
         DefaultViewResponseMonitor<RES> monitor = new DefaultViewResponseMonitor<RES>(request.getSequence(), exec);
+        final ActiveRequest active = new ActiveRequest(request, monitor);
+        cancelSupersededAndRegister(handler, active);
+        // the context of the calling thread, not the one of the pool thread
+        final NodeContext context = NodeContext.getContext();
         CompletableFuture<RES> future = CompletableFuture.supplyAsync(() -> {
-            NodeContext.pushContext(NodeContext.getContext());
+            NodeContext.pushContext(context);
             try {
                 monitor.setExecutionStarted();
                 return handler.handleRequest(request, exec);
             } catch (ViewRequestHandlingException | InterruptedException | CanceledExecutionException ex) {
-                monitor.setExecutionFailed(ex);
+                // a cancelled request is reported as such when the future completes, not as failed
+                if (!monitor.isCancelled()) {
+                    monitor.setExecutionFailed(ex);
+                }
                 return null;
             } finally {
                 NodeContext.removeLastContext();
             }
-        });
+        }, WizardViewRequestExecutor.forKey(getExecutorKey(context, handler)));
         monitor.setFuture(future);
-        future.thenAccept((response) -> {
-            monitor.setResponse(response);
+        future.whenComplete((response, throwable) -> {
+            unregister(handler, active);
+            if (future.isCancelled()) {
+                monitor.setExecutionCancelled();
+            } else if (throwable != null) {
+                monitor.setExecutionFailed(new ViewRequestHandlingException(throwable.getMessage(), throwable));
+            } else {
+                monitor.setResponse(response);
+            }
         });
         return monitor;
     }
 
+    /** The requests of a workflow project share one queue, requests without context are queued per handler. */
+    private static Object getExecutorKey(final NodeContext context, final ViewRequestHandler<?, ?> handler) {
+        final WorkflowManager wfm = context == null ? null : context.getWorkflowManager();
+        return wfm == null ? handler : wfm.getProjectWFM();
+    }
+
+    private static void cancelSupersededAndRegister(final ViewRequestHandler<?, ?> handler,
+        final ActiveRequest request) {
+        final List<ActiveRequest> superseded = new ArrayList<>();
+        synchronized (ACTIVE_REQUESTS) {
+            final List<ActiveRequest> active = ACTIVE_REQUESTS.computeIfAbsent(handler, h -> new ArrayList<>(2));
+            for (ActiveRequest other : active) {
+                if (other.m_request.getSequence() < request.m_request.getSequence()
+                    && request.m_request.supersedes(other.m_request)) {
+                    superseded.add(other);
+                }
+            }
+            active.add(request);
+        }
+        // cancel outside the lock as cancellation notifies the monitor's listeners
+        superseded.forEach(r -> r.m_monitor.cancel());
+    }
+
+    private static void unregister(final ViewRequestHandler<?, ?> handler, final ActiveRequest request) {
+        synchronized (ACTIVE_REQUESTS) {
+            final List<ActiveRequest> active = ACTIVE_REQUESTS.get(handler);
+            if (active != null && active.remove(request) && active.isEmpty()) {
+                ACTIVE_REQUESTS.remove(handler);
+            }
+        }
+    }
+
+    private static final class ActiveRequest {
+        private final WizardViewRequest m_request;
+
+        private final DefaultViewResponseMonitor<?> m_monitor;
+
+        ActiveRequest(final WizardViewRequest request, final DefaultViewResponseMonitor<?> monitor) {
+            m_request = request;
+            m_monitor = monitor;
+        }
+    }
+
 }
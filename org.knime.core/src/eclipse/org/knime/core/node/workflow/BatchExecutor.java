@@ -715,7 +715,7 @@ protected WorkflowManager loadWorkflow(final WorkflowConfiguration config) throw
             LockFailedException, IllegalOptionException {
         if (config.inputWorkflow.isFile()) {
             File dir = FileUtil.createTempDir("BatchExecutorInput");
-            FileUtil.unzip(config.inputWorkflow, dir);
+            FileUtil.unzipParallel(config.inputWorkflow, dir, null);
             config.workflowLocation = dir;
         } else {
             config.workflowLocation = config.inputWorkflow;
@@ -852,7 +852,8 @@ protected void saveWorkflow(final WorkflowManager wfm, final WorkflowConfigurati
                 if (config.inputWorkflow.isFile()) {
                     // if input is a Zip file, overwrite input flow
                     // (Zip) workflow dir contains temp workflow dir
-                    FileUtil.zipDir(config.inputWorkflow, config.workflowLocation, 9, WORKFLOW_ZIP_FILTER, null);
+                    FileUtil.zipDirParallel(config.inputWorkflow, config.workflowLocation, 9, WORKFLOW_ZIP_FILTER,
+                        null);
                     LOGGER.info("Saved workflow availabe at: " + config.inputWorkflow.getAbsolutePath());
                 }
             } else if (config.outputFile != null) { // save as Zip
@@ -864,7 +865,7 @@ protected void saveWorkflow(final WorkflowManager wfm, final WorkflowConfigurati
                 LOGGER.debug("Workflow saved: " + outputTempDir.getAbsolutePath());
 
                 // to be saved into new output zip file
-                FileUtil.zipDir(config.outputFile, workflowOutDir, 9, WORKFLOW_ZIP_FILTER, null);
+                FileUtil.zipDirParallel(config.outputFile, workflowOutDir, 9, WORKFLOW_ZIP_FILTER, null);
                 LOGGER.info("Saved workflow availabe at: " + config.outputFile.getAbsolutePath());
             } else if (config.outputDir != null) { // save into dir
                 // copy current workflow dir
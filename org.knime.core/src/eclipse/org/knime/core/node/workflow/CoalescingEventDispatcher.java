@@ -0,0 +1,141 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Delivers workflow and node events on a separate thread so that the thread firing the event (which often holds the
+ * workflow lock) does not wait for the listeners. Events are delivered one after another in the order they have been
+ * posted. An event posted with a key replaces a not yet delivered event with an equal key (at the position of the
+ * replaced event), i.e. bursts of events of the same source are coalesced into the latest one while the order of
+ * the events per key is preserved.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class CoalescingEventDispatcher {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(CoalescingEventDispatcher.class);
+
+    private static final CoalescingEventDispatcher INSTANCE = new CoalescingEventDispatcher("KNIME-Workflow-Notifier");
+
+    private final Executor m_executor;
+
+    /** Events not yet delivered, in the order they have been posted; guarded by itself. */
+    private final Map<Object, Runnable> m_pending = new LinkedHashMap<>();
+
+    /** Whether a job draining {@link #m_pending} has been submitted to the executor; guarded by m_pending. */
+    private boolean m_isDraining;
+
+    /**
+     * @param threadName the name of the delivering thread
+     */
+    CoalescingEventDispatcher(final String threadName) {
+        m_executor = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * @return the dispatcher used for workflow and asynchronous node state events
+     */
+    static CoalescingEventDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Posts an event delivery that is never coalesced.
+     *
+     * @param delivery the code notifying the listeners
+     */
+    void post(final Runnable delivery) {
+        post(new Object(), delivery);
+    }
+
+    /**
+     * Posts an event delivery, replacing a pending delivery posted with an equal key.
+     *
+     * @param key the key identifying the deliveries that can be coalesced, e.g. a list of listener and event source
+     * @param delivery the code notifying the listeners
+     */
+    void post(final Object key, final Runnable delivery) {
+        synchronized (m_pending) {
+            m_pending.put(key, delivery);
+            if (!m_isDraining) {
+                m_isDraining = true;
+                m_executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final Runnable delivery;
+            synchronized (m_pending) {
+                final Iterator<Runnable> it = m_pending.values().iterator();
+                if (!it.hasNext()) {
+                    m_isDraining = false;
+                    return;
+                }
+                delivery = it.next();
+                it.remove();
+            }
+            try {
+                delivery.run();
+            } catch (Throwable t) { // NOSONAR a failing listener must not stop the delivery of other events
+                LOGGER.error(t.getClass().getSimpleName() + " while notifying listeners: " + t.getMessage(), t);
+            }
+        }
+    }
+}
@@ -1212,6 +1212,12 @@ public PortObject getOutputObject(final int portIndex) {
         return getNode().getOutputObject(portIndex);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    boolean hasOutputObject(final int portIndex) {
+        return getNode().hasOutputObject(portIndex);
+    }
+
     /**
      * {@inheritDoc}
      */
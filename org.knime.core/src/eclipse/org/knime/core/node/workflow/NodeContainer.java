@@ -47,6 +47,7 @@
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -84,6 +85,7 @@
 import org.knime.core.node.workflow.WorkflowPersistor.LoadResult;
 import org.knime.core.node.workflow.action.InteractiveWebViewsResult;
 import org.knime.core.node.workflow.changes.ChangesTracker;
+import org.knime.core.node.workflow.changes.TrackedChange;
 import org.knime.core.node.workflow.changes.TrackedChanges;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionResult;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionStatus;
@@ -421,7 +423,7 @@ protected void notifyNodePropertyChangedListener(
         for (NodePropertyChangedListener l : m_nodePropertyChangedListeners) {
             l.nodePropertyChanged(e);
         }
-        findChangesTracker().ifPresent(ct -> ct.otherChange());
+        findChangesTracker().ifPresent(ct -> ct.otherChange(TrackedChange.Type.NODE, getID()));
     }
 
     /////////////////////////////////////////////////
@@ -839,6 +841,7 @@ protected final void notifyMessageListeners(final NodeMessageEvent e) {
        for (NodeMessageListener l : m_messageListeners) {
            l.messageChanged(e);
        }
+       findChangesTracker().ifPresent(ct -> ct.log(TrackedChange.Type.NODE_MESSAGE, getID()));
    }
 
    /* ---------------- UI -----------------*/
@@ -859,7 +862,7 @@ protected void notifyUIListeners(final NodeUIInformationEvent evt) {
            l.nodeUIInformationChanged(evt);
        }
        if (evt != null) {
-           findChangesTracker().ifPresent(ct -> ct.otherChange());
+           findChangesTracker().ifPresent(ct -> ct.otherChange(TrackedChange.Type.NODE, getID()));
        }
     }
 
@@ -890,15 +893,25 @@ public void setUIInformation(final NodeUIInformation uiInformation) {
 
     /**
      * Notifies all registered {@link NodeStateChangeListener}s about the new
-     * state.
+     * state. Listeners that don't require synchronous notification are notified
+     * asynchronously, see {@link NodeStateChangeListener#requiresSynchronousNotification()}.
      *
      * @param e the new state change event
      */
     protected void notifyStateChangeListeners(final NodeStateEvent e) {
         for (NodeStateChangeListener l : m_stateChangeListeners) {
-            l.stateChanged(e);
+            if (l.requiresSynchronousNotification()) {
+                l.stateChanged(e);
+            } else {
+                // replaces a not yet delivered event of this node to that listener
+                CoalescingEventDispatcher.getInstance().post(Arrays.asList(l, e.getSource()), () -> {
+                    if (m_stateChangeListeners.contains(l)) {
+                        l.stateChanged(e);
+                    }
+                });
+            }
         }
-        findChangesTracker().ifPresent(ct -> ct.nodeStateChange());
+        findChangesTracker().ifPresent(ct -> ct.nodeStateChange(e.getSource()));
     }
 
     /** {@inheritDoc} */
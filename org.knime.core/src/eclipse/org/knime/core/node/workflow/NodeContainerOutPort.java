@@ -129,6 +129,13 @@ public PortObject getPortObject() {
                       ? m_snc.getOutputObject(getPortIndex()) : null;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasPortObject() {
+        return m_snc.getInternalState().equals(InternalNodeContainerState.EXECUTED)
+            && m_snc.hasOutputObject(getPortIndex());
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getPortSummary() {
@@ -85,6 +85,15 @@ public interface NodeOutPort extends NodePort, NodeStateChangeListener, NodeCont
      */
     public String getPortSummary();
 
+    /** Whether {@link #getPortObject()} returns a non-null object. It's a separate method since calling
+     * getPortObject() may force a port object that was saved with the workflow to be restored from disc.
+     * @return true if the port object is available.
+     * @since 4.2
+     */
+    public default boolean hasPortObject() {
+        return getPortObject() != null;
+    }
+
 
     /** @return true if the contained spec is not null and instance of
      * {@link org.knime.core.node.port.inactive.InactiveBranchPortObjectSpec}
@@ -160,6 +160,15 @@ public PortObject getPortObject() {
         return m_underlyingPort.getPortObject();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasPortObject() {
+        if (m_underlyingPort == null) {
+            return false;
+        }
+        return m_underlyingPort.hasPortObject();
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getPortSummary() {
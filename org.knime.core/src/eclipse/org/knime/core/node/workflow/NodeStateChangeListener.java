@@ -61,4 +61,19 @@ public interface NodeStateChangeListener {
      */
     public void stateChanged(final NodeStateEvent state);
 
+    /**
+     * Whether this listener needs to be notified on the thread that changes the node's state, i.e. before the state
+     * change returns and possibly while the workflow lock is held. Listeners that only reflect the state (e.g. in a
+     * view or a remote client) should return <code>false</code>. They are then notified on a separate thread and, if
+     * a node changes its state faster than the events are delivered, only receive the latest event of that node. The
+     * events of a node are still delivered in the order they have been fired.
+     *
+     * @return <code>true</code> (the default) if the listener is notified synchronously, <code>false</code> if it is
+     *         notified asynchronously
+     * @since 4.2
+     */
+    default boolean requiresSynchronousNotification() {
+        return true;
+    }
+
 }
@@ -352,7 +352,8 @@ private Map<String, FlowVariable> applySettingsUsingFlowObjectStack() throws Inv
         return newVariableHash;
     }
 
-    private static List<FlowVariable> overwriteModelSettingsWithFlowVariables(
+    /** Also used by {@link VirtualParallelizedChunkLoopBody}. */
+    static List<FlowVariable> overwriteModelSettingsWithFlowVariables(
         final NodeSettings modelSettingsToOverwrite, final NodeSettingsRO variablesSettings,
         final Map<String, FlowVariable> flowVariablesMap) throws InvalidSettingsException {
         if (variablesSettings == null) {
@@ -1265,6 +1266,15 @@ public final MemoryPolicy getOutDataMemoryPolicy() {
      */
     public abstract PortObject getOutputObject(final int portIndex);
 
+    /** Whether {@link #getOutputObject(int)} returns a non-null object, without restoring the object if it has not
+     * been read since the workflow was loaded.
+     * @param portIndex ...
+     * @return ...
+     */
+    boolean hasOutputObject(final int portIndex) {
+        return getOutputObject(portIndex) != null;
+    }
+
     /**
      * @param portIndex ...
      * @return ...
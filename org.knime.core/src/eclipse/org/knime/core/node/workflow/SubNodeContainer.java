@@ -135,6 +135,7 @@
 import org.knime.core.node.workflow.WorkflowPersistor.WorkflowPortTemplate;
 import org.knime.core.node.workflow.action.InteractiveWebViewsResult;
 import org.knime.core.node.workflow.action.InteractiveWebViewsResult.Builder;
+import org.knime.core.node.workflow.changes.TrackedChange;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionResult;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionStatus;
 import org.knime.core.node.workflow.execresult.SubnodeContainerExecutionResult;
@@ -1340,7 +1341,8 @@ public NodeContainerExecutionStatus performExecuteNode(final PortObject[] rawInO
             m_wfm.executeAll();
             boolean isCanceled;
             try {
-                isCanceled = ThreadPool.currentPool().runInvisible(new Callable<Boolean>() {
+                final ThreadPool currentPool = ThreadPool.currentPool();
+                final Callable<Boolean> waitForContent = new Callable<Boolean>() {
                     @Override
                     public Boolean call() throws Exception {
                         Boolean result = Boolean.FALSE;
@@ -1354,7 +1356,17 @@ public Boolean call() throws Exception {
                             }
                         }
                     }
-                });
+                };
+                if (currentPool != null) {
+                    isCanceled = currentPool.runInvisible(waitForContent);
+                } else {
+                    // not a pool thread if executed by a job manager with its own threads
+                    try {
+                        isCanceled = waitForContent.call();
+                    } catch (Exception e) {
+                        throw new ExecutionException(e);
+                    }
+                }
             } catch (ExecutionException ee) {
                 isCanceled = false;
                 LOGGER.error(ee.getCause().getClass().getSimpleName() + " while waiting for inner workflow to complete",
@@ -2198,7 +2210,7 @@ public void setLayoutJSONString(final String layoutJSONString) {
             if (isProject()) {
                 //differently handled if this is a component project
                 //otherwise the setDirty event will just be past to the parent (which is ROOT)
-                getChangesTracker().ifPresent(ct -> ct.otherChange());
+                getChangesTracker().ifPresent(ct -> ct.otherChange(TrackedChange.Type.NODE, getID()));
                 //for consistency
                 if (!getWorkflowManager().isDirty()) {
                     getWorkflowManager().setDirty();
@@ -0,0 +1,488 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.filestore.internal.IFileStoreHandler;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.context.ModifiableNodeCreationConfiguration;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObjectSpec;
+import org.knime.core.node.workflow.FlowVariable.Scope;
+import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.knime.core.node.workflow.Workflow.NodeAndInports;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBody;
+import org.knime.core.util.Pair;
+
+/**
+ * Snapshot of the loop body of a parallel chunk loop that can be executed per chunk without creating copies of the
+ * loop body's node containers. Each chunk gets its own {@link #newInstance() instance}, which creates plain
+ * {@link Node} objects from the original nodes' factories and settings and runs them sequentially in the thread of the
+ * chunk's {@link org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBodyNodeModel}.
+ *
+ * <p>
+ * Only loop bodies consisting of native nodes without nested scopes (loops, try-catch, ...) and without connections
+ * from outside the loop to the loop end node are supported, see {@link #create(WorkflowManager, NodeID, NodeID, List,
+ * Map)}. Nodes in dangling branches (not connected to the loop end) are not executed, as in the copying mode.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class VirtualParallelizedChunkLoopBody {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(VirtualParallelizedChunkLoopBody.class);
+
+    /** Index of the node that "provides" the inputs of the chunk body node (the virtual input and external ports). */
+    private static final int BODY_INPUT = -1;
+
+    /** The nodes of the loop body, in execution order. */
+    private final BodyNode[] m_nodes;
+
+    /** Sources of the loop end node's inputs (excluding its flow variable port), elements can be null. */
+    private final Source[] m_outputs;
+
+    private VirtualParallelizedChunkLoopBody(final BodyNode[] nodes, final Source[] outputs) {
+        m_nodes = nodes;
+        m_outputs = outputs;
+    }
+
+    /** @return a new (not yet executed) loop body for one chunk */
+    VirtualParallelizedChunkBody newInstance() {
+        return new Instance();
+    }
+
+    /**
+     * Creates a snapshot of the loop body between the given start and end node. The inputs of the chunk body node are
+     * expected to be the data outputs of the start node followed by the ports of the "Parallel Chunks" metanode that
+     * connect the loop body with nodes outside the loop.
+     *
+     * @param wfm the workflow containing the loop, its lock must be held
+     * @param startID the parallel chunk start node
+     * @param endID the parallel chunk end node
+     * @param loopBody the nodes in the loop body, see {@link Workflow#findAllNodesConnectedToLoopBody(NodeID, NodeID)}
+     * @param extInConnections maps inports of loop body nodes connected to nodes outside the loop to the index of the
+     *            corresponding port of the metanode holding the chunks
+     * @return the snapshot or an empty optional if the loop body can't be executed virtually
+     */
+    static Optional<VirtualParallelizedChunkLoopBody> create(final WorkflowManager wfm, final NodeID startID,
+        final NodeID endID, final List<NodeAndInports> loopBody,
+        final Map<Pair<NodeID, Integer>, Integer> extInConnections) {
+        final Set<NodeID> bodyIDs = new LinkedHashSet<>();
+        for (NodeAndInports nai : loopBody) {
+            bodyIDs.add(nai.getID());
+        }
+        final int nrStartOutputs = wfm.getNodeContainer(startID).getNrOutPorts() - 1;
+        final NodeContainer endNode = wfm.getNodeContainer(endID);
+
+        // only nodes that contribute to the loop end are executed
+        final Set<NodeID> needed = new LinkedHashSet<>();
+        final Deque<NodeID> pending = new ArrayDeque<>();
+        pending.add(endID);
+        while (!pending.isEmpty()) {
+            for (ConnectionContainer cc : wfm.getIncomingConnectionsFor(pending.poll())) {
+                final NodeID source = cc.getSource();
+                if (bodyIDs.contains(source) && needed.add(source)) {
+                    pending.add(source);
+                }
+            }
+        }
+
+        final Map<NodeID, BodyNode> bodyNodes = new HashMap<>();
+        for (NodeID id : needed) {
+            final NodeContainer nc = wfm.getNodeContainer(id);
+            if (!(nc instanceof NativeNodeContainer)) {
+                return reject(nc, "not a native node");
+            }
+            final NativeNodeContainer nnc = (NativeNodeContainer)nc;
+            if (nnc.isModelCompatibleTo(ScopeStartNode.class) || nnc.isModelCompatibleTo(ScopeEndNode.class)) {
+                return reject(nc, "nested scopes are not supported");
+            }
+            bodyNodes.put(id, new BodyNode(nnc));
+        }
+
+        // execution order, predecessors first
+        final List<NodeID> order = new ArrayList<>();
+        final Set<NodeID> done = new LinkedHashSet<>();
+        while (order.size() < needed.size()) {
+            boolean progress = false;
+            for (NodeID id : needed) {
+                if (!done.contains(id) && predecessorsDone(wfm, id, needed, done)) {
+                    done.add(id);
+                    order.add(id);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                return reject(endNode, "cyclic loop body");
+            }
+        }
+        final Map<NodeID, Integer> indices = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            indices.put(order.get(i), i);
+        }
+
+        final BodyNode[] nodes = new BodyNode[order.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            final NodeID id = order.get(i);
+            final BodyNode bodyNode = bodyNodes.get(id);
+            for (int p = 0; p < bodyNode.m_inputs.length; p++) {
+                final ConnectionContainer cc = wfm.getIncomingConnectionFor(id, p);
+                if (cc == null) {
+                    continue;
+                }
+                final Source source;
+                if (cc.getSource().equals(startID)) {
+                    source = new Source(BODY_INPUT, cc.getSourcePort());
+                } else if (indices.containsKey(cc.getSource())) {
+                    source = new Source(indices.get(cc.getSource()), cc.getSourcePort());
+                } else {
+                    final Integer metanodePort = extInConnections.get(new Pair<>(id, p));
+                    if (metanodePort == null) {
+                        return reject(wfm.getNodeContainer(id), "unsupported input connection");
+                    }
+                    source = new Source(BODY_INPUT, nrStartOutputs + metanodePort);
+                }
+                bodyNode.m_inputs[p] = source;
+            }
+            nodes[i] = bodyNode;
+        }
+
+        final Source[] outputs = new Source[endNode.getNrInPorts() - 1];
+        for (int p = 1; p < endNode.getNrInPorts(); p++) {
+            final ConnectionContainer cc = wfm.getIncomingConnectionFor(endID, p);
+            if (cc == null) {
+                continue;
+            }
+            if (cc.getSource().equals(startID)) {
+                outputs[p - 1] = new Source(BODY_INPUT, cc.getSourcePort());
+            } else if (indices.containsKey(cc.getSource())) {
+                outputs[p - 1] = new Source(indices.get(cc.getSource()), cc.getSourcePort());
+            } else {
+                return reject(endNode, "loop end is connected to a node outside the loop");
+            }
+        }
+        return Optional.of(new VirtualParallelizedChunkLoopBody(nodes, outputs));
+    }
+
+    private static boolean predecessorsDone(final WorkflowManager wfm, final NodeID id, final Set<NodeID> needed,
+        final Set<NodeID> done) {
+        for (ConnectionContainer cc : wfm.getIncomingConnectionsFor(id)) {
+            if (needed.contains(cc.getSource()) && !done.contains(cc.getSource())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Optional<VirtualParallelizedChunkLoopBody> reject(final NodeContainer nc, final String reason) {
+        LOGGER.debugWithFormat("Parallel chunk loop body can't be executed virtually (%s: %s), copying it instead",
+            nc.getNameWithID(), reason);
+        return Optional.empty();
+    }
+
+    /** Output port of a node in the loop body or input port of the chunk body node (node index {@link #BODY_INPUT}). */
+    private static final class Source {
+        private final int m_node;
+
+        private final int m_port;
+
+        Source(final int node, final int port) {
+            m_node = node;
+            m_port = port;
+        }
+    }
+
+    /** Everything needed to re-create a node of the loop body. */
+    private static final class BodyNode {
+        private final NodeID m_id;
+
+        private final NodeFactory<NodeModel> m_factory;
+
+        private final ModifiableNodeCreationConfiguration m_creationConfig;
+
+        private final NodeSettings m_modelSettings;
+
+        private final NodeSettingsRO m_variablesSettings;
+
+        /** Sources of the node's inputs including the flow variable port, elements can be null. */
+        private final Source[] m_inputs;
+
+        BodyNode(final NativeNodeContainer nnc) {
+            m_id = nnc.getID();
+            m_factory = nnc.getNode().getFactory();
+            m_creationConfig = nnc.getNode().getCopyOfCreationConfig().orElse(null);
+            final SingleNodeContainer.SingleNodeContainerSettings settings = nnc.getSingleNodeContainerSettings();
+            m_modelSettings = settings.getModelSettingsClone();
+            final NodeSettingsRO variablesSettings = settings.getVariablesSettings();
+            if (variablesSettings != null) {
+                final NodeSettings copy = new NodeSettings("variables");
+                variablesSettings.copyTo(copy);
+                m_variablesSettings = copy;
+            } else {
+                m_variablesSettings = null;
+            }
+            m_inputs = new Source[nnc.getNrInPorts()];
+        }
+    }
+
+    /** The loop body of one chunk. */
+    private final class Instance implements VirtualParallelizedChunkBody {
+
+        private final List<Node> m_createdNodes = new ArrayList<>();
+
+        private WorkflowDataRepository m_dataRepository;
+
+        /** {@inheritDoc} */
+        @Override
+        public PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            final NodeContainer bodyNC = NodeContext.getContext().getNodeContainer();
+            if (!(bodyNC instanceof NativeNodeContainer)) {
+                throw new IllegalStateException("Virtual chunk body must be executed in the context of its node");
+            }
+            // the instance is kept when the chunk body node is reset, release the nodes of a previous execution
+            dispose();
+            final FlowObjectStack bodyStack = bodyNC.getFlowObjectStack();
+            final Node chunkBodyNode = ((NativeNodeContainer)bodyNC).getNode();
+            final IFileStoreHandler fileStoreHandler = chunkBodyNode.getFileStoreHandler();
+            synchronized (m_createdNodes) {
+                m_dataRepository = bodyNC.getParent().getWorkflowDataRepository();
+            }
+
+            final Node[] nodes = new Node[m_nodes.length];
+            final FlowObjectStack[] outStacks = new FlowObjectStack[m_nodes.length];
+            for (int i = 0; i < m_nodes.length; i++) {
+                exec.checkCanceled();
+                final BodyNode bodyNode = m_nodes[i];
+                final Node node = new Node(bodyNode.m_factory, bodyNode.m_creationConfig);
+                synchronized (m_createdNodes) {
+                    m_createdNodes.add(node);
+                }
+                nodes[i] = node;
+
+                final PortObject[] in = new PortObject[bodyNode.m_inputs.length];
+                final List<FlowObjectStack> predStacks = new ArrayList<>();
+                for (int p = 0; p < in.length; p++) {
+                    final Source source = bodyNode.m_inputs[p];
+                    if (source == null) {
+                        continue;
+                    } else if (source.m_node == BODY_INPUT) {
+                        in[p] = source.m_port == 0 ? FlowVariablePortObject.INSTANCE : inObjects[source.m_port - 1];
+                        predStacks.add(bodyStack);
+                    } else {
+                        in[p] = nodes[source.m_node].getOutputObject(source.m_port);
+                        predStacks.add(outStacks[source.m_node]);
+                    }
+                }
+                if (in[0] == null) {
+                    in[0] = FlowVariablePortObject.INSTANCE;
+                }
+                if (predStacks.isEmpty()) {
+                    predStacks.add(bodyStack);
+                }
+                final FlowObjectStack inStack =
+                    new FlowObjectStack(bodyNode.m_id, predStacks.toArray(new FlowObjectStack[predStacks.size()]));
+                node.setFlowObjectStack(inStack, new FlowObjectStack(bodyNode.m_id));
+                node.setFileStoreHandler(fileStoreHandler);
+
+                final NodeMessage[] message = new NodeMessage[1];
+                node.addMessageListener(e -> message[0] = e.getMessage());
+                configure(node, bodyNode, inStack, in, message);
+                final ExecutionContext sub = exec.createSubExecutionContext(1.0 / m_nodes.length);
+                final ExecutionContext nodeExec = new ExecutionContext(sub.getProgressMonitor(), node,
+                    MemoryPolicy.CacheSmallInMemory, m_dataRepository);
+                if (!node.execute(in, nodeExec)) {
+                    exec.checkCanceled();
+                    throw new Exception(String.format("Execution of \"%s\" in loop body failed: %s", node.getName(),
+                        message[0] == null ? "unknown reason" : message[0].getMessage()));
+                }
+                putOutputTablesIntoRepository(node, nodeExec);
+                outStacks[i] = createOutFlowObjectStack(bodyNode.m_id, inStack, node);
+            }
+
+            final PortObject[] result = new PortObject[m_outputs.length];
+            for (int p = 0; p < result.length; p++) {
+                final Source source = m_outputs[p];
+                if (source == null) {
+                    continue;
+                } else if (source.m_node == BODY_INPUT) {
+                    result[p] = inObjects[source.m_port - 1];
+                } else {
+                    result[p] = nodes[source.m_node].getOutputObject(source.m_port);
+                }
+            }
+            pushFlowVariables(chunkBodyNode, bodyNC.getID(), bodyStack, outStacks);
+            return result;
+        }
+
+        /**
+         * Pushes the flow variables created by the loop body nodes connected to the loop end onto the outgoing stack
+         * of the chunk body node, so that they arrive at the chunk's end node like with copies of the loop body.
+         */
+        private void pushFlowVariables(final Node chunkBodyNode, final NodeID chunkBodyID,
+            final FlowObjectStack bodyStack, final FlowObjectStack[] outStacks) {
+            final List<FlowObjectStack> endStacks = new ArrayList<>();
+            for (Source source : m_outputs) {
+                if (source != null) {
+                    endStacks.add(source.m_node == BODY_INPUT ? bodyStack : outStacks[source.m_node]);
+                }
+            }
+            if (endStacks.isEmpty()) {
+                return;
+            }
+            final Set<NodeID> bodyIDs = new HashSet<>();
+            for (BodyNode bodyNode : m_nodes) {
+                bodyIDs.add(bodyNode.m_id);
+            }
+            final FlowObjectStack endStack =
+                new FlowObjectStack(chunkBodyID, endStacks.toArray(new FlowObjectStack[endStacks.size()]));
+            final List<FlowVariable> variables = new ArrayList<>();
+            for (FlowObject o : endStack) {
+                if (o instanceof FlowVariable && bodyIDs.contains(o.getOwner())) {
+                    variables.add((FlowVariable)o);
+                }
+            }
+            // the stack iterates top-down, push bottom-up
+            Collections.reverse(variables);
+            final FlowObjectStack outgoing = chunkBodyNode.getOutgoingFlowObjectStack();
+            for (FlowVariable v : variables) {
+                outgoing.push(FlowObjectStack.cloneUnsetOwner(v));
+            }
+        }
+
+        /** Loads the settings (with flow variables applied) and configures the node, mimics SingleNodeContainer. */
+        private void configure(final Node node, final BodyNode bodyNode, final FlowObjectStack inStack,
+            final PortObject[] in, final NodeMessage[] message) throws InvalidSettingsException {
+            final NodeSettings settings = new NodeSettings("model");
+            bodyNode.m_modelSettings.copyTo(settings);
+            final List<FlowVariable> exportedVariables;
+            if (bodyNode.m_variablesSettings != null) {
+                exportedVariables = SingleNodeContainer.overwriteModelSettingsWithFlowVariables(settings,
+                    bodyNode.m_variablesSettings, inStack.getAvailableFlowVariables(VariableType.getAllTypes()));
+            } else {
+                exportedVariables = Collections.emptyList();
+            }
+            node.validateModelSettings(settings);
+            node.loadModelSettingsFrom(settings);
+
+            final PortObjectSpec[] inSpecs = new PortObjectSpec[in.length];
+            inSpecs[0] = FlowVariablePortObjectSpec.INSTANCE;
+            for (int p = 1; p < in.length; p++) {
+                inSpecs[p] = in[p] == null ? null : in[p].getSpec();
+            }
+            if (!node.configure(inSpecs)) {
+                throw new InvalidSettingsException(String.format("Configuration of \"%s\" in loop body failed: %s",
+                    node.getName(), message[0] == null ? "unknown reason" : message[0].getMessage()));
+            }
+            final FlowObjectStack outgoing = node.getOutgoingFlowObjectStack();
+            for (int i = exportedVariables.size() - 1; i >= 0; i--) {
+                outgoing.push(exportedVariables.get(i));
+            }
+        }
+
+        /** Same as NativeNodeContainer#putOutputTablesIntoGlobalRepository. */
+        private void putOutputTablesIntoRepository(final Node node, final ExecutionContext exec) {
+            node.putOutputTablesIntoGlobalRepository(m_dataRepository);
+            final Set<ContainerTable> localTables = new LinkedHashSet<>();
+            for (Map.Entry<Integer, ContainerTable> t : Node.getLocalTableRepositoryFromContext(exec).entrySet()) {
+                if (!m_dataRepository.getTable(t.getKey()).isPresent()) {
+                    localTables.add(t.getValue());
+                }
+            }
+            node.addToTemporaryTables(localTables);
+        }
+
+        /** Same as SingleNodeContainer#createOutFlowObjectStack. */
+        private FlowObjectStack createOutFlowObjectStack(final NodeID id, final FlowObjectStack inStack,
+            final Node node) {
+            final FlowObjectStack finalStack = new FlowObjectStack(id, inStack);
+            final FlowObjectStack outgoingStack = node.getOutgoingFlowObjectStack();
+            if (outgoingStack != null) {
+                for (FlowObject v : outgoingStack.getFlowObjectsOwnedBy(id, Scope.Local)) {
+                    finalStack.push(v);
+                }
+            }
+            return finalStack;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void dispose() {
+            final List<Node> nodes;
+            final WorkflowDataRepository dataRepository;
+            synchronized (m_createdNodes) {
+                nodes = new ArrayList<>(m_createdNodes);
+                m_createdNodes.clear();
+                dataRepository = m_dataRepository;
+            }
+            Collections.reverse(nodes);
+            for (Node node : nodes) {
+                node.removeOutputTablesFromGlobalRepository(dataRepository);
+                node.setFileStoreHandler(null);
+                node.cleanup();
+            }
+        }
+    }
+
+}
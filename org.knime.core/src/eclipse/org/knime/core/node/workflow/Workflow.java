@@ -283,6 +283,26 @@ void addConnection(final ConnectionContainer cc) throws IllegalArgumentException
      */
     LinkedHashMap<NodeID, Set<Integer>> getBreadthFirstListOfNodeAndSuccessors(
             final NodeID id, final boolean skipWFM) {
+        // the analysis is repeated for each configure (e.g. each loop iteration), only copy the cached result
+        LinkedHashMap<NodeID, Set<Integer>> cached = m_successorCache.get(id);
+        if (cached == null) {
+            cached = createBreadthFirstListOfNodeAndSuccessors(id);
+            m_successorCache.put(id, cached);
+        }
+        LinkedHashMap<NodeID, Set<Integer>> bfsSortedNodes = new LinkedHashMap<NodeID, Set<Integer>>();
+        for (Map.Entry<NodeID, Set<Integer>> e : cached.entrySet()) {
+            bfsSortedNodes.put(e.getKey(), new HashSet<Integer>(e.getValue()));
+        }
+        // if wanted (and contained): remove WFM itself
+        if (skipWFM && bfsSortedNodes.keySet().contains(this.getID())) {
+            bfsSortedNodes.remove(this.getID());
+        }
+        return bfsSortedNodes;
+    }
+
+    /** Uncached implementation of {@link #getBreadthFirstListOfNodeAndSuccessors(NodeID, boolean)}, includes
+     * the WFM itself if it's a successor. */
+    private LinkedHashMap<NodeID, Set<Integer>> createBreadthFirstListOfNodeAndSuccessors(final NodeID id) {
         // assemble unsorted list of successors
         HashSet<NodeID> inclusionList = new HashSet<NodeID>();
         completeSet(inclusionList, id, -1);
@@ -293,10 +313,6 @@ LinkedHashMap<NodeID, Set<Integer>> getBreadthFirstListOfNodeAndSuccessors(
         // interest -  into the map
         bfsSortedNodes.put(id, new HashSet<Integer>());
         expandListBreadthFirst(bfsSortedNodes, inclusionList);
-        // if wanted (and contained): remove WFM itself
-        if (skipWFM && bfsSortedNodes.keySet().contains(this.getID())) {
-            bfsSortedNodes.remove(this.getID());
-        }
         return bfsSortedNodes;
     }
 
@@ -1500,6 +1516,19 @@ NodeID getMatchingLoopStart(final NodeID id) throws IllegalLoopException {
      */
     ArrayList<NodeAndInports> findAllNodesConnectedToLoopBody(final NodeID startNode, final NodeID endNode)
             throws IllegalLoopException {
+        // queried at least twice per loop iteration - only analyze once per loop (as long as the graph is unchanged)
+        final Pair<NodeID, NodeID> key = new Pair<NodeID, NodeID>(startNode, endNode);
+        List<NodeAndInports> cached = m_loopBodyCache.get(key);
+        if (cached == null) {
+            cached = Collections.unmodifiableList(createListOfNodesConnectedToLoopBody(startNode, endNode));
+            m_loopBodyCache.put(key, cached);
+        }
+        return new ArrayList<NodeAndInports>(cached);
+    }
+
+    /** Uncached implementation of {@link #findAllNodesConnectedToLoopBody(NodeID, NodeID)}. */
+    private ArrayList<NodeAndInports> createListOfNodesConnectedToLoopBody(final NodeID startNode,
+        final NodeID endNode) throws IllegalLoopException {
         ArrayList<NodeAndInports> tempOutput = findAllNodesInbetween(startNode, null, endNode);
         if (startNode.equals(endNode)) {
             // silly case - start = end node.
@@ -1603,9 +1632,19 @@ public NodeGraphAnnotation getSingleNodeGraphAnnotation(final NodeID id)
     /** hold graph based annotations for all nodes. */
     private ArrayList<NodeGraphAnnotation> m_nodeAnnotationCache = null;
 
+    /** loop bodies by loop start and end node, see {@link #findAllNodesConnectedToLoopBody(NodeID, NodeID)}. */
+    private final Map<Pair<NodeID, NodeID>, List<NodeAndInports>> m_loopBodyCache =
+        new HashMap<Pair<NodeID, NodeID>, List<NodeAndInports>>();
+
+    /** successors by node, see {@link #getBreadthFirstListOfNodeAndSuccessors(NodeID, boolean)}. */
+    private final Map<NodeID, LinkedHashMap<NodeID, Set<Integer>>> m_successorCache =
+        new HashMap<NodeID, LinkedHashMap<NodeID, Set<Integer>>>();
+
     /** clean cache - called internally whenever the structure (connections/nodes) are altered. */
     private void clearGraphAnnotationCache() {
         m_nodeAnnotationCache = null;
+        m_loopBodyCache.clear();
+        m_successorCache.clear();
         // also clear cache in parent - changes here may affect the connectivity outside as well.
         if (m_wfm != null && m_wfm.getParent() != null && m_wfm.getParent().getWorkflow() != null) {
             m_wfm.getParent().getWorkflow().clearGraphAnnotationCache();
@@ -60,6 +60,7 @@
 
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.MemoryBudget;
 import org.knime.core.data.filestore.internal.IFileStoreHandler;
 import org.knime.core.data.filestore.internal.IWriteFileStoreHandler;
 import org.knime.core.node.BufferedDataTable;
@@ -94,6 +95,9 @@ public class WorkflowDataRepository implements IDataRepository {
      */
     private final AtomicInteger LAST_ID = new AtomicInteger(0);
 
+    /** The budget all tables of the workflow held in memory are accounted against. */
+    private final MemoryBudget m_memoryBudget = MemoryBudget.fromSystemProperties();
+
     WorkflowDataRepository() {
         // synchronized as per bug 3383: workflow manager's table repository must synchronized
         // (problems with GroupLoop start "forgetting" its sorted table)
@@ -203,6 +207,16 @@ public void printValidFileStoreHandlersToLogDebug() {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.2
+     */
+    @Override
+    public Optional<MemoryBudget> getMemoryBudget() {
+        return Optional.of(m_memoryBudget);
+    }
+
     public Collection<IWriteFileStoreHandler> getWriteFileStoreHandlers() {
         return m_handlerMap.values();
     }
@@ -90,7 +90,6 @@
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -179,11 +178,16 @@
 import org.knime.core.node.workflow.action.MetaNodeToSubNodeResult;
 import org.knime.core.node.workflow.action.SubNodeToMetaNodeResult;
 import org.knime.core.node.workflow.capture.WorkflowFragment;
+import org.knime.core.node.workflow.changes.ChangesTracker;
+import org.knime.core.node.workflow.changes.TrackedChange;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionResult;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionStatus;
 import org.knime.core.node.workflow.execresult.WorkflowExecutionResult;
 import org.knime.core.node.workflow.virtual.parchunk.ParallelizedChunkContent;
 import org.knime.core.node.workflow.virtual.parchunk.ParallelizedChunkContentMaster;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBody;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBodyNodeFactory;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkBodyNodeModel;
 import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkNodeInput;
 import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
 import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeModel;
@@ -220,18 +224,6 @@ public final class WorkflowManager extends NodeContainer
      */
     private String m_name;
 
-    /** Executor for asynchronous event notification. */
-    private static final Executor WORKFLOW_NOTIFIER = Executors.newSingleThreadExecutor(new ThreadFactory() {
-        /** {@inheritDoc} */
-        @Override
-        public Thread newThread(final Runnable r) {
-            Thread t = new Thread(r, "KNIME-Workflow-Notifier");
-            t.setDaemon(true);
-            t.setPriority(Thread.MIN_PRIORITY);
-            return t;
-        }
-    });
-
     /**
      * Executor for asynchronous invocation of queueCheckForNodeStateChangeNotification in an unconnected parent. If a
      * queueCheckForNodeStateChangeNotification-Thread is already waiting, additional ones will be discarded.
@@ -3407,20 +3399,8 @@ private void parallelizeLoop(final NodeID startID) throws IllegalLoopException {
                 loopNodes[i] = loopBody.get(i).getID();
             }
             // creating matching sub workflow node holding all chunks
-            Set<Pair<NodeID, Integer>> exposedInports = findNodesWithExternalSources(startID, loopNodes);
             HashMap<Pair<NodeID, Integer>, Integer> extInConnections = new HashMap<Pair<NodeID, Integer>, Integer>();
-            PortType[] exposedInportTypes = new PortType[exposedInports.size() + 1];
-            // the first port is the variable port
-            exposedInportTypes[0] = FlowVariablePortObject.TYPE;
-            // the remaining ports cover the exposed inports of the loop body
-            int index = 1;
-            for (Pair<NodeID, Integer> npi : exposedInports) {
-                NodeContainer nc = getNodeContainer(npi.getFirst());
-                int portIndex = npi.getSecond();
-                exposedInportTypes[index] = nc.getInPort(portIndex).getPortType();
-                extInConnections.put(npi, index);
-                index++;
-            }
+            PortType[] exposedInportTypes = findExposedInports(startID, loopNodes, extInConnections);
             WorkflowManager subwfm = null;
             if (startNode.getNrRemoteChunks() > 0) {
                 subwfm = createAndAddSubWorkflow(exposedInportTypes, new PortType[0], "Parallel Chunks");
@@ -3442,11 +3422,17 @@ private void parallelizeLoop(final NodeID startID) throws IllegalLoopException {
                     }
                 }
             }
+            VirtualParallelizedChunkLoopBody virtualBody = null;
+            if (subwfm != null && Boolean.getBoolean(KNIMEConstants.PROPERTY_VIRTUAL_PARALLEL_CHUNKS)) {
+                virtualBody = VirtualParallelizedChunkLoopBody.create(this, startID, endID, loopBody,
+                    extInConnections).orElse(null);
+            }
             ParallelizedChunkContentMaster pccm =
                 new ParallelizedChunkContentMaster(subwfm, endNode, startNode.getNrRemoteChunks());
             for (int i = 0; i < startNode.getNrRemoteChunks(); i++) {
-                ParallelizedChunkContent copiedNodes =
-                    duplicateLoopBodyInSubWFMandAttach(subwfm, extInConnections, startID, endID, loopNodes, i);
+                ParallelizedChunkContent copiedNodes = virtualBody != null
+                    ? createVirtualChunkInSubWFM(subwfm, virtualBody, exposedInportTypes, startID, endID, i)
+                    : duplicateLoopBodyInSubWFMandAttach(subwfm, extInConnections, startID, endID, loopNodes, i);
                 copiedNodes.executeChunk();
                 pccm.addParallelChunk(i, copiedNodes);
             }
@@ -3455,6 +3441,33 @@ private void parallelizeLoop(final NodeID startID) throws IllegalLoopException {
         }
     }
 
+    /*
+     * Determine the inports of the metanode holding the chunks of a parallel chunk loop.
+     *
+     * @param startID id of the loop start node
+     * @param loopNodes the nodes of the loop body
+     * @param extInConnections filled with the inports of the loop body connected to nodes outside the loop, mapped to
+     *            the index of the corresponding inport of the metanode
+     * @return the port types of the metanode, the first port is the variable port
+     */
+    private PortType[] findExposedInports(final NodeID startID, final NodeID[] loopNodes,
+        final Map<Pair<NodeID, Integer>, Integer> extInConnections) {
+        Set<Pair<NodeID, Integer>> exposedInports = findNodesWithExternalSources(startID, loopNodes);
+        PortType[] exposedInportTypes = new PortType[exposedInports.size() + 1];
+        // the first port is the variable port
+        exposedInportTypes[0] = FlowVariablePortObject.TYPE;
+        // the remaining ports cover the exposed inports of the loop body
+        int index = 1;
+        for (Pair<NodeID, Integer> npi : exposedInports) {
+            NodeContainer nc = getNodeContainer(npi.getFirst());
+            int portIndex = npi.getSecond();
+            exposedInportTypes[index] = nc.getInPort(portIndex).getPortType();
+            extInConnections.put(npi, index);
+            index++;
+        }
+        return exposedInportTypes;
+    }
+
     /*
      * Identify all nodes that have incoming connections which are not part
      * of a given set of nodes.
@@ -3632,6 +3645,143 @@ private ParallelizedChunkContent duplicateLoopBodyInSubWFMandAttach(final Workfl
         return new ParallelizedChunkContent(subWFM, virtualStartID, virtualEndID, newIDs);
     }
 
+    /*
+     * Counterpart of duplicateLoopBodyInSubWFMandAttach for the virtual mode: instead of copying the loop body, a
+     * single node executing the loop body is added between the virtual start and end node of the chunk.
+     *
+     * @param subWFM the metanode holding the chunks, its inports 1..n are the external inputs of the loop body
+     * @param virtualBody the loop body to execute
+     * @param exposedInportTypes port types of subWFM (including the flow variable port)
+     * ...
+     */
+    private ParallelizedChunkContent createVirtualChunkInSubWFM(final WorkflowManager subWFM,
+        final VirtualParallelizedChunkLoopBody virtualBody, final PortType[] exposedInportTypes, final NodeID startID,
+        final NodeID endID, final int chunkIndex) {
+        assert m_workflowLock.isHeldByCurrentThread();
+        final int[] moveUIDist = new int[]{0, (chunkIndex + 1) * 150, 0, 0};
+        NodeContainer startNode = getNodeContainer(startID);
+        PortType[] outTypes = new PortType[startNode.getNrOutPorts() - 1];
+        for (int i = 0; i < outTypes.length; i++) {
+            outTypes[i] = startNode.getOutPort(i + 1).getPortType();
+        }
+        NodeContainer endNode = getNodeContainer(endID);
+        PortType[] realInTypes = new PortType[endNode.getNrInPorts() - 1];
+        for (int i = 0; i < realInTypes.length; i++) {
+            realInTypes[i] = endNode.getInPort(i + 1).getPortType();
+        }
+        // the body gets the chunk's data followed by the external inputs
+        PortType[] bodyInTypes = new PortType[outTypes.length + exposedInportTypes.length - 1];
+        System.arraycopy(outTypes, 0, bodyInTypes, 0, outTypes.length);
+        System.arraycopy(exposedInportTypes, 1, bodyInTypes, outTypes.length, exposedInportTypes.length - 1);
+
+        NodeID virtualStartID = subWFM.createAndAddNode(new VirtualParallelizedChunkPortObjectInNodeFactory(outTypes));
+        NodeID bodyID = subWFM.createAndAddNode(new VirtualParallelizedChunkBodyNodeFactory(bodyInTypes, realInTypes));
+        NodeID virtualEndID =
+            subWFM.createAndAddNode(new VirtualParallelizedChunkPortObjectOutNodeFactory(realInTypes));
+        NodeUIInformation startUIPlain = startNode.getUIInformation();
+        if (startUIPlain != null) {
+            NodeUIInformation startUI = NodeUIInformation.builder(startUIPlain).translate(moveUIDist).build();
+            subWFM.getNodeContainer(virtualStartID).setUIInformation(startUI);
+            subWFM.getNodeContainer(bodyID)
+                .setUIInformation(NodeUIInformation.builder(startUI).translate(new int[]{150, 0, 0, 0}).build());
+        }
+        NodeUIInformation endUIPlain = endNode.getUIInformation();
+        if (endUIPlain != null) {
+            NodeUIInformation endUI = NodeUIInformation.builder(endUIPlain).translate(moveUIDist).build();
+            subWFM.getNodeContainer(virtualEndID).setUIInformation(endUI);
+        }
+        for (int p = 1; p <= outTypes.length; p++) {
+            subWFM.addConnection(virtualStartID, p, bodyID, p);
+        }
+        for (int p = 1; p < exposedInportTypes.length; p++) {
+            subWFM.addConnection(subWFM.getID(), p, bodyID, outTypes.length + p);
+        }
+        for (int p = 1; p <= realInTypes.length; p++) {
+            subWFM.addConnection(bodyID, p, virtualEndID, p);
+        }
+        // add variable connection to port 0 of WFM (only the first time)
+        if (this.canAddConnection(startID, 0, subWFM.getID(), 0)) {
+            this.addConnection(startID, 0, subWFM.getID(), 0);
+        }
+        subWFM.addConnection(subWFM.getID(), 0, virtualStartID, 0);
+
+        LoopStartParallelizeNode startModel = castNodeModel(startID, LoopStartParallelizeNode.class);
+        VirtualParallelizedChunkNodeInput data = startModel.getVirtualNodeInput(chunkIndex);
+        subWFM.castNodeModel(virtualStartID, VirtualParallelizedChunkPortObjectInNodeModel.class)
+            .setVirtualNodeInput(data);
+        subWFM.castNodeModel(bodyID, VirtualParallelizedChunkBodyNodeModel.class)
+            .setVirtualChunkBody(virtualBody.newInstance());
+        return new ParallelizedChunkContent(subWFM, virtualStartID, virtualEndID, new NodeID[]{bodyID});
+    }
+
+    /**
+     * Re-creates the loop body executed by the node of a chunk of a parallel chunk loop that runs in virtual mode (see
+     * {@link KNIMEConstants#PROPERTY_VIRTUAL_PARALLEL_CHUNKS}). The loop body isn't saved with the workflow, it's
+     * taken from the loop in this workflow when the chunk is executed again after the workflow has been loaded.
+     *
+     * @param chunkBodyID the id of the chunk's body node, contained in a metanode holding the chunks of a loop in this
+     *            workflow
+     * @return the loop body, not executed
+     * @throws IllegalStateException if the loop has been changed so that its body can't be executed by the node
+     * @noreference This method is not intended to be referenced by clients.
+     * @since 4.2
+     */
+    public VirtualParallelizedChunkBody createVirtualParallelizedChunkBody(final NodeID chunkBodyID) {
+        try (WorkflowLock lock = lock()) {
+            final WorkflowManager subWFM = (WorkflowManager)getNodeContainer(chunkBodyID.getPrefix());
+            final NodeContainer bodyNode = subWFM.getNodeContainer(chunkBodyID);
+            // the flow variable port of the metanode is connected to the loop start
+            final ConnectionContainer startConnection = getIncomingConnectionFor(subWFM.getID(), 0);
+            if (startConnection == null) {
+                throw new IllegalStateException("Metanode holding the chunks isn't connected to the loop start");
+            }
+            final NodeID startID = startConnection.getSource();
+            final NodeID endID;
+            try {
+                castNodeModel(startID, LoopStartParallelizeNode.class);
+                endID = m_workflow.getMatchingLoopEnd(startID);
+            } catch (IllegalArgumentException | IllegalLoopException e) {
+                throw new IllegalStateException("Parallel chunk loop not found: " + e.getMessage(), e);
+            }
+            final ArrayList<NodeAndInports> loopBody = m_workflow.findAllNodesConnectedToLoopBody(startID, endID);
+            NodeID[] loopNodes = new NodeID[loopBody.size()];
+            for (int i = 0; i < loopBody.size(); i++) {
+                loopNodes[i] = loopBody.get(i).getID();
+            }
+            HashMap<Pair<NodeID, Integer>, Integer> extInConnections = new HashMap<Pair<NodeID, Integer>, Integer>();
+            PortType[] exposedInportTypes = findExposedInports(startID, loopNodes, extInConnections);
+
+            // the loop must still fit to the ports of the node, see createVirtualChunkInSubWFM
+            final NodeContainer startNode = getNodeContainer(startID);
+            final NodeContainer endNode = getNodeContainer(endID);
+            final List<PortType> expectedIn = new ArrayList<>();
+            for (int i = 1; i < startNode.getNrOutPorts(); i++) {
+                expectedIn.add(startNode.getOutPort(i).getPortType());
+            }
+            expectedIn.addAll(Arrays.asList(exposedInportTypes).subList(1, exposedInportTypes.length));
+            final List<PortType> expectedOut = new ArrayList<>();
+            for (int i = 1; i < endNode.getNrInPorts(); i++) {
+                expectedOut.add(endNode.getInPort(i).getPortType());
+            }
+            final List<PortType> actualIn = new ArrayList<>();
+            for (int i = 1; i < bodyNode.getNrInPorts(); i++) {
+                actualIn.add(bodyNode.getInPort(i).getPortType());
+            }
+            final List<PortType> actualOut = new ArrayList<>();
+            for (int i = 1; i < bodyNode.getNrOutPorts(); i++) {
+                actualOut.add(bodyNode.getOutPort(i).getPortType());
+            }
+            if (!expectedIn.equals(actualIn) || !expectedOut.equals(actualOut)) {
+                throw new IllegalStateException(
+                    "Ports of the parallel chunk loop have changed, execute the loop again (reset the loop start)");
+            }
+            return VirtualParallelizedChunkLoopBody.create(this, startID, endID, loopBody, extInConnections)
+                .orElseThrow(() -> new IllegalStateException(
+                    "Loop body can't be executed virtually anymore, execute the loop again (reset the loop start)"))
+                .newInstance();
+        }
+    }
+
     /**
      * Check if we can expand the selected metanode into a set of nodes in this WFM. This essentially checks if the
      * nodes can be moved (=deleted from the original WFM) or if they are executed
@@ -5630,7 +5780,7 @@ InternalNodeContainerState computeNewState() {
                 if (nop == null) {
                     allPopulated = false;
                     inportState = IDLE;
-                } else if (nop.getPortObject() == null) {
+                } else if (!nop.hasPortObject()) {
                     allPopulated = false;
                     switch (nop.getNodeState()) {
                         case IDLE:
@@ -7443,7 +7593,7 @@ public void removeListener(final WorkflowListener listener) {
      */
     final void notifyWorkflowListeners(final WorkflowEvent evt) {
         if (!evt.getType().equals(WorkflowEvent.Type.WORKFLOW_DIRTY)) {
-            findChangesTracker().ifPresent(ct -> ct.otherChange());
+            findChangesTracker().ifPresent(ct -> logWorkflowEvent(ct, evt));
         }
         if (m_wfmListeners.isEmpty()) {
             return;
@@ -7454,15 +7604,45 @@ final void notifyWorkflowListeners(final WorkflowEvent evt) {
         // the workflow editor was registered and marked the flow as being dirty
         // although it was freshly loaded)
         final Iterator<WorkflowListener> it = m_wfmListeners.iterator();
-        WORKFLOW_NOTIFIER.execute(new Runnable() {
-            /** {@inheritDoc} */
-            @Override
-            public void run() {
-                while (it.hasNext()) {
-                    it.next().workflowChanged(evt);
-                }
+        final Runnable delivery = () -> {
+            while (it.hasNext()) {
+                it.next().workflowChanged(evt);
             }
-        });
+        };
+        if (evt.getType() == WorkflowEvent.Type.WORKFLOW_DIRTY) {
+            // dirty events carry no further information, undelivered ones of this workflow are collapsed
+            CoalescingEventDispatcher.getInstance().post(Arrays.asList(this, WorkflowEvent.Type.WORKFLOW_DIRTY),
+                delivery);
+        } else {
+            CoalescingEventDispatcher.getInstance().post(delivery);
+        }
+    }
+
+    /** Records a workflow event in the change log. */
+    private void logWorkflowEvent(final ChangesTracker tracker, final WorkflowEvent evt) {
+        switch (evt.getType()) {
+            case NODE_ADDED:
+                tracker.otherChange(TrackedChange.Type.NODE_ADDED, evt.getID());
+                break;
+            case NODE_REMOVED:
+                tracker.otherChange(TrackedChange.Type.NODE_REMOVED, evt.getID());
+                break;
+            case NODE_SETTINGS_CHANGED:
+                tracker.otherChange(TrackedChange.Type.NODE, evt.getID());
+                break;
+            case CONNECTION_ADDED:
+            case CONNECTION_REMOVED:
+                final Object cc = evt.getNewValue() != null ? evt.getNewValue() : evt.getOldValue();
+                tracker.otherChange(TrackedChange.Type.CONNECTION,
+                    cc instanceof ConnectionContainer ? ((ConnectionContainer)cc).getDest() : getID());
+                break;
+            case ANNOTATION_ADDED:
+            case ANNOTATION_REMOVED:
+                tracker.otherChange(TrackedChange.Type.ANNOTATION, null);
+                break;
+            default:
+                tracker.otherChange(TrackedChange.Type.WORKFLOW, getID());
+        }
     }
 
     // bug fix 1810, notify children about possible job manager changes
@@ -7840,6 +8020,7 @@ public WorkflowLoadResult load(final FileWorkflowPersistor persistor, final Exec
         final ReferencedFile refDirectory = persistor.getMetaPersistor().getNodeContainerDirectory();
         final File directory = refDirectory.getFile();
         final WorkflowLoadResult result = new WorkflowLoadResult(directory.getName());
+        final long loadStart = System.currentTimeMillis();
         load(persistor, result, exec, keepNodeMessages);
         final WorkflowManager manager = result.getWorkflowManager();
         if (!directory.canWrite()) {
@@ -7891,6 +8072,8 @@ public WorkflowLoadResult load(final FileWorkflowPersistor persistor, final Exec
             default:
                 message.append("with ").append(result.getType());
         }
+        // port objects (and table content) are restored on first access, see FileNodePersistor#loadPort
+        message.append(" (time to open: ").append(System.currentTimeMillis() - loadStart).append(" ms)");
         LOGGER.debug(message.toString());
         return result;
     }
@@ -8583,7 +8766,7 @@ boolean sweep(final Set<NodeID> nodes, final boolean propagate) {
                     if (nc instanceof SingleNodeContainer) {
                         for (int i = 0; i < nc.getNrOutPorts(); i++) {
                             NodeOutPort p = nc.getOutPort(i);
-                            hasData &= p != null && p.getPortObject() != null && p.getPortObjectSpec() != null;
+                            hasData &= p != null && p.hasPortObject() && p.getPortObjectSpec() != null;
                         }
                     }
                     if (!hasData && nc.getInternalState().equals(EXECUTED)) {
@@ -48,11 +48,27 @@
  */
 package org.knime.core.node.workflow.changes;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeID;
 
 /**
  * Tracks changes of a {@link NodeContainer} and their (potential) children.
  *
+ * <p>
+ * Besides flags whether there are changes since the last save, the tracker keeps a versioned log of the most recent
+ * changes (see {@link #getChangesSince(long)}) so that clients mirroring the workflow only need to update the parts
+ * that changed.
+ *
  * Pending API! Do not use!
  *
  * @author Martin Horn, KNIME GmbH, Konstanz, Germany
@@ -62,19 +78,38 @@
  */
 public final class ChangesTracker {
 
+    /** Default maximum number of changes kept in the log. */
+    static final int DEFAULT_MAX_LOG_SIZE = 10000;
+
     private boolean m_hasNodeStateChanges;
 
     private boolean m_hasOtherChanges;
 
+    private final int m_maxLogSize;
+
+    /** The most recent changes, oldest first; guarded by this. */
+    private final ArrayDeque<TrackedChange> m_log = new ArrayDeque<>();
+
+    /** Version of the most recent change; guarded by this. */
+    private long m_version;
+
     /**
      *
      */
     public ChangesTracker() {
+        this(DEFAULT_MAX_LOG_SIZE);
+    }
+
+    /**
+     * @param maxLogSize maximum number of changes kept in the log
+     */
+    ChangesTracker(final int maxLogSize) {
+        m_maxLogSize = maxLogSize;
         clearChanges();
     }
 
     /**
-     * Clears all the changes tracked so far.
+     * Clears all the changes tracked so far. The change log is not affected.
      */
     public void clearChanges() {
         m_hasNodeStateChanges = false;
@@ -88,6 +123,17 @@ public void nodeStateChange() {
         m_hasNodeStateChanges = true;
     }
 
+    /**
+     * Indicates a node state change to be tracked and logs it.
+     *
+     * @param nodeID the node whose state changed
+     * @since 4.2
+     */
+    public void nodeStateChange(final NodeID nodeID) {
+        m_hasNodeStateChanges = true;
+        log(TrackedChange.Type.NODE_STATE, nodeID);
+    }
+
     /**
      * Indicates another change that is not a node state change to be tracked.
      */
@@ -95,6 +141,75 @@ public void otherChange() {
         m_hasOtherChanges = true;
     }
 
+    /**
+     * Indicates another change that is not a node state change to be tracked and logs it.
+     *
+     * @param type the kind of change
+     * @param nodeID the node associated with the change (see {@link TrackedChange.Type}), may be <code>null</code>
+     * @since 4.2
+     */
+    public void otherChange(final TrackedChange.Type type, final NodeID nodeID) {
+        m_hasOtherChanges = true;
+        log(type, nodeID);
+    }
+
+    /**
+     * Logs a change without tracking it as a change that needs to be saved, e.g. a new node message.
+     *
+     * @param type the kind of change
+     * @param nodeID the node associated with the change (see {@link TrackedChange.Type}), may be <code>null</code>
+     * @since 4.2
+     */
+    public synchronized void log(final TrackedChange.Type type, final NodeID nodeID) {
+        m_version++;
+        m_log.addLast(new TrackedChange(m_version, type, nodeID));
+        if (m_log.size() > m_maxLogSize) {
+            m_log.removeFirst();
+        }
+    }
+
+    /**
+     * @return the version of the most recent logged change, 0 if there is none
+     * @since 4.2
+     */
+    public synchronized long getVersion() {
+        return m_version;
+    }
+
+    /**
+     * Returns the changes logged after the given version. Of repeated changes of the same type and node only the most
+     * recent one is returned. The changes are ordered by their version.
+     *
+     * @param version a version as returned by {@link #getVersion()}
+     * @return the changes since the version or an empty optional if they aren't known anymore (because the log has been
+     *         truncated or the version is unknown); the client then needs to fetch the complete state
+     * @since 4.2
+     */
+    public synchronized Optional<List<TrackedChange>> getChangesSince(final long version) {
+        if (version > m_version || version < 0) {
+            return Optional.empty();
+        }
+        if (version == m_version) {
+            return Optional.of(Collections.emptyList());
+        }
+        if (m_log.isEmpty() || m_log.peekFirst().getVersion() > version + 1) {
+            return Optional.empty();
+        }
+        final List<TrackedChange> changes = new ArrayList<>();
+        final Set<List<Object>> seen = new HashSet<>();
+        for (Iterator<TrackedChange> it = m_log.descendingIterator(); it.hasNext();) {
+            final TrackedChange change = it.next();
+            if (change.getVersion() <= version) {
+                break;
+            }
+            if (seen.add(Arrays.asList(change.getType(), change.getNodeID().orElse(null)))) {
+                changes.add(change);
+            }
+        }
+        Collections.reverse(changes);
+        return Optional.of(changes);
+    }
+
     /**
      * @return the tracked changes
      */
@@ -110,6 +225,16 @@ public boolean hasNodeStateChanges() {
             public boolean hasOtherChanges() {
                 return m_hasOtherChanges;
             }
+
+            @Override
+            public long getVersion() {
+                return ChangesTracker.this.getVersion();
+            }
+
+            @Override
+            public Optional<List<TrackedChange>> getChangesSince(final long version) {
+                return ChangesTracker.this.getChangesSince(version);
+            }
         };
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow.changes;
+
+import java.util.Optional;
+
+import org.knime.core.node.workflow.NodeID;
+
+/**
+ * A single entry of the change log kept by a {@link ChangesTracker}. Clients that mirror a workflow (e.g. a remote
+ * workflow editor) can ask for the changes since the version they have seen last and only update the affected parts.
+ *
+ * Pending API! Do not use!
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class TrackedChange {
+
+    /** The kind of a change. */
+    public enum Type {
+            /** The state of a node changed. */
+            NODE_STATE,
+            /** The message of a node changed. */
+            NODE_MESSAGE,
+            /** Another property of a node changed, e.g. its settings, UI information or job manager. */
+            NODE,
+            /** A node has been added. */
+            NODE_ADDED,
+            /** A node has been removed. */
+            NODE_REMOVED,
+            /** A connection has been added or removed; the node is the destination of the connection. */
+            CONNECTION,
+            /** An annotation has been added or removed; no node is associated. */
+            ANNOTATION,
+            /** Any other change of the workflow; the node is the (sub-)workflow that changed. */
+            WORKFLOW;
+    }
+
+    private final long m_version;
+
+    private final Type m_type;
+
+    private final NodeID m_nodeID;
+
+    TrackedChange(final long version, final Type type, final NodeID nodeID) {
+        m_version = version;
+        m_type = type;
+        m_nodeID = nodeID;
+    }
+
+    /**
+     * @return the version of the change log after this change
+     */
+    public long getVersion() {
+        return m_version;
+    }
+
+    /**
+     * @return the kind of the change
+     */
+    public Type getType() {
+        return m_type;
+    }
+
+    /**
+     * @return the node that changed (see {@link Type} for its meaning), if any
+     */
+    public Optional<NodeID> getNodeID() {
+        return Optional.ofNullable(m_nodeID);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return m_version + ": " + m_type + (m_nodeID == null ? "" : " " + m_nodeID);
+    }
+}
@@ -48,6 +48,9 @@
  */
 package org.knime.core.node.workflow.changes;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.knime.core.node.workflow.NodeContainer;
 
 /**
@@ -71,4 +74,19 @@ public interface TrackedChanges {
      * @return <code>true</code> if changes that are not node state changes have been tracked
      */
     boolean hasOtherChanges();
+
+    /**
+     * @return the version of the most recent logged change
+     * @since 4.2
+     * @see ChangesTracker#getVersion()
+     */
+    long getVersion();
+
+    /**
+     * @param version a version as returned by {@link #getVersion()}
+     * @return the changes since the version or an empty optional if they aren't known anymore
+     * @since 4.2
+     * @see ChangesTracker#getChangesSince(long)
+     */
+    Optional<List<TrackedChange>> getChangesSince(long version);
 }
@@ -218,4 +218,15 @@ public void stateChanged(final NodeStateEvent state) {
         m_endNode.updateStatus();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The end node re-reads the state of all chunks on update, hence it only needs the latest event of each chunk and
+     * doesn't need to be notified while the chunk's workflow lock is held.
+     */
+    @Override
+    public boolean requiresSynchronousNotification() {
+        return false;
+    }
+
 }
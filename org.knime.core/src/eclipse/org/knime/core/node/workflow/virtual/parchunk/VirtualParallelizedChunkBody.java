@@ -0,0 +1,80 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow.virtual.parchunk;
+
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.port.PortObject;
+
+/**
+ * The loop body of a parallel chunk loop that is executed by a single {@link VirtualParallelizedChunkBodyNodeModel}
+ * instead of by copies of the loop body's node containers. An instance is bound to one chunk; it creates its own node
+ * instances on {@link #execute(PortObject[], ExecutionContext) execution}, which are kept until {@link #dispose()}.
+ * It can be executed again after it has been disposed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @noreference This interface is not intended to be referenced by clients.
+ */
+public interface VirtualParallelizedChunkBody {
+
+    /**
+     * Executes the loop body on the given input. Must be called from the thread executing the
+     * {@link VirtualParallelizedChunkBodyNodeModel}, i.e. with its node context set. Flow variables created by the
+     * nodes of the loop body are pushed onto the outgoing stack of that node.
+     *
+     * @param inObjects the input of the loop body: the chunk's data (as provided by the virtual input node) followed
+     *            by the objects of the ports connecting the loop body with nodes outside the loop
+     * @param exec the context of the executing node, used for progress and cancelation
+     * @return the objects arriving at the inputs of the loop end node (excluding its flow variable port). They are
+     *         owned by the nodes created by this instance and must be copied before {@link #dispose()} is called.
+     * @throws Exception if any node of the loop body fails or execution is canceled
+     */
+    PortObject[] execute(PortObject[] inObjects, ExecutionContext exec) throws Exception;
+
+    /** Releases the nodes created during execution, including their output tables. Can be called multiple times. */
+    void dispose();
+
+}
@@ -0,0 +1,150 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow.virtual.parchunk;
+
+import org.knime.core.node.DynamicNodeFactory;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeDescription;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.config.ConfigRO;
+import org.knime.core.node.config.ConfigWO;
+import org.knime.core.node.port.PortType;
+
+/**
+ * Factory for the {@link VirtualParallelizedChunkBodyNodeModel}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class VirtualParallelizedChunkBodyNodeFactory
+    extends DynamicNodeFactory<VirtualParallelizedChunkBodyNodeModel> {
+
+    private static final String CFG_IN_PORTS = "inPorts";
+
+    private static final String CFG_OUT_PORTS = "outPorts";
+
+    private PortType[] m_inTypes;
+
+    private PortType[] m_outTypes;
+
+    /** Serialization constructor. */
+    public VirtualParallelizedChunkBodyNodeFactory() {
+    }
+
+    /**
+     * @param inTypes types of the chunk's data ports followed by the types of the external inputs of the loop body
+     * @param outTypes types of the loop end node's inputs (excluding the flow variable port)
+     */
+    public VirtualParallelizedChunkBodyNodeFactory(final PortType[] inTypes, final PortType[] outTypes) {
+        if (inTypes == null || outTypes == null) {
+            throw new NullPointerException("Port type array argument must not be null");
+        }
+        m_inTypes = inTypes;
+        m_outTypes = outTypes;
+        init();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected NodeDescription createNodeDescription() {
+        return super.parseNodeDescriptionFromFile();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VirtualParallelizedChunkBodyNodeModel createNodeModel() {
+        return new VirtualParallelizedChunkBodyNodeModel(m_inTypes, m_outTypes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected int getNrNodeViews() {
+        return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeView<VirtualParallelizedChunkBodyNodeModel> createNodeView(final int viewIndex,
+        final VirtualParallelizedChunkBodyNodeModel nodeModel) {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean hasDialog() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected NodeDialogPane createNodeDialogPane() {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void loadAdditionalFactorySettings(final ConfigRO config) throws InvalidSettingsException {
+        super.loadAdditionalFactorySettings(config);
+        m_inTypes = VirtualParallelizedChunkPortObjectInNodeFactory.loadPortTypeList(config.getConfig(CFG_IN_PORTS));
+        m_outTypes =
+            VirtualParallelizedChunkPortObjectInNodeFactory.loadPortTypeList(config.getConfig(CFG_OUT_PORTS));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void saveAdditionalFactorySettings(final ConfigWO config) {
+        super.saveAdditionalFactorySettings(config);
+        VirtualParallelizedChunkPortObjectInNodeFactory.savePortTypeList(m_inTypes, config.addConfig(CFG_IN_PORTS));
+        VirtualParallelizedChunkPortObjectInNodeFactory.savePortTypeList(m_outTypes, config.addConfig(CFG_OUT_PORTS));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeType getType() {
+        return NodeType.Other;
+    }
+
+}
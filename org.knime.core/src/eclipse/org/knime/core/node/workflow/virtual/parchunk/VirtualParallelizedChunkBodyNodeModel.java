@@ -0,0 +1,205 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow.virtual.parchunk;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.NodeContainer;
+import org.knime.core.node.workflow.NodeContext;
+
+/**
+ * Node model that runs the complete loop body of one parallel chunk, see {@link VirtualParallelizedChunkBody}. It
+ * replaces the copy of the loop body's nodes when the parallel chunk loop is executed in virtual mode. The inputs are
+ * the chunk's data followed by the data of nodes outside the loop that are connected to the loop body, the outputs
+ * correspond to the inputs of the loop end node.
+ *
+ * <p>
+ * Tables created in the loop body are copied into tables owned by this node (including blobs) so that the nodes
+ * executing the loop body can be disposed right after execution. Flow variables created in the loop body are pushed
+ * by this node. The loop body is kept on reset; after the workflow has been loaded it is re-created from the loop.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class VirtualParallelizedChunkBodyNodeModel extends NodeModel {
+
+    private VirtualParallelizedChunkBody m_body;
+
+    /**
+     * @param inTypes types of the chunk's data ports followed by the types of the external inputs of the loop body
+     * @param outTypes types of the loop end node's inputs (excluding the flow variable port)
+     */
+    VirtualParallelizedChunkBodyNodeModel(final PortType[] inTypes, final PortType[] outTypes) {
+        super(inTypes, outTypes);
+    }
+
+    /**
+     * Sets the loop body to be executed by this node.
+     *
+     * @param body the loop body, bound to the chunk of this node
+     */
+    public void setVirtualChunkBody(final VirtualParallelizedChunkBody body) {
+        m_body = body;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        // output specs are only known after the loop body has been executed
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+        if (m_body == null) {
+            // the loop body isn't saved with the workflow, take it from the loop (e.g. after the workflow was loaded)
+            final NodeContainer nc = NodeContext.getContext().getNodeContainer();
+            m_body = nc.getParent().getParent().createVirtualParallelizedChunkBody(nc.getID());
+        }
+        try {
+            PortObject[] bodyOut = m_body.execute(inObjects, exec.createSubExecutionContext(0.9));
+            ExecutionContext copyExec = exec.createSubExecutionContext(0.1);
+            PortObject[] result = new PortObject[bodyOut.length];
+            for (int i = 0; i < bodyOut.length; i++) {
+                final PortObject o = bodyOut[i];
+                if (o instanceof BufferedDataTable && !Arrays.asList(inObjects).contains(o)) {
+                    copyExec.setMessage("Copying output " + (i + 1));
+                    result[i] = copyTable((BufferedDataTable)o,
+                        copyExec.createSubExecutionContext(1.0 / bodyOut.length));
+                } else {
+                    // non-table objects are not owned by a node; input tables are passed through
+                    result[i] = o;
+                }
+            }
+            return result;
+        } finally {
+            m_body.dispose();
+        }
+    }
+
+    private static BufferedDataTable copyTable(final BufferedDataTable table, final ExecutionContext exec)
+        throws CanceledExecutionException {
+        final BufferedDataContainer container = exec.createDataContainer(table.getDataTableSpec(), true);
+        final double size = Math.max(table.size(), 1);
+        long row = 0;
+        try (CloseableRowIterator it = table.iterator()) {
+            while (it.hasNext()) {
+                final DataRow r = it.next();
+                exec.checkCanceled();
+                exec.setProgress(row++ / size);
+                container.addRowToTable(r);
+            }
+        } finally {
+            container.close();
+        }
+        return container.getTable();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void reset() {
+        // keep the loop body, the chunk can be re-executed
+        if (m_body != null) {
+            m_body.dispose();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void onDispose() {
+        reset();
+        m_body = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void saveSettingsTo(final NodeSettingsWO settings) {
+        // no settings
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+        // no settings
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+        // no settings
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void loadInternals(final File nodeInternDir, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        // no internals
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void saveInternals(final File nodeInternDir, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        // no internals
+    }
+
+}
@@ -0,0 +1,407 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * Appender that hands log events over to a background thread, which passes them on to a delegate appender. Events are
+ * queued in a bounded lock-free ring buffer so that logging threads neither wait for the file system nor for each
+ * other. The background thread writes all queued events in one batch and flushes the delegate only once per batch if
+ * the delegate is a {@link LogfileAppender}.
+ *
+ * <p>
+ * The appender takes over the name, the threshold and the filters of the delegate, i.e. events are filtered on the
+ * logging thread and changes to the filters (e.g. via {@link org.knime.core.node.NodeLogger#setAppenderLevelRange})
+ * must be applied to this appender.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class AsyncLogAppender extends AppenderSkeleton {
+
+    /** What to do if an event is logged while the buffer is full. */
+    public enum OverflowPolicy {
+            /** Wait until the event can be queued. */
+            BLOCK,
+            /** Discard debug and info events, wait for all others. */
+            DROP;
+    }
+
+    /** Default buffer size, see {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING_BUFFER_SIZE}. */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** Maximum number of events written before the delegate is flushed. */
+    private static final int MAX_BATCH_SIZE = 512;
+
+    /** Time the worker waits for new events before checking again (in case a wake-up got lost). */
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Time a logging thread waits before retrying to queue an event into a full buffer. */
+    private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Time {@link #close()} waits for the queued events to be written. */
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final Appender m_delegate;
+
+    private final boolean m_flushPerBatch;
+
+    private final OverflowPolicy m_policy;
+
+    private final AtomicReferenceArray<LoggingEvent> m_buffer;
+
+    private final int m_mask;
+
+    /** Index of the next event to be taken by the worker; only written by the worker. */
+    private final AtomicLong m_head = new AtomicLong();
+
+    /** Index of the next free slot, claimed by the logging threads. */
+    private final AtomicLong m_tail = new AtomicLong();
+
+    private final AtomicLong m_dropCount = new AtomicLong();
+
+    private final Thread m_worker;
+
+    private final Thread m_shutdownHook;
+
+    private volatile boolean m_workerWaiting;
+
+    /** Same as {@link AppenderSkeleton#closed} but visible to the worker thread. */
+    private volatile boolean m_closing;
+
+    private volatile boolean m_stopped;
+
+    /**
+     * Creates a new appender whose buffer size and overflow policy are read from the system properties
+     * {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING_BUFFER_SIZE} and
+     * {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING_POLICY}.
+     *
+     * @param delegate the appender the events are finally passed to, already activated
+     */
+    public AsyncLogAppender(final Appender delegate) {
+        this(delegate, getBufferSizeFromProperty(), getPolicyFromProperty());
+    }
+
+    /**
+     * Creates a new appender.
+     *
+     * @param delegate the appender the events are finally passed to, already activated
+     * @param bufferSize the maximum number of queued events, rounded up to the next power of two
+     * @param policy what to do if the buffer is full
+     */
+    public AsyncLogAppender(final Appender delegate, final int bufferSize, final OverflowPolicy policy) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        m_delegate = CheckUtils.checkArgumentNotNull(delegate, "Delegate appender must not be null");
+        m_policy = CheckUtils.checkArgumentNotNull(policy, "Overflow policy must not be null");
+        final int capacity = Integer.highestOneBit(Math.min(bufferSize, 1 << 30) * 2 - 1);
+        m_buffer = new AtomicReferenceArray<>(capacity);
+        m_mask = capacity - 1;
+
+        setName(delegate.getName());
+        for (Filter f = delegate.getFilter(); f != null; f = f.getNext()) {
+            addFilter(f);
+        }
+        delegate.clearFilters();
+        if (delegate instanceof AppenderSkeleton) {
+            setThreshold(((AppenderSkeleton)delegate).getThreshold());
+        }
+        if (delegate instanceof LogfileAppender) {
+            ((LogfileAppender)delegate).setImmediateFlush(false);
+            m_flushPerBatch = true;
+        } else {
+            m_flushPerBatch = false;
+        }
+
+        m_worker = new Thread(this::processEvents, "KNIME Async Logger - " + delegate.getName());
+        m_worker.setDaemon(true);
+        m_shutdownHook = new Thread(this::close, "KNIME Async Logger Shutdown - " + delegate.getName());
+        Runtime.getRuntime().addShutdownHook(m_shutdownHook);
+        m_worker.start();
+    }
+
+    private static int getBufferSizeFromProperty() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_ASYNC_LOGGING_BUFFER_SIZE);
+        if (value != null) {
+            try {
+                final int size = Integer.parseInt(value.trim());
+                if (size > 0) {
+                    return size;
+                }
+            } catch (NumberFormatException ex) { // NOSONAR handled below
+            }
+            LogLog.warn("Invalid value for property " + KNIMEConstants.PROPERTY_ASYNC_LOGGING_BUFFER_SIZE + " (\""
+                + value + "\"), using default " + DEFAULT_BUFFER_SIZE);
+        }
+        return DEFAULT_BUFFER_SIZE;
+    }
+
+    private static OverflowPolicy getPolicyFromProperty() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_ASYNC_LOGGING_POLICY);
+        if (value != null) {
+            try {
+                return OverflowPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                LogLog.warn("Invalid value for property " + KNIMEConstants.PROPERTY_ASYNC_LOGGING_POLICY + " (\""
+                    + value + "\"), using " + OverflowPolicy.BLOCK.name().toLowerCase(Locale.ROOT));
+            }
+        }
+        return OverflowPolicy.BLOCK;
+    }
+
+    /**
+     * @return the appender the events are passed to
+     */
+    public Appender getDelegate() {
+        return m_delegate;
+    }
+
+    /**
+     * @return the number of events that have been discarded and not yet reported
+     */
+    long getDropCount() {
+        return m_dropCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Unlike the super class implementation this method isn't synchronized as the events are only queued.
+     */
+    @Override
+    public void doAppend(final LoggingEvent event) {
+        if (m_closing || !isAsSevereAsThreshold(event.getLevel())) {
+            return;
+        }
+        for (Filter f = headFilter; f != null; f = f.getNext()) {
+            final int decision = f.decide(event);
+            if (decision == Filter.DENY) {
+                return;
+            } else if (decision == Filter.ACCEPT) {
+                break;
+            }
+        }
+        append(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void append(final LoggingEvent event) {
+        if (Thread.currentThread() == m_worker) {
+            // logging from within the delegate, queuing might deadlock
+            m_delegate.doAppend(event);
+            return;
+        }
+        // fetch all thread dependent information before the event is handed over (as log4j's AsyncAppender does)
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        final boolean mayDrop = m_policy == OverflowPolicy.DROP && !event.getLevel().isGreaterOrEqual(Level.WARN);
+        if (!offer(event, mayDrop)) {
+            m_dropCount.incrementAndGet();
+        }
+    }
+
+    private boolean offer(final LoggingEvent event, final boolean mayDrop) {
+        final int capacity = m_mask + 1;
+        while (true) {
+            final long tail = m_tail.get();
+            if (tail - m_head.get() >= capacity) {
+                if (mayDrop) {
+                    return false;
+                }
+                if (m_stopped) {
+                    // worker is gone, nothing will make room anymore
+                    synchronized (m_delegate) {
+                        m_delegate.doAppend(event);
+                    }
+                    return true;
+                }
+                LockSupport.unpark(m_worker);
+                LockSupport.parkNanos(this, FULL_WAIT_NANOS);
+            } else if (m_tail.compareAndSet(tail, tail + 1)) {
+                m_buffer.set((int)tail & m_mask, event);
+                if (m_workerWaiting) {
+                    LockSupport.unpark(m_worker);
+                }
+                return true;
+            }
+        }
+    }
+
+    /** Moves up to {@link #MAX_BATCH_SIZE} published events from the buffer into the batch. */
+    private void drainTo(final List<LoggingEvent> batch) {
+        long head = m_head.get();
+        while (batch.size() < MAX_BATCH_SIZE && head < m_tail.get()) {
+            final int index = (int)head & m_mask;
+            final LoggingEvent event = m_buffer.get(index);
+            if (event == null) {
+                // slot claimed but event not yet published
+                break;
+            }
+            m_buffer.lazySet(index, null);
+            batch.add(event);
+            head++;
+            m_head.lazySet(head);
+        }
+    }
+
+    private void processEvents() {
+        final List<LoggingEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            drainTo(batch);
+            if (batch.isEmpty()) {
+                if (m_closing && m_head.get() == m_tail.get()) {
+                    break;
+                }
+                m_workerWaiting = true;
+                if (m_head.get() == m_tail.get() && !m_closing) {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                } else {
+                    Thread.yield();
+                }
+                m_workerWaiting = false;
+            } else {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        if (m_dropCount.get() > 0) {
+            // report events discarded after the last batch
+            writeBatch(batch);
+        }
+        m_stopped = true;
+    }
+
+    private void writeBatch(final List<LoggingEvent> batch) {
+        synchronized (m_delegate) {
+            final long dropCount = m_dropCount.getAndSet(0);
+            if (dropCount > 0) {
+                m_delegate.doAppend(new LoggingEvent(AsyncLogAppender.class.getName(),
+                    Logger.getLogger(AsyncLogAppender.class), Level.WARN,
+                    dropCount + " log message(s) discarded because the logging buffer was full", null));
+            }
+            for (LoggingEvent event : batch) {
+                m_delegate.doAppend(event);
+            }
+            if (m_flushPerBatch) {
+                ((LogfileAppender)m_delegate).flush();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Writes all queued events (waiting at most a few seconds) and closes the delegate.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            m_closing = true;
+        }
+        LockSupport.unpark(m_worker);
+        try {
+            m_worker.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != m_shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(m_shutdownHook);
+            } catch (IllegalStateException ex) { // NOSONAR JVM is shutting down already
+            }
+        }
+        synchronized (m_delegate) {
+            m_delegate.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the layout of the delegate
+     */
+    @Override
+    public Layout getLayout() {
+        return m_delegate.getLayout();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+}
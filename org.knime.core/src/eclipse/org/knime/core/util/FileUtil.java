@@ -271,6 +271,47 @@ public static void copyDir(final File sourceDir, final File targetDir)
         }
     }
 
+    /**
+     * Makes the given source (either a file or a directory) available under the given target without copying its
+     * content where possible: files are hard-linked, directories are created and their content is linked recursively.
+     * Files are copied if the file system does not support hard links (or source and target are located on different
+     * file stores). As linked files share their content, neither the source nor the target file must be modified in
+     * place afterwards.
+     *
+     * @param source the file or directory to link, must exist
+     * @param target the target file or directory; files must not exist yet, directories are created if necessary
+     * @throws IOException if the source does not exist, the target file exists or if linking and copying fail
+     * @since 4.2
+     */
+    public static void linkOrCopy(final File source, final File target) throws IOException {
+        if (source.isDirectory()) {
+            if (!target.isDirectory() && !target.mkdirs()) {
+                throw new IOException("Cannot create target directory \"" + target.getAbsolutePath() + "\"");
+            }
+            final String[] children = source.list();
+            if (children == null) {
+                throw new IOException("Can't link directory \"" + source + "\", no read permissions.");
+            }
+            for (String child : children) {
+                linkOrCopy(new File(source, child), new File(target, child));
+            }
+        } else {
+            if (!source.isFile()) {
+                throw new IOException("Source file \"" + source + "\" does not exist.");
+            }
+            if (target.exists()) {
+                throw new IOException("Target file \"" + target + "\" already exists.");
+            }
+            try {
+                Files.createLink(target.toPath(), source.toPath());
+            } catch (UnsupportedOperationException | IOException e) {
+                LOGGER.debug("Unable to link \"" + source + "\" to \"" + target + "\", copying it instead: "
+                    + e.getMessage());
+                Files.copy(source.toPath(), target.toPath());
+            }
+        }
+    }
+
     /**
      * Copies the bytes as read from <code>input</code> to the output stream
      * <code>destination</code>. Neither <code>input</code> nor
@@ -758,6 +799,56 @@ public static boolean zipDir(final File zipFile, final File rootDir,
                 compressionLevel, filter, exec);
     }
 
+    /**
+     * Parallel version of {@link #zipDir(File, Collection, int, ZipFileFilter, ExecutionMonitor)}: the files are
+     * compressed concurrently by a number of threads (one per available processor) and written to the archive in the
+     * same order as by the sequential method. Files larger than 1MB are compressed into temp files in the directory of
+     * the zip file, smaller ones in memory; the number of entries compressed ahead of the writer is bounded. Use this
+     * method for large archives whose content is not needed as a stream (e.g. workflow export).
+     *
+     * @param zipFile the zip file that should be created. If it exists it will be overwritten.
+     * @param includeList list of files or directories to add to the zip archive, see
+     *            {@link #zipDir(File, Collection, int, ZipFileFilter, ExecutionMonitor)}
+     * @param compressionLevel the desired compression level, see {@link ZipOutputStream#setLevel(int)}
+     * @param filter each file (and directory) contained is only included in the zip archive if it is accepted by the
+     *            filter. If a directory is not accepted, it entire content is excluded from the zip. Must not be null.
+     * @param exec receives progress messages and is checked for cancel requests. Optional, can be null.
+     * @return <code>true</code> if all files and dirs accepted by the filter are included, <code>false</code> if an
+     *         error occurs reading a file in a directory, if a directory is unreadable.
+     * @throws CanceledExecutionException if the operation was canceled through the <code>exec</code>, the zip file is
+     *             deleted in this case
+     * @throws IOException if an I/O error occurs when writing the zip file, or an element in the include list doesn't
+     *             exist.
+     * @since 4.2
+     */
+    public static boolean zipDirParallel(final File zipFile, final Collection<File> includeList,
+        final int compressionLevel, final ZipFileFilter filter, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        return ParallelZip.zip(zipFile, includeList, compressionLevel, filter, ParallelZip.getDefaultParallelism(),
+            exec);
+    }
+
+    /**
+     * Parallel version of {@link #zipDir(File, File, int, ZipFileFilter, ExecutionMonitor)}, see
+     * {@link #zipDirParallel(File, Collection, int, ZipFileFilter, ExecutionMonitor)}.
+     *
+     * @param zipFile the zip file that should be created. If it exists it will be overwritten.
+     * @param rootDir the directory to pack.
+     * @param compressionLevel the desired compression level, see {@link ZipOutputStream#setLevel(int)}
+     * @param filter each file (and dir) contained in the rootDir is only included in the zip archive if it is
+     *            accepted by the filter. Must not be null.
+     * @param exec receives progress messages and is checked for cancel requests. Optional, can be null.
+     * @return <code>true</code> if all files and dirs are included, <code>false</code> if an error occurs reading a
+     *         file or if a directory is unreadable.
+     * @throws CanceledExecutionException if the operation was canceled through the <code>exec</code>
+     * @throws IOException if an I/O error occurs
+     * @since 4.2
+     */
+    public static boolean zipDirParallel(final File zipFile, final File rootDir, final int compressionLevel,
+        final ZipFileFilter filter, final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        return zipDirParallel(zipFile, Collections.singletonList(rootDir), compressionLevel, filter, exec);
+    }
+
     /**
      * Extracts the contents of the given ZIP file into the destination
      * directory.
@@ -779,6 +870,30 @@ public static void unzip(final File zipFile, final File destDir)
         unzip(in, destDir, 0);
     }
 
+    /**
+     * Extracts the contents of the given ZIP file into the destination directory, like {@link #unzip(File, File)}.
+     * The entries are inflated concurrently by a number of threads (one per available processor), each of which only
+     * holds a small read buffer.
+     *
+     * @param zipFile a ZIP file
+     * @param destDir the destination directory, must already exist
+     * @param exec receives progress messages and is checked for cancel requests. Optional, can be null.
+     * @throws IOException if an I/O error occurs
+     * @throws CanceledExecutionException if the operation was canceled through the <code>exec</code>; files extracted
+     *             so far are not deleted
+     * @since 4.2
+     */
+    public static void unzipParallel(final File zipFile, final File destDir, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        if (!destDir.exists()) {
+            throw new IOException("Destination directory does not exist: " + destDir);
+        }
+        if (!destDir.isDirectory()) {
+            throw new IOException("Destination is not a directory: " + destDir);
+        }
+        ParallelZip.unzip(zipFile, destDir, ParallelZip.getDefaultParallelism(), exec);
+    }
+
     /**
      * Stores the content of the zip stream in the specified directory. If a
      * strip level larger than zero is specified, it strips off that many path
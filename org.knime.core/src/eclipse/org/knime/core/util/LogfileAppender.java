@@ -153,6 +153,18 @@ public void rollOver() {
         compressRotatedLog();
     }
 
+    /**
+     * Flushes the underlying writer. Only needed if immediate flush has been disabled, e.g. by the
+     * {@link AsyncLogAppender}, which flushes once per batch of events.
+     *
+     * @since 4.2
+     */
+    public synchronized void flush() {
+        if (qw != null) {
+            qw.flush();
+        }
+    }
+
     /*
      * RollingFileAppenders rollOver() method creates an uncompressed rotated log file named 'knime.log.1'. This method
      * finds this file by appending a .1 suffix to the absolute path of the original log file and then compresses it.
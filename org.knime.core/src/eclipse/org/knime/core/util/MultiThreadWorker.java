@@ -214,9 +214,10 @@ public Void call() throws Exception {
             }
         };
         try {
-            if (m_executor == null) {
+            if (m_executor == null && ThreadPool.currentPool() != null) {
                 KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(c);
             } else {
+                // own executor or not run from a pool thread (e.g. a virtual thread), no pool to account for
                 c.call();
             }
         } catch (Exception ee) {
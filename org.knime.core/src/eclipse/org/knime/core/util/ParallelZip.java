@@ -0,0 +1,688 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil.ZipFileFilter;
+
+/**
+ * Implementation of the parallel zip and unzip methods in {@link FileUtil}.
+ *
+ * <p>
+ * Zipping: the entries are compressed concurrently (each with its own {@link Deflater}) into memory or, for large
+ * files, into temp files next to the target archive. The caller thread writes the compressed entries in the order in
+ * which they were collected, which is the same order as in the sequential
+ * {@link FileUtil#zipDir(File, Collection, int, ZipFileFilter, ExecutionMonitor)}. As
+ * {@link java.util.zip.ZipOutputStream} can't take pre-compressed data the archive is written by a minimal writer,
+ * which uses Zip64 extensions where needed.
+ *
+ * <p>
+ * Unzipping: the archive is opened as a {@link ZipFile}, which allows to inflate different entries concurrently.
+ *
+ * <p>
+ * In both cases the number of entries that are processed but not yet consumed is limited to a small multiple of the
+ * parallelism so that memory consumption stays bounded.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ParallelZip {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ParallelZip.class);
+
+    /** Files up to this size are compressed into memory, larger files into a temp file. */
+    static final long IN_MEMORY_THRESHOLD = 1 << 20;
+
+    /** Max number of entries being processed per thread that have not been written yet. */
+    private static final int ENTRIES_IN_FLIGHT_PER_THREAD = 2;
+
+    private static final int BUFF_SIZE = 1 << 16;
+
+    // zip format constants, see PKWARE's APPNOTE.TXT
+    private static final int LOC_SIG = 0x04034b50;
+
+    private static final int CEN_SIG = 0x02014b50;
+
+    private static final int END_SIG = 0x06054b50;
+
+    private static final int ZIP64_END_SIG = 0x06064b50;
+
+    private static final int ZIP64_LOC_SIG = 0x07064b50;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private static final int VERSION_DEFAULT = 20;
+
+    private static final int VERSION_ZIP64 = 45;
+
+    /** General purpose flag: file names are UTF-8 encoded. */
+    private static final int FLAG_UTF8 = 1 << 11;
+
+    /** MS-DOS directory attribute, set as external attribute of directory entries. */
+    private static final int DOS_DIR_ATTRIBUTE = 0x10;
+
+    private ParallelZip() {
+    }
+
+    /** @return the default number of threads used for zipping and unzipping */
+    static int getDefaultParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Packs all files and directories in the include list into a zip file, see
+     * {@link FileUtil#zipDirParallel(File, Collection, int, ZipFileFilter, ExecutionMonitor)}.
+     *
+     * @param zipFile the zip file to create (overwritten if it exists)
+     * @param includeList files and directories to add
+     * @param compressionLevel the compression level, see {@link Deflater#setLevel(int)}
+     * @param filter the filter for files and directories, not null
+     * @param parallelism number of threads compressing the entries
+     * @param exec for progress and cancellation, may be null
+     * @return <code>true</code> if all files and dirs accepted by the filter are included, <code>false</code> if a
+     *         directory is unreadable or a file can't be read for reasons other than an I/O error
+     * @throws IOException if an I/O error occurs or if an element in the include list doesn't exist
+     * @throws CanceledExecutionException if canceled, the zip file is deleted then
+     */
+    static boolean zip(final File zipFile, final Collection<File> includeList, final int compressionLevel,
+        final ZipFileFilter filter, final int parallelism, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final ExecutionMonitor execMon = exec == null ? new ExecutionMonitor() : exec;
+        final List<Source> sources = new ArrayList<>();
+        boolean complete = collectSources(includeList, filter, sources);
+        long totalSize = 0;
+        for (Source s : sources) {
+            totalSize += s.m_size;
+        }
+        final File tempDir = zipFile.getAbsoluteFile().getParentFile();
+        final AtomicBoolean abort = new AtomicBoolean();
+        final Deque<Future<CompressedEntry>> inFlight = new ArrayDeque<>();
+        final ExecutorService pool = createPool("KNIME-Zip-Compressor", parallelism);
+        boolean success = false;
+        try (ZipWriter writer = new ZipWriter(new BufferedOutputStream(new FileOutputStream(zipFile), BUFF_SIZE))) {
+            int next = 0;
+            long done = 0;
+            while (next < sources.size() || !inFlight.isEmpty()) {
+                while (next < sources.size() && inFlight.size() < parallelism * ENTRIES_IN_FLIGHT_PER_THREAD) {
+                    final Source source = sources.get(next++);
+                    inFlight.add(pool.submit(() -> source.compress(compressionLevel, tempDir, abort)));
+                }
+                final CompressedEntry entry = await(inFlight.peek(), execMon);
+                inFlight.poll();
+                if (entry == null) {
+                    complete = false;
+                    continue;
+                }
+                try {
+                    writer.write(entry);
+                } finally {
+                    entry.dispose();
+                }
+                done += entry.m_size;
+                final String name = entry.m_name;
+                execMon.setProgress(totalSize == 0 ? 1.0 : done / (double)totalSize, () -> "Added file " + name);
+            }
+            writer.finish();
+            success = true;
+        } finally {
+            if (!success) {
+                abort.set(true);
+            }
+            shutdown(pool);
+            for (Future<CompressedEntry> f : inFlight) {
+                disposeQuietly(f);
+            }
+            if (!success && !zipFile.delete()) {
+                LOGGER.debug("Unable to delete incomplete zip file \"" + zipFile.getAbsolutePath() + "\"");
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Extracts the content of the zip file into the destination directory, see
+     * {@link FileUtil#unzipParallel(File, File, ExecutionMonitor)}.
+     *
+     * @param zipFile the zip file to read
+     * @param destDir the destination directory, must exist
+     * @param parallelism number of threads extracting the entries
+     * @param exec for progress and cancellation, may be null
+     * @throws IOException if an I/O error occurs
+     * @throws CanceledExecutionException if canceled
+     */
+    static void unzip(final File zipFile, final File destDir, final int parallelism, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final ExecutionMonitor execMon = exec == null ? new ExecutionMonitor() : exec;
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            // directories are created upfront, files are extracted concurrently
+            final List<ZipEntry> files = new ArrayList<>();
+            long totalSize = 0;
+            for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements();) {
+                final ZipEntry e = en.nextElement();
+                final String name = e.getName().replace('\\', '/');
+                if (e.isDirectory()) {
+                    if (!name.isEmpty() && !name.equals("/")) {
+                        mkdirs(new File(destDir, name));
+                    }
+                } else {
+                    files.add(e);
+                    totalSize += Math.max(0, e.getSize());
+                }
+            }
+            final AtomicBoolean abort = new AtomicBoolean();
+            final Deque<Future<Long>> inFlight = new ArrayDeque<>();
+            final ExecutorService pool = createPool("KNIME-Zip-Extractor", parallelism);
+            try {
+                int next = 0;
+                long done = 0;
+                while (next < files.size() || !inFlight.isEmpty()) {
+                    while (next < files.size() && inFlight.size() < parallelism * ENTRIES_IN_FLIGHT_PER_THREAD) {
+                        final ZipEntry entry = files.get(next++);
+                        inFlight.add(pool.submit(() -> extract(zip, entry, destDir, abort)));
+                    }
+                    done += await(inFlight.poll(), execMon);
+                    execMon.setProgress(totalSize == 0 ? 1.0 : done / (double)totalSize);
+                }
+            } finally {
+                abort.set(true);
+                // the zip file must not be closed while entries are still being read
+                shutdown(pool);
+            }
+        }
+    }
+
+    private static long extract(final ZipFile zip, final ZipEntry entry, final File destDir, final AtomicBoolean abort)
+        throws IOException {
+        final File f = new File(destDir, entry.getName().replace('\\', '/'));
+        mkdirs(f.getParentFile());
+        long size = 0;
+        final byte[] buf = new byte[BUFF_SIZE];
+        try (InputStream in = zip.getInputStream(entry); OutputStream out = new FileOutputStream(f)) {
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                if (abort.get()) {
+                    return size;
+                }
+                out.write(buf, 0, read);
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    private static void mkdirs(final File dir) throws IOException {
+        // concurrent calls may create the directory in between, hence the isDirectory check
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Could not create directory '" + dir.getAbsolutePath() + "'.");
+        }
+    }
+
+    /**
+     * Collects the entries to add in the order also used by the sequential zip method.
+     *
+     * @return false if a directory is unreadable
+     */
+    private static boolean collectSources(final Collection<File> includeList, final ZipFileFilter filter,
+        final List<Source> sources) throws IOException {
+        boolean complete = true;
+        for (File f : includeList) {
+            if (!filter.include(f)) {
+                continue;
+            }
+            if (f.isFile()) {
+                sources.add(new Source(f.getName(), f));
+            } else if (f.isDirectory()) {
+                complete &= collectDir(f, filter, sources);
+            } else {
+                throw new IOException("File " + f.getAbsolutePath() + " not added to zip archive");
+            }
+        }
+        return complete;
+    }
+
+    private static boolean collectDir(final File rootDir, final ZipFileFilter filter, final List<Source> sources) {
+        boolean complete = true;
+        final String rootName = rootDir.getName();
+        sources.add(new Source(rootName + "/", rootDir));
+        final Stack<File> dirs = new Stack<File>();
+        dirs.push(rootDir);
+        final int rootEndIdx = rootDir.getAbsolutePath().length() + 1;
+        while (!dirs.isEmpty()) {
+            final File d = dirs.pop();
+            final File[] ls = d.listFiles();
+            if (ls == null) {
+                // the dir was not accessible
+                complete = false;
+                continue;
+            }
+            for (File f : ls) {
+                if (!filter.include(f)) {
+                    continue;
+                }
+                final String entryName =
+                    rootName + "/" + f.getAbsolutePath().substring(rootEndIdx).replace('\\', '/');
+                if (f.isFile()) {
+                    sources.add(new Source(entryName, f));
+                } else if (f.isDirectory()) {
+                    sources.add(new Source(entryName + "/", f));
+                    dirs.push(f);
+                }
+            }
+        }
+        return complete;
+    }
+
+    private static ExecutorService createPool(final String name, final int parallelism) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            final Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Stops the pool, running tasks return quickly once aborted. Tasks that never started are discarded. */
+    private static void shutdown(final ExecutorService pool) {
+        pool.shutdownNow();
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for zip threads to terminate");
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits for the future while checking for cancellation, unwraps execution exceptions. */
+    private static <T> T await(final Future<T> future, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        while (true) {
+            exec.checkCanceled();
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException te) {
+                // check cancellation and wait again
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while waiting for zip entries");
+            } catch (ExecutionException ee) {
+                final Throwable cause = ee.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException)cause;
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /** Deletes the temp file of an entry that has been compressed but not written (pool must be terminated). */
+    private static void disposeQuietly(final Future<CompressedEntry> future) {
+        if (!future.isDone()) {
+            return; // never started
+        }
+        try {
+            final CompressedEntry entry = future.get();
+            if (entry != null) {
+                entry.dispose();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) { // NOSONAR already reported through await
+            // ignore
+        }
+    }
+
+    /** A file or directory to be added to the archive. */
+    private static final class Source {
+
+        private final String m_name;
+
+        private final File m_file;
+
+        private final long m_size;
+
+        Source(final String name, final File file) {
+            m_name = name;
+            m_file = file;
+            m_size = file.isFile() ? file.length() : 0;
+        }
+
+        /**
+         * Compresses the file, called from a worker thread.
+         *
+         * @return the compressed entry or null if the file could not be read for reasons other than an I/O error or
+         *         the operation has been aborted
+         */
+        CompressedEntry compress(final int level, final File tempDir, final AtomicBoolean abort) throws IOException {
+            final long time = m_file.lastModified();
+            if (m_file.isDirectory()) {
+                return new CompressedEntry(m_name, time, true, 0, 0, 0, null, null);
+            }
+            final CRC32 crc = new CRC32();
+            final Deflater deflater = new Deflater(level, true);
+            ByteArrayOutputStream bytes = null;
+            File tempFile = null;
+            final OutputStream out;
+            if (m_size <= IN_MEMORY_THRESHOLD) {
+                bytes = new ByteArrayOutputStream((int)Math.max(64, m_size / 2));
+                out = bytes;
+            } else {
+                tempFile = File.createTempFile("knime_zip_entry", ".tmp", tempDir);
+                tempFile.deleteOnExit();
+                out = new BufferedOutputStream(new FileOutputStream(tempFile), BUFF_SIZE);
+            }
+            boolean success = false;
+            long size = 0;
+            try (InputStream in = new FileInputStream(m_file);
+                    DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, BUFF_SIZE)) {
+                final byte[] buf = new byte[BUFF_SIZE];
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    if (abort.get()) {
+                        return null;
+                    }
+                    crc.update(buf, 0, read);
+                    deflaterOut.write(buf, 0, read);
+                    size += read;
+                }
+                deflaterOut.finish();
+                success = true;
+            } catch (IOException ioe) {
+                throw ioe;
+            } catch (Throwable t) { // NOSONAR same as in the sequential zip method
+                LOGGER.debug("Error while adding file to zip archive (" + m_file.getAbsolutePath() + ")", t);
+                return null;
+            } finally {
+                deflater.end();
+                if (!success && tempFile != null && !tempFile.delete()) {
+                    LOGGER.debug("Unable to delete temp file \"" + tempFile.getAbsolutePath() + "\"");
+                }
+            }
+            final long compressedSize = bytes != null ? bytes.size() : tempFile.length();
+            return new CompressedEntry(m_name, time, false, crc.getValue(), size, compressedSize,
+                bytes != null ? bytes.toByteArray() : null, tempFile);
+        }
+    }
+
+    /** The compressed content of a file (in memory or in a temp file) along with the zip entry properties. */
+    private static final class CompressedEntry {
+
+        private final String m_name;
+
+        private final long m_time;
+
+        private final boolean m_isDirectory;
+
+        private final long m_crc;
+
+        private final long m_size;
+
+        private final long m_compressedSize;
+
+        private final byte[] m_data;
+
+        private final File m_dataFile;
+
+        /** Offset of the local header in the archive, set when written. */
+        private long m_offset;
+
+        CompressedEntry(final String name, final long time, final boolean isDirectory, final long crc,
+            final long size, final long compressedSize, final byte[] data, final File dataFile) {
+            m_name = name;
+            m_time = time;
+            m_isDirectory = isDirectory;
+            m_crc = crc;
+            m_size = size;
+            m_compressedSize = compressedSize;
+            m_data = data;
+            m_dataFile = dataFile;
+        }
+
+        void writeDataTo(final OutputStream out) throws IOException {
+            if (m_data != null) {
+                out.write(m_data);
+            } else if (m_dataFile != null) {
+                try (InputStream in = new FileInputStream(m_dataFile)) {
+                    FileUtil.copy(in, out);
+                }
+            }
+        }
+
+        void dispose() {
+            if (m_dataFile != null && !m_dataFile.delete()) {
+                LOGGER.debug("Unable to delete temp file \"" + m_dataFile.getAbsolutePath() + "\"");
+            }
+        }
+
+        int getMethod() {
+            return m_isDirectory ? ZipEntry.STORED : ZipEntry.DEFLATED;
+        }
+    }
+
+    /** Writes pre-compressed entries in zip format (incl. Zip64 extensions if needed). */
+    private static final class ZipWriter implements Closeable {
+
+        private final OutputStream m_out;
+
+        private final List<CompressedEntry> m_entries = new ArrayList<>();
+
+        private final ByteBuffer m_header = ByteBuffer.allocate(1 << 17).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long m_offset;
+
+        ZipWriter(final OutputStream out) {
+            m_out = out;
+        }
+
+        void write(final CompressedEntry e) throws IOException {
+            final byte[] name = e.m_name.getBytes(StandardCharsets.UTF_8);
+            final boolean zip64 = e.m_size >= ZIP64_MAGIC || e.m_compressedSize >= ZIP64_MAGIC;
+            e.m_offset = m_offset;
+            m_header.clear();
+            m_header.putInt(LOC_SIG);
+            m_header.putShort((short)(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+            m_header.putShort((short)FLAG_UTF8);
+            m_header.putShort((short)e.getMethod());
+            m_header.putInt(toDosTime(e.m_time));
+            m_header.putInt((int)e.m_crc);
+            m_header.putInt((int)(zip64 ? ZIP64_MAGIC : e.m_compressedSize));
+            m_header.putInt((int)(zip64 ? ZIP64_MAGIC : e.m_size));
+            m_header.putShort((short)name.length);
+            m_header.putShort((short)(zip64 ? 20 : 0));
+            m_header.put(name);
+            if (zip64) {
+                // the local Zip64 extra field must contain both sizes
+                m_header.putShort((short)ZIP64_EXTRA_ID);
+                m_header.putShort((short)16);
+                m_header.putLong(e.m_size);
+                m_header.putLong(e.m_compressedSize);
+            }
+            writeHeader();
+            e.writeDataTo(m_out);
+            m_offset += e.m_compressedSize;
+            m_entries.add(e);
+        }
+
+        /** Writes the central directory, must be called once after all entries have been written. */
+        void finish() throws IOException {
+            final long centralDirOffset = m_offset;
+            for (CompressedEntry e : m_entries) {
+                writeCentralDirEntry(e);
+            }
+            final long centralDirSize = m_offset - centralDirOffset;
+            final long count = m_entries.size();
+            if (count >= ZIP64_MAGIC_COUNT || centralDirOffset >= ZIP64_MAGIC || centralDirSize >= ZIP64_MAGIC) {
+                final long zip64EndOffset = m_offset;
+                m_header.clear();
+                m_header.putInt(ZIP64_END_SIG);
+                m_header.putLong(44); // size of the remaining record
+                m_header.putShort((short)VERSION_ZIP64);
+                m_header.putShort((short)VERSION_ZIP64);
+                m_header.putInt(0); // number of this disk
+                m_header.putInt(0); // disk with the central directory
+                m_header.putLong(count);
+                m_header.putLong(count);
+                m_header.putLong(centralDirSize);
+                m_header.putLong(centralDirOffset);
+                m_header.putInt(ZIP64_LOC_SIG);
+                m_header.putInt(0); // disk with the zip64 end record
+                m_header.putLong(zip64EndOffset);
+                m_header.putInt(1); // total number of disks
+                writeHeader();
+            }
+            m_header.clear();
+            m_header.putInt(END_SIG);
+            m_header.putShort((short)0); // number of this disk
+            m_header.putShort((short)0); // disk with the central directory
+            m_header.putShort((short)Math.min(count, ZIP64_MAGIC_COUNT));
+            m_header.putShort((short)Math.min(count, ZIP64_MAGIC_COUNT));
+            m_header.putInt((int)Math.min(centralDirSize, ZIP64_MAGIC));
+            m_header.putInt((int)Math.min(centralDirOffset, ZIP64_MAGIC));
+            m_header.putShort((short)0); // comment length
+            writeHeader();
+            m_out.flush();
+        }
+
+        private void writeCentralDirEntry(final CompressedEntry e) throws IOException {
+            final byte[] name = e.m_name.getBytes(StandardCharsets.UTF_8);
+            final boolean sizeOverflow = e.m_size >= ZIP64_MAGIC || e.m_compressedSize >= ZIP64_MAGIC;
+            final boolean offsetOverflow = e.m_offset >= ZIP64_MAGIC;
+            final int extraLength = (sizeOverflow ? 16 : 0) + (offsetOverflow ? 8 : 0);
+            final boolean zip64 = extraLength > 0;
+            m_header.clear();
+            m_header.putInt(CEN_SIG);
+            m_header.putShort((short)(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT)); // version made by
+            m_header.putShort((short)(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT)); // version needed
+            m_header.putShort((short)FLAG_UTF8);
+            m_header.putShort((short)e.getMethod());
+            m_header.putInt(toDosTime(e.m_time));
+            m_header.putInt((int)e.m_crc);
+            m_header.putInt((int)(sizeOverflow ? ZIP64_MAGIC : e.m_compressedSize));
+            m_header.putInt((int)(sizeOverflow ? ZIP64_MAGIC : e.m_size));
+            m_header.putShort((short)name.length);
+            m_header.putShort((short)(zip64 ? extraLength + 4 : 0));
+            m_header.putShort((short)0); // comment length
+            m_header.putShort((short)0); // disk number start
+            m_header.putShort((short)0); // internal attributes
+            m_header.putInt(e.m_isDirectory ? DOS_DIR_ATTRIBUTE : 0);
+            m_header.putInt((int)(offsetOverflow ? ZIP64_MAGIC : e.m_offset));
+            m_header.put(name);
+            if (zip64) {
+                m_header.putShort((short)ZIP64_EXTRA_ID);
+                m_header.putShort((short)extraLength);
+                if (sizeOverflow) {
+                    m_header.putLong(e.m_size);
+                    m_header.putLong(e.m_compressedSize);
+                }
+                if (offsetOverflow) {
+                    m_header.putLong(e.m_offset);
+                }
+            }
+            writeHeader();
+        }
+
+        private void writeHeader() throws IOException {
+            m_out.write(m_header.array(), 0, m_header.position());
+            m_offset += m_header.position();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            m_out.close();
+        }
+    }
+
+    /** Converts a Java time stamp into the MS-DOS date and time format used in zip files. */
+    static int toDosTime(final long time) {
+        final LocalDateTime d = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (d.getYear() < 1980) {
+            return (1 << 21) | (1 << 16); // 1980-01-01 00:00
+        }
+        return ((d.getYear() - 1980) << 25) | (d.getMonthValue() << 21) | (d.getDayOfMonth() << 16)
+            | (d.getHour() << 11) | (d.getMinute() << 5) | (d.getSecond() >> 1);
+    }
+}
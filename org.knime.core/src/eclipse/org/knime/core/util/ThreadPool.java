@@ -570,22 +570,28 @@ public int getRunningThreads() {
      * Executes the runnable in the current thread. If the current thread is
      * taken out of this pool or any ancestor pool the number of invisible
      * threads is increased, so that it is not counted and one additional thread
-     * is allowed to run. This method should only be used if the Runnable does
-     * nothing more than submitting jobs.
+     * is allowed to run. If the current thread is not taken out of any thread
+     * pool (e.g. a virtual thread of the
+     * {@link org.knime.core.util.VirtualThreadExecutor}), the callable is
+     * simply run, as there is no thread to account for. This method should
+     * only be used if the Runnable does nothing more than submitting jobs.
      *
      * @param <T> Type of the argument (result type)
      * @param r A callable, which will be executed by the thread invoking this
      *            method.
      * @return T The result of the callable.
-     * @throws IllegalThreadStateException if the current thread is not taken
-     *             out of a thread pool
+     * @throws IllegalThreadStateException if the current thread is taken out
+     *             of a thread pool other than this one or its ancestors
      * @throws ExecutionException if the callable could not be executed for some
      *             reason
      */
     public <T> T runInvisible(final Callable<T> r) throws ExecutionException {
+        if (currentPool() == null) {
+            return callDirectly(r);
+        }
         if (!(Thread.currentThread() instanceof Worker)) {
             throw new IllegalThreadStateException("The current thread is not "
-                    + "taken out of a thread pool");
+                    + "taken out of this thread pool");
         }
 
         Worker thisWorker = (Worker)Thread.currentThread();
@@ -788,6 +794,21 @@ protected void finalize() throws Throwable {
         super.finalize();
     }
 
+    /**
+     * Runs the callable in the current thread, used if the current thread is not taken out of any pool.
+     *
+     * @param r the callable
+     * @return its result
+     * @throws ExecutionException wrapping any exception thrown by the callable
+     */
+    static <T> T callDirectly(final Callable<T> r) throws ExecutionException {
+        try {
+            return r.call();
+        } catch (Exception ex) {
+            throw new ExecutionException(ex);
+        }
+    }
+
     /**
      * If the current thread is taken out of a thread pool, this method will
      * return the thread pool. Otherwise it will return <code>null</code>.
@@ -798,7 +819,7 @@ public static ThreadPool currentPool() {
         if (Thread.currentThread() instanceof Worker) {
             return ((Worker)Thread.currentThread()).m_startedFrom;
         } else {
-            return null;
+            return WorkStealingThreadPool.currentWorkStealingPool();
         }
     }
 
@@ -0,0 +1,359 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Executor for jobs that spend most of their time waiting for I/O, e.g. database queries, HTTP requests or remote
+ * file system operations. Such jobs do not occupy a thread of the {@link KNIMEConstants#GLOBAL_THREAD_POOL} but are
+ * run on virtual threads if the Java runtime supports them (Java 21 and later). On older runtimes they are run on
+ * dedicated platform threads.
+ *
+ * <p>
+ * The number of concurrently running jobs is limited independently of the global thread pool (see
+ * {@link KNIMEConstants#PROPERTY_MAX_VIRTUAL_THREAD_JOBS}), additional jobs are queued and started in FIFO order.
+ * The {@link org.knime.core.node.workflow.NodeContext} and the context class loader of the submitting thread are
+ * propagated to the job. Cancelling a running job via {@link Future#cancel(boolean)} interrupts its thread, cancelling
+ * a queued job removes it from the queue.
+ *
+ * <p>
+ * Jobs should not perform long-running CPU-bound computations, these should be submitted to the global thread pool.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public final class VirtualThreadExecutor {
+
+    /** Default for the maximum number of concurrently running jobs. */
+    static final int DEFAULT_MAX_JOBS = 256;
+
+    private static final AtomicInteger PLATFORM_THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    private static final class InstanceHolder {
+        private static final VirtualThreadExecutor INSTANCE = new VirtualThreadExecutor(getMaxJobsFromSystemProperty());
+    }
+
+    private final ThreadFactory m_threadFactory;
+
+    private final Queue<Job<?>> m_queue = new ArrayDeque<>();
+
+    private int m_maxJobs;
+
+    private int m_runningWorkers;
+
+    /**
+     * Creates a new executor that runs at most the given number of jobs concurrently. Most callers should use the
+     * shared instance returned by {@link #getInstance()}.
+     *
+     * @param maxJobs the maximum number of concurrently running jobs, must be at least 1
+     */
+    public VirtualThreadExecutor(final int maxJobs) {
+        this(maxJobs, VIRTUAL_THREAD_FACTORY != null ? VIRTUAL_THREAD_FACTORY : VirtualThreadExecutor::newPlatformThread);
+    }
+
+    /**
+     * Creates a new executor that creates its threads with the given factory.
+     *
+     * @param maxJobs the maximum number of concurrently running jobs, must be at least 1
+     * @param threadFactory the factory for the threads running the jobs
+     */
+    VirtualThreadExecutor(final int maxJobs, final ThreadFactory threadFactory) {
+        if (maxJobs < 1) {
+            throw new IllegalArgumentException("Maximum number of jobs must be at least 1: " + maxJobs);
+        }
+        m_maxJobs = maxJobs;
+        m_threadFactory = threadFactory;
+    }
+
+    /**
+     * Returns the shared executor, whose concurrency limit is configured with the system property
+     * {@value KNIMEConstants#PROPERTY_MAX_VIRTUAL_THREAD_JOBS}.
+     *
+     * @return the shared executor
+     */
+    public static VirtualThreadExecutor getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Returns whether the Java runtime supports virtual threads. If not, jobs are run on platform threads.
+     *
+     * @return <code>true</code> if jobs are run on virtual threads, <code>false</code> otherwise
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Submits a job for execution. The job is started immediately if the concurrency limit has not been reached,
+     * otherwise it is queued.
+     *
+     * @param <T> the job's result type
+     * @param callable the job
+     * @return a future for the job's result
+     */
+    public <T> Future<T> submit(final Callable<T> callable) {
+        final Job<T> job = new Job<>(callable);
+        execute(job);
+        return job;
+    }
+
+    /**
+     * Submits a job for execution. The job is started immediately if the concurrency limit has not been reached,
+     * otherwise it is queued.
+     *
+     * @param runnable the job
+     * @return a future for the job, whose result is <code>null</code>
+     */
+    public Future<?> submit(final Runnable runnable) {
+        final Job<Object> job = new Job<>(runnable);
+        execute(job);
+        return job;
+    }
+
+    private void execute(final Job<?> job) {
+        synchronized (m_queue) {
+            if (m_runningWorkers >= m_maxJobs) {
+                m_queue.add(job);
+                return;
+            }
+            m_runningWorkers++;
+        }
+        startWorker(job);
+    }
+
+    private void startWorker(final Job<?> firstJob) {
+        final Thread thread;
+        try {
+            thread = m_threadFactory.newThread(() -> runJobs(firstJob));
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            synchronized (m_queue) {
+                m_runningWorkers--;
+            }
+            firstJob.setException(e);
+            throw e;
+        }
+    }
+
+    /** Runs the given job and then, re-using the thread, all jobs that are queued in the meantime. */
+    private void runJobs(final Job<?> firstJob) {
+        Job<?> job = firstJob;
+        while (job != null) {
+            job.run();
+            // clear the interrupted flag in case the job was cancelled while running
+            Thread.interrupted();
+            synchronized (m_queue) {
+                job = m_runningWorkers <= m_maxJobs ? m_queue.poll() : null;
+                if (job == null) {
+                    m_runningWorkers--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes the maximum number of concurrently running jobs. If the limit is raised, queued jobs are started
+     * immediately; if it is lowered, running jobs are not affected.
+     *
+     * @param maxJobs the new limit, must be at least 1
+     */
+    public void setMaxJobs(final int maxJobs) {
+        if (maxJobs < 1) {
+            throw new IllegalArgumentException("Maximum number of jobs must be at least 1: " + maxJobs);
+        }
+        while (true) {
+            final Job<?> job;
+            synchronized (m_queue) {
+                m_maxJobs = maxJobs;
+                if (m_runningWorkers >= m_maxJobs || m_queue.isEmpty()) {
+                    return;
+                }
+                job = m_queue.poll();
+                m_runningWorkers++;
+            }
+            startWorker(job);
+        }
+    }
+
+    /**
+     * Returns the maximum number of concurrently running jobs.
+     *
+     * @return the limit
+     */
+    public int getMaxJobs() {
+        synchronized (m_queue) {
+            return m_maxJobs;
+        }
+    }
+
+    /**
+     * Returns the number of jobs that are currently running.
+     *
+     * @return the number of running jobs
+     */
+    public int getRunningJobs() {
+        synchronized (m_queue) {
+            return m_runningWorkers;
+        }
+    }
+
+    /**
+     * Returns the number of jobs that wait for being started.
+     *
+     * @return the number of queued jobs
+     */
+    public int getQueueSize() {
+        synchronized (m_queue) {
+            return m_queue.size();
+        }
+    }
+
+    private static int getMaxJobsFromSystemProperty() {
+        final String value = System.getProperty(KNIMEConstants.PROPERTY_MAX_VIRTUAL_THREAD_JOBS);
+        if (value != null) {
+            try {
+                final int maxJobs = Integer.parseInt(value.trim());
+                if (maxJobs >= 1) {
+                    return maxJobs;
+                }
+            } catch (NumberFormatException ex) {
+                // handled below
+            }
+            NodeLogger.getLogger(VirtualThreadExecutor.class).warnWithFormat(
+                "Invalid value for property \"%s\": \"%s\", using %d", KNIMEConstants.PROPERTY_MAX_VIRTUAL_THREAD_JOBS,
+                value, DEFAULT_MAX_JOBS);
+        }
+        return DEFAULT_MAX_JOBS;
+    }
+
+    /**
+     * Looks up the virtual thread builder API reflectively because it is not available in the Java version this
+     * plug-in is compiled against.
+     *
+     * @return a factory for virtual threads or <code>null</code> if the runtime does not support them
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+                "KNIME-Virtual-Worker-", 0L);
+            final ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+            // preview versions of the API throw an exception if preview features are not enabled
+            factory.newThread(() -> {
+            });
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            NodeLogger.getLogger(VirtualThreadExecutor.class)
+                .debug("Virtual threads are not supported, using platform threads for I/O-bound jobs");
+            return null;
+        }
+    }
+
+    private static Thread newPlatformThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "KNIME-IO-Worker-" + PLATFORM_THREAD_COUNTER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final class Job<T> extends FutureTask<T> {
+        private final ClassLoader m_contextClassloader = Thread.currentThread().getContextClassLoader();
+
+        Job(final Callable<T> callable) {
+            super(ThreadUtils.callableWithContext(callable, false));
+        }
+
+        Job(final Runnable runnable) {
+            super(ThreadUtils.runnableWithContext(runnable, false), null);
+        }
+
+        @Override
+        public void run() {
+            final Thread thread = Thread.currentThread();
+            final String previousName = thread.getName();
+            final ClassLoader previousContextClassloader = thread.getContextClassLoader();
+            thread.setContextClassLoader(m_contextClassloader);
+            try {
+                super.run();
+            } finally {
+                thread.setContextClassLoader(previousContextClassloader);
+                // node jobs rename the thread
+                thread.setName(previousName);
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (m_queue) {
+                    m_queue.remove(this);
+                }
+            }
+            return cancelled;
+        }
+
+        /** Overridden to make it accessible for {@link VirtualThreadExecutor#startWorker(Job)}. */
+        @Override
+        protected void setException(final Throwable t) {
+            super.setException(t);
+        }
+    }
+}
@@ -0,0 +1,635 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * A {@link ThreadPool} that runs its jobs in a {@link ForkJoinPool}. Jobs submitted from within a job of the same pool
+ * are pushed to the local deque of the submitting worker (from where idle workers steal them), all other jobs go
+ * through the fork join pool's submission queues. In contrast to {@link ThreadPool} the hot path (submitting a job
+ * while a thread is available, finishing a job) does not acquire a pool-wide monitor; thread limits are enforced with
+ * atomic counters per (sub) pool.
+ *
+ * <p>
+ * The public semantics are those of {@link ThreadPool}: sub pools share the threads of their parent and never use more
+ * threads than any of their ancestors allow, jobs that can't be started immediately are queued and started in FIFO
+ * order as soon as a thread becomes available, and threads that wait in {@link #runInvisible(Callable)},
+ * {@link Future#get()} or {@link #waitForTermination()} are not counted (the fork join pool compensates blocked
+ * workers by {@link ForkJoinPool#managedBlock(ManagedBlocker) managed blocking}).
+ *
+ * <p>
+ * The {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool} is an instance of this class if the system property
+ * {@value KNIMEConstants#PROPERTY_WORK_STEALING_THREAD_POOL} is set to <code>true</code>.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.2
+ */
+public class WorkStealingThreadPool extends ThreadPool {
+
+    /** The pool whose job the current thread is running, <code>null</code> if none. */
+    private static final ThreadLocal<WorkStealingThreadPool> CURRENT_POOL = new ThreadLocal<>();
+
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+
+    private static final ForkJoinWorkerThreadFactory THREAD_FACTORY = pool -> {
+        final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("KNIME-Worker-FJ-" + WORKER_COUNTER.getAndIncrement());
+        t.setPriority(Thread.MIN_PRIORITY + 2);
+        t.setDaemon(true);
+        return t;
+    };
+
+    /** State shared by a root pool and all its sub pools. */
+    private static final class Shared {
+        private volatile ForkJoinPool m_forkJoinPool;
+
+        /** Jobs that could not be started because of a thread limit, in FIFO order. */
+        private final Queue<Job<?>> m_queuedJobs = new ConcurrentLinkedQueue<>();
+
+        /** Starts queued jobs for which threads are available (again). */
+        void startQueuedJobs() {
+            final Queue<Job<?>> queue = m_queuedJobs;
+            if (queue.isEmpty()) {
+                return;
+            }
+            for (Iterator<Job<?>> it = queue.iterator(); it.hasNext();) {
+                final Job<?> job = it.next();
+                final WorkStealingThreadPool pool = job.getPool();
+                if (job.isCancelled()) {
+                    if (queue.remove(job)) {
+                        pool.changePendingJobs(-1);
+                    }
+                } else {
+                    final WorkStealingThreadPool limitingPool = pool.tryAcquireThread();
+                    if (limitingPool == null) {
+                        if (queue.remove(job)) {
+                            pool.fork(job);
+                        } else {
+                            // started by a concurrent caller
+                            pool.releaseThread();
+                        }
+                    } else if (limitingPool.m_parent == null) {
+                        // the root pool is at its limit, no other job can be started either
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Job<T> extends FutureTask<T> {
+        private final CountDownLatch m_startWaiter = new CountDownLatch(1);
+
+        private final ClassLoader m_contextClassloader = Thread.currentThread().getContextClassLoader();
+
+        Job(final Callable<T> callable) {
+            super(ThreadUtils.callableWithContext(callable, false));
+        }
+
+        Job(final Runnable runnable, final T result) {
+            super(ThreadUtils.runnableWithContext(runnable, false), result);
+        }
+
+        WorkStealingThreadPool getPool() {
+            return WorkStealingThreadPool.this;
+        }
+
+        @Override
+        public void run() {
+            m_startWaiter.countDown();
+            final Thread thread = Thread.currentThread();
+            final ClassLoader previousContextClassloader = thread.getContextClassLoader();
+            final WorkStealingThreadPool previousPool = CURRENT_POOL.get();
+            thread.setContextClassLoader(m_contextClassloader);
+            CURRENT_POOL.set(WorkStealingThreadPool.this);
+            for (WorkStealingThreadPool p = WorkStealingThreadPool.this; p != null; p = p.m_parent) {
+                p.m_runningThreads.add(thread);
+            }
+            try {
+                super.run();
+            } finally {
+                for (WorkStealingThreadPool p = WorkStealingThreadPool.this; p != null; p = p.m_parent) {
+                    p.m_runningThreads.remove(thread);
+                }
+                CURRENT_POOL.set(previousPool);
+                thread.setContextClassLoader(previousContextClassloader);
+                // don't let an interrupt of this job leak into the next job run by the same worker
+                Thread.interrupted();
+            }
+            logException();
+        }
+
+        private void logException() {
+            try {
+                super.get();
+            } catch (InterruptedException ex) {
+                NodeLogger.getLogger(ThreadPool.class).debug("Thread was interrupted");
+            } catch (CancellationException ex) {
+                NodeLogger.getLogger(ThreadPool.class).debug("Future was canceled");
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof CanceledExecutionException)) {
+                    // canceled execution exception is fine and will not be reported
+                    NodeLogger.getLogger(ThreadPool.class).error("An exception occurred while executing a runnable.",
+                        ex.getCause());
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean b = super.cancel(mayInterruptIfRunning);
+            if (b) {
+                m_startWaiter.countDown();
+            }
+            return b;
+        }
+
+        void waitUntilStarted() throws InterruptedException {
+            m_startWaiter.await();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            final WorkStealingThreadPool current = CURRENT_POOL.get();
+            if (current == null) {
+                return super.get();
+            }
+            current.changeInvisibleThreads(1);
+            try {
+                m_shared.startQueuedJobs();
+                ForkJoinPool.managedBlock(new FutureBlocker(this));
+                return super.get();
+            } finally {
+                current.changeInvisibleThreads(-1);
+            }
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+            final WorkStealingThreadPool current = CURRENT_POOL.get();
+            if (current == null) {
+                return super.get(timeout, unit);
+            }
+            current.changeInvisibleThreads(1);
+            try {
+                m_shared.startQueuedJobs();
+                return super.get(timeout, unit);
+            } finally {
+                current.changeInvisibleThreads(-1);
+            }
+        }
+    }
+
+    /** Blocks (compensated by the fork join pool) until a future is done. */
+    private static final class FutureBlocker implements ManagedBlocker {
+        private final FutureTask<?> m_future;
+
+        FutureBlocker(final FutureTask<?> future) {
+            m_future = future;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            try {
+                m_future.get();
+            } catch (ExecutionException | CancellationException ex) { // NOPMD
+                // reported by the caller
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return m_future.isDone();
+        }
+    }
+
+    /** Runs a callable while the fork join pool may compensate the blocked worker. */
+    private static final class CallableBlocker<T> implements ManagedBlocker {
+        private final Callable<T> m_callable;
+
+        private T m_result;
+
+        private Exception m_exception;
+
+        private boolean m_done;
+
+        CallableBlocker(final Callable<T> callable) {
+            m_callable = callable;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                m_result = m_callable.call();
+            } catch (Exception ex) {
+                m_exception = ex;
+            }
+            m_done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return m_done;
+        }
+    }
+
+    private final WorkStealingThreadPool m_parent;
+
+    private final Shared m_shared;
+
+    private final AtomicInteger m_maxThreads = new AtomicInteger();
+
+    /** Number of jobs of this pool and its sub pools that have been handed to the fork join pool. */
+    private final AtomicInteger m_runningJobs = new AtomicInteger();
+
+    private final AtomicInteger m_invisibleThreads = new AtomicInteger();
+
+    private final AtomicInteger m_pendingJobs = new AtomicInteger();
+
+    private final Set<Thread> m_runningThreads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new pool with a maximum number of threads.
+     *
+     * @param maxThreads the maximum number of threads
+     */
+    public WorkStealingThreadPool(final int maxThreads) {
+        super(maxThreads);
+        m_maxThreads.set(maxThreads);
+        m_parent = null;
+        m_shared = new Shared();
+        m_shared.m_forkJoinPool = createForkJoinPool(maxThreads);
+    }
+
+    /**
+     * Creates a new sub pool.
+     *
+     * @param maxThreads the maximum number of threads in the pool
+     * @param parent the parent pool
+     */
+    protected WorkStealingThreadPool(final int maxThreads, final WorkStealingThreadPool parent) {
+        super(maxThreads);
+        m_maxThreads.set(maxThreads);
+        m_parent = parent;
+        m_shared = parent.m_shared;
+    }
+
+    private static ForkJoinPool createForkJoinPool(final int parallelism) {
+        // async mode: jobs are taken FIFO from the local deques, just as from the queue of a ThreadPool
+        return new ForkJoinPool(Math.max(1, parallelism), THREAD_FACTORY, null, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ThreadPool createSubPool() {
+        return new WorkStealingThreadPool(m_maxThreads.get(), this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ThreadPool createSubPool(final int maxThreads) {
+        return new WorkStealingThreadPool(maxThreads, this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> enqueue(final Callable<T> task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        final Job<T> job = new Job<T>(task);
+        enqueue(job);
+        return job;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<?> enqueue(final Runnable r) {
+        final Job<?> job = new Job<Object>(r, null);
+        enqueue(job);
+        return job;
+    }
+
+    private void enqueue(final Job<?> job) {
+        changePendingJobs(1);
+        if (tryAcquireThread() == null) {
+            fork(job);
+        } else {
+            m_shared.m_queuedJobs.add(job);
+            // a thread may have been released between the failed acquire and adding the job
+            m_shared.startQueuedJobs();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> trySubmit(final Callable<T> t) {
+        final Job<T> job = new Job<T>(t);
+        return trySubmit(job) ? job : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<?> trySubmit(final Runnable r) {
+        final Job<?> job = new Job<Object>(r, null);
+        return trySubmit(job) ? job : null;
+    }
+
+    private boolean trySubmit(final Job<?> job) {
+        changePendingJobs(1);
+        if (tryAcquireThread() == null) {
+            fork(job);
+            return true;
+        }
+        changePendingJobs(-1);
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> submit(final Callable<T> task) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        final Job<T> job = (Job<T>)enqueue(task);
+        job.waitUntilStarted();
+        return job;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<?> submit(final Runnable task) throws InterruptedException {
+        final Job<?> job = (Job<?>)enqueue(task);
+        job.waitUntilStarted();
+        return job;
+    }
+
+    /** Hands a job, for which threads have been acquired, to the fork join pool. */
+    private void fork(final Job<?> job) {
+        final ForkJoinPool forkJoinPool = m_shared.m_forkJoinPool;
+        final ForkJoinTask<?> task = ForkJoinTask.adapt(() -> {
+            try {
+                job.run();
+            } finally {
+                job.getPool().jobFinished();
+            }
+        });
+        if (ForkJoinTask.getPool() == forkJoinPool) {
+            // submitted from one of our workers: push to its local deque, other workers steal from there
+            task.fork();
+        } else {
+            forkJoinPool.execute(task);
+        }
+    }
+
+    private void jobFinished() {
+        releaseThread();
+        changePendingJobs(-1);
+        m_shared.startQueuedJobs();
+    }
+
+    /**
+     * Acquires one thread in this pool and all its ancestors.
+     *
+     * @return <code>null</code> if successful, otherwise the (first) pool that is at its limit
+     */
+    private WorkStealingThreadPool tryAcquireThread() {
+        for (WorkStealingThreadPool p = this; p != null; p = p.m_parent) {
+            if (!p.tryIncrementRunningJobs()) {
+                for (WorkStealingThreadPool q = this; q != p; q = q.m_parent) {
+                    q.m_runningJobs.decrementAndGet();
+                }
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private boolean tryIncrementRunningJobs() {
+        while (true) {
+            final int running = m_runningJobs.get();
+            if (running - m_invisibleThreads.get() >= m_maxThreads.get()) {
+                return false;
+            }
+            if (m_runningJobs.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseThread() {
+        for (WorkStealingThreadPool p = this; p != null; p = p.m_parent) {
+            p.m_runningJobs.decrementAndGet();
+        }
+    }
+
+    private void changeInvisibleThreads(final int delta) {
+        for (WorkStealingThreadPool p = this; p != null; p = p.m_parent) {
+            p.m_invisibleThreads.addAndGet(delta);
+        }
+    }
+
+    private void changePendingJobs(final int delta) {
+        for (WorkStealingThreadPool p = this; p != null; p = p.m_parent) {
+            if (p.m_pendingJobs.addAndGet(delta) == 0) {
+                synchronized (p.m_pendingJobs) {
+                    p.m_pendingJobs.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMaxThreads() {
+        return m_maxThreads.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRunningThreads() {
+        return m_runningJobs.get() - m_invisibleThreads.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T runInvisible(final Callable<T> r) throws ExecutionException {
+        final WorkStealingThreadPool current = CURRENT_POOL.get();
+        if (current == null) {
+            if (currentPool() == null) {
+                // not a pool thread at all (e.g. a virtual thread), nothing to account for
+                return callDirectly(r);
+            }
+            throw new IllegalThreadStateException("The current thread is not taken out of this thread pool");
+        }
+        current.changeInvisibleThreads(1);
+        try {
+            m_shared.startQueuedJobs();
+            final CallableBlocker<T> blocker = new CallableBlocker<>(r);
+            ForkJoinPool.managedBlock(blocker);
+            if (blocker.m_exception != null) {
+                throw new ExecutionException(blocker.m_exception);
+            }
+            return blocker.m_result;
+        } catch (InterruptedException ex) {
+            throw new ExecutionException(ex);
+        } finally {
+            current.changeInvisibleThreads(-1);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMaxThreads(final int newValue) {
+        if (newValue < 0) {
+            throw new IllegalArgumentException("Thread count must be >= 0");
+        }
+        m_maxThreads.set(newValue);
+        if (m_parent == null) {
+            final ForkJoinPool forkJoinPool = m_shared.m_forkJoinPool;
+            if (forkJoinPool.isShutdown() || forkJoinPool.getParallelism() < newValue) {
+                // running jobs finish in the old pool, new ones go to the new pool
+                m_shared.m_forkJoinPool = createForkJoinPool(newValue);
+                forkJoinPool.shutdown();
+            }
+        }
+        m_shared.startQueuedJobs();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void shutdown() {
+        for (Iterator<Job<?>> it = m_shared.m_queuedJobs.iterator(); it.hasNext();) {
+            final Job<?> job = it.next();
+            if (job.getPool() == this && m_shared.m_queuedJobs.remove(job)) {
+                changePendingJobs(-1);
+                job.cancel(true);
+            }
+        }
+        setMaxThreads(0);
+        if (m_parent == null) {
+            m_shared.m_forkJoinPool.shutdown();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void interruptAll() {
+        for (Thread t : m_runningThreads) {
+            t.interrupt();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void waitForTermination() throws InterruptedException {
+        final WorkStealingThreadPool current = CURRENT_POOL.get();
+        if (current != null) {
+            current.changeInvisibleThreads(1);
+        }
+        try {
+            m_shared.startQueuedJobs();
+            ForkJoinPool.managedBlock(new ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    synchronized (m_pendingJobs) {
+                        while (m_pendingJobs.get() != 0) {
+                            m_pendingJobs.wait();
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return m_pendingJobs.get() == 0;
+                }
+            });
+        } finally {
+            if (current != null) {
+                current.changeInvisibleThreads(-1);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int getQueueSize() {
+        return m_shared.m_queuedJobs.size();
+    }
+
+    /**
+     * Returns the pool whose job the current thread is running.
+     *
+     * @return a pool or <code>null</code> if the current thread does not run a job of a work stealing pool
+     */
+    static WorkStealingThreadPool currentWorkStealingPool() {
+        return CURRENT_POOL.get();
+    }
+}